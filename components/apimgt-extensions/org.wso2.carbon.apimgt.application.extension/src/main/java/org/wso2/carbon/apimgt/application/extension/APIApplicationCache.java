@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.application.extension;
+
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.APIInfo;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the results of the API store calls made while provisioning the keys of API applications, so that enrolling
+ * many devices does not call the store again for every device.
+ * <p>
+ * The APIs having a tag and the subscriptions of an application are kept for a short while only, so that APIs
+ * published later are still subscribed to. The id of an application is kept longer, and is dropped when the
+ * application is removed. The keys issued to an application are not cached, so that consumer secrets are only held
+ * by the store. As the cache is local to each node, an application id cached here may belong to an application which
+ * has been removed through another node, so that callers have to drop the id once the store does not find it.
+ * <p>
+ * Provisioning an application is serialized by a lock of the tenant and application name, so that the same
+ * application is not created or subscribed to twice, while applications of other tenants and users are provisioned
+ * concurrently. The locks are striped, so that they do not have to be removed once an application is provisioned.
+ */
+public class APIApplicationCache {
+
+    private static final long APIS_TTL = 60 * 1000L;
+    private static final long SUBSCRIPTIONS_TTL = 60 * 1000L;
+    private static final long APPLICATION_TTL = 15 * 60 * 1000L;
+    private static final int MAX_ENTRIES = 10000;
+    private static final int LOCK_STRIPES = 64;
+
+    private static final APIApplicationCache instance = new APIApplicationCache();
+
+    private final ConcurrentMap<String, Entry<List<APIInfo>>> apisOfTags = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Entry<Set<String>>> subscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Entry<String>> applications = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private APIApplicationCache() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public static APIApplicationCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param tenantDomain    tenant the application belongs to.
+     * @param applicationName name of the application.
+     * @return the lock serializing the provisioning of the application.
+     */
+    public Object getLock(String tenantDomain, String applicationName) {
+        int hash = (tenantDomain + ":" + applicationName).hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * @param tenantDomain tenant the APIs are looked up for.
+     * @param tag          tag of the APIs.
+     * @return the cached APIs having the tag, or null if they are not cached or have expired.
+     */
+    public List<APIInfo> getApis(String tenantDomain, String tag) {
+        return getValue(apisOfTags, tenantDomain + ":" + tag);
+    }
+
+    public void putApis(String tenantDomain, String tag, List<APIInfo> apis) {
+        putValue(apisOfTags, tenantDomain + ":" + tag, Collections.unmodifiableList(apis), APIS_TTL);
+    }
+
+    /**
+     * @param tenantDomain  tenant the application belongs to.
+     * @param applicationId id of the application.
+     * @return identifiers of the APIs the application is subscribed to, or null if they are not cached or have
+     * expired. The returned set is shared, and is updated as the application is subscribed to further APIs.
+     */
+    public Set<String> getSubscriptions(String tenantDomain, String applicationId) {
+        return getValue(subscriptions, tenantDomain + ":" + applicationId);
+    }
+
+    public Set<String> putSubscriptions(String tenantDomain, String applicationId, Collection<String> apiIdentifiers) {
+        Set<String> subscribedApis = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        subscribedApis.addAll(apiIdentifiers);
+        putValue(subscriptions, tenantDomain + ":" + applicationId, subscribedApis, SUBSCRIPTIONS_TTL);
+        return subscribedApis;
+    }
+
+    /**
+     * @param tenantDomain    tenant the application belongs to.
+     * @param username        user the application belongs to.
+     * @param applicationName name of the application.
+     * @return the cached id of the application, or null if it is not cached or has expired.
+     */
+    public String getApplicationId(String tenantDomain, String username, String applicationName) {
+        return getValue(applications, getApplicationKey(tenantDomain, username, applicationName));
+    }
+
+    public void putApplicationId(String tenantDomain, String username, String applicationName,
+                                 String applicationId) {
+        putValue(applications, getApplicationKey(tenantDomain, username, applicationName), applicationId,
+                 APPLICATION_TTL);
+    }
+
+    /**
+     * Drops the cached id and subscriptions of a removed application.
+     *
+     * @param tenantDomain    tenant the application belonged to.
+     * @param username        user the application belonged to.
+     * @param applicationName name of the application.
+     */
+    public void removeApplication(String tenantDomain, String username, String applicationName) {
+        Entry<String> entry = applications.remove(getApplicationKey(tenantDomain, username, applicationName));
+        if (entry != null) {
+            subscriptions.remove(tenantDomain + ":" + entry.value);
+        }
+    }
+
+    private static String getApplicationKey(String tenantDomain, String username, String applicationName) {
+        return tenantDomain + ":" + username + ":" + applicationName;
+    }
+
+    private static <T> T getValue(ConcurrentMap<String, Entry<T>> entries, String key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private static <T> void putValue(ConcurrentMap<String, Entry<T>> entries, String key, T value, long timeToLive) {
+        if (entries.size() > MAX_ENTRIES) {
+            entries.clear();
+        }
+        entries.put(key, new Entry<>(value, timeToLive));
+    }
+
+    private static class Entry<T> {
+
+        private final T value;
+        private final long expiryTime;
+
+        Entry(T value, long timeToLive) {
+            this.value = value;
+            this.expiryTime = System.currentTimeMillis() + timeToLive;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiryTime;
+        }
+    }
+
+}
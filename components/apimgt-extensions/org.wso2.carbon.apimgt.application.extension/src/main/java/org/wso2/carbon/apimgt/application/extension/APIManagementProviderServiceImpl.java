@@ -31,10 +31,12 @@ import org.wso2.carbon.apimgt.integration.generated.client.store.model.*;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class represents an implementation of APIManagementProviderService.
@@ -46,6 +48,8 @@ public class APIManagementProviderServiceImpl implements APIManagementProviderSe
     private static final int MAX_API_PER_TAG = 200;
     private static final String APP_TIER_TYPE = "application";
 
+    private final APIApplicationCache applicationCache = APIApplicationCache.getInstance();
+
     public boolean isTierLoaded() {
         StoreClient storeClient = APIApplicationManagerExtensionDataHolder.getInstance().getIntegrationClientService()
                 .getStoreClient();
@@ -67,12 +71,16 @@ public class APIManagementProviderServiceImpl implements APIManagementProviderSe
 
         StoreClient storeClient = APIApplicationManagerExtensionDataHolder.getInstance().getIntegrationClientService()
                 .getStoreClient();
-        ApplicationList applicationList = storeClient.getApplications()
-                .applicationsGet("", applicationName, 1, 0, CONTENT_TYPE, null);
-        if (applicationList.getList() != null && applicationList.getList().size() > 0) {
-            ApplicationInfo applicationInfo = applicationList.getList().get(0);
-            storeClient.getIndividualApplication().applicationsApplicationIdDelete(applicationInfo.getApplicationId(),
-                                                                                   null, null);
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        synchronized (applicationCache.getLock(tenantDomain, applicationName)) {
+            ApplicationList applicationList = storeClient.getApplications()
+                    .applicationsGet("", applicationName, 1, 0, CONTENT_TYPE, null);
+            if (applicationList.getList() != null && applicationList.getList().size() > 0) {
+                ApplicationInfo applicationInfo = applicationList.getList().get(0);
+                storeClient.getIndividualApplication().applicationsApplicationIdDelete(
+                        applicationInfo.getApplicationId(), null, null);
+            }
+            applicationCache.removeApplication(tenantDomain, username, applicationName);
         }
     }
 
@@ -80,7 +88,7 @@ public class APIManagementProviderServiceImpl implements APIManagementProviderSe
      * {@inheritDoc}
      */
     @Override
-    public synchronized ApiApplicationKey generateAndRetrieveApplicationKeys(String applicationName, String tags[],
+    public ApiApplicationKey generateAndRetrieveApplicationKeys(String applicationName, String tags[],
                                                                 String keyType, String username,
                                                                 boolean isAllowedAllDomains, String validityTime)
             throws APIManagerException {
@@ -89,114 +97,185 @@ public class APIManagementProviderServiceImpl implements APIManagementProviderSe
                         .getStoreClient();
         String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext()
                 .getTenantDomain();
-        try {
-            ApplicationList applicationList = storeClient.getApplications()
-                    .applicationsGet("", applicationName, 1, 0, CONTENT_TYPE, null);
-            Application application;
-            if (applicationList == null || applicationList.getList() == null || applicationList.getList().size() == 0) {
-                //create application;
-                application = new Application();
-                application.setName(applicationName);
-                application.setSubscriber(username);
-                application.setDescription("");
-                application.setThrottlingTier(ApiApplicationConstants.DEFAULT_TIER);
-                application.setGroupId("");
-                application = storeClient.getIndividualApplication().applicationsPost(application, CONTENT_TYPE);
-            } else {
-                ApplicationInfo applicationInfo = applicationList.getList().get(0);
-                application = storeClient.getIndividualApplication()
-                        .applicationsApplicationIdGet(applicationInfo.getApplicationId(), CONTENT_TYPE, null, null);
+        synchronized (applicationCache.getLock(tenantDomain, applicationName)) {
+            try {
+                Application application = null;
+                String applicationId = applicationCache.getApplicationId(tenantDomain, username, applicationName);
+                if (applicationId != null) {
+                    application = this.getApplication(storeClient, applicationId);
+                    if (application == null) {
+                        // The application has been removed, possibly through another node.
+                        applicationCache.removeApplication(tenantDomain, username, applicationName);
+                    }
+                }
+                if (application == null) {
+                    application = this.getOrCreateApplication(storeClient, applicationName, username);
+                    applicationCache.putApplicationId(tenantDomain, username, applicationName,
+                                                      application.getApplicationId());
+                }
+                this.subscribe(storeClient, tenantDomain, application.getApplicationId(), tags);
+
+                ApiApplicationKey apiApplicationKey = this.getOrGenerateKey(storeClient, application, keyType,
+                                                                            isAllowedAllDomains, validityTime);
+                if (apiApplicationKey == null) {
+                    throw new APIManagerException("Failed to generate keys for tenant: " + tenantDomain);
+                }
+                return apiApplicationKey;
+            } catch (FeignException e) {
+                throw new APIManagerException("Failed to create api application for tenant: " + tenantDomain, e);
             }
-            if (application == null) {
-                throw new APIManagerException(
-                        "Api application creation failed for " + applicationName + " to the user " + username);
+        }
+    }
+
+    /**
+     * @return the application having the given id, or null if the store does not have such an application.
+     */
+    private Application getApplication(StoreClient storeClient, String applicationId) {
+        try {
+            return storeClient.getIndividualApplication()
+                    .applicationsApplicationIdGet(applicationId, CONTENT_TYPE, null, null);
+        } catch (FeignException e) {
+            if (e.status() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
             }
+            throw e;
+        }
+    }
 
+    private Application getOrCreateApplication(StoreClient storeClient, String applicationName, String username)
+            throws APIManagerException {
+        ApplicationList applicationList = storeClient.getApplications()
+                .applicationsGet("", applicationName, 1, 0, CONTENT_TYPE, null);
+        Application application;
+        if (applicationList == null || applicationList.getList() == null || applicationList.getList().size() == 0) {
+            //create application;
+            application = new Application();
+            application.setName(applicationName);
+            application.setSubscriber(username);
+            application.setDescription("");
+            application.setThrottlingTier(ApiApplicationConstants.DEFAULT_TIER);
+            application.setGroupId("");
+            application = storeClient.getIndividualApplication().applicationsPost(application, CONTENT_TYPE);
+        } else {
+            ApplicationInfo applicationInfo = applicationList.getList().get(0);
+            application = storeClient.getIndividualApplication()
+                    .applicationsApplicationIdGet(applicationInfo.getApplicationId(), CONTENT_TYPE, null, null);
+        }
+        if (application == null) {
+            throw new APIManagerException(
+                    "Api application creation failed for " + applicationName + " to the user " + username);
+        }
+        return application;
+    }
+
+    /**
+     * Subscribes the application to the APIs having the given tags, which it is not subscribed to yet.
+     */
+    private void subscribe(StoreClient storeClient, String tenantDomain, String applicationId, String tags[]) {
+        if (tags == null || tags.length == 0) {
+            return;
+        }
+        Set<String> subscribedApis = applicationCache.getSubscriptions(tenantDomain, applicationId);
+        if (subscribedApis == null) {
             SubscriptionList subscriptionList = storeClient.getSubscriptions().subscriptionsGet
-                    (null, application.getApplicationId(), "", 0, 100, CONTENT_TYPE, null);
-            List<Subscription> needToSubscribe = new ArrayList<>();
-            // subscribe to apis.
-            if (tags != null && tags.length > 0) {
-                for (String tag : tags) {
-                    APIList apiList = storeClient.getApis().apisGet(MAX_API_PER_TAG, 0, tenantDomain, "tag:" + tag
-                            , CONTENT_TYPE, null);
-                    if (apiList.getList() == null || apiList.getList().size() == 0) {
-                        apiList = storeClient.getApis().apisGet(MAX_API_PER_TAG, 0
-                                , MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, "tag:" + tag, CONTENT_TYPE, null);
-                    }
+                    (null, applicationId, "", 0, 100, CONTENT_TYPE, null);
+            List<String> apiIdentifiers = new ArrayList<>();
+            if (subscriptionList.getList() != null) {
+                for (Subscription subs : subscriptionList.getList()) {
+                    apiIdentifiers.add(subs.getApiIdentifier());
+                }
+            }
+            subscribedApis = applicationCache.putSubscriptions(tenantDomain, applicationId, apiIdentifiers);
+        }
+        List<Subscription> needToSubscribe = new ArrayList<>();
+        for (String tag : tags) {
+            for (APIInfo apiInfo : this.getApis(storeClient, tenantDomain, tag)) {
+                String id = apiInfo.getProvider().replace("@", "-AT-")
+                        + "-" + apiInfo.getName() + "-" + apiInfo.getVersion();
+                id = id.replace(" ", "+");
+                if (!subscribedApis.contains(id)) {
+                    Subscription subscription = new Subscription();
+                    //fix for APIMANAGER-5566 admin-AT-tenant1.com-Tenant1API1-1.0.0
 
-                    if (apiList.getList() != null && apiList.getList().size() > 0) {
-                        for (APIInfo apiInfo : apiList.getList()) {
-                            String id = apiInfo.getProvider().replace("@", "-AT-")
-                                    + "-" + apiInfo.getName() + "-" + apiInfo.getVersion();
-                            id = id.replace(" ", "+");
-                            boolean subscriptionExist = false;
-                            if (subscriptionList.getList() != null && subscriptionList.getList().size() > 0) {
-                                for (Subscription subs : subscriptionList.getList()) {
-                                    if (subs.getApiIdentifier().equals(id)) {
-                                        subscriptionExist = true;
-                                        break;
-                                    }
-                                }
-                            }
-                            if (!subscriptionExist) {
-                                Subscription subscription = new Subscription();
-                                //fix for APIMANAGER-5566 admin-AT-tenant1.com-Tenant1API1-1.0.0
-
-                                subscription.setApiIdentifier(id);
-                                subscription.setApplicationId(application.getApplicationId());
-                                subscription.tier(ApiApplicationConstants.DEFAULT_TIER);
-                                if (!needToSubscribe.contains(subscription)) {
-                                    needToSubscribe.add(subscription);
-                                }
-                            }
-                        }
+                    subscription.setApiIdentifier(id);
+                    subscription.setApplicationId(applicationId);
+                    subscription.tier(ApiApplicationConstants.DEFAULT_TIER);
+                    if (!needToSubscribe.contains(subscription)) {
+                        needToSubscribe.add(subscription);
                     }
                 }
             }
-            if (!needToSubscribe.isEmpty()) {
-                storeClient.getSubscriptionMultitpleApi().subscriptionsMultiplePost(needToSubscribe, CONTENT_TYPE);
+        }
+        if (!needToSubscribe.isEmpty()) {
+            storeClient.getSubscriptionMultitpleApi().subscriptionsMultiplePost(needToSubscribe, CONTENT_TYPE);
+            for (Subscription subscription : needToSubscribe) {
+                subscribedApis.add(subscription.getApiIdentifier());
+            }
+        }
+    }
+
+    /**
+     * Returns the APIs of the tenant having the given tag, or the APIs of the super tenant if the tenant does not
+     * have any.
+     */
+    private List<APIInfo> getApis(StoreClient storeClient, String tenantDomain, String tag) {
+        List<APIInfo> apis = applicationCache.getApis(tenantDomain, tag);
+        if (apis == null) {
+            APIList apiList = storeClient.getApis().apisGet(MAX_API_PER_TAG, 0, tenantDomain, "tag:" + tag
+                    , CONTENT_TYPE, null);
+            if (apiList.getList() == null || apiList.getList().size() == 0) {
+                apiList = storeClient.getApis().apisGet(MAX_API_PER_TAG, 0
+                        , MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, "tag:" + tag, CONTENT_TYPE, null);
             }
-            //end of subscription
-
-            List<ApplicationKey> applicationKeys = application.getKeys();
-            if (applicationKeys != null) {
-                for (ApplicationKey applicationKey : applicationKeys) {
-                    if (keyType.equals(applicationKey.getKeyType().toString())) {
-                        if (applicationKey.getConsumerKey() != null && !applicationKey.getConsumerKey().isEmpty()) {
-                            ApiApplicationKey apiApplicationKey = new ApiApplicationKey();
-                            apiApplicationKey.setConsumerKey(applicationKey.getConsumerKey());
-                            apiApplicationKey.setConsumerSecret(applicationKey.getConsumerSecret());
-                            return apiApplicationKey;
-                        }
+            apis = apiList.getList() != null ? apiList.getList() : new ArrayList<APIInfo>();
+            applicationCache.putApis(tenantDomain, tag, apis);
+        }
+        return apis;
+    }
+
+    /**
+     * Returns the key of the given type issued to the application, generating one if the application does not have
+     * such a key yet.
+     *
+     * @return the key, or null if the key could not be generated.
+     */
+    private ApiApplicationKey getOrGenerateKey(StoreClient storeClient, Application application, String keyType,
+                                               boolean isAllowedAllDomains, String validityTime) {
+        List<ApplicationKey> applicationKeys = application.getKeys();
+        if (applicationKeys != null) {
+            for (ApplicationKey applicationKey : applicationKeys) {
+                if (keyType.equals(applicationKey.getKeyType().toString())) {
+                    if (applicationKey.getConsumerKey() != null && !applicationKey.getConsumerKey().isEmpty()) {
+                        ApiApplicationKey apiApplicationKey = new ApiApplicationKey();
+                        apiApplicationKey.setConsumerKey(applicationKey.getConsumerKey());
+                        apiApplicationKey.setConsumerSecret(applicationKey.getConsumerSecret());
+                        return apiApplicationKey;
                     }
                 }
             }
+        }
 
-            ApplicationKeyGenerateRequest applicationKeyGenerateRequest = new ApplicationKeyGenerateRequest();
-            List<String> allowedDomains = new ArrayList<>();
-            if (isAllowedAllDomains) {
-                allowedDomains.add(ApiApplicationConstants.ALLOWED_DOMAINS);
-            } else {
-                allowedDomains.add(APIManagerUtil.getTenantDomain());
-            }
-            applicationKeyGenerateRequest.setAccessAllowDomains(allowedDomains);
-            applicationKeyGenerateRequest.setCallbackUrl("");
-            applicationKeyGenerateRequest.setKeyType(ApplicationKeyGenerateRequest.KeyTypeEnum.PRODUCTION);
-            applicationKeyGenerateRequest.setValidityTime(validityTime);
-
-            ApplicationKey applicationKey = storeClient.getIndividualApplication().applicationsGenerateKeysPost(
-                    application.getApplicationId(), applicationKeyGenerateRequest, CONTENT_TYPE, null, null);
-            if (applicationKey.getConsumerKey() != null && !applicationKey.getConsumerKey().isEmpty()) {
-                ApiApplicationKey apiApplicationKey = new ApiApplicationKey();
-                apiApplicationKey.setConsumerKey(applicationKey.getConsumerKey());
-                apiApplicationKey.setConsumerSecret(applicationKey.getConsumerSecret());
-                return apiApplicationKey;
-            }
-            throw new APIManagerException("Failed to generate keys for tenant: " + tenantDomain);
-        } catch (FeignException e) {
-            throw new APIManagerException("Failed to create api application for tenant: " + tenantDomain, e);
+        ApplicationKeyGenerateRequest applicationKeyGenerateRequest = new ApplicationKeyGenerateRequest();
+        List<String> allowedDomains = new ArrayList<>();
+        if (isAllowedAllDomains) {
+            allowedDomains.add(ApiApplicationConstants.ALLOWED_DOMAINS);
+        } else {
+            allowedDomains.add(APIManagerUtil.getTenantDomain());
+        }
+        applicationKeyGenerateRequest.setAccessAllowDomains(allowedDomains);
+        applicationKeyGenerateRequest.setCallbackUrl("");
+        applicationKeyGenerateRequest.setKeyType(ApplicationKeyGenerateRequest.KeyTypeEnum.PRODUCTION);
+        applicationKeyGenerateRequest.setValidityTime(validityTime);
+
+        ApplicationKey applicationKey = storeClient.getIndividualApplication().applicationsGenerateKeysPost(
+                application.getApplicationId(), applicationKeyGenerateRequest, CONTENT_TYPE, null, null);
+        if (applicationKey.getConsumerKey() != null && !applicationKey.getConsumerKey().isEmpty()) {
+            ApiApplicationKey apiApplicationKey = new ApiApplicationKey();
+            apiApplicationKey.setConsumerKey(applicationKey.getConsumerKey());
+            apiApplicationKey.setConsumerSecret(applicationKey.getConsumerSecret());
+            return apiApplicationKey;
         }
+        return null;
     }
 
 }
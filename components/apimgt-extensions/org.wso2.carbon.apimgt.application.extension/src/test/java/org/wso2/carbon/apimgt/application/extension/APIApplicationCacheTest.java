@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.application.extension;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.APIInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This contains unit tests for caching the results of the API store calls made while provisioning API applications.
+ * Each test uses its own tenant, as the cache is shared.
+ */
+public class APIApplicationCacheTest {
+
+    private static final String USERNAME = "admin";
+    private static final String APPLICATION_NAME = "cache_test_application";
+
+    private final APIApplicationCache cache = APIApplicationCache.getInstance();
+
+    @Test(description = "Test caching the id of an application per tenant, user and application name.")
+    public void testApplicationId() {
+        String tenantDomain = "application-id.com";
+        Assert.assertNull(cache.getApplicationId(tenantDomain, USERNAME, APPLICATION_NAME));
+
+        cache.putApplicationId(tenantDomain, USERNAME, APPLICATION_NAME, "app-1");
+        Assert.assertEquals(cache.getApplicationId(tenantDomain, USERNAME, APPLICATION_NAME), "app-1");
+        Assert.assertNull(cache.getApplicationId(tenantDomain, "other", APPLICATION_NAME));
+        Assert.assertNull(cache.getApplicationId("other.com", USERNAME, APPLICATION_NAME));
+
+        cache.putApplicationId(tenantDomain, USERNAME, APPLICATION_NAME, "app-2");
+        Assert.assertEquals(cache.getApplicationId(tenantDomain, USERNAME, APPLICATION_NAME), "app-2");
+    }
+
+    @Test(description = "Test that the subscriptions of an application are shared and updated in the cache.")
+    public void testSubscriptions() {
+        String tenantDomain = "subscriptions.com";
+        Assert.assertNull(cache.getSubscriptions(tenantDomain, "app-1"));
+
+        Set<String> subscriptions = cache.putSubscriptions(tenantDomain, "app-1", Arrays.asList("api-1", "api-2"));
+        subscriptions.add("api-3");
+        Set<String> cachedSubscriptions = cache.getSubscriptions(tenantDomain, "app-1");
+        Assert.assertNotNull(cachedSubscriptions);
+        Assert.assertEquals(cachedSubscriptions.size(), 3);
+        Assert.assertTrue(cachedSubscriptions.contains("api-3"));
+        Assert.assertNull(cache.getSubscriptions("other.com", "app-1"));
+    }
+
+    @Test(description = "Test that removing an application drops its id and subscriptions.")
+    public void testRemoveApplication() {
+        String tenantDomain = "remove.com";
+        cache.putApplicationId(tenantDomain, USERNAME, APPLICATION_NAME, "app-1");
+        cache.putSubscriptions(tenantDomain, "app-1", Collections.singletonList("api-1"));
+        cache.putSubscriptions(tenantDomain, "app-2", Collections.singletonList("api-1"));
+
+        cache.removeApplication(tenantDomain, USERNAME, APPLICATION_NAME);
+        Assert.assertNull(cache.getApplicationId(tenantDomain, USERNAME, APPLICATION_NAME));
+        Assert.assertNull(cache.getSubscriptions(tenantDomain, "app-1"));
+        Assert.assertNotNull(cache.getSubscriptions(tenantDomain, "app-2"),
+                "Subscriptions of other applications should be kept.");
+        cache.removeApplication(tenantDomain, USERNAME, APPLICATION_NAME);
+    }
+
+    @Test(description = "Test caching the APIs of a tag per tenant.")
+    public void testApis() {
+        String tenantDomain = "apis.com";
+        Assert.assertNull(cache.getApis(tenantDomain, "device_management"));
+
+        List<APIInfo> apis = new ArrayList<>();
+        apis.add(new APIInfo());
+        cache.putApis(tenantDomain, "device_management", apis);
+        Assert.assertEquals(cache.getApis(tenantDomain, "device_management").size(), 1);
+        Assert.assertNull(cache.getApis(tenantDomain, "other"));
+        try {
+            cache.getApis(tenantDomain, "device_management").add(new APIInfo());
+            Assert.fail("Cached APIs should not be modifiable.");
+        } catch (UnsupportedOperationException e) {
+            // Expected, as the cached list is shared.
+        }
+    }
+
+    @Test(description = "Test that the provisioning of an application is always serialized by the same lock.")
+    public void testLock() {
+        Object lock = cache.getLock("lock.com", APPLICATION_NAME);
+        Assert.assertNotNull(lock);
+        Assert.assertSame(cache.getLock("lock.com", APPLICATION_NAME), lock);
+    }
+
+}
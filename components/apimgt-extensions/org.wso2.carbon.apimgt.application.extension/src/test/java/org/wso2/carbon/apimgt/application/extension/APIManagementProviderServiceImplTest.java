@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.application.extension;
+
+import feign.FeignException;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.apimgt.application.extension.dto.ApiApplicationKey;
+import org.wso2.carbon.apimgt.application.extension.internal.APIApplicationManagerExtensionDataHolder;
+import org.wso2.carbon.apimgt.integration.client.service.IntegrationClientService;
+import org.wso2.carbon.apimgt.integration.client.store.StoreClient;
+import org.wso2.carbon.apimgt.integration.generated.client.store.api.APICollectionApi;
+import org.wso2.carbon.apimgt.integration.generated.client.store.api.ApplicationCollectionApi;
+import org.wso2.carbon.apimgt.integration.generated.client.store.api.ApplicationIndividualApi;
+import org.wso2.carbon.apimgt.integration.generated.client.store.api.SubscriptionCollectionApi;
+import org.wso2.carbon.apimgt.integration.generated.client.store.api.SubscriptionMultitpleApi;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.APIInfo;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.APIList;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.Application;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.ApplicationInfo;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.ApplicationKey;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.ApplicationList;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.Subscription;
+import org.wso2.carbon.apimgt.integration.generated.client.store.model.SubscriptionList;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This contains unit tests for provisioning the keys of API applications against a mocked API store, checking which
+ * store calls are saved by {@link APIApplicationCache}.
+ */
+public class APIManagementProviderServiceImplTest {
+
+    private static final String TENANT_DOMAIN = "provider.com";
+    private static final String USERNAME = "admin";
+    private static final String KEY_TYPE = "PRODUCTION";
+    private static final String TAG = "device_management";
+
+    private IntegrationClientService originalIntegrationClientService;
+    private String originalTenantDomain;
+    private APIManagementProviderServiceImpl providerService;
+    private ApplicationCollectionApi applicationCollectionApi;
+    private ApplicationIndividualApi applicationIndividualApi;
+    private SubscriptionMultitpleApi subscriptionMultipleApi;
+    private String applicationName;
+    private int applicationCount;
+
+    @BeforeClass
+    public void init() {
+        originalIntegrationClientService = APIApplicationManagerExtensionDataHolder.getInstance()
+                .getIntegrationClientService();
+        originalTenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(TENANT_DOMAIN);
+    }
+
+    @AfterClass
+    public void cleanup() {
+        APIApplicationManagerExtensionDataHolder.getInstance()
+                .setIntegrationClientService(originalIntegrationClientService);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(originalTenantDomain);
+    }
+
+    @BeforeMethod
+    public void initStore() {
+        applicationCollectionApi = Mockito.mock(ApplicationCollectionApi.class);
+        applicationIndividualApi = Mockito.mock(ApplicationIndividualApi.class);
+        subscriptionMultipleApi = Mockito.mock(SubscriptionMultitpleApi.class);
+        SubscriptionCollectionApi subscriptionCollectionApi = Mockito.mock(SubscriptionCollectionApi.class);
+        Mockito.when(subscriptionCollectionApi.subscriptionsGet(Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.anyString(), Mockito.anyString()))
+                .thenReturn(new SubscriptionList());
+        APIInfo apiInfo = new APIInfo();
+        apiInfo.setProvider("admin");
+        apiInfo.setName("device_management_api");
+        apiInfo.setVersion("1.0.0");
+        APIList apiList = new APIList();
+        apiList.setList(Collections.singletonList(apiInfo));
+        APICollectionApi apiCollectionApi = Mockito.mock(APICollectionApi.class);
+        Mockito.when(apiCollectionApi.apisGet(Mockito.anyInt(), Mockito.anyInt(), Mockito.anyString(),
+                Mockito.anyString(), Mockito.anyString(), Mockito.anyString())).thenReturn(apiList);
+
+        StoreClient storeClient = Mockito.mock(StoreClient.class);
+        Mockito.when(storeClient.getApplications()).thenReturn(applicationCollectionApi);
+        Mockito.when(storeClient.getIndividualApplication()).thenReturn(applicationIndividualApi);
+        Mockito.when(storeClient.getSubscriptions()).thenReturn(subscriptionCollectionApi);
+        Mockito.when(storeClient.getSubscriptionMultitpleApi()).thenReturn(subscriptionMultipleApi);
+        Mockito.when(storeClient.getApis()).thenReturn(apiCollectionApi);
+        IntegrationClientService integrationClientService = Mockito.mock(IntegrationClientService.class);
+        Mockito.when(integrationClientService.getStoreClient()).thenReturn(storeClient);
+        APIApplicationManagerExtensionDataHolder.getInstance().setIntegrationClientService(integrationClientService);
+
+        // Each test provisions its own application, as the cache is shared.
+        applicationName = "provider_test_application_" + applicationCount++;
+        providerService = new APIManagementProviderServiceImpl();
+    }
+
+    @Test(description = "Test that the id of an application is looked up only once, while its keys are read from " +
+            "the store on every request.")
+    public void testGenerateKeysOfCachedApplication() throws Exception {
+        addApplication("app-1", "key-1", "secret-1");
+
+        ApiApplicationKey key = generateKeys(null);
+        Assert.assertEquals(key.getConsumerKey(), "key-1");
+        Assert.assertEquals(key.getConsumerSecret(), "secret-1");
+
+        // The secret is regenerated in the store, which has to be returned instead of a cached one.
+        mockApplication("app-1", "key-1", "secret-2");
+        key = generateKeys(null);
+        Assert.assertEquals(key.getConsumerKey(), "key-1");
+        Assert.assertEquals(key.getConsumerSecret(), "secret-2", "Consumer secret should not be cached.");
+
+        Mockito.verify(applicationCollectionApi, Mockito.times(1)).applicationsGet(Mockito.anyString(),
+                Mockito.eq(applicationName), Mockito.anyInt(), Mockito.anyInt(), Mockito.anyString(),
+                Mockito.anyString());
+        Mockito.verify(applicationIndividualApi, Mockito.times(2)).applicationsApplicationIdGet(Mockito.eq("app-1"),
+                Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test(description = "Test that an application removed through another node is looked up again.")
+    public void testGenerateKeysOfRemovedApplication() throws Exception {
+        addApplication("app-1", "key-1", "secret-1");
+        generateKeys(null);
+
+        // The application is removed and created again through another node, so this node still has the old id.
+        Mockito.when(applicationIndividualApi.applicationsApplicationIdGet(Mockito.eq("app-1"), Mockito.anyString(),
+                Mockito.anyString(), Mockito.anyString())).thenThrow(new NotFoundException());
+        addApplication("app-2", "key-2", "secret-2");
+
+        ApiApplicationKey key = generateKeys(null);
+        Assert.assertEquals(key.getConsumerKey(), "key-2");
+        Assert.assertEquals(APIApplicationCache.getInstance().getApplicationId(TENANT_DOMAIN, USERNAME,
+                applicationName), "app-2");
+    }
+
+    @Test(description = "Test that an application is subscribed to the APIs of a tag only once.")
+    public void testSubscribeOnce() throws Exception {
+        addApplication("app-1", "key-1", "secret-1");
+
+        generateKeys(new String[]{TAG});
+        generateKeys(new String[]{TAG});
+
+        Mockito.verify(subscriptionMultipleApi, Mockito.times(1))
+                .subscriptionsMultiplePost(Mockito.anyListOf(Subscription.class), Mockito.anyString());
+    }
+
+    @Test(description = "Test that removing an application drops its cached id.")
+    public void testRemoveApplication() throws Exception {
+        addApplication("app-1", "key-1", "secret-1");
+        generateKeys(null);
+
+        providerService.removeAPIApplication(applicationName, USERNAME);
+
+        Mockito.verify(applicationIndividualApi).applicationsApplicationIdDelete(Mockito.eq("app-1"),
+                Mockito.anyString(), Mockito.anyString());
+        Assert.assertNull(APIApplicationCache.getInstance().getApplicationId(TENANT_DOMAIN, USERNAME,
+                applicationName));
+    }
+
+    private ApiApplicationKey generateKeys(String[] tags) throws Exception {
+        return providerService.generateAndRetrieveApplicationKeys(applicationName, tags, KEY_TYPE, USERNAME, false,
+                "3600");
+    }
+
+    /**
+     * Makes the store find the application by its name.
+     */
+    private void addApplication(String applicationId, String consumerKey, String consumerSecret) {
+        ApplicationInfo applicationInfo = new ApplicationInfo();
+        applicationInfo.setApplicationId(applicationId);
+        applicationInfo.setName(applicationName);
+        ApplicationList applicationList = new ApplicationList();
+        applicationList.setList(Collections.singletonList(applicationInfo));
+        Mockito.when(applicationCollectionApi.applicationsGet(Mockito.anyString(), Mockito.eq(applicationName),
+                Mockito.anyInt(), Mockito.anyInt(), Mockito.anyString(), Mockito.anyString()))
+                .thenReturn(applicationList);
+        mockApplication(applicationId, consumerKey, consumerSecret);
+    }
+
+    private void mockApplication(String applicationId, String consumerKey, String consumerSecret) {
+        ApplicationKey applicationKey = new ApplicationKey();
+        applicationKey.setKeyType(ApplicationKey.KeyTypeEnum.PRODUCTION);
+        applicationKey.setConsumerKey(consumerKey);
+        applicationKey.setConsumerSecret(consumerSecret);
+        List<ApplicationKey> keys = new ArrayList<>();
+        keys.add(applicationKey);
+        Application application = new Application();
+        application.setApplicationId(applicationId);
+        application.setName(applicationName);
+        application.setKeys(keys);
+        Mockito.when(applicationIndividualApi.applicationsApplicationIdGet(Mockito.eq(applicationId),
+                Mockito.anyString(), Mockito.anyString(), Mockito.anyString())).thenReturn(application);
+    }
+
+    /**
+     * Error returned by the store for an application which does not exist.
+     */
+    private static class NotFoundException extends FeignException {
+
+        NotFoundException() {
+            super(HttpURLConnection.HTTP_NOT_FOUND, "Application not found");
+        }
+    }
+
+}
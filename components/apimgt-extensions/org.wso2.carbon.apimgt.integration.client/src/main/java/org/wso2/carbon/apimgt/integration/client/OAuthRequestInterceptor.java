@@ -15,7 +15,6 @@
 package org.wso2.carbon.apimgt.integration.client;
 
 import feign.Feign;
-import feign.Logger;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import feign.auth.BasicAuthRequestInterceptor;
@@ -39,9 +38,12 @@ import org.wso2.carbon.identity.jwt.client.extension.JWTClient;
 import org.wso2.carbon.identity.jwt.client.extension.dto.AccessTokenInfo;
 import org.wso2.carbon.identity.jwt.client.extension.exception.JWTClientException;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * This is a request interceptor to add oauth token header.
@@ -55,19 +57,34 @@ public class OAuthRequestInterceptor implements RequestInterceptor {
                     "apim:subscription_view apim:subscription_block";
     private static final String APIM_SUBSCRIBE_SCOPE = "apim:subscribe";
     private static final long DEFAULT_REFRESH_TIME_OFFSET_IN_MILLIS = 100000;
+    private static final long PROACTIVE_REFRESH_TIME_OFFSET_IN_MILLIS = 300000;
     private DCRClient dcrClient;
-    private static OAuthApplication oAuthApplication;
+    private static volatile OAuthApplication oAuthApplication;
     private static Map<String, AccessTokenInfo> tenantUserTokenMap = new ConcurrentHashMap<>();
+    private static final int TOKEN_LOCK_COUNT = 64;
+    /**
+     * Token requests are serialized per user through a fixed set of locks, a user being mapped to a lock by the hash
+     * of the username, so that the locks do not grow with the number of users.
+     */
+    private static final Object[] tokenLocks = new Object[TOKEN_LOCK_COUNT];
+    private static final Set<String> refreshingUsers =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
     private static final Log log = LogFactory.getLog(OAuthRequestInterceptor.class);
 
+    static {
+        for (int i = 0; i < TOKEN_LOCK_COUNT; i++) {
+            tokenLocks[i] = new Object();
+        }
+    }
+
     /**
      * Creates an interceptor that authenticates all requests.
      */
     public OAuthRequestInterceptor() {
         String username = APIMConfigReader.getInstance().getConfig().getUsername();
         String password = APIMConfigReader.getInstance().getConfig().getPassword();
-        dcrClient = Feign.builder().client(new OkHttpClient(Utils.getSSLClient())).logger(new Slf4jLogger())
-                .logLevel(Logger.Level.FULL).requestInterceptor(new BasicAuthRequestInterceptor(username,
+        dcrClient = Feign.builder().client(new OkHttpClient(Utils.getSharedSSLClient())).logger(new Slf4jLogger())
+                .logLevel(Utils.getClientLogLevel()).requestInterceptor(new BasicAuthRequestInterceptor(username,
                         password))
                 .contract(new JAXRSContract()).encoder(new GsonEncoder()).decoder(new GsonDecoder())
                 .target(DCRClient.class, Utils.replaceProperties(
@@ -76,42 +93,19 @@ public class OAuthRequestInterceptor implements RequestInterceptor {
 
     @Override
     public void apply(RequestTemplate template) {
-        if (oAuthApplication == null) {
-            //had to do on demand initialization due to start up error.
-            ClientProfile clientProfile = new ClientProfile();
-            clientProfile.setClientName(APPLICATION_NAME);
-            clientProfile.setCallbackUrl("");
-            clientProfile.setGrantType(GRANT_TYPES);
-            clientProfile.setOwner(APIMConfigReader.getInstance().getConfig().getUsername());
-            clientProfile.setSaasApp(true);
-            oAuthApplication = dcrClient.register(clientProfile);
-        }
+        OAuthApplication application = this.getOAuthApplication();
         try {
             String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
-            String username = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
+            String tenantUsername = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
+            String username = tenantUsername;
             if (!tenantDomain.equals(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME)) {
                 username = username + "@" + tenantDomain;
             }
             AccessTokenInfo tenantBasedAccessTokenInfo = tenantUserTokenMap.get(username);
-            if ((tenantBasedAccessTokenInfo == null ||
-                    ((System.currentTimeMillis() + DEFAULT_REFRESH_TIME_OFFSET_IN_MILLIS) >
-                            tenantBasedAccessTokenInfo.getExpiresIn()))) {
-
-                JWTClient jwtClient = APIIntegrationClientDataHolder.getInstance().getJwtClientManagerService()
-                        .getJWTClient();
-                tenantBasedAccessTokenInfo = jwtClient.getAccessToken(oAuthApplication.getClientId(),
-                        oAuthApplication.getClientSecret(), username,
-                        REQUIRED_SCOPE);
-                tenantBasedAccessTokenInfo.setExpiresIn(
-                        System.currentTimeMillis() + (tenantBasedAccessTokenInfo.getExpiresIn() * 1000));
-                if (tenantBasedAccessTokenInfo.getScopes() == null) {
-                    throw new APIMClientOAuthException("Failed to retrieve scopes from access token");
-                }
-
-                if (tenantBasedAccessTokenInfo.getScopes().contains(APIM_SUBSCRIBE_SCOPE)) {
-                    tenantUserTokenMap.put(username, tenantBasedAccessTokenInfo);
-                }
-
+            if (isExpiring(tenantBasedAccessTokenInfo, DEFAULT_REFRESH_TIME_OFFSET_IN_MILLIS)) {
+                tenantBasedAccessTokenInfo = this.getAccessToken(application, username);
+            } else if (isExpiring(tenantBasedAccessTokenInfo, PROACTIVE_REFRESH_TIME_OFFSET_IN_MILLIS)) {
+                this.scheduleRefresh(application, tenantDomain, tenantUsername, username);
             }
             if (tenantBasedAccessTokenInfo.getAccessToken() != null) {
                 String headerValue = "Bearer " + tenantBasedAccessTokenInfo.getAccessToken();
@@ -129,4 +123,103 @@ public class OAuthRequestInterceptor implements RequestInterceptor {
         tenantUserTokenMap.remove(username);
     }
 
+    private OAuthApplication getOAuthApplication() {
+        if (oAuthApplication == null) {
+            //had to do on demand initialization due to start up error.
+            synchronized (OAuthRequestInterceptor.class) {
+                if (oAuthApplication == null) {
+                    ClientProfile clientProfile = new ClientProfile();
+                    clientProfile.setClientName(APPLICATION_NAME);
+                    clientProfile.setCallbackUrl("");
+                    clientProfile.setGrantType(GRANT_TYPES);
+                    clientProfile.setOwner(APIMConfigReader.getInstance().getConfig().getUsername());
+                    clientProfile.setSaasApp(true);
+                    oAuthApplication = dcrClient.register(clientProfile);
+                }
+            }
+        }
+        return oAuthApplication;
+    }
+
+    /**
+     * Returns the token of the given user, requesting a new one if the cached token is about to expire. Concurrent
+     * requests of the same user wait for a single token request, instead of requesting a token each.
+     */
+    private AccessTokenInfo getAccessToken(OAuthApplication application, String username) throws JWTClientException {
+        synchronized (getTokenLock(username)) {
+            AccessTokenInfo tenantBasedAccessTokenInfo = tenantUserTokenMap.get(username);
+            if (!isExpiring(tenantBasedAccessTokenInfo, DEFAULT_REFRESH_TIME_OFFSET_IN_MILLIS)) {
+                return tenantBasedAccessTokenInfo;
+            }
+            return this.requestAccessToken(application, username);
+        }
+    }
+
+    /**
+     * Refreshes the token of the given user in the background, so that requests do not wait for the token once it
+     * is about to expire. A user has at most one refresh scheduled at a time. The token is not refreshed in the
+     * background while the component is not active, in which case it is requested once it expires.
+     */
+    private void scheduleRefresh(final OAuthApplication application, final String tenantDomain,
+                                 final String tenantUsername, final String username) {
+        ExecutorService tokenRefresher = APIIntegrationClientDataHolder.getInstance().getTokenRefresher();
+        if (tokenRefresher == null || !refreshingUsers.add(username)) {
+            return;
+        }
+        try {
+            tokenRefresher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    PrivilegedCarbonContext.startTenantFlow();
+                    try {
+                        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+                        PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername(tenantUsername);
+                        synchronized (getTokenLock(username)) {
+                            AccessTokenInfo tenantBasedAccessTokenInfo = tenantUserTokenMap.get(username);
+                            if (isExpiring(tenantBasedAccessTokenInfo, PROACTIVE_REFRESH_TIME_OFFSET_IN_MILLIS)) {
+                                requestAccessToken(application, username);
+                            }
+                        }
+                    } catch (JWTClientException | APIMClientOAuthException e) {
+                        log.warn("Failed to refresh the oauth token of " + username + " in the background. The " +
+                                "token will be requested again once it expires.", e);
+                    } finally {
+                        PrivilegedCarbonContext.endTenantFlow();
+                        refreshingUsers.remove(username);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingUsers.remove(username);
+        }
+    }
+
+    private AccessTokenInfo requestAccessToken(OAuthApplication application, String username)
+            throws JWTClientException {
+        JWTClient jwtClient = APIIntegrationClientDataHolder.getInstance().getJwtClientManagerService()
+                .getJWTClient();
+        AccessTokenInfo tenantBasedAccessTokenInfo = jwtClient.getAccessToken(application.getClientId(),
+                application.getClientSecret(), username,
+                REQUIRED_SCOPE);
+        tenantBasedAccessTokenInfo.setExpiresIn(
+                System.currentTimeMillis() + (tenantBasedAccessTokenInfo.getExpiresIn() * 1000));
+        if (tenantBasedAccessTokenInfo.getScopes() == null) {
+            throw new APIMClientOAuthException("Failed to retrieve scopes from access token");
+        }
+
+        if (tenantBasedAccessTokenInfo.getScopes().contains(APIM_SUBSCRIBE_SCOPE)) {
+            tenantUserTokenMap.put(username, tenantBasedAccessTokenInfo);
+        }
+        return tenantBasedAccessTokenInfo;
+    }
+
+    private static Object getTokenLock(String username) {
+        return tokenLocks[(username.hashCode() & Integer.MAX_VALUE) % TOKEN_LOCK_COUNT];
+    }
+
+    private static boolean isExpiring(AccessTokenInfo accessTokenInfo, long timeOffsetInMillis) {
+        return accessTokenInfo == null ||
+                (System.currentTimeMillis() + timeOffsetInMillis) > accessTokenInfo.getExpiresIn();
+    }
+
 }
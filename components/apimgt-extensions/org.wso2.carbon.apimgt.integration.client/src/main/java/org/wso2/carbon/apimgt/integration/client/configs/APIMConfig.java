@@ -33,6 +33,7 @@ public class APIMConfig {
     String storeEndpoint;
     String username;
     String password;
+    String logLevel;
 
     @XmlElement(name = "DCREndpoint", required = true)
     public String getDcrEndpoint() {
@@ -87,4 +88,13 @@ public class APIMConfig {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    @XmlElement(name = "LogLevel")
+    public String getLogLevel() {
+        return logLevel;
+    }
+
+    public void setLogLevel(String logLevel) {
+        this.logLevel = logLevel;
+    }
 }
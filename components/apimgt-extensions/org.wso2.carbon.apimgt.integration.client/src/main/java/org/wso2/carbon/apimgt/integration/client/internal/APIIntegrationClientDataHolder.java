@@ -21,12 +21,15 @@ package org.wso2.carbon.apimgt.integration.client.internal;
 
 import org.wso2.carbon.identity.jwt.client.extension.service.JWTClientManagerService;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * This holds the required service for this component
  */
 public class APIIntegrationClientDataHolder {
 	private static APIIntegrationClientDataHolder thisInstance = new APIIntegrationClientDataHolder();
     private JWTClientManagerService jwtClientManagerService;
+    private ExecutorService tokenRefresher;
 	private APIIntegrationClientDataHolder() {
 	}
 
@@ -42,4 +45,12 @@ public class APIIntegrationClientDataHolder {
 	public JWTClientManagerService getJwtClientManagerService() {
 		return jwtClientManagerService;
 	}
+
+	public void setTokenRefresher(ExecutorService tokenRefresher) {
+		this.tokenRefresher = tokenRefresher;
+	}
+
+	public ExecutorService getTokenRefresher() {
+		return tokenRefresher;
+	}
 }
@@ -27,6 +27,10 @@ import org.wso2.carbon.apimgt.integration.client.configs.APIMConfigReader;
 import org.wso2.carbon.apimgt.integration.client.service.IntegrationClientService;
 import org.wso2.carbon.identity.jwt.client.extension.service.JWTClientManagerService;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 /**
  * @scr.component name="org.wso2.carbon.api.integration.client" immediate="true"
  * @scr.reference name="api.integration.client.service"
@@ -48,6 +52,15 @@ public class APIIntegrationClientServiceComponent {
 
             /* Initializing webapp publisher configuration */
             APIMConfigReader.init();
+            APIIntegrationClientDataHolder.getInstance().setTokenRefresher(
+                    Executors.newSingleThreadExecutor(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "apim-integration-token-refresher");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    }));
             BundleContext bundleContext = componentContext.getBundleContext();
             bundleContext.registerService(IntegrationClientService.class.getName(), IntegrationClientServiceImpl.getInstance(), null);
 
@@ -60,7 +73,11 @@ public class APIIntegrationClientServiceComponent {
     }
 
     protected void deactivate(ComponentContext componentContext) {
-        //do nothing
+        ExecutorService tokenRefresher = APIIntegrationClientDataHolder.getInstance().getTokenRefresher();
+        APIIntegrationClientDataHolder.getInstance().setTokenRefresher(null);
+        if (tokenRefresher != null) {
+            tokenRefresher.shutdownNow();
+        }
     }
 
     protected void setJWTClientManagerService(JWTClientManagerService jwtClientManagerService) {
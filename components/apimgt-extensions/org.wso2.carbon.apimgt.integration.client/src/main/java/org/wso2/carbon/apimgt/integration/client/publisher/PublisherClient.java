@@ -18,7 +18,6 @@
 package org.wso2.carbon.apimgt.integration.client.publisher;
 
 import feign.Feign;
-import feign.Logger;
 import feign.RequestInterceptor;
 import feign.gson.GsonDecoder;
 import feign.gson.GsonEncoder;
@@ -51,9 +50,9 @@ public class PublisherClient {
      */
     public PublisherClient(RequestInterceptor requestInterceptor) {
         Feign.Builder builder = Feign.builder().client(new OkHttpClient(
-                org.wso2.carbon.apimgt.integration.client.util.Utils.getSSLClient())).logger(new
+                org.wso2.carbon.apimgt.integration.client.util.Utils.getSharedSSLClient())).logger(new
                 Slf4jLogger())
-                .logLevel(Logger.Level.FULL)
+                .logLevel(org.wso2.carbon.apimgt.integration.client.util.Utils.getClientLogLevel())
                 .requestInterceptor(requestInterceptor).encoder(new GsonEncoder()).decoder(new GsonDecoder());
         String basePath = Utils.replaceSystemProperty(APIMConfigReader.getInstance().getConfig().getPublisherEndpoint());
 
@@ -18,7 +18,6 @@
 package org.wso2.carbon.apimgt.integration.client.store;
 
 import feign.Feign;
-import feign.Logger;
 import feign.Request;
 import feign.RequestInterceptor;
 import feign.Retryer;
@@ -54,9 +53,9 @@ public class StoreClient {
     public StoreClient(RequestInterceptor requestInterceptor) {
 
         Feign.Builder builder = Feign.builder().client(new OkHttpClient(
-                org.wso2.carbon.apimgt.integration.client.util.Utils.getSSLClient())).logger(new
+                org.wso2.carbon.apimgt.integration.client.util.Utils.getSharedSSLClient())).logger(new
                 Slf4jLogger())
-                .logLevel(Logger.Level.FULL)
+                .logLevel(org.wso2.carbon.apimgt.integration.client.util.Utils.getClientLogLevel())
                 .requestInterceptor(requestInterceptor).encoder(new GsonEncoder()).decoder(new GsonDecoder());
         String basePath = Utils.replaceSystemProperty(APIMConfigReader.getInstance().getConfig().getStoreEndpoint());
 
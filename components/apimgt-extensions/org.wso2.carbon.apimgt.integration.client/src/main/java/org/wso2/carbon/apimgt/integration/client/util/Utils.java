@@ -18,10 +18,13 @@
 
 package org.wso2.carbon.apimgt.integration.client.util;
 
+import feign.Logger;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.integration.client.configs.APIMConfigReader;
 import org.wso2.carbon.base.ServerConfiguration;
 
 import javax.net.ssl.HostnameVerifier;
@@ -48,6 +51,8 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -75,6 +80,12 @@ public class Utils {
 
     private static final String DEFAULT_HOST_IP = "127.0.0.1";
 
+    private static final int MAX_IDLE_CONNECTIONS = 20;
+
+    private static final long KEEP_ALIVE_DURATION_IN_MINUTES = 5;
+
+    private static volatile OkHttpClient sharedSSLClient;
+
 
     //This method is only used if the mb features are within DAS.
     public static String replaceProperties(String text) {
@@ -156,6 +167,41 @@ public class Utils {
         }
     }
 
+    /**
+     * Returns the SSL client shared by the API manager clients, so that their connections are pooled and kept alive
+     * across requests.
+     */
+    public static OkHttpClient getSharedSSLClient() {
+        if (sharedSSLClient == null) {
+            synchronized (Utils.class) {
+                if (sharedSSLClient == null) {
+                    sharedSSLClient = getSSLClient().newBuilder()
+                            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_IN_MINUTES,
+                                    TimeUnit.MINUTES)).build();
+                }
+            }
+        }
+        return sharedSSLClient;
+    }
+
+    /**
+     * Returns the level the API manager clients log their requests at, as configured in apim-integration.xml. Nothing
+     * is logged if the level is not configured.
+     */
+    public static Logger.Level getClientLogLevel() {
+        String logLevel = APIMConfigReader.getInstance().getConfig().getLogLevel();
+        if (StringUtils.isEmpty(logLevel)) {
+            return Logger.Level.NONE;
+        }
+        try {
+            return Logger.Level.valueOf(logLevel.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid log level '" + logLevel + "' is configured for the API manager clients, hence " +
+                    "requests are not logged.");
+            return Logger.Level.NONE;
+        }
+    }
+
     private static SSLSocketFactory getSimpleTrustedSSLSocketFactory() {
         try {
             TrustManager[] trustAllCerts = new TrustManager[]{
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.integration.client;
+
+import feign.RequestTemplate;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.apimgt.integration.client.internal.APIIntegrationClientDataHolder;
+import org.wso2.carbon.apimgt.integration.client.model.OAuthApplication;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.jwt.client.extension.JWTClient;
+import org.wso2.carbon.identity.jwt.client.extension.dto.AccessTokenInfo;
+import org.wso2.carbon.identity.jwt.client.extension.service.JWTClientManagerService;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This contains unit tests for requesting and refreshing the oauth tokens added to the requests of the integration
+ * clients. Tokens are issued by a stub JWT client.
+ */
+public class OAuthRequestInterceptorTest {
+
+    private static final String USERNAME = "token-user";
+    private static final int CALLER_COUNT = 10;
+    private static final long WAIT_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    private OAuthRequestInterceptor interceptor;
+    private JWTClient jwtClient;
+    private ExecutorService tokenRefresher;
+    private final AtomicInteger issuedTokens = new AtomicInteger();
+
+    @BeforeMethod
+    public void init() throws Exception {
+        OAuthApplication application = new OAuthApplication();
+        application.setClientId("client-id");
+        application.setClientSecret("client-secret");
+        Field applicationField = OAuthRequestInterceptor.class.getDeclaredField("oAuthApplication");
+        applicationField.setAccessible(true);
+        applicationField.set(null, application);
+
+        jwtClient = Mockito.mock(JWTClient.class);
+        JWTClientManagerService jwtClientManagerService = Mockito.mock(JWTClientManagerService.class);
+        Mockito.when(jwtClientManagerService.getJWTClient()).thenReturn(jwtClient);
+        APIIntegrationClientDataHolder.getInstance().setJwtClientManagerService(jwtClientManagerService);
+        tokenRefresher = Executors.newSingleThreadExecutor();
+        APIIntegrationClientDataHolder.getInstance().setTokenRefresher(tokenRefresher);
+
+        // The constructor registers the oauth application, hence it is skipped.
+        interceptor = Mockito.mock(OAuthRequestInterceptor.class, Mockito.CALLS_REAL_METHODS);
+        interceptor.removeToken(USERNAME, MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        issuedTokens.set(0);
+        startTenantFlow();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        PrivilegedCarbonContext.endTenantFlow();
+        interceptor.removeToken(USERNAME, MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        APIIntegrationClientDataHolder.getInstance().setTokenRefresher(null);
+        APIIntegrationClientDataHolder.getInstance().setJwtClientManagerService(null);
+        tokenRefresher.shutdownNow();
+    }
+
+    @Test(description = "Test that concurrent requests of a user without a token request a single token.")
+    public void testConcurrentTokenRequests() throws Exception {
+        issueTokens(3600, 200);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<String> headers = Collections.synchronizedList(new ArrayList<String>());
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < CALLER_COUNT; i++) {
+            Thread caller = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    startTenantFlow();
+                    try {
+                        start.await();
+                        headers.add(getAuthorizationHeader());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        PrivilegedCarbonContext.endTenantFlow();
+                    }
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+        start.countDown();
+        for (Thread caller : callers) {
+            caller.join(WAIT_TIMEOUT);
+        }
+
+        Assert.assertEquals(headers.size(), CALLER_COUNT, "Not all the requests were authenticated.");
+        for (String header : headers) {
+            Assert.assertEquals(header, "Bearer token-1");
+        }
+        Mockito.verify(jwtClient, Mockito.times(1)).getAccessToken(Mockito.anyString(), Mockito.anyString(),
+                Mockito.eq(USERNAME), Mockito.anyString());
+    }
+
+    @Test(description = "Test that a token about to expire is refreshed in the background, while the requests keep "
+            + "using the current token.")
+    public void testBackgroundTokenRefresh() throws Exception {
+        // Expires within the proactive refresh offset, but not within the offset the requests wait for a token.
+        issueTokens(200, 0);
+        Assert.assertEquals(getAuthorizationHeader(), "Bearer token-1");
+
+        issueTokens(3600, 0);
+        Assert.assertEquals(getAuthorizationHeader(), "Bearer token-1",
+                "Request waited for the token to be refreshed.");
+        tokenRefresher.shutdown();
+        Assert.assertTrue(tokenRefresher.awaitTermination(WAIT_TIMEOUT, TimeUnit.MILLISECONDS),
+                "Token was not refreshed in time.");
+
+        Assert.assertEquals(getAuthorizationHeader(), "Bearer token-2", "Token is not refreshed in the background.");
+        Mockito.verify(jwtClient, Mockito.times(2)).getAccessToken(Mockito.anyString(), Mockito.anyString(),
+                Mockito.eq(USERNAME), Mockito.anyString());
+    }
+
+    /**
+     * Makes the JWT client issue tokens valid for the given time, each numbered in the order they are issued.
+     */
+    private void issueTokens(final long expiresInSeconds, final long issueTimeInMillis) throws Exception {
+        Mockito.doAnswer(new Answer<AccessTokenInfo>() {
+            @Override
+            public AccessTokenInfo answer(InvocationOnMock invocation) throws InterruptedException {
+                Thread.sleep(issueTimeInMillis);
+                AccessTokenInfo accessTokenInfo = new AccessTokenInfo();
+                accessTokenInfo.setAccessToken("token-" + issuedTokens.incrementAndGet());
+                accessTokenInfo.setExpiresIn(expiresInSeconds);
+                accessTokenInfo.setScopes("apim:api_view apim:subscribe");
+                return accessTokenInfo;
+            }
+        }).when(jwtClient).getAccessToken(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyString());
+    }
+
+    private String getAuthorizationHeader() {
+        RequestTemplate template = new RequestTemplate();
+        interceptor.apply(template);
+        return template.headers().get("Authorization").iterator().next();
+    }
+
+    private static void startTenantFlow() {
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                .setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername(USERNAME);
+    }
+
+}
@@ -26,6 +26,8 @@ import org.wso2.carbon.apimgt.webapp.publisher.exception.APIManagerPublisherExce
 import org.wso2.carbon.apimgt.webapp.publisher.internal.APIPublisherDataHolder;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
+
+import javax.cache.Caching;
 import java.util.*;
 
 /**
@@ -39,6 +41,9 @@ public class APIPublisherServiceImpl implements APIPublisherService {
     private static final String PUBLISHED_STATUS = "PUBLISHED";
     private static final String CREATED_STATUS = "CREATED";
     private static final String PUBLISH_ACTION = "Publish";
+    // Permission bindings of scopes cached by the scope validators of the OAuth extensions.
+    private static final String SCOPE_VALIDATION_CACHE_MANAGER = "scopeValidationCacheManager";
+    private static final String SCOPE_BINDING_CACHE = "scopeBindingCache";
 
     @Override
     public void publishAPI(APIConfig apiConfig) throws APIManagerPublisherException {
@@ -71,6 +76,9 @@ public class APIPublisherServiceImpl implements APIPublisherService {
                     }
                 }
             }
+            // The scopes of the API may be bound to different permissions now.
+            Caching.getCacheManagerFactory().getCacheManager(SCOPE_VALIDATION_CACHE_MANAGER)
+                    .getCache(SCOPE_BINDING_CACHE).removeAll();
         } catch (FeignException e) {
             throw new APIManagerPublisherException(e);
         } finally {
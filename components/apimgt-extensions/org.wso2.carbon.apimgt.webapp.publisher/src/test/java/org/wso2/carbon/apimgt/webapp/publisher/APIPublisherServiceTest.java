@@ -20,6 +20,7 @@ package org.wso2.carbon.apimgt.webapp.publisher;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.mockito.Mockito;
+import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import org.wso2.carbon.apimgt.integration.client.IntegrationClientServiceImpl;
@@ -40,6 +41,8 @@ import org.wso2.carbon.apimgt.webapp.publisher.utils.MockAPICollectionApi;
 import org.wso2.carbon.apimgt.webapp.publisher.utils.MockAPIIndividualApi;
 import org.wso2.carbon.apimgt.webapp.publisher.utils.TestUtils;
 
+import javax.cache.Cache;
+import javax.cache.Caching;
 import java.lang.reflect.Field;
 import java.util.*;
 
@@ -169,6 +172,21 @@ public class APIPublisherServiceTest extends BaseAPIPublisherTest {
         apiPublisherService.publishAPI(apiConfig);
     }
 
+    @Test(description = "Publishing an API drops the scope bindings cached by the scope validators",
+            dependsOnMethods = "publishWithAPIScope")
+    public void publishClearsScopeBindings() throws APIManagerPublisherException {
+        Cache<String, HashSet<String>> scopeBindingCache = Caching.getCacheManagerFactory()
+                .getCacheManager("scopeValidationCacheManager").getCache("scopeBindingCache");
+        scopeBindingCache.put("perm:devices:view",
+                new HashSet<>(Collections.singletonList("/permission/admin/device-mgt/devices/view")));
+        Assert.assertTrue(scopeBindingCache.containsKey("perm:devices:view"));
+        APIConfig apiConfig = new APIConfig();
+        setApiConfigs(apiConfig, "testAPI-5");
+        apiPublisherService.publishAPI(apiConfig);
+        Assert.assertFalse(scopeBindingCache.containsKey("perm:devices:view"),
+                "Scope bindings of the tenant are not cleared after publishing the API.");
+    }
+
     private void setApiConfigs(APIConfig apiConfig, String name) {
         apiConfig.setName(name);
         apiConfig.setContext("api/device-mgt/windows/v1.g0/admin/devices");
@@ -0,0 +1,102 @@
+/*
+ *   Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing,
+ *   software distributed under the License is distributed on an
+ *   "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *   KIND, either express or implied.  See the License for the
+ *   specific language governing permissions and limitations
+ *   under the License.
+ *
+ */
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt;
+
+import org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt.internal.MQTTDataHolder;
+import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterConfiguration;
+import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterService;
+import org.wso2.carbon.event.output.adapter.core.exception.OutputEventAdapterException;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of the MQTT output event adapters created by the notification strategies. Adapters are named per
+ * tenant, so an adapter is created only once per name; callers creating adapters with different names do not wait
+ * on each other, and once an adapter is available, looking it up does not need any lock or call to the output event
+ * adapter service.
+ */
+public final class MQTTAdapterPool {
+
+    private static final MQTTAdapterPool instance = new MQTTAdapterPool();
+
+    private final Set<String> adapters = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final ConcurrentMap<String, Object> creationLocks = new ConcurrentHashMap<>();
+
+    private MQTTAdapterPool() {
+    }
+
+    public static MQTTAdapterPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Checks whether the adapter with the given name has been created through the pool.
+     *
+     * @param adapterName name of the adapter.
+     * @return true if the adapter is available to publish to.
+     */
+    public boolean isAvailable(String adapterName) {
+        return adapters.contains(adapterName);
+    }
+
+    /**
+     * Creates the adapter with the given configuration, unless an adapter with the same name already exists. Only
+     * the callers creating an adapter with the same name are serialized.
+     *
+     * @param adapterConfig configuration used to create the adapter.
+     * @throws OutputEventAdapterException if the adapter could not be created.
+     */
+    public void create(OutputEventAdapterConfiguration adapterConfig) throws OutputEventAdapterException {
+        String adapterName = adapterConfig.getName();
+        if (adapters.contains(adapterName)) {
+            return;
+        }
+        Object lock = new Object();
+        Object existingLock = creationLocks.putIfAbsent(adapterName, lock);
+        if (existingLock != null) {
+            lock = existingLock;
+        }
+        synchronized (lock) {
+            if (adapters.contains(adapterName)) {
+                return;
+            }
+            OutputEventAdapterService adapterService = MQTTDataHolder.getInstance().getOutputEventAdapterService();
+            try {
+                adapterService.isPolled(adapterName);
+            } catch (OutputEventAdapterException e) {
+                //event adapter not created
+                adapterService.create(adapterConfig);
+            }
+            adapters.add(adapterName);
+        }
+    }
+
+    /**
+     * Removes the adapter having the given name from the pool, so that it is created again when needed.
+     *
+     * @param adapterName name of the adapter.
+     */
+    public void remove(String adapterName) {
+        adapters.remove(adapterName);
+    }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt;
 
+import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
@@ -35,7 +36,10 @@ import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterConfiguration
 import org.wso2.carbon.event.output.adapter.core.exception.OutputEventAdapterException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -43,11 +47,13 @@ import java.util.Properties;
 public class MQTTNotificationStrategy implements NotificationStrategy {
 
     private static final String MQTT_ADAPTER_TOPIC = "mqtt.adapter.topic";
+    private static final String TOPIC_PROPERTY = "topic";
+    private static final Gson gson = new Gson();
     private String mqttAdapterName;
     private static final Log log = LogFactory.getLog(MQTTNotificationStrategy.class);
     private final PushNotificationConfig config;
     private final String providerTenantDomain;
-    private static final Object lockObj = new Object();
+    private final boolean batchProfileOperations;
 
     public MQTTNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
@@ -72,21 +78,17 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
                                  config.getProperty(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_SCOPES));
             configProperties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_MESSAGE_QOS,
                                  config.getProperty(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_MESSAGE_QOS));
+            batchProfileOperations = Boolean.parseBoolean(
+                    config.getProperty(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_BATCH_PROFILE_OPERATIONS));
         } else {
             mqttAdapterName = "mqtt.adapter." + PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()
                     .toLowerCase();
+            batchProfileOperations = false;
         }
         adapterConfig.setName(mqttAdapterName);
         adapterConfig.setStaticProperties(configProperties);
         try {
-            synchronized (lockObj) {
-                try {
-                    MQTTDataHolder.getInstance().getOutputEventAdapterService().isPolled(mqttAdapterName);
-                } catch (OutputEventAdapterException e) {
-                    //event adapter not created
-                    MQTTDataHolder.getInstance().getOutputEventAdapterService().create(adapterConfig);
-                }
-            }
+            MQTTAdapterPool.getInstance().create(adapterConfig);
         } catch (OutputEventAdapterException e) {
             throw new InvalidConfigurationException("Error occurred while initializing MQTT output event adapter", e);
         }
@@ -105,75 +107,75 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
         String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true);
         if (!providerTenantDomain.equals(tenantDomain)) {
             //this is to handle the device type shared with all tenant mode.
-
-            adapterName = "mqtt.adapter." + PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()
-                    .toLowerCase();
-            try {
-                MQTTDataHolder.getInstance().getOutputEventAdapterService().isPolled(adapterName);
-            } catch (OutputEventAdapterException e) {
-                //event adapter not created
-                synchronized (lockObj) {
-                    OutputEventAdapterConfiguration adapterConfig = new OutputEventAdapterConfiguration();
-                    adapterConfig.setType(MQTTAdapterConstants.MQTT_ADAPTER_TYPE);
-                    adapterConfig.setMessageFormat(MessageType.TEXT);
-                    adapterConfig.setName(adapterName);
-                    Map<String, String> configProperties = new HashMap<String, String>();
-                    adapterConfig.setStaticProperties(configProperties);
-                    try {
-                        MQTTDataHolder.getInstance().getOutputEventAdapterService().create(adapterConfig);
-                    } catch (OutputEventAdapterException e1) {
-                        throw new PushNotificationExecutionFailedException
-                                ("Error occurred while initializing MQTT output event adapter for shared tenant: "
-                                         + tenantDomain, e);
-                    }
-                }
-            }
-
+            adapterName = this.getSharedTenantAdapter(tenantDomain);
         }
 
         Operation operation = ctx.getOperation();
         Properties properties = operation.getProperties();
         if (properties != null && properties.get(MQTT_ADAPTER_TOPIC) != null) {
-            Map<String, String> dynamicProperties = new HashMap<>();
-            dynamicProperties.put("topic", (String) properties.get(MQTT_ADAPTER_TOPIC));
-            MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName, dynamicProperties,
-                    operation.getPayLoad());
+            this.publish(adapterName, (String) properties.get(MQTT_ADAPTER_TOPIC), operation.getPayLoad());
         } else {
+            String topicPrefix = tenantDomain + "/" + ctx.getDeviceId().getType() + "/" + ctx.getDeviceId().getId() +
+                    "/operation/";
             if (PolicyOperation.POLICY_OPERATION_CODE.equals(operation.getCode())) {
                 PolicyOperation policyOperation = (PolicyOperation) operation;
                 List<ProfileOperation> profileOperations = policyOperation.getProfileOperations();
-                String deviceType = ctx.getDeviceId().getType();
-                String deviceId = ctx.getDeviceId().getId();
-                for (ProfileOperation profileOperation : profileOperations) {
-                    Map<String, String> dynamicProperties = new HashMap<>();
-                    String topic = tenantDomain + "/"
-                            + deviceType + "/" + deviceId + "/operation/" + profileOperation.getType()
-                            .toString().toLowerCase() + "/" + profileOperation.getCode().toLowerCase();
-                    dynamicProperties.put("topic", topic);
-                    MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName, dynamicProperties,
-                            profileOperation.getPayLoad());
+                if (batchProfileOperations) {
+                    // All the features of the policy are packed in to a single message to the device.
+                    List<Map<String, Object>> features = new ArrayList<>(profileOperations.size());
+                    for (ProfileOperation profileOperation : profileOperations) {
+                        Map<String, Object> feature = new LinkedHashMap<>();
+                        feature.put("code", profileOperation.getCode());
+                        feature.put("type", profileOperation.getType().toString().toLowerCase());
+                        feature.put("payload", profileOperation.getPayLoad());
+                        features.add(feature);
+                    }
+                    this.publish(adapterName, topicPrefix + "policy/" + operation.getCode().toLowerCase(),
+                            gson.toJson(features));
+                } else {
+                    for (ProfileOperation profileOperation : profileOperations) {
+                        String topic = topicPrefix + profileOperation.getType().toString().toLowerCase() + "/" +
+                                profileOperation.getCode().toLowerCase();
+                        this.publish(adapterName, topic, profileOperation.getPayLoad());
+                    }
                 }
-
             } else {
-                Map<String, String> dynamicProperties = new HashMap<>();
-                String topic = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true) + "/"
-                        + ctx.getDeviceId().getType() + "/" + ctx.getDeviceId().getId() + "/operation/"
-                        + operation.getType().toString().toLowerCase() + "/" + operation.getCode() + "/" + operation.getId();
-                dynamicProperties.put("topic", topic);
+                String operationType = operation.getType().toString().toLowerCase();
+                String topic = topicPrefix + operationType + "/" + operation.getCode() + "/" + operation.getId();
                 Object payload;
-                if ("command".equals(operation.getType().toString().toLowerCase())) {
+                if ("command".equals(operationType)) {
                     payload = operation.getCode();
                 } else {
                     payload = operation.getPayLoad();
                 }
-                MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName, dynamicProperties,
-                                                                                    payload);
-
+                this.publish(adapterName, topic, payload);
             }
-
         }
+    }
 
+    private String getSharedTenantAdapter(String tenantDomain) throws PushNotificationExecutionFailedException {
+        String adapterName = "mqtt.adapter." + tenantDomain.toLowerCase();
+        if (MQTTAdapterPool.getInstance().isAvailable(adapterName)) {
+            return adapterName;
+        }
+        OutputEventAdapterConfiguration adapterConfig = new OutputEventAdapterConfiguration();
+        adapterConfig.setType(MQTTAdapterConstants.MQTT_ADAPTER_TYPE);
+        adapterConfig.setMessageFormat(MessageType.TEXT);
+        adapterConfig.setName(adapterName);
+        adapterConfig.setStaticProperties(new HashMap<String, String>());
+        try {
+            MQTTAdapterPool.getInstance().create(adapterConfig);
+            return adapterName;
+        } catch (OutputEventAdapterException e) {
+            throw new PushNotificationExecutionFailedException
+                    ("Error occurred while initializing MQTT output event adapter for shared tenant: "
+                             + tenantDomain, e);
+        }
+    }
 
+    private void publish(String adapterName, String topic, Object payload) {
+        MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName,
+                Collections.singletonMap(TOPIC_PROPERTY, topic), payload);
     }
 
     @Override
@@ -183,6 +185,7 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
 
     @Override
     public void undeploy() {
+        MQTTAdapterPool.getInstance().remove(mqttAdapterName);
         MQTTDataHolder.getInstance().getOutputEventAdapterService().destroy(mqttAdapterName);
     }
 
@@ -192,4 +195,3 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
     }
 
 }
-
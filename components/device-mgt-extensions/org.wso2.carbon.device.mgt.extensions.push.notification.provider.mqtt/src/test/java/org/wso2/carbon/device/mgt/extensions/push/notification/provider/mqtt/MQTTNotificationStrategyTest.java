@@ -40,6 +40,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -160,4 +161,59 @@ public class MQTTNotificationStrategyTest {
         providerTenantDomain.set(mqttNotificationStrategy, "SampleTenantDomain");
         mqttNotificationStrategy.execute(notificationContext);
     }
+
+    @Test(dependsOnMethods = {"testExecutionWithoutTenantDomain"}, description = "testing that a single adapter is "
+            + "used for all the device types of a shared tenant")
+    public void testSharedTenantAdapterPerTenant() throws PushNotificationExecutionFailedException,
+            OutputEventAdapterException {
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true);
+        String sharedAdapterName = "mqtt.adapter." + tenantDomain.toLowerCase();
+        Operation sharedOperation = new Operation();
+        sharedOperation.setType(Operation.Type.COMMAND);
+        sharedOperation.setCode("SampleCode");
+        sharedOperation.setId(2);
+        mqttNotificationStrategy.execute(new NotificationContext(new DeviceIdentifier("2", "SharedTypeA"),
+                sharedOperation));
+        mqttNotificationStrategy.execute(new NotificationContext(new DeviceIdentifier("3", "SharedTypeB"),
+                sharedOperation));
+
+        Assert.assertTrue(MQTTAdapterPool.getInstance().isAvailable(sharedAdapterName),
+                "Adapter of the shared tenant is not available in the pool");
+        Mockito.verify(carbonOutputEventAdapterService, Mockito.times(1)).isPolled(sharedAdapterName);
+        for (String deviceType : new String[]{"SharedTypeA", "SharedTypeB"}) {
+            String deviceId = "SharedTypeA".equals(deviceType) ? "2" : "3";
+            String topic = tenantDomain + "/" + deviceType + "/" + deviceId + "/operation/command/SampleCode/2";
+            Mockito.verify(carbonOutputEventAdapterService, Mockito.times(1)).publish(Mockito.eq(sharedAdapterName),
+                    Mockito.eq(Collections.singletonMap("topic", topic)), Mockito.any());
+        }
+    }
+
+    @Test(dependsOnMethods = {"getNotificationStrategy"}, description = "test execute method with a policy "
+            + "operation when profile operations are batched")
+    public void testExecuteBatchedPolicyOperation() throws PushNotificationExecutionFailedException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_BROKER_URL, BROKER_URL);
+        properties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_NAME, ADAPTER_NAME);
+        properties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_BATCH_PROFILE_OPERATIONS, "true");
+        MQTTNotificationStrategy batchedStrategy = new MQTTNotificationStrategy(
+                new PushNotificationConfig("MQTT", true, properties));
+        DeviceIdentifier batchedDevice = new DeviceIdentifier("batched", "SampleDeviceType");
+        PolicyOperation policyOperation = new PolicyOperation();
+        policyOperation.setCode(POLICY_OPERATION_CODE);
+        List<ProfileOperation> profileOperationList = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ProfileOperation profileOperation = new ProfileOperation();
+            profileOperation.setCode("SampleCode" + i);
+            profileOperation.setPayLoad("{}");
+            profileOperationList.add(profileOperation);
+        }
+        policyOperation.setProfileOperations(profileOperationList);
+        batchedStrategy.execute(new NotificationContext(batchedDevice, policyOperation));
+
+        String topic = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true) + "/"
+                + batchedDevice.getType() + "/" + batchedDevice.getId() + "/operation/policy/"
+                + POLICY_OPERATION_CODE.toLowerCase();
+        Mockito.verify(carbonOutputEventAdapterService, Mockito.times(1)).publish(Mockito.eq(ADAPTER_NAME),
+                Mockito.eq(Collections.singletonMap("topic", topic)), Mockito.any());
+    }
 }
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.analytics.data.publisher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.config.AnalyticsConfiguration;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes events to the analytics server in the background. Events are kept in a bounded queue per stream and a
+ * single worker drains the queues in batches, so the threads which publish the events never wait on the analytics
+ * server. When a queue is full, the event is either dropped or the caller waits for a bounded time, depending on the
+ * configured overflow policy.
+ */
+public class AsyncEventPublisher {
+
+    private static final Log log = LogFactory.getLog(AsyncEventPublisher.class);
+    private static final int DROP_LOG_INTERVAL = 1000;
+
+    private static volatile AsyncEventPublisher asyncEventPublisher;
+
+    private final ConcurrentMap<String, BlockingQueue<Event>> streamQueues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService worker;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong publishedEventCount = new AtomicLong();
+
+    AsyncEventPublisher() {
+        this.worker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "device-analytics-event-publisher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long flushInterval = Math.max(AnalyticsConfiguration.getInstance().getFlushInterval(), 1);
+        this.worker.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public static AsyncEventPublisher getInstance() {
+        if (asyncEventPublisher == null) {
+            synchronized (AsyncEventPublisher.class) {
+                if (asyncEventPublisher == null) {
+                    asyncEventPublisher = new AsyncEventPublisher();
+                }
+            }
+        }
+        return asyncEventPublisher;
+    }
+
+    /**
+     * Queues an event to be published.
+     *
+     * @param event event to be published.
+     * @return true if the event is queued, false if it was dropped as the queue of the stream is full.
+     */
+    public boolean publish(Event event) {
+        AnalyticsConfiguration config = AnalyticsConfiguration.getInstance();
+        BlockingQueue<Event> queue = this.getQueue(event.getStreamId(), config.getQueueSize());
+        boolean queued = queue.offer(event);
+        if (!queued && AnalyticsConfiguration.QUEUE_OVERFLOW_POLICY_BLOCK.equalsIgnoreCase(
+                config.getQueueOverflowPolicy())) {
+            this.scheduleFlush();
+            try {
+                queued = queue.offer(event, config.getQueueBlockTimeout(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queued) {
+            long dropped = droppedEventCount.incrementAndGet();
+            if (dropped % DROP_LOG_INTERVAL == 1) {
+                log.warn("Event queue of stream '" + event.getStreamId() + "' is full. " + dropped +
+                        " events have been dropped so far.");
+            }
+            return false;
+        }
+        if (queue.size() >= config.getBatchSize()) {
+            this.scheduleFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Queues a batch of events of one stream to be published, looking the queue of the stream up once for the batch.
+     * When the queue is full and the caller has to wait, the block timeout applies to the batch as a whole.
+     *
+     * @param events events of the same stream to be published.
+     * @return number of events queued, the rest were dropped as the queue of the stream is full.
+     */
+    public int publish(List<Event> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        AnalyticsConfiguration config = AnalyticsConfiguration.getInstance();
+        String streamId = events.get(0).getStreamId();
+        BlockingQueue<Event> queue = this.getQueue(streamId, config.getQueueSize());
+        boolean isBlocking = AnalyticsConfiguration.QUEUE_OVERFLOW_POLICY_BLOCK.equalsIgnoreCase(
+                config.getQueueOverflowPolicy());
+        // The caller waits for the block timeout once for the whole batch, not once per event.
+        long deadline = 0;
+        int queued = 0;
+        for (Event event : events) {
+            boolean isQueued = queue.offer(event);
+            if (!isQueued && isBlocking) {
+                this.scheduleFlush();
+                if (deadline == 0) {
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getQueueBlockTimeout());
+                }
+                try {
+                    isQueued = queue.offer(event, Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (isQueued) {
+                queued++;
+            }
+        }
+        if (queued < events.size()) {
+            long dropped = droppedEventCount.addAndGet(events.size() - queued);
+            log.warn("Event queue of stream '" + streamId + "' is full. " + (events.size() - queued) + " of " +
+                    events.size() + " events of a batch were dropped, " + dropped + " events have been dropped " +
+                    "so far.");
+        }
+        if (queue.size() >= config.getBatchSize()) {
+            this.scheduleFlush();
+        }
+        return queued;
+    }
+
+    /**
+     * Returns the number of events waiting to be published in the given stream.
+     */
+    public int getQueueDepth(String streamId) {
+        BlockingQueue<Event> queue = streamQueues.get(streamId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Returns the number of events which were dropped or rejected by the data publisher so far.
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * Returns the number of events which were accepted by the data publisher so far.
+     */
+    public long getPublishedEventCount() {
+        return publishedEventCount.get();
+    }
+
+    /**
+     * Publishes the queued events and stops the worker of the publisher, if it has been started.
+     */
+    public static void shutdown() {
+        AsyncEventPublisher publisher;
+        synchronized (AsyncEventPublisher.class) {
+            publisher = asyncEventPublisher;
+            asyncEventPublisher = null;
+        }
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    void stop() {
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(AnalyticsConfiguration.getInstance().getFlushInterval() * 10,
+                    TimeUnit.MILLISECONDS)) {
+                worker.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            worker.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+    }
+
+    private BlockingQueue<Event> getQueue(String streamId, int queueSize) {
+        BlockingQueue<Event> queue = streamQueues.get(streamId);
+        if (queue == null) {
+            queue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+            BlockingQueue<Event> existing = streamQueues.putIfAbsent(streamId, queue);
+            if (existing != null) {
+                queue = existing;
+            }
+        }
+        return queue;
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true) && !worker.isShutdown()) {
+            worker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flushScheduled.set(false);
+                    flush();
+                }
+            });
+        }
+    }
+
+    private synchronized void flush() {
+        int batchSize = Math.max(AnalyticsConfiguration.getInstance().getBatchSize(), 1);
+        List<Event> batch = new ArrayList<>(batchSize);
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                    .setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, true);
+            DataPublisher dataPublisher = DeviceDataPublisher.getInstance().getDataPublisher();
+            for (Map.Entry<String, BlockingQueue<Event>> entry : streamQueues.entrySet()) {
+                BlockingQueue<Event> queue = entry.getValue();
+                while (queue.drainTo(batch, batchSize) > 0) {
+                    this.publishBatch(dataPublisher, entry.getKey(), batch);
+                    batch.clear();
+                }
+            }
+        } catch (DataPublisherConfigurationException e) {
+            log.error("Error occurred while retrieving the data publisher, queued events will be retried.", e);
+        } catch (RuntimeException e) {
+            log.error("Error occurred while publishing queued events.", e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private void publishBatch(DataPublisher dataPublisher, String streamId, List<Event> batch) {
+        if (dataPublisher == null) {
+            droppedEventCount.addAndGet(batch.size());
+            return;
+        }
+        int published = 0;
+        for (Event event : batch) {
+            if (dataPublisher.tryPublish(event)) {
+                published++;
+            }
+        }
+        publishedEventCount.addAndGet(published);
+        if (published < batch.size()) {
+            droppedEventCount.addAndGet(batch.size() - published);
+            log.warn((batch.size() - published) + " events of stream '" + streamId + "' were rejected by the " +
+                    "data publisher.");
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Published a batch of " + batch.size() + " events to stream '" + streamId + "', queue depth : "
+                    + this.getQueueDepth(streamId) + ", published so far : " + publishedEventCount.get() +
+                    ", dropped so far : " + droppedEventCount.get());
+        }
+    }
+
+}
@@ -42,6 +42,14 @@ public class AnalyticsConfiguration {
     private String adminUsername;
     private String adminPassword;
     private boolean enable;
+    private int queueSize = 10000;
+    private int batchSize = 200;
+    private long flushInterval = 100;
+    private String queueOverflowPolicy = QUEUE_OVERFLOW_POLICY_DROP;
+    private long queueBlockTimeout = 100;
+
+    public static final String QUEUE_OVERFLOW_POLICY_DROP = "DROP";
+    public static final String QUEUE_OVERFLOW_POLICY_BLOCK = "BLOCK";
 
     private static AnalyticsConfiguration config;
 
@@ -97,6 +105,51 @@ public class AnalyticsConfiguration {
         this.enable = status;
     }
 
+    @XmlElement(name = "QueueSize")
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    @XmlElement(name = "BatchSize")
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @XmlElement(name = "FlushInterval")
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    @XmlElement(name = "QueueOverflowPolicy")
+    public String getQueueOverflowPolicy() {
+        return queueOverflowPolicy;
+    }
+
+    public void setQueueOverflowPolicy(String queueOverflowPolicy) {
+        this.queueOverflowPolicy = queueOverflowPolicy;
+    }
+
+    @XmlElement(name = "QueueBlockTimeout")
+    public long getQueueBlockTimeout() {
+        return queueBlockTimeout;
+    }
+
+    public void setQueueBlockTimeout(long queueBlockTimeout) {
+        this.queueBlockTimeout = queueBlockTimeout;
+    }
+
     public static void init() throws DataPublisherConfigurationException {
         init(AnalyticsConfiguration.DEVICE_ANALYTICS_CONFIG_PATH);
     }
@@ -23,6 +23,7 @@ import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.ComponentContext;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.AsyncEventPublisher;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.config.AnalyticsConfiguration;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherService;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherServiceImpl;
@@ -60,6 +61,7 @@ public class DataPublisherServiceComponent {
         if (analyticsServiceRef != null) {
             analyticsServiceRef.unregister();
         }
+        AsyncEventPublisher.shutdown();
         if (log.isDebugEnabled()) {
             log.debug("Device analytics bundle has been successfully deactivated");
         }
@@ -20,6 +20,8 @@ package org.wso2.carbon.device.mgt.analytics.data.publisher.service;
 
 import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
 
+import java.util.List;
+
 /**
  * This service can be used to publish and retreive data from the Analytics Server.
  */
@@ -38,4 +40,37 @@ public interface EventsPublisherService {
     boolean publishEvent(String streamName, String version, Object[] metaDataArray, Object[] correlationDataArray,
                          Object[] payloadDataArray) throws DataPublisherConfigurationException;
 
+    /**
+     * This is used to publish a batch of events of a stream to DAS.
+     * @param streamName is the name of the stream that the data needs to pushed
+     * @param version is the version of the stream
+     * @param metaDataArrays - meta data of each event
+     * @param payloadDataArrays - payload data of each event, in the order of the meta data
+     * @return number of events accepted for publishing
+     * @throws DataPublisherConfigurationException
+     */
+    int publishEvents(String streamName, String version, List<Object[]> metaDataArrays,
+                      List<Object[]> payloadDataArrays) throws DataPublisherConfigurationException;
+
+    /**
+     * This is used to get the number of events of a stream which are waiting to be published to DAS.
+     * @param streamName is the name of the stream
+     * @param version is the version of the stream
+     * @return number of queued events of the stream
+     */
+    int getQueueDepth(String streamName, String version);
+
+    /**
+     * This is used to get the number of events which were published to DAS since the publisher was started.
+     * @return number of published events
+     */
+    long getPublishedEventCount();
+
+    /**
+     * This is used to get the number of events which were dropped as the queue was full, or were rejected by DAS,
+     * since the publisher was started.
+     * @return number of dropped events
+     */
+    long getDroppedEventCount();
+
 }
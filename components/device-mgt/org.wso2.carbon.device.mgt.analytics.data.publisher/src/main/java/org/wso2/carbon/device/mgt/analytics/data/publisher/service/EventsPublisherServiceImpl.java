@@ -23,11 +23,16 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
 import org.wso2.carbon.databridge.commons.utils.DataBridgeCommonsUtils;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.AsyncEventPublisher;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.DeviceDataPublisher;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This is the implementation of Osgi Service which can be used to publish and retireved
  * event/records.
@@ -64,9 +69,10 @@ public class EventsPublisherServiceImpl implements EventsPublisherService {
             DataPublisher dataPublisher = DeviceDataPublisher.getInstance().getDataPublisher();
             if (dataPublisher != null) {
                 String streamId = DataBridgeCommonsUtils.generateStreamId(streamName, version);
-                return dataPublisher.tryPublish(streamId, System.currentTimeMillis(), metaDataArray,
-                                                correlationDataArray,
-                                                payloadDataArray);
+                // Event is handed over to the async publisher, so that the caller does not wait on the
+                // analytics server.
+                return AsyncEventPublisher.getInstance().publish(new Event(streamId, System.currentTimeMillis(),
+                        metaDataArray, correlationDataArray, payloadDataArray));
             } else {
                 return false;
             }
@@ -74,4 +80,64 @@ public class EventsPublisherServiceImpl implements EventsPublisherService {
             PrivilegedCarbonContext.endTenantFlow();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @param streamName        is the name of the stream that the data needs to pushed
+     * @param version           is the version of the stream
+     * @param metaDataArrays    - meta data of each event
+     * @param payloadDataArrays - payload data of each event, in the order of the meta data
+     * @return number of events queued, the rest were dropped as the queue of the stream is full
+     * @throws DataPublisherConfigurationException
+     */
+    @Override
+    public int publishEvents(String streamName, String version, List<Object[]> metaDataArrays,
+                             List<Object[]> payloadDataArrays) throws DataPublisherConfigurationException {
+        if (metaDataArrays.size() != payloadDataArrays.size()) {
+            throw new DataPublisherConfigurationException("Each event should have both meta data and payload data");
+        }
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        if (!tenantDomain.equals(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME)) {
+            for (Object[] metaDataArray : metaDataArrays) {
+                if (metaDataArray == null || metaDataArray.length == 0) {
+                    throw new DataPublisherConfigurationException("meta data[0] should have the device Id field");
+                }
+                metaDataArray[0] = tenantDomain + "@" + metaDataArray[0];
+            }
+        }
+
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                .setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME, true);
+        try {
+            DataPublisher dataPublisher = DeviceDataPublisher.getInstance().getDataPublisher();
+            if (dataPublisher == null) {
+                return 0;
+            }
+            String streamId = DataBridgeCommonsUtils.generateStreamId(streamName, version);
+            long timestamp = System.currentTimeMillis();
+            List<Event> events = new ArrayList<>(metaDataArrays.size());
+            for (int i = 0; i < metaDataArrays.size(); i++) {
+                events.add(new Event(streamId, timestamp, metaDataArrays.get(i), null, payloadDataArrays.get(i)));
+            }
+            return AsyncEventPublisher.getInstance().publish(events);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    @Override
+    public int getQueueDepth(String streamName, String version) {
+        return AsyncEventPublisher.getInstance().getQueueDepth(DataBridgeCommonsUtils.generateStreamId(streamName,
+                version));
+    }
+
+    @Override
+    public long getPublishedEventCount() {
+        return AsyncEventPublisher.getInstance().getPublishedEventCount();
+    }
+
+    @Override
+    public long getDroppedEventCount() {
+        return AsyncEventPublisher.getInstance().getDroppedEventCount();
+    }
+}
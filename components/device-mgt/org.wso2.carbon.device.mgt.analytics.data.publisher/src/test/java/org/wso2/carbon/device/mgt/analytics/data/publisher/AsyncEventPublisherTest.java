@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.analytics.data.publisher;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.config.AnalyticsConfiguration;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherService;
+import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherServiceImpl;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This test class will test the queueing, overflow and shutdown behaviour of {@link AsyncEventPublisher}. Analytics is
+ * disabled for these tests, so the events flushed by the publisher are counted as dropped.
+ */
+public class AsyncEventPublisherTest extends BaseAnalyticsDataPublisherTest {
+
+    private static final String STREAM_NAME = "org.wso2.test.async.stream";
+    private static final String STREAM_VERSION = "1.0.0";
+    private static final String STREAM_ID = STREAM_NAME + ":" + STREAM_VERSION;
+    private static final int QUEUE_SIZE = 5;
+
+    private AsyncEventPublisher publisher;
+
+    @BeforeMethod
+    public void initPublisher() throws DataPublisherConfigurationException, NoSuchFieldException,
+            IllegalAccessException {
+        AnalyticsConfiguration.init();
+        AnalyticsConfiguration config = AnalyticsConfiguration.getInstance();
+        config.setEnable(false);
+        config.setQueueSize(QUEUE_SIZE);
+        config.setBatchSize(100);
+        config.setFlushInterval(TimeUnit.HOURS.toMillis(1));
+        config.setQueueOverflowPolicy(AnalyticsConfiguration.QUEUE_OVERFLOW_POLICY_DROP);
+        Field dataPublisherField = DeviceDataPublisher.class.getDeclaredField("deviceDataPublisher");
+        dataPublisherField.setAccessible(true);
+        dataPublisherField.set(dataPublisherField, null);
+        this.publisher = new AsyncEventPublisher();
+    }
+
+    @AfterMethod
+    public void stopPublisher() {
+        this.publisher.stop();
+    }
+
+    @AfterClass
+    public void resetConfig() throws DataPublisherConfigurationException {
+        AnalyticsConfiguration.init();
+    }
+
+    @Test(description = "Events are kept in the queue of the stream until the publisher flushes them")
+    public void testQueueEvents() {
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(this.publisher.publish(createEvent()));
+        }
+        Assert.assertEquals(this.publisher.getQueueDepth(STREAM_ID), 3);
+        Assert.assertEquals(this.publisher.getQueueDepth("unknown:1.0.0"), 0);
+        Assert.assertEquals(this.publisher.publish(createEvents(2)), 2);
+        Assert.assertEquals(this.publisher.getQueueDepth(STREAM_ID), QUEUE_SIZE);
+        Assert.assertEquals(this.publisher.getDroppedEventCount(), 0);
+    }
+
+    @Test(description = "Events are dropped when the queue is full and the overflow policy is DROP")
+    public void testDropWhenQueueFull() {
+        Assert.assertEquals(this.publisher.publish(createEvents(QUEUE_SIZE)), QUEUE_SIZE);
+        Assert.assertFalse(this.publisher.publish(createEvent()));
+        Assert.assertEquals(this.publisher.publish(createEvents(3)), 0);
+        Assert.assertEquals(this.publisher.getDroppedEventCount(), 4);
+        Assert.assertEquals(this.publisher.getQueueDepth(STREAM_ID), QUEUE_SIZE);
+    }
+
+    @Test(description = "Callers wait for the worker to make room when the overflow policy is BLOCK")
+    public void testBlockWhenQueueFull() {
+        AnalyticsConfiguration config = AnalyticsConfiguration.getInstance();
+        config.setQueueOverflowPolicy(AnalyticsConfiguration.QUEUE_OVERFLOW_POLICY_BLOCK);
+        config.setQueueBlockTimeout(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertEquals(this.publisher.publish(createEvents(QUEUE_SIZE)), QUEUE_SIZE);
+        Assert.assertTrue(this.publisher.publish(createEvent()), "Event should be queued once the queue is flushed.");
+        Assert.assertTrue(this.publisher.getDroppedEventCount() >= QUEUE_SIZE,
+                "Flushed events should be dropped as analytics is disabled.");
+    }
+
+    @Test(description = "Callers give up after the block timeout when the worker cannot make room")
+    public void testBlockTimeout() {
+        AnalyticsConfiguration config = AnalyticsConfiguration.getInstance();
+        config.setQueueOverflowPolicy(AnalyticsConfiguration.QUEUE_OVERFLOW_POLICY_BLOCK);
+        config.setQueueBlockTimeout(50);
+        // The data publisher cannot be created with an empty receiver url, so queued events are kept on flush.
+        config.setEnable(true);
+        config.setReceiverServerUrl("");
+        Assert.assertEquals(this.publisher.publish(createEvents(QUEUE_SIZE)), QUEUE_SIZE);
+        long start = System.currentTimeMillis();
+        Assert.assertFalse(this.publisher.publish(createEvent()));
+        Assert.assertTrue(System.currentTimeMillis() - start >= 50, "Caller should wait for the block timeout.");
+        Assert.assertEquals(this.publisher.getQueueDepth(STREAM_ID), QUEUE_SIZE);
+    }
+
+    @Test(description = "Callers publishing a batch wait for the block timeout once for the whole batch")
+    public void testBlockTimeoutOfBatch() {
+        long blockTimeout = 300;
+        AnalyticsConfiguration config = AnalyticsConfiguration.getInstance();
+        config.setQueueOverflowPolicy(AnalyticsConfiguration.QUEUE_OVERFLOW_POLICY_BLOCK);
+        config.setQueueBlockTimeout(blockTimeout);
+        // The data publisher cannot be created with an empty receiver url, so queued events are kept on flush.
+        config.setEnable(true);
+        config.setReceiverServerUrl("");
+        Assert.assertEquals(this.publisher.publish(createEvents(QUEUE_SIZE)), QUEUE_SIZE);
+        long start = System.currentTimeMillis();
+        Assert.assertEquals(this.publisher.publish(createEvents(QUEUE_SIZE)), 0);
+        long waited = System.currentTimeMillis() - start;
+        Assert.assertTrue(waited >= blockTimeout, "Caller should wait for the block timeout.");
+        Assert.assertTrue(waited < QUEUE_SIZE * blockTimeout, "Caller should not wait for the block timeout of " +
+                "each event of the batch, waited " + waited + " ms.");
+        Assert.assertEquals(this.publisher.getQueueDepth(STREAM_ID), QUEUE_SIZE);
+        Assert.assertEquals(this.publisher.getDroppedEventCount(), QUEUE_SIZE);
+    }
+
+    @Test(description = "Queued events are flushed when the publisher is stopped")
+    public void testStopFlushesQueue() {
+        Assert.assertEquals(this.publisher.publish(createEvents(3)), 3);
+        this.publisher.stop();
+        Assert.assertEquals(this.publisher.getQueueDepth(STREAM_ID), 0);
+        Assert.assertEquals(this.publisher.getDroppedEventCount(), 3);
+    }
+
+    @Test(description = "Queue depth and dropped and published counts of the shared publisher are exposed by the "
+            + "publisher service")
+    public void testStatisticsOfService() {
+        AsyncEventPublisher.shutdown();
+        EventsPublisherService eventsPublisherService = new EventsPublisherServiceImpl();
+        try {
+            Assert.assertEquals(AsyncEventPublisher.getInstance().publish(createEvents(QUEUE_SIZE + 2)), QUEUE_SIZE);
+            Assert.assertEquals(eventsPublisherService.getQueueDepth(STREAM_NAME, STREAM_VERSION), QUEUE_SIZE);
+            Assert.assertEquals(eventsPublisherService.getQueueDepth(STREAM_NAME, "2.0.0"), 0);
+            Assert.assertEquals(eventsPublisherService.getDroppedEventCount(), 2);
+            Assert.assertEquals(eventsPublisherService.getPublishedEventCount(), 0);
+        } finally {
+            AsyncEventPublisher.shutdown();
+        }
+    }
+
+    @Test(description = "Shutting down the shared publisher creates a new one on the next use")
+    public void testShutdown() {
+        AsyncEventPublisher shared = AsyncEventPublisher.getInstance();
+        Assert.assertSame(AsyncEventPublisher.getInstance(), shared);
+        AsyncEventPublisher.shutdown();
+        Assert.assertNotSame(AsyncEventPublisher.getInstance(), shared);
+        AsyncEventPublisher.shutdown();
+    }
+
+    private Event createEvent() {
+        return new Event(STREAM_ID, System.currentTimeMillis(), new Object[]{"123"}, null, new Object[]{"123"});
+    }
+
+    private List<Event> createEvents(int count) {
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(createEvent());
+        }
+        return events;
+    }
+}
@@ -30,6 +30,8 @@ import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublish
 import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherServiceImpl;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This test class will test the methods that are exposed from {@link EventsPublisherService}
@@ -74,7 +76,31 @@ public class EventPublisherServiceTest extends BaseAnalyticsDataPublisherTest {
         Assert.assertTrue(published);
     }
 
-    @Test(description = "Publish as tenant", dependsOnMethods = "publishAfterInit")
+    @Test(description = "Publish a batch of events after initializing", dependsOnMethods = "publishAfterInit")
+    public void publishBatchAfterInit() throws DataPublisherConfigurationException {
+        List<Object[]> metaData = new ArrayList<>();
+        List<Object[]> payloadData = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            metaData.add(getEventProps());
+            payloadData.add(getEventProps());
+        }
+        int published = this.eventsPublisherService.publishEvents(STREAM_NAME, "1.0.0", metaData, payloadData);
+        Assert.assertEquals(published, 3);
+    }
+
+    @Test(description = "Publish a batch of events having no payload data for some events",
+            dependsOnMethods = "publishAfterInit", expectedExceptions = DataPublisherConfigurationException.class)
+    public void publishBatchWithMissingPayloadData() throws DataPublisherConfigurationException {
+        List<Object[]> metaData = new ArrayList<>();
+        metaData.add(getEventProps());
+        metaData.add(getEventProps());
+        List<Object[]> payloadData = new ArrayList<>();
+        payloadData.add(getEventProps());
+        this.eventsPublisherService.publishEvents(STREAM_NAME, "1.0.0", metaData, payloadData);
+    }
+
+    @Test(description = "Publish as tenant",
+            dependsOnMethods = {"publishBatchAfterInit", "publishBatchWithMissingPayloadData"})
     public void publishAsTenant() throws DataPublisherConfigurationException {
         publishAsTenant(getEventProps());
     }
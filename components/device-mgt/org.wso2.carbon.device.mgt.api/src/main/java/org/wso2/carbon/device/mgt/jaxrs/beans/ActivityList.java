@@ -31,6 +31,7 @@ import java.util.List;
 public class ActivityList extends BasePaginatedResult {
 
     private List<Activity> activities;
+    private String nextCursor;
 
     @ApiModelProperty(value = "Returns the list of activities that match the offset and limit parameter values"
             + " that were specified.")
@@ -43,6 +44,16 @@ public class ActivityList extends BasePaginatedResult {
         this.activities = activities;
     }
 
+    @ApiModelProperty(value = "Cursor to continue the activity feed from, only given for cursor based requests")
+    @JsonProperty("nextCursor")
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -28,6 +28,7 @@ import java.util.List;
 public class DeviceList extends BasePaginatedResult {
 
     private List<Device> devices = new ArrayList<>();
+    private String nextCursor;
 
     @ApiModelProperty(value = "List of devices returned")
     @JsonProperty("devices")
@@ -39,6 +40,16 @@ public class DeviceList extends BasePaginatedResult {
         this.devices = devices;
     }
 
+    @ApiModelProperty(value = "Cursor of the next page, only given for cursor based requests having more devices")
+    @JsonProperty("nextCursor")
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.jaxrs.beans.analytics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.Map;
+
+/**
+ * This hold an event of a device, published together with the events of other devices.
+ */
+@ApiModel(value = "DeviceEvent", description = "An event of a device, published in a batch of events.")
+public class DeviceEvent {
+
+    @ApiModelProperty(value = "Device type of the device.", required = true)
+    @JsonProperty("type")
+    private String type;
+    @ApiModelProperty(value = "Identifier of the device.", required = true)
+    @JsonProperty("deviceId")
+    private String deviceId;
+    @ApiModelProperty(value = "Values of the attributes of the event stream of the device type, by attribute name.",
+            required = true)
+    @JsonProperty("payloadData")
+    private Map<String, Object> payloadData;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public Map<String, Object> getPayloadData() {
+        return payloadData;
+    }
+
+    public void setPayloadData(Map<String, Object> payloadData) {
+        this.payloadData = payloadData;
+    }
+}
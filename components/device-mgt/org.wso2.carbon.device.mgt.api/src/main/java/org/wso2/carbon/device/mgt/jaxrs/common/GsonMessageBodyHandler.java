@@ -26,6 +26,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
@@ -81,6 +82,11 @@ public class GsonMessageBodyHandler implements MessageBodyWriter<Object>, Messag
             MultivaluedMap<String, Object> stringObjectMultivaluedMap, OutputStream entityStream)
             throws IOException, WebApplicationException {
 
+        if (object instanceof StreamingOutput) {
+            // Streamed responses such as JsonListStreamingOutput write the JSON themselves.
+            ((StreamingOutput) object).write(entityStream);
+            return;
+        }
         OutputStreamWriter writer = new OutputStreamWriter(entityStream, UTF_8);
         try {
             getGson().toJson(object, type, writer);
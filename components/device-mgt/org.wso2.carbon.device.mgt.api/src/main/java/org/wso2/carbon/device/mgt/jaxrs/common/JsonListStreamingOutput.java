@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.jaxrs.common;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes a paginated list response as JSON, one page at a time, so that a response listing many entities does not
+ * hold more than one page of them in memory. The response has the same form as the list beans serialized by
+ * {@link GsonMessageBodyHandler}, i.e. the array of entities followed by the count and the cursor of the next page.
+ * <p>
+ * The first page is read before the response is returned, so that errors reading it are reported with an error
+ * status. An error reading a later page can only abort the response, which the client sees as a truncated body.
+ * <p>
+ * Implementations read each page with a separate call which opens and closes its own database connection, so that no
+ * connection is held while a page is written to a slow client.
+ *
+ * @param <T> type of the listed entities.
+ */
+public abstract class JsonListStreamingOutput<T> implements StreamingOutput {
+
+    private static final String UTF_8 = "UTF-8";
+    private static final Gson gson = new GsonBuilder().setDateFormat(GsonMessageBodyHandler.DATE_FORMAT).create();
+
+    private final String listName;
+    private final Type entityType;
+    private List<T> page;
+
+    /**
+     * @param listName   name of the array of entities in the response.
+     * @param entityType type the entities are serialized as.
+     * @param firstPage  the first page of entities.
+     */
+    protected JsonListStreamingOutput(String listName, Type entityType, List<T> firstPage) {
+        this.listName = listName;
+        this.entityType = entityType;
+        this.page = firstPage;
+    }
+
+    /**
+     * Reads the page following the last page read.
+     *
+     * @return the next page, or null or an empty list if there are no more entities to be listed.
+     * @throws IOException if the page could not be read.
+     */
+    protected abstract List<T> nextPage() throws IOException;
+
+    /**
+     * @return number of entities to be given as the count of the response, called once all the pages are written.
+     */
+    protected abstract long getCount();
+
+    /**
+     * @return cursor of the page following the listed entities, null if the response should not have a cursor. This
+     * is called once all the pages are written.
+     */
+    protected abstract String getNextCursor();
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(output, UTF_8));
+        writer.beginObject();
+        writer.name(listName);
+        writer.beginArray();
+        while (page != null && !page.isEmpty()) {
+            for (T entity : page) {
+                gson.toJson(entity, entityType, writer);
+            }
+            // Written entities are sent before reading the next page, and the page is released.
+            writer.flush();
+            page = null;
+            page = this.nextPage();
+        }
+        writer.endArray();
+        String nextCursor = this.getNextCursor();
+        if (nextCursor != null) {
+            writer.name("nextCursor").value(nextCursor);
+        }
+        writer.name("count").value(this.getCount());
+        writer.endObject();
+        writer.flush();
+    }
+
+}
@@ -447,6 +447,23 @@ public interface ActivityInfoProviderService {
                             "Provide the value in the following format: EEE, d MMM yyyy HH:mm:ss Z\n." +
                             "Example: Mon, 05 Jan 2014 15:10:00 +0200",
                     required = false)
-            @HeaderParam("If-Modified-Since") String ifModifiedSince);
+            @HeaderParam("If-Modified-Since") String ifModifiedSince,
+            @ApiParam(
+                    name = "cursor",
+                    value = "Pages the activities in the order of their changes instead of using the offset, without " +
+                            "counting them. Provide an empty cursor for the first page, and the nextCursor of the " +
+                            "previous response for the following pages and for later changes. The limit may then " +
+                            "be up to 10000, in which case the activities are streamed. Changes of the last two " +
+                            "seconds are returned by a later request, and a change which takes longer than that " +
+                            "to be committed is not returned once later changes have been read.",
+                    required = false)
+            @QueryParam("cursor") String cursor,
+            @ApiParam(
+                    name = "includeResponses",
+                    value = "Includes the responses of the devices in cursor based requests. Offset based requests " +
+                            "always include them.",
+                    required = false,
+                    defaultValue = "false")
+            @QueryParam("includeResponses") boolean includeResponses);
 
 }
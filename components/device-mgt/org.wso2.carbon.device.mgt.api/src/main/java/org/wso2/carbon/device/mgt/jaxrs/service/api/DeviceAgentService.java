@@ -35,12 +35,14 @@ import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.jaxrs.beans.ErrorResponse;
 import org.wso2.carbon.device.mgt.jaxrs.beans.OperationList;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.DeviceEvent;
 import org.wso2.carbon.device.mgt.jaxrs.util.Constants;
 
 import javax.validation.Valid;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
@@ -377,6 +379,48 @@ public interface DeviceAgentService {
                     value = "deviceId of the device")
             @PathParam("deviceId") String deviceId);
 
+    @POST
+    @Path("/events/publish/batch")
+    @ApiOperation(
+            produces = MediaType.APPLICATION_JSON,
+            consumes = MediaType.APPLICATION_JSON,
+            httpMethod = "POST",
+            value = "Publishing a batch of events",
+            notes = "Publish events of many devices, of one or more device types, to the WSO2 Data Analytics Server " +
+                    "(DAS) in a single request using this API. The batch is published only if all the events are " +
+                    "valid and the user is authorized to access all the devices.",
+            tags = "Device Agent Management",
+            extensions = {
+                    @Extension(properties = {
+                            @ExtensionProperty(name = Constants.SCOPE, value = "perm:device:publish-event")
+                    })
+            }
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 200, message = "OK. \n Successfully published the events"),
+                    @ApiResponse(
+                            code = 400,
+                            message = "Bad Request. \n Invalid request or validation error."),
+                    @ApiResponse(
+                            code = 401,
+                            message = "Unauthorized. \n The user is not authorized to access some of the devices."),
+                    @ApiResponse(
+                            code = 415,
+                            message = "Unsupported media type. \n The format of the requested entity was not " +
+                                    "supported."),
+                    @ApiResponse(
+                            code = 500,
+                            message = "Internal Server Error. \n " +
+                                    "Server error occurred while publishing events.")
+            })
+    Response publishEvents(
+            @ApiParam(
+                    name = "events",
+                    value = "Events of the devices to be published on DAS.")
+            @Valid
+            List<DeviceEvent> events);
+
     @GET
     @Path("/pending/operations/{type}/{id}")
     @ApiOperation(
@@ -433,7 +477,12 @@ public interface DeviceAgentService {
     Response getPendingOperations(@ApiParam(name = "type", value = "The device type, such as ios, android, or windows.", required = true)
                                   @PathParam("type") String type,
                                   @ApiParam(name = "id", value = "The device ID.", required = true)
-                                  @PathParam("id") String deviceId);
+                                  @PathParam("id") String deviceId,
+                                  @ApiParam(name = "If-None-Match", value = "Validates the entity tag of the " +
+                                          "pending operations the device already has. The ETag of the response is " +
+                                          "given here to receive an empty 304 response while it is unchanged.",
+                                          required = false)
+                                  @HeaderParam("If-None-Match") String ifNoneMatch);
 
     @GET
     @Path("/next-pending/operation/{type}/{id}")
@@ -297,7 +297,23 @@ public interface DeviceManagementService {
                     required = false,
                     defaultValue = "5")
             @QueryParam("limit")
-            int limit);
+            int limit,
+            @ApiParam(
+                    name = "cursor",
+                    value = "Pages the devices in the order of their enrolment instead of using the offset. Provide " +
+                            "an empty cursor for the first page, and the nextCursor of the previous response for the " +
+                            "following pages. The limit may then be up to 10000, in which case the devices are " +
+                            "streamed.",
+                    required = false)
+            @QueryParam("cursor")
+            String cursor,
+            @ApiParam(
+                    name = "If-None-Match",
+                    value = "Validates the entity tags of the representations the client already has. The ETag of " +
+                            "the response is given here to receive an empty 304 response while it is unchanged.",
+                    required = false)
+            @HeaderParam("If-None-Match")
+            String ifNoneMatch);
 
     @GET
     @ApiOperation(
@@ -453,7 +469,14 @@ public interface DeviceManagementService {
                     "Example: Mon, 05 Jan 2014 15:10:00 +0200",
             required = false)
             @HeaderParam("If-Modified-Since")
-                    String ifModifiedSince);
+                    String ifModifiedSince,
+            @ApiParam(
+                    name = "If-None-Match",
+                    value = "Validates the entity tags of the representations the client already has. The ETag of " +
+                            "the response is given here to receive an empty 304 response while it is unchanged.",
+                    required = false)
+            @HeaderParam("If-None-Match")
+                    String ifNoneMatch);
 
     @PUT
     @Path("/{type}/{id}")
@@ -1271,7 +1294,14 @@ public interface DeviceManagementService {
                             "Example: Mon, 05 Jan 2014 15:10:00 +0200",
                     required = false)
             @HeaderParam("If-Modified-Since")
-            String ifModifiedSince);
+            String ifModifiedSince,
+            @ApiParam(
+                    name = "If-None-Match",
+                    value = "Validates the entity tags of the representations the client already has. The ETag of " +
+                            "the response is given here to receive an empty 304 response while it is unchanged.",
+                    required = false)
+            @HeaderParam("If-None-Match")
+            String ifNoneMatch);
 
 
     @GET
@@ -23,6 +23,7 @@ import org.apache.axis2.transport.http.HTTPConstants;
 import org.wso2.carbon.apimgt.annotations.api.Scope;
 import org.wso2.carbon.apimgt.annotations.api.Scopes;
 import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.core.privacy.DeviceErasureStatus;
 import org.wso2.carbon.device.mgt.jaxrs.beans.ErrorResponse;
 import org.wso2.carbon.device.mgt.jaxrs.beans.PasswordResetWrapper;
 import org.wso2.carbon.device.mgt.jaxrs.util.Constants;
@@ -138,7 +139,8 @@ public interface UserManagementAdminService {
             httpMethod = HTTPConstants.HEADER_DELETE,
             value = "Delete a users associated devices.",
             notes = "If you wish to remove an device details to comply with the privacy requirements, can be done with " +
-                    "this resource.",
+                    "this resource. The devices are erased in the background, and the progress of the erasure can be " +
+                    "retrieved with the GET /{username}/devices/erasure-status resource.",
             tags = "Device details remove",
             extensions = {
                     @Extension(properties = {
@@ -147,39 +149,66 @@ public interface UserManagementAdminService {
             }
     )
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "OK. \n Users devices and details has been deleted successfully.",
+            @ApiResponse(code = 202, message = "Accepted. \n Erasure of the users devices and details has been " +
+                    "started, or is already in progress.",
+                    response = DeviceErasureStatus.class,
                     responseHeaders = {
                             @ResponseHeader(
                                     name = "Content-Type",
-                                    description = "The content type of the body."),
-                            @ResponseHeader(
-                                    name = "ETag",
-                                    description = "Entity Tag of the response resource.\n" +
-                                            "Used by caches, or in conditional requests."),
-                            @ResponseHeader(
-                                    name = "Last-Modified",
-                                    description = "Date and time the resource has been modified the last time.\n" +
-                                            "Used by caches, or in conditional requests."),
+                                    description = "The content type of the body.")
                     }),
             @ApiResponse(
-                    code = 304,
-                    message = "Not Modified. \n Empty body because the client has already the latest version of " +
-                            "the requested resource."),
+                    code = 406,
+                    message = "Not Acceptable.\n The requested media type is not supported."),
+            @ApiResponse(
+                    code = 500,
+                    message = "Internal Server Error. \n Server error occurred while starting the erasure.",
+                    response = ErrorResponse.class)
+    })
+    Response deleteDeviceOfUser(@ApiParam(
+            name = "username",
+            value = "Username of the users devices to be deleted.",
+            required = true)
+                         @PathParam("username") String username);
+
+    @GET
+    @Path("/{username}/devices/erasure-status")
+    @ApiOperation(
+            produces = MediaType.APPLICATION_JSON,
+            httpMethod = "GET",
+            value = "Get the status of erasing a users associated devices.",
+            notes = "Returns the progress of the last erasure of the devices of the user, which was started with the " +
+                    "DELETE /{username}/devices resource.",
+            tags = "Device details remove",
+            extensions = {
+                    @Extension(properties = {
+                            @ExtensionProperty(name = Constants.SCOPE, value = "perm:admin-users:remove")
+                    })
+            }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK. \n Successfully fetched the status of the erasure.",
+                    response = DeviceErasureStatus.class,
+                    responseHeaders = {
+                            @ResponseHeader(
+                                    name = "Content-Type",
+                                    description = "The content type of the body.")
+                    }),
             @ApiResponse(
                     code = 404,
-                    message = "Group not found.",
+                    message = "Not Found. \n No erasure of the devices of the user was started recently.",
                     response = ErrorResponse.class),
             @ApiResponse(
                     code = 406,
                     message = "Not Acceptable.\n The requested media type is not supported."),
             @ApiResponse(
                     code = 500,
-                    message = "Internal Server Error. \n Server error occurred while removing the group.",
+                    message = "Internal Server Error. \n Server error occurred while retrieving the erasure status.",
                     response = ErrorResponse.class)
     })
-    Response deleteDeviceOfUser(@ApiParam(
+    Response getDeviceErasureStatusOfUser(@ApiParam(
             name = "username",
-            value = "Username of the users devices to be deleted.",
+            value = "Username of the users devices being deleted.",
             required = true)
                          @PathParam("username") String username);
 
@@ -21,12 +21,15 @@ package org.wso2.carbon.device.mgt.jaxrs.service.impl;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.PaginationCursor;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityFeed;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.jaxrs.beans.ActivityList;
 import org.wso2.carbon.device.mgt.jaxrs.beans.ErrorResponse;
 import org.wso2.carbon.device.mgt.jaxrs.common.ActivityIdList;
+import org.wso2.carbon.device.mgt.jaxrs.common.JsonListStreamingOutput;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.ActivityInfoProviderService;
 import org.wso2.carbon.device.mgt.jaxrs.service.impl.util.RequestValidationUtil;
 import org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils;
@@ -42,6 +45,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -218,7 +222,9 @@ public class ActivityProviderServiceImpl implements ActivityInfoProviderService
     @Override
     public Response getActivities(@QueryParam("since") String since, @QueryParam("offset") int offset,
                                   @QueryParam("limit") int limit,
-                                  @HeaderParam("If-Modified-Since") String ifModifiedSince) {
+                                  @HeaderParam("If-Modified-Since") String ifModifiedSince,
+                                  @QueryParam("cursor") String cursor,
+                                  @QueryParam("includeResponses") boolean includeResponses) {
 
         long ifModifiedSinceTimestamp;
         long sinceTimestamp;
@@ -228,7 +234,11 @@ public class ActivityProviderServiceImpl implements ActivityInfoProviderService
             log.debug("getActivities since: " + since + " , offset: " + offset + " ,limit: " + limit + " ," +
                     "ifModifiedSince: " + ifModifiedSince);
         }
-        RequestValidationUtil.validatePaginationParameters(offset, limit);
+        if (cursor != null && limit > RequestValidationUtil.MAX_PAGE_SIZE) {
+            RequestValidationUtil.validateStreamedListLimit(limit);
+        } else {
+            RequestValidationUtil.validatePaginationParameters(offset, limit);
+        }
         if (ifModifiedSince != null && !ifModifiedSince.isEmpty()) {
             Date ifSinceDate;
             SimpleDateFormat format = new SimpleDateFormat("EEE, d MMM yyyy HH:mm:ss Z");
@@ -256,6 +266,21 @@ public class ActivityProviderServiceImpl implements ActivityInfoProviderService
             timestamp = sinceTimestamp / 1000;
         }
 
+        // Changes made at the given time itself are not included in the first page of a cursor based request, in
+        // the same way as with offset based requests.
+        int lastMappingId = Integer.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                timestamp = PaginationCursor.decodeActivityTimestamp(cursor);
+                lastMappingId = PaginationCursor.decodeActivityMappingId(cursor);
+            } catch (IllegalArgumentException e) {
+                return Response.status(400).entity(
+                        new ErrorResponse.ErrorResponseBuilder().setMessage(
+                                "Request parameter cursor is not a cursor returned by a previous request.").build())
+                        .build();
+            }
+        }
+
         if (timestamp == 0) {
             //If timestamp is not sent by the user, a default value is set, that is equal to current time-12 hours.
             long time = System.currentTimeMillis() / 1000;
@@ -274,6 +299,10 @@ public class ActivityProviderServiceImpl implements ActivityInfoProviderService
                     log.debug("Calling database to get activities.");
                 }
                 dmService = DeviceMgtAPIUtils.getDeviceManagementService();
+                if (cursor != null) {
+                    return this.getActivityFeed(dmService, timestamp, lastMappingId, limit, includeResponses,
+                            isIfModifiedSinceSet);
+                }
                 activities = dmService.getActivitiesUpdatedAfter(timestamp, limit, offset);
                 activityList.setList(activities);
                 if (log.isDebugEnabled()) {
@@ -302,6 +331,33 @@ public class ActivityProviderServiceImpl implements ActivityInfoProviderService
         }
     }
 
+    /**
+     * Returns the page of the activity feed following the given position. Unlike offset based requests, the
+     * activities changed after the given time are not counted.
+     */
+    private Response getActivityFeed(DeviceManagementProviderService dmService, long timestamp, int lastMappingId,
+                                     int limit, boolean includeResponses, boolean isIfModifiedSinceSet)
+            throws OperationManagementException {
+        // Feeds of more changes than a page holds are streamed to the client page by page.
+        boolean isStreamed = limit > RequestValidationUtil.MAX_PAGE_SIZE;
+        ActivityFeed feed = dmService.getActivityFeed(timestamp, lastMappingId,
+                isStreamed ? RequestValidationUtil.MAX_PAGE_SIZE : limit, includeResponses);
+        if (feed.getActivities().isEmpty() && isIfModifiedSinceSet) {
+            return Response.notModified().build();
+        }
+        if (isStreamed) {
+            return Response.ok().entity(new ActivityFeedStreamingOutput(dmService, limit, includeResponses, feed))
+                    .build();
+        }
+        ActivityList activityList = new ActivityList();
+        activityList.setList(feed.getActivities());
+        activityList.setCount(feed.getActivities().size());
+        // The cursor is given even when there are no more changes, so that clients can poll for later changes.
+        activityList.setNextCursor(PaginationCursor.encodeActivityPosition(feed.getLastUpdatedTimestamp(),
+                feed.getLastMappingId()));
+        return Response.ok().entity(activityList).build();
+    }
+
     private Response validateAdminUser(){
         try {
             if (!DeviceMgtAPIUtils.isAdmin()) {
@@ -317,4 +373,65 @@ public class ActivityProviderServiceImpl implements ActivityInfoProviderService
                     new ErrorResponse.ErrorResponseBuilder().setMessage(msg).build()).build();
         }
     }
+
+    /**
+     * Streams the activity feed of a cursor based request for more changes than a page holds, reading the feed page
+     * by page from the position the previous page ended at.
+     */
+    private static class ActivityFeedStreamingOutput extends JsonListStreamingOutput<Activity> {
+
+        private final DeviceManagementProviderService dmService;
+        private final boolean includeResponses;
+        private int remaining;
+        private long count;
+        private boolean hasMoreChanges;
+        private long lastUpdatedTimestamp;
+        private int lastMappingId;
+
+        ActivityFeedStreamingOutput(DeviceManagementProviderService dmService, int limit, boolean includeResponses,
+                                    ActivityFeed firstPage) {
+            super("activities", Activity.class, firstPage.getActivities());
+            this.dmService = dmService;
+            this.includeResponses = includeResponses;
+            this.remaining = limit;
+            this.readPage(firstPage, RequestValidationUtil.MAX_PAGE_SIZE);
+        }
+
+        @Override
+        protected List<Activity> nextPage() throws IOException {
+            if (!hasMoreChanges || remaining <= 0) {
+                return null;
+            }
+            int pageSize = Math.min(remaining, RequestValidationUtil.MAX_PAGE_SIZE);
+            try {
+                return this.readPage(dmService.getActivityFeed(lastUpdatedTimestamp, lastMappingId, pageSize,
+                        includeResponses), pageSize);
+            } catch (OperationManagementException e) {
+                String msg = "Error occurred while fetching the activities changed after the mapping '" +
+                        lastMappingId + "' updated at " + lastUpdatedTimestamp;
+                log.error(msg, e);
+                throw new IOException(msg, e);
+            }
+        }
+
+        @Override
+        protected long getCount() {
+            return count;
+        }
+
+        @Override
+        protected String getNextCursor() {
+            // The cursor is given even when there are no more changes, so that clients can poll for later changes.
+            return PaginationCursor.encodeActivityPosition(lastUpdatedTimestamp, lastMappingId);
+        }
+
+        private List<Activity> readPage(ActivityFeed feed, int pageSize) {
+            count += feed.getActivities().size();
+            remaining -= feed.getChangeCount();
+            hasMoreChanges = feed.getChangeCount() >= pageSize;
+            lastUpdatedTimestamp = feed.getLastUpdatedTimestamp();
+            lastMappingId = feed.getLastMappingId();
+            return feed.getActivities();
+        }
+    }
 }
@@ -35,8 +35,10 @@ import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationService;
+import org.wso2.carbon.device.mgt.common.authorization.DeviceAuthorizationResult;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.PendingOperations;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMgtConstants;
@@ -45,10 +47,13 @@ import org.wso2.carbon.device.mgt.jaxrs.beans.ErrorResponse;
 import org.wso2.carbon.device.mgt.jaxrs.beans.OperationList;
 import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.Attribute;
 import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.AttributeType;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.DeviceEvent;
 import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.EventAttributeList;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.DeviceAgentService;
 import org.wso2.carbon.device.mgt.jaxrs.util.Constants;
 import org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils;
+import org.wso2.carbon.device.mgt.jaxrs.util.EntityTagUtil;
+import org.wso2.carbon.device.mgt.jaxrs.util.EventStreamConverter;
 import org.wso2.carbon.event.stream.stub.EventStreamAdminServiceStub;
 import org.wso2.carbon.event.stream.stub.types.EventStreamAttributeDto;
 import org.wso2.carbon.event.stream.stub.types.EventStreamDefinitionDto;
@@ -58,21 +63,27 @@ import org.wso2.carbon.user.api.UserStoreException;
 import javax.validation.Valid;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Path("/device/agent")
 public class DeviceAgentServiceImpl implements DeviceAgentService {
     private static final Log log = LogFactory.getLog(DeviceAgentServiceImpl.class);
     private static final String POLICY_MONITOR = "POLICY_MONITOR";
+    private static final int MAX_EVENTS_PER_BATCH = 1000;
     @POST
     @Path("/enroll")
     @Override
@@ -411,9 +422,151 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
         }
     }
 
+    @POST
+    @Path("/events/publish/batch")
+    @Override
+    public Response publishEvents(@Valid List<DeviceEvent> events) {
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        try {
+            if (events == null || events.isEmpty()) {
+                String msg = "Invalid payload structure";
+                return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+            }
+            if (events.size() > MAX_EVENTS_PER_BATCH) {
+                String msg = "A batch cannot have more than " + MAX_EVENTS_PER_BATCH + " events";
+                return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+            }
+            // The events are grouped by device type, and the devices are authorized once each, in a single call.
+            Map<String, List<DeviceEvent>> eventsOfTypes = new LinkedHashMap<>();
+            Set<String> devices = new HashSet<>();
+            List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                DeviceEvent event = events.get(i);
+                if (event == null || event.getType() == null || event.getDeviceId() == null ||
+                        event.getPayloadData() == null) {
+                    String msg = "Event at index " + i + " does not have a device type, device id and payload data";
+                    return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+                }
+                List<DeviceEvent> eventsOfType = eventsOfTypes.get(event.getType());
+                if (eventsOfType == null) {
+                    eventsOfType = new ArrayList<>();
+                    eventsOfTypes.put(event.getType(), eventsOfType);
+                }
+                eventsOfType.add(event);
+                if (devices.add(event.getType() + ":" + event.getDeviceId())) {
+                    deviceIdentifiers.add(new DeviceIdentifier(event.getDeviceId(), event.getType()));
+                }
+            }
+            DeviceAuthorizationResult authorizationResult = DeviceMgtAPIUtils.getDeviceAccessAuthorizationService()
+                    .isUserAuthorized(deviceIdentifiers);
+            if (authorizationResult == null || (authorizationResult.getUnauthorizedDevices() != null &&
+                    !authorizationResult.getUnauthorizedDevices().isEmpty())) {
+                String msg = "Does not have permission to access some of the devices.";
+                return Response.status(Response.Status.UNAUTHORIZED).entity(msg).build();
+            }
+
+            // All the events are converted before any of them is published, so that an invalid event rejects the
+            // whole batch.
+            Map<String, List<Object[]>> payloadDataOfStreams = new LinkedHashMap<>();
+            Map<String, List<Object[]>> metaDataOfStreams = new LinkedHashMap<>();
+            for (Map.Entry<String, List<DeviceEvent>> eventsOfType : eventsOfTypes.entrySet()) {
+                EventStreamConverter converter;
+                try {
+                    converter = this.getEventStreamConverter(eventsOfType.getKey(), tenantDomain);
+                } catch (IllegalArgumentException e) {
+                    String msg = "Event stream of device type '" + eventsOfType.getKey() + "' cannot be published " +
+                            "to. " + e.getMessage();
+                    return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+                }
+                if (converter == null) {
+                    String msg = "No event stream is defined for device type '" + eventsOfType.getKey() + "'";
+                    return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+                }
+                List<Object[]> payloadData = new ArrayList<>(eventsOfType.getValue().size());
+                List<Object[]> metaData = new ArrayList<>(eventsOfType.getValue().size());
+                for (DeviceEvent event : eventsOfType.getValue()) {
+                    try {
+                        payloadData.add(converter.toPayloadData(event.getPayloadData()));
+                    } catch (IllegalArgumentException e) {
+                        String msg = "Payload of the event of device '" + event.getDeviceId() + "' does not match " +
+                                "with the stream definition. " + e.getMessage();
+                        return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
+                    }
+                    metaData.add(new Object[]{event.getDeviceId()});
+                }
+                payloadDataOfStreams.put(converter.getStreamName(), payloadData);
+                metaDataOfStreams.put(converter.getStreamName(), metaData);
+            }
+
+            int publishedCount = 0;
+            for (Map.Entry<String, List<Object[]>> payloadDataOfStream : payloadDataOfStreams.entrySet()) {
+                publishedCount += DeviceMgtAPIUtils.getEventPublisherService().publishEvents(
+                        payloadDataOfStream.getKey(), Constants.DEFAULT_STREAM_VERSION,
+                        metaDataOfStreams.get(payloadDataOfStream.getKey()), payloadDataOfStream.getValue());
+            }
+            if (publishedCount < events.size()) {
+                String msg = (events.size() - publishedCount) + " of " + events.size() + " events could not be " +
+                        "published.";
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(msg).build();
+            }
+            return Response.status(Response.Status.OK).build();
+        } catch (DataPublisherConfigurationException e) {
+            String msg = "Error occurred while publishing the events.";
+            log.error(msg, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(msg).build();
+        } catch (DeviceAccessAuthorizationException e) {
+            String msg = "Error occurred when checking for authorization";
+            log.error(msg, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(msg).build();
+        } catch (RemoteException e) {
+            log.error("Failed to retrieve event definitions for tenantDomain:" + tenantDomain, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        } catch (JWTClientException e) {
+            log.error("Failed to generate jwt token for tenantDomain:" + tenantDomain, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        } catch (UserStoreException e) {
+            log.error("Failed to connect with the user store, tenantDomain: " + tenantDomain, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Returns the converter of the event stream of a device type, compiling it from the stream definition if it is
+     * not cached.
+     *
+     * @return the converter, or null if no event stream is defined for the device type.
+     * @throws IllegalArgumentException if the stream definition has an attribute of a type which is not supported.
+     */
+    private EventStreamConverter getEventStreamConverter(String type, String tenantDomain)
+            throws RemoteException, UserStoreException, JWTClientException {
+        EventStreamConverter converter = DeviceMgtAPIUtils.getEventStreamConverterCache().get(type);
+        if (converter != null) {
+            return converter;
+        }
+        String streamName = DeviceMgtAPIUtils.getStreamDefinition(type, tenantDomain);
+        EventStreamAdminServiceStub eventStreamAdminServiceStub = DeviceMgtAPIUtils.getEventStreamAdminServiceStub();
+        try {
+            EventStreamDefinitionDto eventStreamDefinitionDto = eventStreamAdminServiceStub.getStreamDefinitionDto(
+                    streamName + ":" + Constants.DEFAULT_STREAM_VERSION);
+            if (eventStreamDefinitionDto == null || eventStreamDefinitionDto.getPayloadData() == null) {
+                return null;
+            }
+            converter = new EventStreamConverter(streamName, eventStreamDefinitionDto.getPayloadData());
+            DeviceMgtAPIUtils.getEventStreamConverterCache().put(type, converter);
+            return converter;
+        } finally {
+            try {
+                eventStreamAdminServiceStub.cleanup();
+            } catch (AxisFault axisFault) {
+                log.warn("Failed to clean eventStreamAdminServiceStub");
+            }
+        }
+    }
+
     @GET
     @Path("/pending/operations/{type}/{id}")
-    public Response getPendingOperations(@PathParam("type") String type, @PathParam("id") String deviceId) {
+    public Response getPendingOperations(@PathParam("type") String type, @PathParam("id") String deviceId,
+                                         @HeaderParam("If-None-Match") String ifNoneMatch) {
         try {
             if (!DeviceMgtAPIUtils.getDeviceManagementService().getAvailableDeviceTypes().contains(type)) {
                 String errorMessage = "Device identifier list is empty";
@@ -426,12 +579,19 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
                 log.error(msg);
                 return Response.status(Response.Status.NO_CONTENT).entity(msg).build();
             }
-            List<? extends Operation> operations = DeviceMgtAPIUtils.getDeviceManagementService().getPendingOperations(
-                    deviceIdentifier);
+            // The version is read before the operations, so that a change made in between changes the next tag.
+            PendingOperations pendingOperations = DeviceMgtAPIUtils.getDeviceManagementService()
+                    .getVersionedPendingOperations(deviceIdentifier);
+            String entityTag = EntityTagUtil.getEntityTag("pending-operations", pendingOperations.getVersion());
+            if (EntityTagUtil.isMatched(ifNoneMatch, entityTag)) {
+                return EntityTagUtil.notModified(entityTag);
+            }
+            List<? extends Operation> operations = pendingOperations.getOperations();
             OperationList operationsList = new OperationList();
             operationsList.setList(operations);
             operationsList.setCount(operations.size());
-            return Response.status(Response.Status.OK).entity(operationsList).build();
+            return Response.status(Response.Status.OK).entity(operationsList)
+                    .header(HttpHeaders.ETAG, entityTag).build();
         } catch (OperationManagementException e) {
             String errorMessage = "Issue in retrieving operation management service instance";
             log.error(errorMessage, e);
@@ -203,6 +203,7 @@ public class DeviceEventManagementServiceImpl implements DeviceEventManagementSe
             String streamName = DeviceMgtAPIUtils.getStreamDefinition(deviceType, tenantDomain);
             String streamNameWithVersion = streamName + ":" + Constants.DEFAULT_STREAM_VERSION;
             publishStreamDefinitons(streamName, Constants.DEFAULT_STREAM_VERSION, deviceType, eventAttributes);
+            DeviceMgtAPIUtils.getEventStreamConverterCache().remove(deviceType);
             publishEventReceivers(streamNameWithVersion, transportType, tenantDomain, deviceType);
             publishEventStore(streamName, Constants.DEFAULT_STREAM_VERSION, eventAttributes);
             publishWebsocketPublisherDefinition(streamNameWithVersion, deviceType);
@@ -267,6 +268,7 @@ public class DeviceEventManagementServiceImpl implements DeviceEventManagementSe
                 return Response.status(Response.Status.NO_CONTENT).build();
             }
             eventStreamAdminServiceStub.removeEventStreamDefinition(streamName, Constants.DEFAULT_STREAM_VERSION);
+            DeviceMgtAPIUtils.getEventStreamConverterCache().remove(deviceType);
             EventReceiverAdminServiceCallbackHandler eventReceiverAdminServiceCallbackHandler =
                     new EventReceiverAdminServiceCallbackHandler() {
                     };
@@ -30,6 +30,7 @@ import org.wso2.carbon.device.mgt.common.Feature;
 import org.wso2.carbon.device.mgt.common.FeatureManager;
 import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
 import org.wso2.carbon.device.mgt.common.InvalidDeviceException;
+import org.wso2.carbon.device.mgt.common.PaginationCursor;
 import org.wso2.carbon.device.mgt.common.PaginationRequest;
 import org.wso2.carbon.device.mgt.common.PaginationResult;
 import org.wso2.carbon.device.mgt.common.app.mgt.Application;
@@ -59,9 +60,11 @@ import org.wso2.carbon.device.mgt.jaxrs.beans.DeviceList;
 import org.wso2.carbon.device.mgt.jaxrs.beans.ErrorResponse;
 import org.wso2.carbon.device.mgt.jaxrs.beans.OperationList;
 import org.wso2.carbon.device.mgt.jaxrs.beans.OperationRequest;
+import org.wso2.carbon.device.mgt.jaxrs.common.JsonListStreamingOutput;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.DeviceManagementService;
 import org.wso2.carbon.device.mgt.jaxrs.service.impl.util.RequestValidationUtil;
 import org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils;
+import org.wso2.carbon.device.mgt.jaxrs.util.EntityTagUtil;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
@@ -78,8 +81,10 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -129,7 +134,9 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             @HeaderParam("If-Modified-Since") String ifModifiedSince,
             @QueryParam("requireDeviceInfo") boolean requireDeviceInfo,
             @QueryParam("offset") int offset,
-            @QueryParam("limit") int limit) {
+            @QueryParam("limit") int limit,
+            @QueryParam("cursor") String cursor,
+            @HeaderParam("If-None-Match") String ifNoneMatch) {
         try {
             if (!StringUtils.isEmpty(name) && !StringUtils.isEmpty(role)) {
                 return Response.status(Response.Status.BAD_REQUEST).entity(
@@ -137,8 +144,20 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
                                 "parameters. Only one is allowed " +
                                 "at once.").build()).build();
             }
+            if (cursor != null && !StringUtils.isEmpty(role)) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(
+                        new ErrorResponse.ErrorResponseBuilder().setMessage("Request contains both cursor and role " +
+                                "parameters. Devices of a role can only be paged with the offset.").build()).build();
+            }
 //            RequestValidationUtil.validateSelectionCriteria(type, user, roleName, ownership, status);
-            RequestValidationUtil.validatePaginationParameters(offset, limit);
+            // Cursor based requests for more devices than a page holds are streamed to the client page by page.
+            boolean isStreamed = cursor != null && limit > RequestValidationUtil.MAX_PAGE_SIZE &&
+                    StringUtils.isEmpty(since) && StringUtils.isEmpty(ifModifiedSince);
+            if (isStreamed) {
+                RequestValidationUtil.validateStreamedListLimit(limit);
+            } else {
+                RequestValidationUtil.validatePaginationParameters(offset, limit);
+            }
             DeviceManagementProviderService dms = DeviceMgtAPIUtils.getDeviceManagementService();
             DeviceAccessAuthorizationService deviceAccessAuthorizationService =
                     DeviceMgtAPIUtils.getDeviceAccessAuthorizationService();
@@ -147,9 +166,17 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
                         new ErrorResponse.ErrorResponseBuilder().setMessage("Device access authorization service is " +
                                 "failed").build()).build();
             }
-            PaginationRequest request = new PaginationRequest(offset, limit);
+            PaginationRequest request = new PaginationRequest(offset,
+                    isStreamed ? RequestValidationUtil.MAX_PAGE_SIZE : limit);
             PaginationResult result;
             DeviceList devices = new DeviceList();
+            String entityTag = null;
+
+            if (cursor != null) {
+                request.setStartIndex(0);
+                request.setCursorBased(true);
+                request.setLastEnrolmentId(RequestValidationUtil.validatePaginationCursor(cursor));
+            }
 
             if (name != null && !name.isEmpty()) {
                 request.setDeviceName(name);
@@ -242,11 +269,24 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
                     return Response.status(Response.Status.OK).entity(devices).build();
                 }
             } else {
+                if (!isStreamed) {
+                    // The version of the page is read before the page, so that a change made in between changes the
+                    // next tag.
+                    entityTag = EntityTagUtil.getEntityTag(requireDeviceInfo ? "devices-with-info" : "devices",
+                            dms.getDevicesVersion(request));
+                    if (EntityTagUtil.isMatched(ifNoneMatch, entityTag)) {
+                        return EntityTagUtil.notModified(entityTag);
+                    }
+                }
                 if (requireDeviceInfo) {
                     result = dms.getAllDevices(request);
                 } else {
                     result = dms.getAllDevices(request, false);
                 }
+                if (isStreamed) {
+                    return Response.status(Response.Status.OK).entity(
+                            new DeviceListStreamingOutput(dms, request, requireDeviceInfo, limit, result)).build();
+                }
                 int resultCount = result.getRecordsTotal();
                 if (resultCount == 0) {
                     Response.status(Response.Status.OK).entity(devices).build();
@@ -255,7 +295,8 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
 
             devices.setList((List<Device>) result.getData());
             devices.setCount(result.getRecordsTotal());
-            return Response.status(Response.Status.OK).entity(devices).build();
+            devices.setNextCursor(result.getNextCursor());
+            return Response.status(Response.Status.OK).entity(devices).header(HttpHeaders.ETAG, entityTag).build();
         } catch (DeviceManagementException e) {
             String msg = "Error occurred while fetching all enrolled devices";
             log.error(msg, e);
@@ -356,8 +397,10 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             @PathParam("type") @Size(max = 45) String type,
             @PathParam("id") @Size(max = 45) String id,
             @QueryParam("owner") @Size(max = 100) String owner,
-            @HeaderParam("If-Modified-Since") String ifModifiedSince) {
+            @HeaderParam("If-Modified-Since") String ifModifiedSince,
+            @HeaderParam("If-None-Match") String ifNoneMatch) {
         Device device = null;
+        String entityTag = null;
         try {
             RequestValidationUtil.validateDeviceIdentifier(type, id);
             DeviceManagementProviderService dms = DeviceMgtAPIUtils.getDeviceManagementService();
@@ -376,7 +419,8 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             }
 
             Date sinceDate = null;
-            if (ifModifiedSince != null && !ifModifiedSince.isEmpty()) {
+            // If-Modified-Since is ignored when the request has an If-None-Match header.
+            if (ifNoneMatch == null && ifModifiedSince != null && !ifModifiedSince.isEmpty()) {
                 SimpleDateFormat format = new SimpleDateFormat("EEE, d MMM yyyy HH:mm:ss Z");
                 try {
                     sinceDate = format.parse(ifModifiedSince);
@@ -387,6 +431,20 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
                 }
             }
 
+            // The version of the device is read before the device, so that a change made in between changes the
+            // next tag. A user who may not read the devices of the given owner is refused below.
+            if (sinceDate == null && (StringUtils.isEmpty(owner) || authorizedUser.equalsIgnoreCase(owner) ||
+                    deviceAccessAuthorizationService.isDeviceAdminUser())) {
+                String deviceOwner = StringUtils.isEmpty(owner) ? null : owner;
+                if (deviceOwner == null && !deviceAccessAuthorizationService.isDeviceAdminUser()) {
+                    deviceOwner = authorizedUser;
+                }
+                entityTag = EntityTagUtil.getEntityTag("device", dms.getDeviceVersion(deviceIdentifier, deviceOwner));
+                if (EntityTagUtil.isMatched(ifNoneMatch, entityTag)) {
+                    return EntityTagUtil.notModified(entityTag);
+                }
+            }
+
             if (!StringUtils.isEmpty(owner)) {
                 if (authorizedUser.equalsIgnoreCase(owner) || deviceAccessAuthorizationService.isDeviceAdminUser()) {
                     if (sinceDate != null) {
@@ -443,7 +501,7 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
                     new ErrorResponse.ErrorResponseBuilder().setCode(404l).setMessage("Requested device of type '" +
                             type + "', which carries id '" + id + "' does not exist").build()).build();
         }
-        return Response.status(Response.Status.OK).entity(device).build();
+        return Response.status(Response.Status.OK).entity(device).header(HttpHeaders.ETAG, entityTag).build();
     }
 
     @GET
@@ -614,14 +672,23 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
     @Override
     public Response getEffectivePolicyOfDevice(@PathParam("type") @Size(max = 45) String type,
                                                @PathParam("id") @Size(max = 45) String id,
-                                               @HeaderParam("If-Modified-Since") String ifModifiedSince) {
+                                               @HeaderParam("If-Modified-Since") String ifModifiedSince,
+                                               @HeaderParam("If-None-Match") String ifNoneMatch) {
         try {
             RequestValidationUtil.validateDeviceIdentifier(type, id);
 
             PolicyManagerService policyManagementService = DeviceMgtAPIUtils.getPolicyManagementService();
-            Policy policy = policyManagementService.getAppliedPolicyToDevice(new DeviceIdentifier(id, type));
+            DeviceIdentifier deviceIdentifier = new DeviceIdentifier(id, type);
+            // The version of the applied policy is read before the policy, so that a change made in between changes
+            // the next tag.
+            String entityTag = EntityTagUtil.getEntityTag("effective-policy",
+                    policyManagementService.getAppliedPolicyVersion(deviceIdentifier));
+            if (EntityTagUtil.isMatched(ifNoneMatch, entityTag)) {
+                return EntityTagUtil.notModified(entityTag);
+            }
+            Policy policy = policyManagementService.getAppliedPolicyToDevice(deviceIdentifier);
 
-            return Response.status(Response.Status.OK).entity(policy).build();
+            return Response.status(Response.Status.OK).entity(policy).header(HttpHeaders.ETAG, entityTag).build();
         } catch (PolicyManagementException e) {
             String msg = "Error occurred while retrieving the current policy associated with the '" + type +
                     "' device, which carries the id '" + id + "'";
@@ -788,4 +855,67 @@ public class DeviceManagementServiceImpl implements DeviceManagementService {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         }
     }
+    /**
+     * Streams the devices of a cursor based request for more devices than a page holds, reading the devices page by
+     * page by following the cursors of the pages.
+     */
+    private static class DeviceListStreamingOutput extends JsonListStreamingOutput<Device> {
+
+        private final DeviceManagementProviderService dms;
+        private final PaginationRequest request;
+        private final boolean requireDeviceInfo;
+        private int remaining;
+        private long count;
+        private String nextCursor;
+
+        @SuppressWarnings("unchecked")
+        DeviceListStreamingOutput(DeviceManagementProviderService dms, PaginationRequest request,
+                                  boolean requireDeviceInfo, int limit, PaginationResult firstPage) {
+            super("devices", Device.class, (List<Device>) firstPage.getData());
+            this.dms = dms;
+            this.request = request;
+            this.requireDeviceInfo = requireDeviceInfo;
+            this.remaining = limit;
+            this.readPage(firstPage);
+        }
+
+        @Override
+        protected List<Device> nextPage() throws IOException {
+            if (nextCursor == null || remaining <= 0) {
+                return null;
+            }
+            request.setLastEnrolmentId(PaginationCursor.decode(nextCursor));
+            request.setRowCount(Math.min(remaining, RequestValidationUtil.MAX_PAGE_SIZE));
+            try {
+                if (requireDeviceInfo) {
+                    return this.readPage(dms.getAllDevices(request));
+                } else {
+                    return this.readPage(dms.getAllDevices(request, false));
+                }
+            } catch (DeviceManagementException e) {
+                String msg = "Error occurred while fetching the devices following the cursor '" + nextCursor + "'";
+                log.error(msg, e);
+                throw new IOException(msg, e);
+            }
+        }
+
+        @Override
+        protected long getCount() {
+            return count;
+        }
+
+        @Override
+        protected String getNextCursor() {
+            return nextCursor;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Device> readPage(PaginationResult result) {
+            List<Device> page = (List<Device>) result.getData();
+            count = result.getRecordsTotal();
+            nextCursor = result.getNextCursor();
+            remaining -= (page == null) ? 0 : page.size();
+            return page;
+        }
+    }
 }
@@ -25,6 +25,8 @@ import org.netbeans.lib.cvsclient.commandLine.command.log;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.PrivacyComplianceException;
+import org.wso2.carbon.device.mgt.core.privacy.DeviceErasureStatus;
+import org.wso2.carbon.device.mgt.jaxrs.beans.ErrorResponse;
 import org.wso2.carbon.device.mgt.jaxrs.beans.PasswordResetWrapper;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.admin.UserManagementAdminService;
 import org.wso2.carbon.device.mgt.jaxrs.util.CredentialManagementResponseBuilder;
@@ -58,14 +60,26 @@ public class UserManagementAdminServiceImpl implements UserManagementAdminServic
     @Path("/{username}/devices")
     @Override
     public Response deleteDeviceOfUser(@PathParam("username") String username) {
-        try {
-            DeviceMgtAPIUtils.getPrivacyComplianceProvider().deleteDevicesOfUser(username);
-            return Response.status(Response.Status.OK).build();
-        } catch (PrivacyComplianceException e) {
+        DeviceErasureStatus status = DeviceMgtAPIUtils.getPrivacyComplianceProvider().eraseDevicesOfUser(username);
+        if (status.getState() == DeviceErasureStatus.State.FAILED) {
             String msg = "Error occurred while deleting the devices belongs to the user.";
-            log.error(msg, e);
+            log.error(msg + " " + status.getMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(msg).build();
         }
+        return Response.status(Response.Status.ACCEPTED).entity(status).build();
+    }
+
+    @GET
+    @Path("/{username}/devices/erasure-status")
+    @Override
+    public Response getDeviceErasureStatusOfUser(@PathParam("username") String username) {
+        DeviceErasureStatus status = DeviceMgtAPIUtils.getPrivacyComplianceProvider().getErasureStatus(username);
+        if (status == null) {
+            String msg = "No erasure of the devices of user " + username + " is found.";
+            return Response.status(Response.Status.NOT_FOUND).entity(
+                    new ErrorResponse.ErrorResponseBuilder().setMessage(msg).build()).build();
+        }
+        return Response.status(Response.Status.OK).entity(status).build();
     }
 
     @DELETE
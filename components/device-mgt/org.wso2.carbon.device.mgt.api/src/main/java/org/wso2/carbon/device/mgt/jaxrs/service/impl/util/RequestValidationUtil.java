@@ -20,6 +20,7 @@ package org.wso2.carbon.device.mgt.jaxrs.service.impl.util;
 
 import org.wso2.carbon.device.mgt.jaxrs.beans.Scope;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.PaginationCursor;
 import org.wso2.carbon.device.mgt.common.configuration.mgt.PlatformConfiguration;
 import org.wso2.carbon.device.mgt.common.notification.mgt.Notification;
 import org.wso2.carbon.device.mgt.jaxrs.beans.*;
@@ -29,6 +30,9 @@ import java.util.List;
 
 public class RequestValidationUtil {
 
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_STREAMED_LIST_SIZE = 10000;
+
     /**
      * Checks if multiple criteria are specified in a conditional request.
      *
@@ -337,7 +341,7 @@ public class RequestValidationUtil {
                     new ErrorResponse.ErrorResponseBuilder().setCode(400l).setMessage("Request parameter limit is a " +
                             "negative value.").build());
         }
-        if (limit > 100) {
+        if (limit > MAX_PAGE_SIZE) {
             throw new InputValidationException(
                     new ErrorResponse.ErrorResponseBuilder().setCode(400l).setMessage("Request parameter limit should" +
                             " be less than or equal to 100.").build());
@@ -345,6 +349,40 @@ public class RequestValidationUtil {
 
     }
 
+    /**
+     * Validates the limit of a cursor based request whose list is streamed to the client one page at a time, and
+     * hence may exceed the size of a page.
+     *
+     * @param limit maximum number of entities to be listed.
+     */
+    public static void validateStreamedListLimit(int limit) {
+        if (limit > MAX_STREAMED_LIST_SIZE) {
+            throw new InputValidationException(
+                    new ErrorResponse.ErrorResponseBuilder().setCode(400l).setMessage("Request parameter limit should" +
+                            " be less than or equal to " + MAX_STREAMED_LIST_SIZE + " for cursor based requests.")
+                            .build());
+        }
+    }
+
+    /**
+     * Validates the cursor of a cursor based pagination request.
+     *
+     * @param cursor cursor received from the client, empty for the first page.
+     * @return enrolment id of the last device of the previous page, 0 for the first page.
+     */
+    public static int validatePaginationCursor(String cursor) {
+        if (cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            return PaginationCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InputValidationException(
+                    new ErrorResponse.ErrorResponseBuilder().setCode(400l).setMessage("Request parameter cursor is " +
+                            "not a cursor returned by a previous request.").build());
+        }
+    }
+
     public static void validateOwnerParameter(String owner) {
         if (owner == null || owner.isEmpty()) {
             throw new InputValidationException(
@@ -120,6 +120,7 @@ public class DeviceMgtAPIUtils {
     private static final String SSLV3 = "SSLv3";
     private static final String EVENT_CACHE_MANAGER_NAME = "mqttAuthorizationCacheManager";
     private static final String EVENT_CACHE_NAME = "mqttAuthorizationCache";
+    private static final String EVENT_STREAM_CONVERTER_CACHE_NAME = "eventStreamConverterCache";
     public static final String DAS_ADMIN_SERVICE_EP = "https://" + DAS_HOST_NAME + ":" + DAS_PORT + "/services/";
     private static SSLContext sslContext;
 
@@ -646,6 +647,18 @@ public class DeviceMgtAPIUtils {
         return Caching.getCacheManagerFactory().getCacheManager(EVENT_CACHE_MANAGER_NAME).getCache(EVENT_CACHE_NAME);
     }
 
+    /**
+     * This method is used to get the Cache that holds the event stream converters of the device types, by device type.
+     * The converter of a device type is removed when its event definition is deployed or deleted, and expires with
+     * the other entries of the cache so that definitions changed through other nodes are picked up.
+     *
+     * @return Cache of the event stream converters of the tenant.
+     */
+    public static synchronized Cache<String, EventStreamConverter> getEventStreamConverterCache() {
+        return Caching.getCacheManagerFactory().getCacheManager(EVENT_CACHE_MANAGER_NAME)
+                .getCache(EVENT_STREAM_CONVERTER_CACHE_NAME);
+    }
+
     /**
      * Loads the keystore.
      *
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.jaxrs.util;
+
+import org.apache.commons.codec.binary.Hex;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Builds the entity tags of resources from the versions read by the core services, and evaluates the If-None-Match
+ * header of conditional requests against them, so that a resource which has not changed is answered with
+ * 304 (Not Modified) without being loaded.
+ * <p>
+ * The tags are strong: the version of a resource changes with any change of its representation, so two responses
+ * having the same tag are identical.
+ */
+public class EntityTagUtil {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String ANY_TAG = "*";
+    private static final String WEAK_TAG_PREFIX = "W/";
+
+    private EntityTagUtil() {
+    }
+
+    /**
+     * @param resource name of the kind of resource, so that resources of different kinds never share a tag.
+     * @param version  version of the resource read from the core services.
+     * @return the quoted entity tag of the resource, or null if the version is null.
+     */
+    public static String getEntityTag(String resource, String version) {
+        if (version == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            byte[] hash = digest.digest((resource + "|" + version).getBytes(StandardCharsets.UTF_8));
+            return "\"" + new String(Hex.encodeHex(hash)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not supported by the JVM", e);
+        }
+    }
+
+    /**
+     * Evaluates an If-None-Match header with the weak comparison required for it, i.e. ignoring the weakness
+     * indicators of the listed tags.
+     *
+     * @param ifNoneMatch value of the If-None-Match header, null if the request does not have the header.
+     * @param entityTag   current entity tag of the resource, null if the resource has no tag.
+     * @return true if the client already has the current representation of the resource.
+     */
+    public static boolean isMatched(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null || entityTag == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith(WEAK_TAG_PREFIX)) {
+                tag = tag.substring(WEAK_TAG_PREFIX.length());
+            }
+            if (ANY_TAG.equals(tag) || entityTag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param entityTag current entity tag of the resource.
+     * @return the 304 (Not Modified) response carrying the tag.
+     */
+    public static Response notModified(String entityTag) {
+        return Response.status(Response.Status.NOT_MODIFIED).header(HttpHeaders.ETAG, entityTag).build();
+    }
+
+}
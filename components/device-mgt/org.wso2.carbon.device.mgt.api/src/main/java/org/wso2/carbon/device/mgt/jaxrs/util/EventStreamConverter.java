@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.jaxrs.util;
+
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.AttributeType;
+import org.wso2.carbon.event.stream.stub.types.EventStreamAttributeDto;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts the payloads of the events of a device type to the payload data of its event stream. The converter is
+ * compiled once from the payload attributes of the stream definition, i.e. the value converter of each attribute is
+ * resolved up front, so that converting an event is a single pass over the attributes.
+ */
+public class EventStreamConverter {
+
+    private final String streamName;
+    private final String[] attributeNames;
+    private final ValueConverter[] valueConverters;
+
+    /**
+     * @param streamName name of the event stream.
+     * @param attributes payload attributes of the stream definition, in the order of the payload data.
+     * @throws IllegalArgumentException if an attribute has a type which is not supported.
+     */
+    public EventStreamConverter(String streamName, EventStreamAttributeDto[] attributes) {
+        this.streamName = streamName;
+        this.attributeNames = new String[attributes.length];
+        this.valueConverters = new ValueConverter[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            attributeNames[i] = attributes[i].getAttributeName();
+            String attributeType = attributes[i].getAttributeType();
+            if (attributeType == null) {
+                throw new IllegalArgumentException("Attribute '" + attributeNames[i] + "' of stream '" + streamName +
+                        "' does not have a type");
+            }
+            try {
+                valueConverters[i] = getValueConverter(AttributeType.valueOf(attributeType.toUpperCase(
+                        Locale.ENGLISH)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Attribute '" + attributeNames[i] + "' of stream '" + streamName +
+                        "' has type '" + attributeType + "' which is not supported", e);
+            }
+        }
+    }
+
+    public String getStreamName() {
+        return streamName;
+    }
+
+    /**
+     * Converts the payload of an event given as the values of the attributes by attribute name.
+     *
+     * @param payload values of the attributes of the event.
+     * @return the payload data of the event, in the order of the stream definition.
+     * @throws IllegalArgumentException if the payload does not match with the stream definition.
+     */
+    public Object[] toPayloadData(Map<String, Object> payload) {
+        if (payload.size() != attributeNames.length) {
+            throw new IllegalArgumentException("Payload has " + payload.size() + " attributes while the stream " +
+                    "definition has " + attributeNames.length);
+        }
+        Object[] payloadData = new Object[attributeNames.length];
+        for (int i = 0; i < attributeNames.length; i++) {
+            payloadData[i] = this.convert(i, payload.get(attributeNames[i]));
+        }
+        return payloadData;
+    }
+
+    /**
+     * Converts the payload of an event given as the values of the attributes in the order of the stream definition.
+     *
+     * @param payload values of the attributes of the event.
+     * @return the payload data of the event.
+     * @throws IllegalArgumentException if the payload does not match with the stream definition.
+     */
+    public Object[] toPayloadData(List<Object> payload) {
+        if (payload.size() != attributeNames.length) {
+            throw new IllegalArgumentException("Payload has " + payload.size() + " attributes while the stream " +
+                    "definition has " + attributeNames.length);
+        }
+        Object[] payloadData = new Object[attributeNames.length];
+        for (int i = 0; i < attributeNames.length; i++) {
+            payloadData[i] = this.convert(i, payload.get(i));
+        }
+        return payloadData;
+    }
+
+    private Object convert(int index, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Payload does not have a value for attribute '" +
+                    attributeNames[index] + "'");
+        }
+        Object convertedValue = valueConverters[index].convert(value);
+        if (convertedValue == null) {
+            throw new IllegalArgumentException("Value of attribute '" + attributeNames[index] + "' is not of the " +
+                    "type of the attribute");
+        }
+        return convertedValue;
+    }
+
+    private static ValueConverter getValueConverter(AttributeType type) {
+        switch (type) {
+            case INT:
+                return INT_CONVERTER;
+            case LONG:
+                return LONG_CONVERTER;
+            case FLOAT:
+                return FLOAT_CONVERTER;
+            case DOUBLE:
+                return DOUBLE_CONVERTER;
+            case BOOL:
+                return BOOL_CONVERTER;
+            default:
+                return STRING_CONVERTER;
+        }
+    }
+
+    /**
+     * Converts a value of the JSON payload to the type of an attribute. JSON numbers are given as doubles.
+     */
+    private interface ValueConverter {
+
+        /**
+         * @return the converted value, or null if the value is not of the type of the attribute.
+         */
+        Object convert(Object value);
+    }
+
+    private static final ValueConverter INT_CONVERTER = new ValueConverter() {
+        @Override
+        public Object convert(Object value) {
+            return value instanceof Number ? ((Number) value).intValue() : null;
+        }
+    };
+
+    private static final ValueConverter LONG_CONVERTER = new ValueConverter() {
+        @Override
+        public Object convert(Object value) {
+            return value instanceof Number ? ((Number) value).longValue() : null;
+        }
+    };
+
+    private static final ValueConverter FLOAT_CONVERTER = new ValueConverter() {
+        @Override
+        public Object convert(Object value) {
+            return value instanceof Number ? ((Number) value).floatValue() : null;
+        }
+    };
+
+    private static final ValueConverter DOUBLE_CONVERTER = new ValueConverter() {
+        @Override
+        public Object convert(Object value) {
+            return value instanceof Number ? ((Number) value).doubleValue() : null;
+        }
+    };
+
+    private static final ValueConverter BOOL_CONVERTER = new ValueConverter() {
+        @Override
+        public Object convert(Object value) {
+            return value instanceof Boolean ? value : null;
+        }
+    };
+
+    private static final ValueConverter STRING_CONVERTER = new ValueConverter() {
+        @Override
+        public Object convert(Object value) {
+            return value instanceof String ? value : null;
+        }
+    };
+
+}
@@ -19,9 +19,13 @@
 
 package org.wso2.carbon.device.mgt.jaxrs.service.impl;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
@@ -33,12 +37,15 @@ import org.testng.annotations.ObjectFactory;
 import org.testng.annotations.Test;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.PaginationCursor;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationService;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityFeed;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.core.authorization.DeviceAccessAuthorizationServiceImpl;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
+import org.wso2.carbon.device.mgt.jaxrs.beans.ActivityList;
 import org.wso2.carbon.device.mgt.jaxrs.common.ActivityIdList;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.ActivityInfoProviderService;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.DeviceManagementService;
@@ -47,7 +54,11 @@ import org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -242,4 +253,89 @@ public class ActivityProviderServiceImplTest {
         Mockito.reset(this.deviceManagementProviderService);
     }
 
+    @Test(description = "This method tests getting the activity feed following a cursor")
+    public void testGetActivitiesWithCursor() throws OperationManagementException {
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "isAdmin")).toReturn(true);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(this.deviceManagementProviderService);
+        ActivityFeed feed = new ActivityFeed();
+        feed.setActivities(activities);
+        feed.setLastUpdatedTimestamp(1533081600L);
+        feed.setLastMappingId(12);
+        feed.setChangeCount(activities.size());
+        Mockito.when(this.deviceManagementProviderService.getActivityFeed(1533081000L, 10, LIMIT, false))
+                .thenReturn(feed);
+        Response response = this.activityInfoProviderService.getActivities(null, OFFSET, LIMIT, null,
+                PaginationCursor.encodeActivityPosition(1533081000L, 10), false);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+        ActivityList activityList = (ActivityList) response.getEntity();
+        Assert.assertEquals(activityList.getList().size(), activities.size());
+        Assert.assertEquals(PaginationCursor.decodeActivityTimestamp(activityList.getNextCursor()), 1533081600L);
+        Assert.assertEquals(PaginationCursor.decodeActivityMappingId(activityList.getNextCursor()), 12);
+        Mockito.verify(this.deviceManagementProviderService, Mockito.never()).getActivityCountUpdatedAfter(
+                Mockito.anyLong());
+        Mockito.reset(this.deviceManagementProviderService);
+    }
+
+    @Test(description = "This method tests streaming the activity feed of a cursor based request for more changes "
+            + "than a page holds")
+    public void testGetActivitiesStreamed() throws OperationManagementException, IOException {
+        final List<Integer> pageSizes = new ArrayList<>();
+        DeviceManagementProviderService dmService = Mockito.mock(DeviceManagementProviderServiceImpl.class);
+        Mockito.when(dmService.getActivityFeed(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(),
+                Mockito.eq(true))).thenAnswer(new Answer<ActivityFeed>() {
+            @Override
+            public ActivityFeed answer(InvocationOnMock invocation) {
+                long timestamp = (Long) invocation.getArguments()[0];
+                int lastMappingId = (Integer) invocation.getArguments()[1];
+                int pageSize = (Integer) invocation.getArguments()[2];
+                // Each page follows the position the previous page ended at, the third page being the last one.
+                Assert.assertEquals(timestamp, 1533081000L + pageSizes.size());
+                Assert.assertEquals(lastMappingId, 10 + pageSizes.size() * RequestValidationUtil.MAX_PAGE_SIZE);
+                pageSizes.add(pageSize);
+                int changeCount = pageSizes.size() < 3 ? pageSize : 30;
+                List<Activity> page = new ArrayList<>();
+                for (int i = 0; i < changeCount; i++) {
+                    Activity activity = new Activity();
+                    activity.setActivityId("ACTIVITY_" + (lastMappingId + i + 1));
+                    page.add(activity);
+                }
+                ActivityFeed feed = new ActivityFeed();
+                feed.setActivities(page);
+                feed.setChangeCount(changeCount);
+                feed.setLastUpdatedTimestamp(timestamp + 1);
+                feed.setLastMappingId(lastMappingId + changeCount);
+                return feed;
+            }
+        });
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "isAdmin")).toReturn(true);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(dmService);
+
+        Response response = this.activityInfoProviderService.getActivities(null, OFFSET, 250, null,
+                PaginationCursor.encodeActivityPosition(1533081000L, 10), true);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+        Assert.assertTrue(response.getEntity() instanceof StreamingOutput, "Activities are not streamed.");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        JsonObject activityFeed = new JsonParser().parse(output.toString("UTF-8")).getAsJsonObject();
+        Assert.assertEquals(activityFeed.getAsJsonArray("activities").size(), 230, "All the pages are not streamed.");
+        Assert.assertEquals(activityFeed.getAsJsonArray("activities").get(229).getAsJsonObject()
+                .get("activityId").getAsString(), "ACTIVITY_240");
+        Assert.assertEquals(activityFeed.get("count").getAsLong(), 230);
+        String nextCursor = activityFeed.get("nextCursor").getAsString();
+        Assert.assertEquals(PaginationCursor.decodeActivityTimestamp(nextCursor), 1533081003L);
+        Assert.assertEquals(PaginationCursor.decodeActivityMappingId(nextCursor), 240);
+        Assert.assertEquals(pageSizes, Arrays.asList(RequestValidationUtil.MAX_PAGE_SIZE,
+                RequestValidationUtil.MAX_PAGE_SIZE, 50), "Pages are not limited to the requested changes.");
+    }
+
+    @Test(description = "This method tests getting the activity feed with an invalid cursor")
+    public void testGetActivitiesWithInvalidCursor() {
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "isAdmin")).toReturn(true);
+        Response response = this.activityInfoProviderService.getActivities(null, OFFSET, LIMIT, null,
+                PaginationCursor.encode(10), false);
+        Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
 }
@@ -43,12 +43,15 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationService;
+import org.wso2.carbon.device.mgt.common.authorization.DeviceAuthorizationResult;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.PendingOperations;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
 import org.wso2.carbon.device.mgt.core.authorization.DeviceAccessAuthorizationServiceImpl;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
+import org.wso2.carbon.device.mgt.jaxrs.beans.analytics.DeviceEvent;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.DeviceAgentService;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.admin.DeviceTypeManagementAdminService;
 import org.wso2.carbon.device.mgt.jaxrs.service.impl.util.DeviceMgtAPITestHelper;
@@ -63,6 +66,7 @@ import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.utils.CarbonUtils;
 
 import javax.cache.CacheManager;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
@@ -92,6 +96,7 @@ public class DeviceAgentServiceTest {
     private CacheManager cacheManager;
     private DeviceAccessAuthorizationService deviceAccessAuthorizationService;
     private static final String TEST_DEVICE_TYPE = "TEST-DEVICE-TYPE";
+    private static final String BATCH_TEST_DEVICE_TYPE = "BATCH-TEST-DEVICE-TYPE";
     private static final String TEST_DEVICE_IDENTIFIER = "11222334455";
     private static final String AUTHENTICATED_USER = "admin";
     private static final String MONITOR_OPERATION = "POLICY_MONITOR";
@@ -551,6 +556,130 @@ public class DeviceAgentServiceTest {
                 "The response status should be 200");
     }
 
+    @Test(description = "Test publishing a batch of events with an empty batch.")
+    public void testPublishEventBatchWithEmptyBatch() {
+        Response response = this.deviceAgentService.publishEvents(new ArrayList<DeviceEvent>());
+        Assert.assertNotNull(response, "Response should not be null");
+        Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode(),
+                "The response status should be 400");
+    }
+
+    @Test(description = "Test publishing a batch of events when some of the devices are not authorized.")
+    public void testPublishEventBatchWithoutAuthorization() throws DeviceAccessAuthorizationException {
+        PowerMockito.stub(PowerMockito.method(PrivilegedCarbonContext.class, "getThreadLocalCarbonContext"))
+                .toReturn(this.privilegedCarbonContext);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class,
+                "getDeviceAccessAuthorizationService")).toReturn(this.deviceAccessAuthorizationService);
+        Mockito.when(this.privilegedCarbonContext.getTenantDomain())
+                .thenReturn(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        DeviceAuthorizationResult authorizationResult = new DeviceAuthorizationResult();
+        authorizationResult.addUnauthorizedDevice(new DeviceIdentifier("2", BATCH_TEST_DEVICE_TYPE));
+        Mockito.when(this.deviceAccessAuthorizationService
+                .isUserAuthorized(Mockito.anyListOf(DeviceIdentifier.class)))
+                .thenReturn(authorizationResult);
+        Response response = this.deviceAgentService.publishEvents(getEventBatch(2, 10.0));
+        Assert.assertNotNull(response, "Response should not be null");
+        Assert.assertEquals(response.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode(),
+                "The response status should be 401");
+        Mockito.reset(this.deviceAccessAuthorizationService);
+    }
+
+    @Test(description = "Test publishing a batch of events success scenario.")
+    public void testPublishEventBatchSuccess() throws DeviceAccessAuthorizationException, RemoteException,
+            DataPublisherConfigurationException {
+        EventsPublisherService eventPublisherService = this.mockEventBatchPublishing();
+        Mockito.when(eventPublisherService.publishEvents(Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyListOf(Object[].class), Mockito.anyListOf(Object[].class))).thenReturn(3);
+        Response response = this.deviceAgentService.publishEvents(getEventBatch(3, 10.0));
+        Assert.assertNotNull(response, "Response should not be null");
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
+                "The response status should be 200");
+        Mockito.verify(this.deviceAccessAuthorizationService, Mockito.times(1))
+                .isUserAuthorized(Mockito.anyListOf(DeviceIdentifier.class));
+        Mockito.verify(eventPublisherService, Mockito.times(1)).publishEvents(Mockito.anyString(),
+                Mockito.anyString(), Mockito.anyListOf(Object[].class), Mockito.anyListOf(Object[].class));
+        Mockito.reset(this.deviceAccessAuthorizationService);
+    }
+
+    @Test(description = "Test publishing a batch of events having an event which does not match with the stream " +
+            "definition.")
+    public void testPublishEventBatchWithInvalidPayload() throws DeviceAccessAuthorizationException,
+            RemoteException, DataPublisherConfigurationException {
+        EventsPublisherService eventPublisherService = this.mockEventBatchPublishing();
+        Response response = this.deviceAgentService.publishEvents(getEventBatch(3, "10"));
+        Assert.assertNotNull(response, "Response should not be null");
+        Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode(),
+                "The response status should be 400");
+        Mockito.verify(eventPublisherService, Mockito.never()).publishEvents(Mockito.anyString(),
+                Mockito.anyString(), Mockito.anyListOf(Object[].class), Mockito.anyListOf(Object[].class));
+        Mockito.reset(this.deviceAccessAuthorizationService);
+    }
+
+    @Test(description = "Test publishing a batch of events of a device type whose stream definition has an " +
+            "attribute of a type which is not supported.")
+    public void testPublishEventBatchWithUnsupportedAttributeType() throws DeviceAccessAuthorizationException,
+            RemoteException, DataPublisherConfigurationException {
+        EventsPublisherService eventPublisherService = this.mockEventBatchPublishing();
+        EventStreamAttributeDto eventStreamAttributeDto = new EventStreamAttributeDto();
+        eventStreamAttributeDto.setAttributeName("temperature");
+        eventStreamAttributeDto.setAttributeType("decimal");
+        EventStreamDefinitionDto eventStreamDefinitionDto = new EventStreamDefinitionDto();
+        eventStreamDefinitionDto.setPayloadData(new EventStreamAttributeDto[]{eventStreamAttributeDto});
+        Mockito.when(this.eventStreamAdminServiceStub.getStreamDefinitionDto(Mockito.anyString()))
+                .thenReturn(eventStreamDefinitionDto);
+        Response response = this.deviceAgentService.publishEvents(getEventBatch(3, 10.0));
+        Assert.assertNotNull(response, "Response should not be null");
+        Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode(),
+                "The response status should be 400");
+        Mockito.verify(eventPublisherService, Mockito.never()).publishEvents(Mockito.anyString(),
+                Mockito.anyString(), Mockito.anyListOf(Object[].class), Mockito.anyListOf(Object[].class));
+        Mockito.reset(this.deviceAccessAuthorizationService);
+    }
+
+    private EventsPublisherService mockEventBatchPublishing() throws DeviceAccessAuthorizationException,
+            RemoteException {
+        PowerMockito.stub(PowerMockito.method(PrivilegedCarbonContext.class, "getThreadLocalCarbonContext"))
+                .toReturn(this.privilegedCarbonContext);
+        Mockito.when(this.privilegedCarbonContext.getTenantDomain())
+                .thenReturn(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class,
+                "getDeviceAccessAuthorizationService")).toReturn(this.deviceAccessAuthorizationService);
+        Mockito.when(this.deviceAccessAuthorizationService
+                .isUserAuthorized(Mockito.anyListOf(DeviceIdentifier.class)))
+                .thenReturn(new DeviceAuthorizationResult());
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getEventStreamAdminServiceStub"))
+                .toReturn(this.eventStreamAdminServiceStub);
+        CacheImpl cache = Mockito.mock(CacheImpl.class);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getEventStreamConverterCache"))
+                .toReturn(cache);
+        EventStreamAttributeDto eventStreamAttributeDto = new EventStreamAttributeDto();
+        eventStreamAttributeDto.setAttributeName("temperature");
+        eventStreamAttributeDto.setAttributeType("int");
+        EventStreamDefinitionDto eventStreamDefinitionDto = new EventStreamDefinitionDto();
+        eventStreamDefinitionDto.setPayloadData(new EventStreamAttributeDto[]{eventStreamAttributeDto});
+        Mockito.when(this.eventStreamAdminServiceStub.getStreamDefinitionDto(Mockito.anyString()))
+                .thenReturn(eventStreamDefinitionDto);
+        EventsPublisherService eventPublisherService = Mockito.mock(EventsPublisherServiceImpl.class,
+                Mockito.RETURNS_MOCKS);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getEventPublisherService"))
+                .toReturn(eventPublisherService);
+        return eventPublisherService;
+    }
+
+    private static List<DeviceEvent> getEventBatch(int size, Object temperature) {
+        List<DeviceEvent> events = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            DeviceEvent event = new DeviceEvent();
+            event.setType(BATCH_TEST_DEVICE_TYPE);
+            event.setDeviceId(String.valueOf(i));
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("temperature", temperature);
+            event.setPayloadData(payload);
+            events.add(event);
+        }
+        return events;
+    }
+
     @Test(description = "Test event publishing when PublishEvents throws DataPublisherConfigurationException.")
     public void testPublishEventsDataPublisherConfigurationException() throws DeviceAccessAuthorizationException,
             RemoteException, DataPublisherConfigurationException {
@@ -709,7 +838,8 @@ public class DeviceAgentServiceTest {
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes())
                 .thenReturn(new ArrayList<String>() {
                 });
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER,
+                null);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode(),
                 "The response status should be 400");
@@ -725,7 +855,8 @@ public class DeviceAgentServiceTest {
         List<String> deviceTypes = new ArrayList<>();
         deviceTypes.add(TEST_DEVICE_TYPE);
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes()).thenReturn(deviceTypes);
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER,
+                null);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertEquals(response.getStatus(), Response.Status.NO_CONTENT.getStatusCode(),
                 "The response status should be 204");
@@ -741,7 +872,8 @@ public class DeviceAgentServiceTest {
         List<String> deviceTypes = new ArrayList<>();
         deviceTypes.add(TEST_DEVICE_TYPE);
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes()).thenReturn(deviceTypes);
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER,
+                null);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertNotNull(response.getEntity(), "Response entity should not be null.");
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
@@ -749,6 +881,34 @@ public class DeviceAgentServiceTest {
         Mockito.reset(this.deviceManagementProviderService);
     }
 
+    @Test(description = "Test the get pending operations method with the entity tag of the unchanged operations.")
+    public void testGetPendingOperationsNotModified() throws DeviceManagementException, OperationManagementException {
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(this.deviceManagementProviderService);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "isValidDeviceIdentifier"))
+                .toReturn(true);
+        List<String> deviceTypes = new ArrayList<>();
+        deviceTypes.add(TEST_DEVICE_TYPE);
+        Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes()).thenReturn(deviceTypes);
+        PendingOperations pendingOperations = Mockito.mock(PendingOperations.class);
+        Mockito.when(pendingOperations.getVersion()).thenReturn("1:1:1:1:0");
+        Mockito.doReturn(new ArrayList<Operation>()).when(pendingOperations).getOperations();
+        Mockito.when(this.deviceManagementProviderService.getVersionedPendingOperations(Mockito.any()))
+                .thenReturn(pendingOperations);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER,
+                null);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
+                "The response status should be 200");
+        String entityTag = response.getHeaderString(HttpHeaders.ETAG);
+        Assert.assertNotNull(entityTag, "The response should have an entity tag.");
+        response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER, entityTag);
+        Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode(),
+                "The response status should be 304");
+        Mockito.verify(pendingOperations, Mockito.times(1)).getOperations();
+        Mockito.verify(this.deviceManagementProviderService, Mockito.never()).getPendingOperations(Mockito.any());
+        Mockito.reset(this.deviceManagementProviderService);
+    }
+
     @Test(description = "Test the scenario when get pending operations throw OperationManagementException.")
     public void testGetPendingOperationsWithOperationManagementException() throws DeviceManagementException,
             OperationManagementException {
@@ -759,9 +919,12 @@ public class DeviceAgentServiceTest {
         List<String> deviceTypes = new ArrayList<>();
         deviceTypes.add(TEST_DEVICE_TYPE);
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes()).thenReturn(deviceTypes);
-        Mockito.when(this.deviceManagementProviderService.getPendingOperations(Mockito.any())).thenThrow(new
-                OperationManagementException());
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        PendingOperations pendingOperations = Mockito.mock(PendingOperations.class);
+        Mockito.when(pendingOperations.getOperations()).thenThrow(new OperationManagementException());
+        Mockito.when(this.deviceManagementProviderService.getVersionedPendingOperations(Mockito.any()))
+                .thenReturn(pendingOperations);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER,
+                null);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertNotNull(response.getEntity(), "Response entity should not be null.");
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
@@ -777,7 +940,8 @@ public class DeviceAgentServiceTest {
                 .toReturn(true);
         Mockito.when(this.deviceManagementProviderService.getAvailableDeviceTypes())
                 .thenThrow(new DeviceManagementException());
-        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER);
+        Response response = this.deviceAgentService.getPendingOperations(TEST_DEVICE_TYPE, TEST_DEVICE_IDENTIFIER,
+                null);
         Assert.assertNotNull(response, "Response should not be null");
         Assert.assertNotNull(response.getEntity(), "Response entity should not be null.");
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
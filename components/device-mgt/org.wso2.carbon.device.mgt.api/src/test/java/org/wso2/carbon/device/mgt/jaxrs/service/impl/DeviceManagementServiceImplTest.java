@@ -18,9 +18,13 @@
 
 package org.wso2.carbon.device.mgt.jaxrs.service.impl;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
@@ -35,7 +39,9 @@ import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.PaginationCursor;
 import org.wso2.carbon.device.mgt.common.PaginationRequest;
+import org.wso2.carbon.device.mgt.common.PaginationResult;
 import org.wso2.carbon.device.mgt.common.app.mgt.ApplicationManagementException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationService;
@@ -52,15 +58,22 @@ import org.wso2.carbon.device.mgt.core.search.mgt.impl.SearchManagerServiceImpl;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.device.mgt.jaxrs.service.api.DeviceManagementService;
+import org.wso2.carbon.device.mgt.jaxrs.service.impl.util.RequestValidationUtil;
 import org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -147,7 +160,19 @@ public class DeviceManagementServiceImplTest {
                 .toReturn(this.deviceAccessAuthorizationService);
         Response response = this.deviceManagementService
                 .getDevices(TEST_DEVICE_NAME, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
+        Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    @Test(description = "Testing get devices when request exists both cursor and role.")
+    public void testGetDevicesWhenBothCursorAndRoleAvailable() {
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(this.deviceManagementProviderService);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceAccessAuthorizationService"))
+                .toReturn(this.deviceAccessAuthorizationService);
+        Response response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
+                        DEFAULT_STATUS, 1, null, null, false, 0, 5, "", null);
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
 
@@ -164,20 +189,93 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(TEST_DEVICE_NAME, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, null, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(TEST_DEVICE_NAME, TEST_DEVICE_TYPE, null, null, null, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(TEST_DEVICE_NAME, TEST_DEVICE_TYPE, null, null, null, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, true, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, true, 10, 5, null, null);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+    }
+
+    @Test(description = "Testing get devices of a cursor based request for more devices than a page holds.")
+    public void testGetDevicesStreamed() throws DeviceManagementException, IOException {
+        DeviceManagementProviderService dms = Mockito.mock(DeviceManagementProviderServiceImpl.class);
+        Mockito.when(dms.getAllDevices(Mockito.any(PaginationRequest.class), Mockito.anyBoolean()))
+                .thenReturn(getDevicePage(100, 150, PaginationCursor.encode(100)), getDevicePage(50, 150, null));
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(dms);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceAccessAuthorizationService"))
+                .toReturn(this.deviceAccessAuthorizationService);
+        PowerMockito.stub(PowerMockito.method(MultitenantUtils.class, "getTenantAwareUsername"))
+                .toReturn(TENANT_AWARE_USERNAME);
+        PowerMockito.stub(PowerMockito.method(CarbonContext.class, "getThreadLocalCarbonContext"))
+                .toReturn(Mockito.mock(CarbonContext.class, Mockito.RETURNS_MOCKS));
+
+        Response response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, null, null, null, null, null, 0, null, null, false, 0, 200, "",
+                        null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+        Assert.assertTrue(response.getEntity() instanceof StreamingOutput, "Devices are not streamed.");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        JsonObject devices = new JsonParser().parse(output.toString("UTF-8")).getAsJsonObject();
+        Assert.assertEquals(devices.getAsJsonArray("devices").size(), 150, "All the pages are not streamed.");
+        Assert.assertEquals(devices.get("count").getAsLong(), 150);
+        Assert.assertFalse(devices.has("nextCursor"), "Cursor is given after the last page.");
+    }
+
+    @Test(description = "Testing that the devices of the largest streamed request are read a page at a time, each "
+            + "page being written before the next one is read.")
+    public void testGetDevicesStreamedMaxLimit() throws DeviceManagementException, IOException {
+        final int total = RequestValidationUtil.MAX_STREAMED_LIST_SIZE * 2;
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final List<Integer> writtenSizes = new ArrayList<>();
+        DeviceManagementProviderService dms = Mockito.mock(DeviceManagementProviderServiceImpl.class);
+        Mockito.when(dms.getAllDevices(Mockito.any(PaginationRequest.class), Mockito.anyBoolean()))
+                .thenAnswer(new Answer<PaginationResult>() {
+                    @Override
+                    public PaginationResult answer(InvocationOnMock invocation) {
+                        PaginationRequest request = (PaginationRequest) invocation.getArguments()[0];
+                        Assert.assertTrue(request.getRowCount() <= RequestValidationUtil.MAX_PAGE_SIZE,
+                                "More devices than a page holds are read at once.");
+                        writtenSizes.add(output.size());
+                        int lastEnrolmentId = writtenSizes.size() * request.getRowCount();
+                        return getDevicePage(request.getRowCount(), total, PaginationCursor.encode(lastEnrolmentId));
+                    }
+                });
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(dms);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceAccessAuthorizationService"))
+                .toReturn(this.deviceAccessAuthorizationService);
+        PowerMockito.stub(PowerMockito.method(MultitenantUtils.class, "getTenantAwareUsername"))
+                .toReturn(TENANT_AWARE_USERNAME);
+        PowerMockito.stub(PowerMockito.method(CarbonContext.class, "getThreadLocalCarbonContext"))
+                .toReturn(Mockito.mock(CarbonContext.class, Mockito.RETURNS_MOCKS));
+
+        Response response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, null, null, null, null, null, 0, null, null, false, 0,
+                        RequestValidationUtil.MAX_STREAMED_LIST_SIZE, "", null);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+        ((StreamingOutput) response.getEntity()).write(output);
+        JsonObject devices = new JsonParser().parse(output.toString("UTF-8")).getAsJsonObject();
+        Assert.assertEquals(devices.getAsJsonArray("devices").size(), RequestValidationUtil.MAX_STREAMED_LIST_SIZE);
+        Assert.assertEquals(devices.get("count").getAsLong(), total);
+        Assert.assertEquals(PaginationCursor.decode(devices.get("nextCursor").getAsString()),
+                RequestValidationUtil.MAX_STREAMED_LIST_SIZE, "Cursor does not follow the last streamed device.");
+        Assert.assertEquals(writtenSizes.size(),
+                RequestValidationUtil.MAX_STREAMED_LIST_SIZE / RequestValidationUtil.MAX_PAGE_SIZE);
+        for (int i = 1; i < writtenSizes.size(); i++) {
+            Assert.assertTrue(writtenSizes.get(i) > writtenSizes.get(i - 1),
+                    "Page " + i + " was read before the previous page was written.");
+        }
     }
 
     @Test(description = "Testing get devices when DeviceAccessAuthorizationService is not available")
@@ -188,7 +286,7 @@ public class DeviceManagementServiceImplTest {
                 .toReturn(null);
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
     }
 
@@ -206,11 +304,11 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, null, DEFAULT_USERNAME, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
     }
 
@@ -230,7 +328,7 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, "newuser", null, DEFAULT_ROLE, DEFAULT_OWNERSHIP, DEFAULT_STATUS, 1,
-                        null, null, false, 10, 5);
+                        null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode());
         Mockito.reset(this.deviceAccessAuthorizationService);
     }
@@ -249,18 +347,122 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, ifModifiedSince, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, ifModifiedSince, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, ifModifiedSince, true, 10, 5);
+                        DEFAULT_STATUS, 1, null, ifModifiedSince, true, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, "ErrorModifiedSince", false, 10, 5);
+                        DEFAULT_STATUS, 1, null, "ErrorModifiedSince", false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
 
+    @Test(description = "Testing get devices with the entity tag of the unchanged page")
+    public void testGetDevicesNotModified() throws DeviceManagementException {
+        DeviceManagementProviderService dms = Mockito.mock(DeviceManagementProviderServiceImpl.class);
+        Mockito.when(dms.getDevicesVersion(Mockito.any(PaginationRequest.class)))
+                .thenReturn("2||1:1:0,2:1:0", "2||1:1:0,2:1:0", "2||1:1:0,2:2:0");
+        Mockito.when(dms.getAllDevices(Mockito.any(PaginationRequest.class), Mockito.anyBoolean()))
+                .thenReturn(getDevicePage(2, 2, null));
+        mockDeviceAdmin(dms);
+
+        Response response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, null, null, null, null, null, 0, null, null, false, 0, 10, null,
+                        null);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+        String entityTag = response.getHeaderString(HttpHeaders.ETAG);
+        Assert.assertNotNull(entityTag, "Expects the page of devices to have an entity tag");
+        response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, null, null, null, null, null, 0, null, null, false, 0, 10, null,
+                        entityTag);
+        Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode(),
+                "Expects to return HTTP 304 when the page of devices is not changed");
+        Assert.assertEquals(response.getHeaderString(HttpHeaders.ETAG), entityTag);
+        Mockito.verify(dms, Mockito.times(1))
+                .getAllDevices(Mockito.any(PaginationRequest.class), Mockito.anyBoolean());
+
+        response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, null, null, null, null, null, 0, null, null, false, 0, 10, null,
+                        entityTag);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
+                "Expects to return HTTP 200 when a device of the page is changed");
+        Assert.assertNotEquals(response.getHeaderString(HttpHeaders.ETAG), entityTag);
+    }
+
+    @Test(description = "Testing get devices with the entity tag of the unchanged page when device info is required")
+    public void testGetDevicesWithInfoNotModified() throws DeviceManagementException {
+        DeviceManagementProviderService dms = Mockito.mock(DeviceManagementProviderServiceImpl.class);
+        Mockito.when(dms.getDevicesVersion(Mockito.any(PaginationRequest.class))).thenReturn("2||1:1:0,2:1:0");
+        Mockito.when(dms.getAllDevices(Mockito.any(PaginationRequest.class), Mockito.anyBoolean()))
+                .thenReturn(getDevicePage(2, 2, null));
+        Mockito.when(dms.getAllDevices(Mockito.any(PaginationRequest.class))).thenReturn(getDevicePage(2, 2, null));
+        mockDeviceAdmin(dms);
+
+        Response response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, null, null, null, null, null, 0, null, null, false, 0, 10, null,
+                        null);
+        String entityTag = response.getHeaderString(HttpHeaders.ETAG);
+        response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, null, null, null, null, null, 0, null, null, true, 0, 10, null,
+                        entityTag);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
+                "Expects the tag of a page without device info not to match the page with device info");
+        String entityTagWithInfo = response.getHeaderString(HttpHeaders.ETAG);
+        Assert.assertNotEquals(entityTagWithInfo, entityTag);
+        response = this.deviceManagementService
+                .getDevices(null, TEST_DEVICE_TYPE, null, null, null, null, null, 0, null, null, true, 0, 10, null,
+                        "W/" + entityTagWithInfo);
+        Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode(),
+                "Expects to return HTTP 304 when the page of devices with info is not changed");
+        Mockito.verify(dms, Mockito.times(1)).getAllDevices(Mockito.any(PaginationRequest.class));
+    }
+
+    @Test(description = "Testing get device with the entity tag of the unchanged device")
+    public void testGetDeviceNotModified() throws DeviceManagementException {
+        DeviceManagementProviderService dms = Mockito.mock(DeviceManagementProviderServiceImpl.class);
+        Mockito.when(dms.getDeviceVersion(Mockito.any(DeviceIdentifier.class), Mockito.anyString()))
+                .thenReturn("1:1:0", "1:1:0", "1:2:0");
+        Device device = getDevicePage(1, 1, null).getData().get(0);
+        Mockito.when(dms.getDevice(Mockito.any(DeviceIdentifier.class))).thenReturn(device);
+        mockDeviceAdmin(dms);
+        String deviceId = device.getDeviceIdentifier();
+
+        Response response = this.deviceManagementService.getDevice(TEST_DEVICE_TYPE, deviceId, null, null, null);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+        String entityTag = response.getHeaderString(HttpHeaders.ETAG);
+        Assert.assertNotNull(entityTag, "Expects the device to have an entity tag");
+        response = this.deviceManagementService.getDevice(TEST_DEVICE_TYPE, deviceId, null, null, entityTag);
+        Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode(),
+                "Expects to return HTTP 304 when the device is not changed");
+        Mockito.verify(dms, Mockito.times(1)).getDevice(Mockito.any(DeviceIdentifier.class));
+
+        response = this.deviceManagementService.getDevice(TEST_DEVICE_TYPE, deviceId, null, null, entityTag);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
+                "Expects to return HTTP 200 when the device is changed");
+        Assert.assertNotEquals(response.getHeaderString(HttpHeaders.ETAG), entityTag);
+    }
+
+    @Test(description = "Testing get device with an entity tag when the device is read by a user who does not own it")
+    public void testGetDeviceOfOtherOwnerWithEntityTag() throws DeviceManagementException,
+            DeviceAccessAuthorizationException {
+        DeviceManagementProviderService dms = Mockito.mock(DeviceManagementProviderServiceImpl.class);
+        DeviceAccessAuthorizationService deviceAccessAuthorizationService =
+                Mockito.mock(DeviceAccessAuthorizationServiceImpl.class);
+        Mockito.when(deviceAccessAuthorizationService.isUserAuthorized(Mockito.any(DeviceIdentifier.class),
+                Mockito.anyString())).thenReturn(true);
+        Mockito.when(deviceAccessAuthorizationService.isDeviceAdminUser()).thenReturn(false);
+        mockServices(dms, deviceAccessAuthorizationService);
+
+        Response response = this.deviceManagementService.getDevice(TEST_DEVICE_TYPE, UUID.randomUUID().toString(),
+                "other-user", null, "*");
+        Assert.assertEquals(response.getStatus(), Response.Status.UNAUTHORIZED.getStatusCode(),
+                "Expects the tag not to be evaluated for a device the user may not read");
+        Mockito.verify(dms, Mockito.never())
+                .getDeviceVersion(Mockito.any(DeviceIdentifier.class), Mockito.anyString());
+    }
+
     @Test(description = "Testing get devices with Since")
     public void testGetDevicesWithSince() {
         String since = new SimpleDateFormat(DEFAULT_DATE_FORMAT).format(new Date());
@@ -275,15 +477,15 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, since, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, since, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, since, null, true, 10, 5);
+                        DEFAULT_STATUS, 1, since, null, true, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
         response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, "ErrorSince", null, false, 10, 5);
+                        DEFAULT_STATUS, 1, "ErrorSince", null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
     }
 
@@ -303,7 +505,7 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
         Mockito.reset(this.deviceManagementProviderService);
     }
@@ -323,7 +525,7 @@ public class DeviceManagementServiceImplTest {
 
         Response response = this.deviceManagementService
                 .getDevices(null, TEST_DEVICE_TYPE, DEFAULT_USERNAME, null, DEFAULT_ROLE, DEFAULT_OWNERSHIP,
-                        DEFAULT_STATUS, 1, null, null, false, 10, 5);
+                        DEFAULT_STATUS, 1, null, null, false, 10, 5, null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
         Mockito.reset(this.deviceAccessAuthorizationService);
     }
@@ -538,11 +740,33 @@ public class DeviceManagementServiceImplTest {
         PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getPolicyManagementService"))
                 .toReturn(policyManagerService);
         Response response = this.deviceManagementService
-                .getEffectivePolicyOfDevice(TEST_DEVICE_TYPE, UUID.randomUUID().toString(), null);
+                .getEffectivePolicyOfDevice(TEST_DEVICE_TYPE, UUID.randomUUID().toString(), null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
                 "Expects to return HTTP 200 when retrieving effective policy is successful");
     }
 
+    @Test(description = "Testing getting effective policy of a device with the entity tag of the unchanged policy")
+    public void testGetEffectivePolicyOfDeviceNotModified() throws PolicyManagementException {
+        PolicyManagerService policyManagerService = Mockito.mock(PolicyManagerService.class, Mockito.RETURNS_MOCKS);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getPolicyManagementService"))
+                .toReturn(policyManagerService);
+        Mockito.when(policyManagerService.getAppliedPolicyVersion(Mockito.any(DeviceIdentifier.class)))
+                .thenReturn("1:ACTIVE:0:1:0");
+        String deviceId = UUID.randomUUID().toString();
+        Response response = this.deviceManagementService
+                .getEffectivePolicyOfDevice(TEST_DEVICE_TYPE, deviceId, null, null);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
+                "Expects to return HTTP 200 when retrieving effective policy is successful");
+        String entityTag = response.getHeaderString(HttpHeaders.ETAG);
+        Assert.assertNotNull(entityTag, "Expects the effective policy to have an entity tag");
+        response = this.deviceManagementService
+                .getEffectivePolicyOfDevice(TEST_DEVICE_TYPE, deviceId, null, "W/" + entityTag);
+        Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode(),
+                "Expects to return HTTP 304 when the effective policy is not changed");
+        Mockito.verify(policyManagerService, Mockito.times(1))
+                .getAppliedPolicyToDevice(Mockito.any(DeviceIdentifier.class));
+    }
+
     @Test(description = "Testing getting effective policy of a device when unable to retrieve effective policy")
     public void testGetEffectivePolicyOfDeviceException() throws PolicyManagementException {
         PolicyManagerService policyManagerService = Mockito.mock(PolicyManagerService.class, Mockito.RETURNS_MOCKS);
@@ -551,7 +775,7 @@ public class DeviceManagementServiceImplTest {
         Mockito.when(policyManagerService.getAppliedPolicyToDevice(Mockito.any(DeviceIdentifier.class)))
                 .thenThrow(new PolicyManagementException());
         Response response = this.deviceManagementService
-                .getEffectivePolicyOfDevice(TEST_DEVICE_TYPE, UUID.randomUUID().toString(), null);
+                .getEffectivePolicyOfDevice(TEST_DEVICE_TYPE, UUID.randomUUID().toString(), null, null);
         Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
                 "Expects to return HTTP 500 when an exception occurred while getting effective policy of the device");
     }
@@ -602,4 +826,49 @@ public class DeviceManagementServiceImplTest {
         Assert.assertEquals(response.getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
         Mockito.reset(this.deviceManagementProviderService);
     }
+
+    /**
+     * Makes the device management service available to a device admin who is authorized to read any device.
+     */
+    private void mockDeviceAdmin(DeviceManagementProviderService dms) {
+        DeviceAccessAuthorizationService deviceAccessAuthorizationService =
+                Mockito.mock(DeviceAccessAuthorizationServiceImpl.class);
+        try {
+            Mockito.when(deviceAccessAuthorizationService.isUserAuthorized(Mockito.any(DeviceIdentifier.class),
+                    Mockito.anyString())).thenReturn(true);
+            Mockito.when(deviceAccessAuthorizationService.isDeviceAdminUser()).thenReturn(true);
+        } catch (DeviceAccessAuthorizationException e) {
+            Assert.fail("Unable to mock the device access authorization service", e);
+        }
+        mockServices(dms, deviceAccessAuthorizationService);
+    }
+
+    private void mockServices(DeviceManagementProviderService dms,
+                              DeviceAccessAuthorizationService deviceAccessAuthorizationService) {
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceManagementService"))
+                .toReturn(dms);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getDeviceAccessAuthorizationService"))
+                .toReturn(deviceAccessAuthorizationService);
+        PowerMockito.stub(PowerMockito.method(MultitenantUtils.class, "getTenantAwareUsername"))
+                .toReturn(TENANT_AWARE_USERNAME);
+        CarbonContext carbonContext = Mockito.mock(CarbonContext.class, Mockito.RETURNS_MOCKS);
+        Mockito.when(carbonContext.getUsername()).thenReturn(DEFAULT_USERNAME);
+        PowerMockito.stub(PowerMockito.method(CarbonContext.class, "getThreadLocalCarbonContext"))
+                .toReturn(carbonContext);
+    }
+
+    private PaginationResult getDevicePage(int size, int total, String nextCursor) {
+        List<Device> devices = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Device device = new Device();
+            device.setDeviceIdentifier(UUID.randomUUID().toString());
+            device.setType(TEST_DEVICE_TYPE);
+            devices.add(device);
+        }
+        PaginationResult page = new PaginationResult();
+        page.setData(devices);
+        page.setRecordsTotal(total);
+        page.setNextCursor(nextCursor);
+        return page;
+    }
 }
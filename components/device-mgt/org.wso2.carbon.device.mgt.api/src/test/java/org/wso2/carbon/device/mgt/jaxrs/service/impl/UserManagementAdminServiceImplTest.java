@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.jaxrs.service.impl;
+
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.core.classloader.annotations.SuppressStaticInitializationFor;
+import org.testng.Assert;
+import org.testng.IObjectFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.ObjectFactory;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.core.privacy.DeviceErasureStatus;
+import org.wso2.carbon.device.mgt.core.privacy.PrivacyComplianceProvider;
+import org.wso2.carbon.device.mgt.jaxrs.service.api.admin.UserManagementAdminService;
+import org.wso2.carbon.device.mgt.jaxrs.service.impl.admin.UserManagementAdminServiceImpl;
+import org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * This class holds the unit tests for erasing the devices of a user through {@link UserManagementAdminService}.
+ */
+@PowerMockIgnore("javax.ws.rs.*")
+@SuppressStaticInitializationFor({"org.wso2.carbon.device.mgt.jaxrs.util.DeviceMgtAPIUtils"})
+@PrepareForTest({DeviceMgtAPIUtils.class})
+public class UserManagementAdminServiceImplTest {
+
+    private static final String TEST_USERNAME = "erasure-user";
+    private UserManagementAdminService userManagementAdminService;
+    private PrivacyComplianceProvider privacyComplianceProvider;
+
+    @ObjectFactory
+    public IObjectFactory getObjectFactory() {
+        return new org.powermock.modules.testng.PowerMockObjectFactory();
+    }
+
+    @BeforeMethod
+    public void init() {
+        this.userManagementAdminService = new UserManagementAdminServiceImpl();
+        this.privacyComplianceProvider = Mockito.mock(PrivacyComplianceProvider.class);
+        PowerMockito.stub(PowerMockito.method(DeviceMgtAPIUtils.class, "getPrivacyComplianceProvider"))
+                .toReturn(this.privacyComplianceProvider);
+    }
+
+    @Test(description = "Test that deleting the devices of a user starts the erasure in the background.")
+    public void testDeleteDeviceOfUser() throws Exception {
+        DeviceErasureStatus status = new DeviceErasureStatus(TEST_USERNAME, -1234);
+        Mockito.when(privacyComplianceProvider.eraseDevicesOfUser(TEST_USERNAME)).thenReturn(status);
+        Response response = this.userManagementAdminService.deleteDeviceOfUser(TEST_USERNAME);
+        Assert.assertEquals(response.getStatus(), Response.Status.ACCEPTED.getStatusCode(),
+                "The response status should be 202.");
+        Assert.assertSame(response.getEntity(), status);
+        Mockito.verify(privacyComplianceProvider, Mockito.never()).deleteDevicesOfUser(TEST_USERNAME);
+    }
+
+    @Test(description = "Test deleting the devices of a user when the erasure cannot be started.")
+    public void testDeleteDeviceOfUserFailure() {
+        DeviceErasureStatus status = new DeviceErasureStatus(TEST_USERNAME, -1234);
+        status.fail("Device erasure service is shut down");
+        Mockito.when(privacyComplianceProvider.eraseDevicesOfUser(TEST_USERNAME)).thenReturn(status);
+        Response response = this.userManagementAdminService.deleteDeviceOfUser(TEST_USERNAME);
+        Assert.assertEquals(response.getStatus(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                "The response status should be 500.");
+    }
+
+    @Test(description = "Test getting the status of erasing the devices of a user.")
+    public void testGetDeviceErasureStatusOfUser() {
+        DeviceErasureStatus status = new DeviceErasureStatus(TEST_USERNAME, -1234);
+        status.start(10);
+        Mockito.when(privacyComplianceProvider.getErasureStatus(TEST_USERNAME)).thenReturn(status);
+        Response response = this.userManagementAdminService.getDeviceErasureStatusOfUser(TEST_USERNAME);
+        Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(),
+                "The response status should be 200.");
+        Assert.assertSame(response.getEntity(), status);
+    }
+
+    @Test(description = "Test getting the erasure status of a user whose devices were not erased recently.")
+    public void testGetDeviceErasureStatusOfUserNotFound() {
+        Response response = this.userManagementAdminService.getDeviceErasureStatusOfUser(TEST_USERNAME);
+        Assert.assertEquals(response.getStatus(), Response.Status.NOT_FOUND.getStatusCode(),
+                "The response status should be 404.");
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.common;
+
+import java.util.List;
+
+/**
+ * This can be implemented by a {@link DeviceManager} which is able to read the platform-specific data of many devices
+ * at once. Device lists then read the data of a page of devices with a single call, instead of calling
+ * {@link DeviceManager#getDevice(DeviceIdentifier)} once per device.
+ */
+public interface BulkDeviceManager {
+
+    /**
+     * Method to retrieve the platform-specific data of the devices having the given identifiers.
+     *
+     * @param deviceIds identifiers of the devices, all of the device type of this device manager.
+     * @return the devices found, devices which are not enrolled with the device type are not included.
+     * @throws DeviceManagementException If some unusual behaviour is observed while fetching the devices
+     */
+    List<Device> getDevices(List<DeviceIdentifier> deviceIds) throws DeviceManagementException;
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the position of a cursor based page into the opaque token handed over to clients, and decodes the tokens
+ * received back from them.
+ */
+public final class PaginationCursor {
+
+    private static final String ENROLMENT_PREFIX = "e:";
+    private static final String ACTIVITY_PREFIX = "a:";
+    private static final String ACTIVITY_SEPARATOR = ":";
+
+    private PaginationCursor() {
+    }
+
+    /**
+     * @param lastEnrolmentId enrolment id of the last device of a page.
+     * @return the cursor of the page following it.
+     */
+    public static String encode(int lastEnrolmentId) {
+        return encodePosition(ENROLMENT_PREFIX + lastEnrolmentId);
+    }
+
+    /**
+     * @param lastUpdatedTimestamp update time, in seconds, of the last change of an activity feed page.
+     * @param lastMappingId        id of the operation mapping of the last change of the page.
+     * @return the cursor of the page following it.
+     */
+    public static String encodeActivityPosition(long lastUpdatedTimestamp, int lastMappingId) {
+        return encodePosition(ACTIVITY_PREFIX + lastUpdatedTimestamp + ACTIVITY_SEPARATOR + lastMappingId);
+    }
+
+    /**
+     * @param cursor cursor received from a client.
+     * @return enrolment id of the last device of the previous page.
+     * @throws IllegalArgumentException if the cursor was not issued by {@link #encode(int)}.
+     */
+    public static int decode(String cursor) {
+        String position = decodePosition(cursor, ENROLMENT_PREFIX);
+        try {
+            int lastEnrolmentId = Integer.parseInt(position);
+            if (lastEnrolmentId < 0) {
+                throw new IllegalArgumentException("Invalid pagination cursor '" + cursor + "'");
+            }
+            return lastEnrolmentId;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor '" + cursor + "'", e);
+        }
+    }
+
+    /**
+     * @param cursor cursor received from a client.
+     * @return update time, in seconds, of the last change of the previous activity feed page.
+     * @throws IllegalArgumentException if the cursor was not issued by {@link #encodeActivityPosition(long, int)}.
+     */
+    public static long decodeActivityTimestamp(String cursor) {
+        return Long.parseLong(decodeActivityPosition(cursor)[0]);
+    }
+
+    /**
+     * @param cursor cursor received from a client.
+     * @return id of the operation mapping of the last change of the previous activity feed page.
+     * @throws IllegalArgumentException if the cursor was not issued by {@link #encodeActivityPosition(long, int)}.
+     */
+    public static int decodeActivityMappingId(String cursor) {
+        return Integer.parseInt(decodeActivityPosition(cursor)[1]);
+    }
+
+    private static String[] decodeActivityPosition(String cursor) {
+        String[] position = decodePosition(cursor, ACTIVITY_PREFIX).split(ACTIVITY_SEPARATOR);
+        try {
+            if (position.length != 2 || Long.parseLong(position[0]) < 0 || Integer.parseInt(position[1]) < 0) {
+                throw new IllegalArgumentException("Invalid pagination cursor '" + cursor + "'");
+            }
+            return position;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor '" + cursor + "'", e);
+        }
+    }
+
+    private static String encodePosition(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePosition(String cursor, String prefix) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor '" + cursor + "'", e);
+        }
+        if (!position.startsWith(prefix)) {
+            throw new IllegalArgumentException("Invalid pagination cursor '" + cursor + "'");
+        }
+        return position.substring(prefix.length());
+    }
+
+}
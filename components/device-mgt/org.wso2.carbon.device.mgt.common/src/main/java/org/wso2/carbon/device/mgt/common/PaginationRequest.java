@@ -39,6 +39,8 @@ public class PaginationRequest {
     private String ownerRole;
     private Map<String, Object> property = new HashMap<>();
     private Date since;
+    private boolean cursorBased;
+    private int lastEnrolmentId;
 
     public PaginationRequest(int start, int rowCount) {
         this.startIndex = start;
@@ -133,6 +135,27 @@ public class PaginationRequest {
         this.ownerPattern = ownerPattern;
     }
 
+    /**
+     * Cursor based requests are paged by seeking past the enrolment id of the last device of the previous page,
+     * instead of skipping the devices before the start index. Pages are ordered by the enrolment id, so they stay
+     * stable while devices are enrolled or removed.
+     */
+    public boolean isCursorBased() {
+        return cursorBased;
+    }
+
+    public void setCursorBased(boolean cursorBased) {
+        this.cursorBased = cursorBased;
+    }
+
+    public int getLastEnrolmentId() {
+        return lastEnrolmentId;
+    }
+
+    public void setLastEnrolmentId(int lastEnrolmentId) {
+        this.lastEnrolmentId = lastEnrolmentId;
+    }
+
     public void setProperty(String key, Object value) {
         this.property.put(key, value);
     }
@@ -156,6 +179,6 @@ public class PaginationRequest {
         return "Device type '" + this.deviceType + "' Device Name '" + this.deviceName + "' row count: " + this.rowCount
                 + " Owner role '" + this.ownerRole + "' owner pattern '" + this.ownerPattern + "' ownership "
                 + this.ownership + "' Status '" + this.status + "' owner '" + this.owner + "' groupId: " + this.groupId
-                + " start index: " + this.startIndex;
+                + " start index: " + this.startIndex + (this.cursorBased ? " after enrolment: " + this.lastEnrolmentId : "");
     }
 }
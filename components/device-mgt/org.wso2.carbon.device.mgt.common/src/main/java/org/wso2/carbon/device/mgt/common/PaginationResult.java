@@ -44,6 +44,9 @@ public class PaginationResult implements Serializable {
     @ApiModelProperty(name = "data", value = "This holds the database records that matches given criteria", required = true)
     private List<?> data;
 
+    @ApiModelProperty(name = "nextCursor", value = "Cursor of the next page, only given for cursor based requests having more records")
+    private String nextCursor;
+
     public int getRecordsTotal() {
         return recordsTotal;
     }
@@ -69,6 +72,14 @@ public class PaginationResult implements Serializable {
         this.data = data;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     public int getDraw() {
         return draw;
     }
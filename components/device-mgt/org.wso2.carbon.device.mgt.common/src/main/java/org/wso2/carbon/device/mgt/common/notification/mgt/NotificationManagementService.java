@@ -41,6 +41,19 @@ public interface NotificationManagementService {
     boolean addNotification(DeviceIdentifier deviceId,
                             Notification notification) throws NotificationManagementException;
 
+    /**
+     * Method to add the same notification to a set of devices in a single transaction. Devices which are not
+     * enrolled, or whose enrolment has been removed, are skipped.
+     *
+     * @param deviceIds    - DeviceIdentifiers of the devices.
+     * @param notification - Notification to be added to database.
+     * @return the number of notifications added.
+     * @throws NotificationManagementException
+     *          if something goes wrong while adding the Notifications.
+     */
+    int addNotifications(List<DeviceIdentifier> deviceIds,
+                         Notification notification) throws NotificationManagementException;
+
     /**
      * Method to update a notification in the database.
      *
@@ -63,6 +76,18 @@ public interface NotificationManagementService {
     boolean updateNotificationStatus(int notificationId, Notification.Status status) throws
             NotificationManagementException;
 
+    /**
+     * Method to update the notification status of a set of Notifications in the database with a single update.
+     *
+     * @param notificationIds - Notification ids of the notifications to be updated.
+     * @param status          - New notification status.
+     * @return boolean status of the operation.
+     * @throws NotificationManagementException
+     *          if something goes wrong while updating the Notifications.
+     */
+    boolean updateNotificationStatus(List<Integer> notificationIds, Notification.Status status) throws
+            NotificationManagementException;
+
     /**
      * Method for updating status all notifications.
      *
@@ -98,4 +123,21 @@ public interface NotificationManagementService {
     PaginationResult getNotificationsByStatus(Notification.Status status,
                                    PaginationRequest request) throws NotificationManagementException;
 
+    /**
+     * Method to fetch a page of notifications ordered by the notification id. Unlike the offset based methods, the
+     * page is located using the id of the last notification of the previous page, so every page costs the same.
+     *
+     * @param status             - Status of the notifications to be fetched, or null to fetch all notifications.
+     * @param lastNotificationId - Id of the last notification of the previous page, 0 for the first page.
+     * @param limit              - Maximum number of notifications to be fetched, the configured page size is used
+     *                             when this is not positive.
+     * @param countRequired      - Whether the total number of matching notifications should be counted. When false,
+     *                             no count query is run and the record counts of the result are set to -1.
+     * @return A page of notifications.
+     * @throws NotificationManagementException
+     *          if something goes wrong while fetching the Notifications.
+     */
+    PaginationResult getNotifications(Notification.Status status, int lastNotificationId, int limit,
+                                      boolean countRequired) throws NotificationManagementException;
+
 }
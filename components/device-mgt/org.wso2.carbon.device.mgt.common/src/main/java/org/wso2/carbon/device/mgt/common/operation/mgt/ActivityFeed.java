@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.common.operation.mgt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of the activity feed, which lists the changes of operation statuses in the order they were made. Besides
+ * the activities of the page, it carries the position of the last change of the page, from which the next page
+ * continues.
+ */
+public class ActivityFeed {
+
+    private List<Activity> activities = new ArrayList<>();
+    private long lastUpdatedTimestamp;
+    private int lastMappingId;
+    private int changeCount;
+
+    public List<Activity> getActivities() {
+        return activities;
+    }
+
+    public void setActivities(List<Activity> activities) {
+        this.activities = activities;
+    }
+
+    /**
+     * @return update time, in seconds, of the last change of the page.
+     */
+    public long getLastUpdatedTimestamp() {
+        return lastUpdatedTimestamp;
+    }
+
+    public void setLastUpdatedTimestamp(long lastUpdatedTimestamp) {
+        this.lastUpdatedTimestamp = lastUpdatedTimestamp;
+    }
+
+    /**
+     * @return id of the enrolment operation mapping of the last change of the page.
+     */
+    public int getLastMappingId() {
+        return lastMappingId;
+    }
+
+    public void setLastMappingId(int lastMappingId) {
+        this.lastMappingId = lastMappingId;
+    }
+
+    /**
+     * @return number of status changes in the page. Changes of the same operation are grouped into one activity, so
+     * this may be more than the number of activities.
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    public void setChangeCount(int changeCount) {
+        this.changeCount = changeCount;
+    }
+
+}
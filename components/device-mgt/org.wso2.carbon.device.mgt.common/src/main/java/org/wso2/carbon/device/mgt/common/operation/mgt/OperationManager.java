@@ -17,6 +17,7 @@
  */
 package org.wso2.carbon.device.mgt.common.operation.mgt;
 
+import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.InvalidDeviceException;
@@ -44,6 +45,16 @@ public interface OperationManager {
     Activity addOperation(Operation operation, List<DeviceIdentifier> devices) throws OperationManagementException,
             InvalidDeviceException;
 
+    /**
+     * Method to add the operations of the device monitoring task to a set of devices. One operation is added per
+     * operation code, and devices which already have a pending operation with the same code are skipped.
+     *
+     * @param operationCodes Codes of the monitoring operations which are due
+     * @param devices        List of devices to execute the operations
+     * @throws OperationManagementException If some unusual behaviour is observed while adding the operations
+     */
+    void addTaskOperations(List<String> operationCodes, List<Device> devices) throws OperationManagementException;
+
     /**
      * Method to retrieve the list of all operations to a device.
      *
@@ -76,6 +87,19 @@ public interface OperationManager {
      */
     List<? extends Operation> getPendingOperations(DeviceIdentifier deviceId) throws OperationManagementException;
 
+    /**
+     * Method to retrieve the version of the list of pending operations of a device, which changes whenever the list
+     * returned by {@link #getPendingOperations(DeviceIdentifier)} changes. The version is much cheaper to read than
+     * the list, which is only read through the returned object when needed, without authorizing the access and
+     * looking up the enrolment of the device again. This has the same effect on the status of the device as reading
+     * the list.
+     *
+     * @param deviceId DeviceIdentifier of the device
+     * @return the pending operations of the device, carrying their version.
+     * @throws OperationManagementException If the version could not be retrieved.
+     */
+    PendingOperations getVersionedPendingOperations(DeviceIdentifier deviceId) throws OperationManagementException;
+
     Operation getNextPendingOperation(DeviceIdentifier deviceId) throws OperationManagementException;
 
     void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException;
@@ -98,6 +122,25 @@ public interface OperationManager {
 
     List<Activity> getActivitiesUpdatedAfter(long timestamp, int limit, int offset) throws OperationManagementException;
 
+    /**
+     * Returns the status changes of operations made after the given position of the activity feed, in the order they
+     * were made. Unlike {@link #getActivitiesUpdatedAfter(long, int, int)}, pages are not counted and are positioned
+     * by the last change of the previous page, so that polling for new changes does not re-read older ones. Changes
+     * of the last couple of seconds are returned by a later poll, once no more changes can be made in those seconds.
+     * Changes are positioned by the time they were written rather than the time they were committed, so a change
+     * whose transaction commits later than that is not returned once the feed has moved past its update time.
+     *
+     * @param timestamp        update time, in seconds, of the last change already read.
+     * @param lastMappingId    id of the enrolment operation mapping of the last change already read, 0 to read all
+     *                         the changes made after the timestamp.
+     * @param limit            maximum number of changes to be returned.
+     * @param includeResponses whether to load the responses of the devices to the operations.
+     * @return the page of the activity feed.
+     * @throws OperationManagementException If the activities could not be retrieved.
+     */
+    ActivityFeed getActivityFeed(long timestamp, int lastMappingId, int limit, boolean includeResponses)
+            throws OperationManagementException;
+
     List<Activity> getFilteredActivities(String operationCode, int limit, int offset) throws OperationManagementException;
 
     int getTotalCountOfFilteredActivities(String operationCode) throws  OperationManagementException;
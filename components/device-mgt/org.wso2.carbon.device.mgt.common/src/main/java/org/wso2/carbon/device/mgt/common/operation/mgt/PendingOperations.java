@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.common.operation.mgt;
+
+import java.util.List;
+
+/**
+ * The pending operations of a device, obtained once the access to the device is authorized and its enrolment is
+ * looked up. The version of the operations is read first, so that the operations need not be read when the caller
+ * already has the current ones.
+ */
+public interface PendingOperations {
+
+    /**
+     * @return the version of the pending operations, which changes whenever the operations change.
+     */
+    String getVersion();
+
+    /**
+     * Reads the pending operations of the device, sorted by their creation time.
+     *
+     * @return the pending operations.
+     * @throws OperationManagementException If the operations could not be retrieved.
+     */
+    List<? extends Operation> getOperations() throws OperationManagementException;
+
+}
@@ -53,22 +53,45 @@ import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Registry of the device management services of each device type and tenant. The registered services are kept in an
+ * immutable map which is replaced as a whole on every change, so looking up a service is a single read of the map
+ * without any lock. Services built from device type definitions stored in the database are refreshed by a background
+ * watcher, which rebuilds a service only when the last updated timestamp of its stored definition has changed. A single
+ * watcher thread is shared by all the repositories and it is stopped when the bundle is deactivated.
+ */
 public class DeviceManagementPluginRepository implements DeviceManagerStartupListener {
 
-    private Map<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> providers;
-    private boolean isInitiated;
+    private volatile Map<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> providers;
+    private final Object providerLock = new Object();
+    private final ConcurrentMap<DeviceTypeServiceIdentifier, Object> loadingLocks = new ConcurrentHashMap<>();
+    private ScheduledExecutorService refreshScheduledOn;
+    private volatile boolean isInitiated;
     private static final Log log = LogFactory.getLog(DeviceManagementPluginRepository.class);
     private OperationManagerRepository operationManagerRepository;
     private static final long DEFAULT_UPDATE_TIMESTAMP = 900000L;
+    private static final Object WATCHER_LOCK = new Object();
+    private static ScheduledExecutorService definitionWatcher;
 
     public DeviceManagementPluginRepository() {
         this.operationManagerRepository = new OperationManagerRepository();
-        providers = Collections.synchronizedMap(new HashMap<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder>());
+        providers = Collections.emptyMap();
         DeviceManagementServiceComponent.registerStartupListener(this);
     }
 
     public void addDeviceManagementProvider(DeviceManagementService provider) throws DeviceManagementException {
+        this.addDeviceManagementProvider(provider, 0);
+    }
+
+    private void addDeviceManagementProvider(DeviceManagementService provider, long definitionVersion)
+            throws DeviceManagementException {
         String deviceType = provider.getType();
         ProvisioningConfig provisioningConfig = provider.getProvisioningConfig();
         String tenantDomain = provisioningConfig.getProviderTenantDomain();
@@ -81,7 +104,7 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
         if (tenantId == -1) {
             throw new DeviceManagementException("No tenant available for tenant domain " + tenantDomain);
         }
-        synchronized (providers) {
+        synchronized (providerLock) {
             if (isInitiated) {
                 /* Initializing Device Management Service Provider */
                 provider.init();
@@ -100,7 +123,9 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
                     deviceTypeIdentifier = new DeviceTypeServiceIdentifier(provider.getType(), tenantId);
                     existingProvider = providers.get(deviceTypeIdentifier);
                     if (existingProvider != null) {
-                        removeDeviceManagementProvider(provider);
+                        // The existing service stays registered until the new one replaces it below.
+                        releaseDeviceManagementProvider(existingProvider.getDeviceManagementService(),
+                                deviceTypeIdentifier);
                     }
                 }
 
@@ -115,13 +140,17 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
                     registerDeviceStatusMonitoringTask(deviceTypeObj, provider);
                 }
             }
-            DeviceManagementServiceHolder deviceManagementServiceHolder = new DeviceManagementServiceHolder(provider);
+            DeviceManagementServiceHolder deviceManagementServiceHolder = new DeviceManagementServiceHolder(provider,
+                    definitionVersion);
             if (isSharedWithAllTenants) {
                 DeviceTypeServiceIdentifier deviceTypeIdentifier = new DeviceTypeServiceIdentifier(deviceType);
-                providers.put(deviceTypeIdentifier, deviceManagementServiceHolder);
+                putProvider(deviceTypeIdentifier, deviceManagementServiceHolder);
             } else {
                 DeviceTypeServiceIdentifier deviceTypeIdentifier = new DeviceTypeServiceIdentifier(deviceType, tenantId);
-                providers.put(deviceTypeIdentifier, deviceManagementServiceHolder);
+                putProvider(deviceTypeIdentifier, deviceManagementServiceHolder);
+                if (provider instanceof DeviceTypeDefinitionProvider) {
+                    startDefinitionWatcher();
+                }
             }
         }
     }
@@ -132,8 +161,6 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
         if (log.isDebugEnabled()) {
             log.debug(deviceTypeName + " device type is removed.");
         }
-        DeviceManagementConfig deviceManagementConfig = DeviceConfigurationManager.getInstance()
-                .getDeviceManagementConfig();
         DeviceTypeServiceIdentifier deviceTypeIdentifier;
         ProvisioningConfig provisioningConfig = provider.getProvisioningConfig();
         if (provisioningConfig.isSharedWithAllTenants()) {
@@ -142,11 +169,23 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
             int providerTenantId = DeviceManagerUtil.getTenantId(provisioningConfig.getProviderTenantDomain());
             deviceTypeIdentifier = new DeviceTypeServiceIdentifier(deviceTypeName, providerTenantId);
         }
+        removeProvider(deviceTypeIdentifier);
+        releaseDeviceManagementProvider(provider, deviceTypeIdentifier);
+    }
+
+    /**
+     * Releases the notification strategies and the tasks of a device management service, without removing the
+     * service from the registered services.
+     */
+    private void releaseDeviceManagementProvider(DeviceManagementService provider,
+                                                 DeviceTypeServiceIdentifier deviceTypeIdentifier)
+            throws DeviceManagementException {
+        DeviceManagementConfig deviceManagementConfig = DeviceConfigurationManager.getInstance()
+                .getDeviceManagementConfig();
         PullNotificationSubscriber pullNotificationSubscriber = provider.getPullNotificationSubscriber();
         if (pullNotificationSubscriber != null) {
             pullNotificationSubscriber.clean();
         }
-        providers.remove(deviceTypeIdentifier);
         unregisterPushNotificationStrategy(deviceTypeIdentifier);
         unregisterMonitoringTask(provider);
         if (deviceManagementConfig != null && deviceManagementConfig.getDeviceStatusTaskConfig().isEnabled()) {
@@ -162,10 +201,6 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
         if (log.isDebugEnabled()) {
             log.debug(deviceTypeIdentifier.getDeviceType() + " device type management service is " +
                               "retrieved for tenant id: " + deviceTypeIdentifier.getTenantId());
-            for (Map.Entry<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> entry : providers.entrySet()) {
-                log.debug("Device Type : " + entry.getKey().getDeviceType() + " Tenant Id : " +
-                                  entry.getKey().getTenantId());
-            }
         }
         if (operationManager != null) {
             try {
@@ -182,89 +217,205 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
 
     public DeviceManagementService getDeviceManagementService(String type, int tenantId) {
         //Priority need to be given to the tenant before public.
-        DeviceTypeServiceIdentifier deviceTypeIdentifier = new DeviceTypeServiceIdentifier(type, tenantId);
-        DeviceManagementServiceHolder provider = providers.get(deviceTypeIdentifier);
+        DeviceManagementServiceHolder provider = getProvider(type, tenantId);
         if (log.isDebugEnabled()) {
             log.debug(type + " device type management service is retrieved for tenant id: " + tenantId);
-            for (Map.Entry<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> entry : providers.entrySet()) {
-                log.debug("Device Type : " + entry.getKey().getDeviceType() + " Tenant Id : " +
-                                  entry.getKey().getTenantId());
-            }
         }
         if (provider == null) {
-            deviceTypeIdentifier = new DeviceTypeServiceIdentifier(type);
-            provider = providers.get(deviceTypeIdentifier);
+            provider = loadProvider(type, tenantId);
             if (provider == null) {
-                try {
-                    DeviceType deviceType = DeviceManagerUtil.getDeviceType(type, tenantId);
-                    if (deviceType == null) {
+                return null;
+            }
+        }
+        return provider.getDeviceManagementService();
+    }
+
+    private DeviceManagementServiceHolder getProvider(String type, int tenantId) {
+        Map<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> providers = this.providers;
+        DeviceManagementServiceHolder provider = providers.get(new DeviceTypeServiceIdentifier(type, tenantId));
+        if (provider == null) {
+            provider = providers.get(new DeviceTypeServiceIdentifier(type));
+        }
+        return provider;
+    }
+
+    /**
+     * Builds the device management service of a device type from its definition stored in the database. Callers
+     * loading the same device type of the same tenant wait for the first one instead of building it again.
+     */
+    private DeviceManagementServiceHolder loadProvider(String type, int tenantId) {
+        DeviceTypeServiceIdentifier deviceTypeIdentifier = new DeviceTypeServiceIdentifier(type, tenantId);
+        Object lock = new Object();
+        Object existingLock = loadingLocks.putIfAbsent(deviceTypeIdentifier, lock);
+        if (existingLock != null) {
+            lock = existingLock;
+        }
+        try {
+            synchronized (lock) {
+                DeviceManagementServiceHolder provider = getProvider(type, tenantId);
+                if (provider != null) {
+                    return provider;
+                }
+                DeviceType deviceType = DeviceManagerUtil.getDeviceType(type, tenantId);
+                if (deviceType == null) {
+                    return null;
+                }
+                DeviceTypeMetaDefinition deviceTypeMetaDefinition = deviceType.getDeviceTypeMetaDefinition();
+                if (deviceTypeMetaDefinition != null) {
+                    DeviceManagementService deviceTypeManagerService = DeviceManagementDataHolder.getInstance()
+                            .getDeviceTypeGeneratorService().populateDeviceManagementService(type, deviceTypeMetaDefinition);
+                    if (deviceTypeManagerService == null) {
+                        log.error("Failing to retrieve the device type service for " + type);
                         return null;
                     }
-                    DeviceTypeMetaDefinition deviceTypeMetaDefinition = deviceType.getDeviceTypeMetaDefinition();
-                    if (deviceTypeMetaDefinition != null) {
-                        DeviceManagementService deviceTypeManagerService = DeviceManagementDataHolder.getInstance()
-                                .getDeviceTypeGeneratorService().populateDeviceManagementService(type, deviceTypeMetaDefinition);
-                        if (deviceTypeManagerService == null) {
-                            log.error("Failing to retrieve the device type service for " + type);
-                            return null;
-                        }
-                        addDeviceManagementProvider(deviceTypeManagerService);
-                        deviceTypeIdentifier = new DeviceTypeServiceIdentifier(type, tenantId);
-                        provider = providers.get(deviceTypeIdentifier);
-                    }
-                } catch (DeviceManagementException e) {
-                    log.error("Failing to retrieve the device type service for " + type, e);
-                    return null;
+                    addDeviceManagementProvider(deviceTypeManagerService, deviceType.getLastUpdatedTimestamp());
+                    provider = providers.get(deviceTypeIdentifier);
+                }
+                if (provider == null) {
+                    log.error("Device Type Definition not found for " + type);
                 }
+                return provider;
             }
-            if (provider == null) {
-                log.error("Device Type Definition not found for " + type);
-                return null;
+        } catch (DeviceManagementException e) {
+            log.error("Failing to retrieve the device type service for " + type, e);
+            return null;
+        } finally {
+            loadingLocks.remove(deviceTypeIdentifier, lock);
+        }
+    }
+
+    private void putProvider(DeviceTypeServiceIdentifier deviceTypeIdentifier,
+                             DeviceManagementServiceHolder deviceManagementServiceHolder) {
+        synchronized (providerLock) {
+            Map<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> updatedProviders = new HashMap<>(providers);
+            updatedProviders.put(deviceTypeIdentifier, deviceManagementServiceHolder);
+            providers = Collections.unmodifiableMap(updatedProviders);
+        }
+    }
+
+    private void removeProvider(DeviceTypeServiceIdentifier deviceTypeIdentifier) {
+        synchronized (providerLock) {
+            if (providers.containsKey(deviceTypeIdentifier)) {
+                Map<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> updatedProviders =
+                        new HashMap<>(providers);
+                updatedProviders.remove(deviceTypeIdentifier);
+                providers = Collections.unmodifiableMap(updatedProviders);
             }
-        } else {
-            // retrieves per tenant device type management service
-            if (provider.getDeviceManagementService() instanceof DeviceTypeDefinitionProvider) {
-                //handle updates.
-                long updatedTimestamp = provider.getTimestamp();
-                if (System.currentTimeMillis() - updatedTimestamp > DEFAULT_UPDATE_TIMESTAMP) {
-                    try {
-                        DeviceType deviceType = DeviceManagerUtil.getDeviceType(type,tenantId);
-                        DeviceTypeMetaDefinition deviceTypeMetaDefinition = deviceType.getDeviceTypeMetaDefinition();
-                        if (deviceTypeMetaDefinition != null) {
-                            Gson gson = new Gson();
-                            String dbStoredDefinition = gson.toJson(deviceTypeMetaDefinition);
-                            deviceTypeMetaDefinition = ((DeviceTypeDefinitionProvider)
-                                    provider.getDeviceManagementService()).getDeviceTypeMetaDefinition();
-                            String cachedDefinition = gson.toJson(deviceTypeMetaDefinition);
-                            if (!cachedDefinition.equals(dbStoredDefinition)) {
-                                DeviceManagementService deviceTypeManagerService = DeviceManagementDataHolder.getInstance()
-                                        .getDeviceTypeGeneratorService().populateDeviceManagementService(type, deviceTypeMetaDefinition);
-                                if (deviceTypeManagerService == null) {
-                                    log.error("Failing to retrieve the device type service for " + type);
-                                    return null;
-                                }
-                                addDeviceManagementProvider(deviceTypeManagerService);
-                                deviceTypeIdentifier = new DeviceTypeServiceIdentifier(type, tenantId);
-                                provider = providers.get(deviceTypeIdentifier);
-                            } else {
-                                provider.setTimestamp(System.currentTimeMillis());
-                            }
-                        }
-                    } catch (DeviceManagementException e) {
-                        log.error("Failing to retrieve the device type service for " + type, e);
-                        return null;
+        }
+    }
+
+    private void startDefinitionWatcher() {
+        synchronized (providerLock) {
+            ScheduledExecutorService watcher = getDefinitionWatcher();
+            if (refreshScheduledOn != watcher) {
+                refreshScheduledOn = watcher;
+                watcher.scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        refreshDeviceTypeDefinitions();
                     }
+                }, DEFAULT_UPDATE_TIMESTAMP, DEFAULT_UPDATE_TIMESTAMP, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static ScheduledExecutorService getDefinitionWatcher() {
+        synchronized (WATCHER_LOCK) {
+            if (definitionWatcher == null) {
+                definitionWatcher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "device-type-definition-watcher");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            return definitionWatcher;
+        }
+    }
+
+    /**
+     * Stops the background watcher of the device type definitions along with the refresh tasks of all the
+     * repositories. A repository which registers a service built from a definition afterwards starts a new watcher.
+     */
+    public static void stopDefinitionWatcher() {
+        synchronized (WATCHER_LOCK) {
+            if (definitionWatcher != null) {
+                definitionWatcher.shutdownNow();
+                definitionWatcher = null;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the per tenant device management services whose device type definition has been updated in the
+     * database since they were built.
+     */
+    void refreshDeviceTypeDefinitions() {
+        for (Map.Entry<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> entry : providers.entrySet()) {
+            DeviceTypeServiceIdentifier deviceTypeIdentifier = entry.getKey();
+            if (deviceTypeIdentifier.isSharedWithAllTenant() ||
+                    !(entry.getValue().getDeviceManagementService() instanceof DeviceTypeDefinitionProvider)) {
+                continue;
+            }
+            try {
+                refreshDeviceTypeDefinition(deviceTypeIdentifier, entry.getValue());
+            } catch (DeviceManagementException | RuntimeException e) {
+                log.error("Failing to refresh the device type service for " + deviceTypeIdentifier.getDeviceType()
+                        + " of tenant " + deviceTypeIdentifier.getTenantId(), e);
+            }
+        }
+    }
+
+    private void refreshDeviceTypeDefinition(DeviceTypeServiceIdentifier deviceTypeIdentifier,
+                                             DeviceManagementServiceHolder provider)
+            throws DeviceManagementException {
+        String type = deviceTypeIdentifier.getDeviceType();
+        int tenantId = deviceTypeIdentifier.getTenantId();
+        DeviceType deviceType = DeviceManagerUtil.getDeviceType(type, tenantId);
+        if (deviceType == null || deviceType.getDeviceTypeMetaDefinition() == null ||
+                deviceType.getLastUpdatedTimestamp() == provider.getDefinitionVersion()) {
+            return;
+        }
+        DeviceTypeMetaDefinition dbStoredDefinition = deviceType.getDeviceTypeMetaDefinition();
+        DeviceTypeMetaDefinition cachedDefinition = ((DeviceTypeDefinitionProvider)
+                provider.getDeviceManagementService()).getDeviceTypeMetaDefinition();
+        Gson gson = new Gson();
+        if (gson.toJson(cachedDefinition).equals(gson.toJson(dbStoredDefinition))) {
+            // Only the version of the stored definition has changed, so the service is kept as it is.
+            synchronized (providerLock) {
+                if (providers.get(deviceTypeIdentifier) == provider) {
+                    putProvider(deviceTypeIdentifier, new DeviceManagementServiceHolder(
+                            provider.getDeviceManagementService(), deviceType.getLastUpdatedTimestamp()));
                 }
             }
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Definition of device type " + type + " of tenant " + tenantId + " has been updated.");
+        }
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+            DeviceManagementService deviceTypeManagerService = DeviceManagementDataHolder.getInstance()
+                    .getDeviceTypeGeneratorService().populateDeviceManagementService(type, dbStoredDefinition);
+            if (deviceTypeManagerService == null) {
+                log.error("Failing to retrieve the device type service for " + type);
+                return;
+            }
+            addDeviceManagementProvider(deviceTypeManagerService, deviceType.getLastUpdatedTimestamp());
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
         }
-        return provider.getDeviceManagementService();
     }
 
     public Map<DeviceTypeServiceIdentifier, DeviceManagementService> getAllDeviceManagementServices(int tenantId) {
         Map<DeviceTypeServiceIdentifier, DeviceManagementService> tenantProviders = new HashMap<>();
-        for (DeviceTypeServiceIdentifier identifier : providers.keySet()) {
+        for (Map.Entry<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> entry : providers.entrySet()) {
+            DeviceTypeServiceIdentifier identifier = entry.getKey();
             if (identifier.getTenantId() == tenantId || identifier.isSharedWithAllTenant()) {
-                tenantProviders.put(identifier, providers.get(identifier).getDeviceManagementService());
+                tenantProviders.put(identifier, entry.getValue().getDeviceManagementService());
             }
         }
         return tenantProviders;
@@ -395,7 +546,7 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
     @Override
     public void notifyObserver() {
         String deviceTypeName;
-        synchronized (providers) {
+        synchronized (providerLock) {
             for (DeviceManagementServiceHolder deviceManagementServiceHolder : providers.values()) {
                 DeviceManagementService  provider= deviceManagementServiceHolder.getDeviceManagementService();
                 try {
@@ -411,7 +562,8 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
                                 provider.getType(), tenantId);
                         DeviceManagementServiceHolder existingProvider = providers.get(deviceTypeIdentifier);
                         if (existingProvider != null) {
-                            removeDeviceManagementProvider(provider);
+                            releaseDeviceManagementProvider(existingProvider.getDeviceManagementService(),
+                                    deviceTypeIdentifier);
                         }
                     }
                     DeviceManagerUtil.registerDeviceType(deviceTypeName, tenantId
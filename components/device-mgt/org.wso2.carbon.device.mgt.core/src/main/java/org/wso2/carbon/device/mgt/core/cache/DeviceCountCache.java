@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache;
+
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.PaginationRequest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the device counts of each tenant, so that device lists do not count the enrolments again for every page.
+ * <p>
+ * The total count and the counts by device type, status and ownership are counters: they are loaded from the database
+ * once and then adjusted as devices are enrolled and their status changes. When a change can not be attributed to a
+ * counter, the counters it may affect are dropped instead. Counters are reloaded from the database every few minutes,
+ * which reconciles them with changes made by other nodes of the cluster.
+ * <p>
+ * Counts of any other combination of filters, including the group filter, are kept for a short while only, and are
+ * dropped on every change of the enrolments or group memberships of the tenant.
+ */
+public class DeviceCountCache {
+
+    private static final long COUNTER_TTL = 10 * 60 * 1000L;
+    private static final long FILTERED_COUNT_TTL = 30 * 1000L;
+    private static final int MAX_FILTERED_COUNTS_PER_TENANT = 1000;
+
+    private static final String TOTAL_KEY = "total";
+    private static final String TYPE_PREFIX = "type:";
+    private static final String STATUS_PREFIX = "status:";
+    private static final String OWNERSHIP_PREFIX = "ownership:";
+    private static final String FILTER_PREFIX = "filter:";
+
+    private static final DeviceCountCache instance = new DeviceCountCache();
+
+    private final ConcurrentMap<Integer, TenantCounts> counts = new ConcurrentHashMap<>();
+
+    private DeviceCountCache() {
+    }
+
+    public static DeviceCountCache getInstance() {
+        return instance;
+    }
+
+    public static String getTotalKey() {
+        return TOTAL_KEY;
+    }
+
+    public static String getTypeKey(String deviceType) {
+        return TYPE_PREFIX + deviceType;
+    }
+
+    public static String getStatusKey(String status) {
+        return STATUS_PREFIX + status;
+    }
+
+    public static String getOwnershipKey(String ownership) {
+        return OWNERSHIP_PREFIX + ownership;
+    }
+
+    /**
+     * Returns the key of the count of devices matching the filters of the given request. Requests filtering on a
+     * single device type, status or ownership, and not on a group, share the key of the corresponding counter.
+     *
+     * @param request pagination request carrying the filters.
+     * @return key of the count, or null if the count of the request should not be cached.
+     */
+    public static String getKey(PaginationRequest request) {
+        if (request.getSince() != null) {
+            return null;
+        }
+        String deviceType = emptyToNull(request.getDeviceType());
+        String deviceName = emptyToNull(request.getDeviceName());
+        String owner = emptyToNull(request.getOwner());
+        String ownerPattern = emptyToNull(request.getOwnerPattern());
+        String ownership = emptyToNull(request.getOwnership());
+        String status = emptyToNull(request.getStatus());
+        int groupId = request.getGroupId();
+        if (groupId <= 0 && deviceName == null && owner == null && ownerPattern == null) {
+            if (deviceType == null && ownership == null && status == null) {
+                return TOTAL_KEY;
+            } else if (ownership == null && status == null) {
+                return getTypeKey(deviceType);
+            } else if (deviceType == null && status == null) {
+                return getOwnershipKey(ownership);
+            } else if (deviceType == null && ownership == null) {
+                return getStatusKey(status);
+            }
+        }
+        return FILTER_PREFIX + deviceType + "|" + deviceName + "|" + owner + "|" + ownerPattern + "|" + ownership +
+                "|" + status + "|" + groupId;
+    }
+
+    /**
+     * @param tenantId tenant the devices belong to.
+     * @param key      key of the count.
+     * @return the cached count, or null if the count is not cached or has expired.
+     */
+    public Integer getCount(int tenantId, String key) {
+        TenantCounts tenantCounts = counts.get(tenantId);
+        if (tenantCounts == null) {
+            return null;
+        }
+        Count count = tenantCounts.get(key).get(key);
+        return (count == null || count.isExpired()) ? null : count.value.get();
+    }
+
+    /**
+     * Caches a count read from the database.
+     *
+     * @param tenantId tenant the devices belong to.
+     * @param key      key of the count.
+     * @param value    number of devices.
+     */
+    public void putCount(int tenantId, String key, int value) {
+        TenantCounts tenantCounts = getTenantCounts(tenantId);
+        if (key.startsWith(FILTER_PREFIX)) {
+            if (tenantCounts.filteredCounts.size() > MAX_FILTERED_COUNTS_PER_TENANT) {
+                tenantCounts.filteredCounts.clear();
+            }
+            tenantCounts.filteredCounts.put(key, new Count(value, FILTERED_COUNT_TTL));
+        } else {
+            tenantCounts.counters.put(key, new Count(value, COUNTER_TTL));
+        }
+    }
+
+    /**
+     * Adjusts the counters for a newly added enrolment.
+     *
+     * @param tenantId      tenant the device belongs to.
+     * @param deviceType    type of the device.
+     * @param enrolmentInfo the added enrolment.
+     */
+    public void addEnrolment(int tenantId, String deviceType, EnrolmentInfo enrolmentInfo) {
+        TenantCounts tenantCounts = counts.get(tenantId);
+        if (tenantCounts == null) {
+            return;
+        }
+        tenantCounts.filteredCounts.clear();
+        tenantCounts.adjust(TOTAL_KEY, 1);
+        tenantCounts.adjust(getTypeKey(deviceType), 1);
+        if (enrolmentInfo.getStatus() != null) {
+            tenantCounts.adjust(getStatusKey(enrolmentInfo.getStatus().toString()), 1);
+        } else {
+            tenantCounts.removeCounters(STATUS_PREFIX);
+        }
+        if (enrolmentInfo.getOwnership() != null) {
+            tenantCounts.adjust(getOwnershipKey(enrolmentInfo.getOwnership().toString()), 1);
+        } else {
+            tenantCounts.removeCounters(OWNERSHIP_PREFIX);
+        }
+    }
+
+    /**
+     * Adjusts the status counters for an enrolment moved from one status to another.
+     *
+     * @param tenantId       tenant the device belongs to.
+     * @param previousStatus status of the enrolment before the change, null if it is not known.
+     * @param status         status of the enrolment after the change.
+     */
+    public void updateStatus(int tenantId, EnrolmentInfo.Status previousStatus, EnrolmentInfo.Status status) {
+        TenantCounts tenantCounts = counts.get(tenantId);
+        if (tenantCounts == null || (previousStatus != null && previousStatus == status)) {
+            return;
+        }
+        tenantCounts.filteredCounts.clear();
+        if (previousStatus == null || status == null) {
+            tenantCounts.removeCounters(STATUS_PREFIX);
+        } else {
+            tenantCounts.adjust(getStatusKey(previousStatus.toString()), -1);
+            tenantCounts.adjust(getStatusKey(status.toString()), 1);
+        }
+    }
+
+    /**
+     * Drops the counts that may be affected by updates of enrolments, for changes whose previous state is not known.
+     *
+     * @param tenantId tenant whose enrolments were updated.
+     */
+    public void updateEnrolments(int tenantId) {
+        TenantCounts tenantCounts = counts.get(tenantId);
+        if (tenantCounts == null) {
+            return;
+        }
+        tenantCounts.filteredCounts.clear();
+        tenantCounts.removeCounters(STATUS_PREFIX);
+        tenantCounts.removeCounters(OWNERSHIP_PREFIX);
+    }
+
+    /**
+     * Drops the counts that may be affected by devices added to or removed from groups.
+     *
+     * @param tenantId tenant whose groups were updated.
+     */
+    public void updateGroups(int tenantId) {
+        TenantCounts tenantCounts = counts.get(tenantId);
+        if (tenantCounts != null) {
+            tenantCounts.filteredCounts.clear();
+        }
+    }
+
+    /**
+     * Drops the counts that may be affected by updates of enrolments spanning several tenants.
+     */
+    public void updateEnrolmentsOfAllTenants() {
+        for (Integer tenantId : counts.keySet()) {
+            this.updateEnrolments(tenantId);
+        }
+    }
+
+    /**
+     * Drops all the counts of the given tenant.
+     *
+     * @param tenantId tenant whose devices were removed.
+     */
+    public void clear(int tenantId) {
+        counts.remove(tenantId);
+    }
+
+    private TenantCounts getTenantCounts(int tenantId) {
+        TenantCounts tenantCounts = counts.get(tenantId);
+        if (tenantCounts == null) {
+            tenantCounts = new TenantCounts();
+            TenantCounts existing = counts.putIfAbsent(tenantId, tenantCounts);
+            if (existing != null) {
+                tenantCounts = existing;
+            }
+        }
+        return tenantCounts;
+    }
+
+    private static String emptyToNull(String value) {
+        return (value == null || value.isEmpty()) ? null : value;
+    }
+
+    private static class TenantCounts {
+
+        private final ConcurrentMap<String, Count> counters = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Count> filteredCounts = new ConcurrentHashMap<>();
+
+        ConcurrentMap<String, Count> get(String key) {
+            return key.startsWith(FILTER_PREFIX) ? filteredCounts : counters;
+        }
+
+        void adjust(String key, int delta) {
+            Count count = counters.get(key);
+            if (count != null) {
+                count.value.addAndGet(delta);
+            }
+        }
+
+        void removeCounters(String prefix) {
+            for (String key : counters.keySet()) {
+                if (key.startsWith(prefix)) {
+                    counters.remove(key);
+                }
+            }
+        }
+    }
+
+    private static class Count {
+
+        private final AtomicInteger value;
+        private final long expiryTime;
+
+        Count(int value, long timeToLive) {
+            this.value = new AtomicInteger(value);
+            this.expiryTime = System.currentTimeMillis() + timeToLive;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiryTime;
+        }
+    }
+
+}
@@ -35,6 +35,8 @@ public class PolicyConfiguration {
     private List<String> platforms;
     private String policyEvaluationPoint;
     private boolean cacheEnable;
+    private int monitoringBatchSize;
+    private int monitoringThreadPoolSize;
 
     @XmlElement(name = "MonitoringClass", required = true)
     public String getMonitoringClass() {
@@ -118,4 +120,22 @@ public class PolicyConfiguration {
         this.cacheEnable = cacheEnable;
     }
 
+    @XmlElement(name = "MonitoringBatchSize")
+    public int getMonitoringBatchSize() {
+        return monitoringBatchSize;
+    }
+
+    public void setMonitoringBatchSize(int monitoringBatchSize) {
+        this.monitoringBatchSize = monitoringBatchSize;
+    }
+
+    @XmlElement(name = "MonitoringThreadPoolSize")
+    public int getMonitoringThreadPoolSize() {
+        return monitoringThreadPoolSize;
+    }
+
+    public void setMonitoringThreadPoolSize(int monitoringThreadPoolSize) {
+        this.monitoringThreadPoolSize = monitoringThreadPoolSize;
+    }
+
 }
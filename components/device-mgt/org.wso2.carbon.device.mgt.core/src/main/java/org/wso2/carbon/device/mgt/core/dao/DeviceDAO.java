@@ -30,6 +30,7 @@ import org.wso2.carbon.device.mgt.core.geo.geoHash.GeoCoordinate;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents the key operations associated with persisting device related information.
@@ -155,6 +156,32 @@ public interface DeviceDAO {
     Device getDevice(DeviceIdentifier deviceIdentifier, String owner, Date ifModifiedSince, int tenantId) throws
             DeviceManagementDAOException;
 
+    /**
+     * This method is used to retrieve the version of a device, which changes whenever the device, its enrolments, its
+     * device details or location, or the applications installed on it are changed. It is meant to be compared with
+     * a version read earlier, and is much cheaper to read than the device itself.
+     *
+     * @param deviceIdentifier device id.
+     * @param owner username of the owner, null to include the enrolments of all the owners.
+     * @param tenantId tenant id.
+     * @return returns the version of the device, or null if the device is not found.
+     * @throws DeviceManagementDAOException
+     */
+    String getDeviceVersion(DeviceIdentifier deviceIdentifier, String owner, int tenantId)
+            throws DeviceManagementDAOException;
+
+    /**
+     * This method is used to retrieve the versions of the devices of the given enrolments, as described in
+     * {@link #getDeviceVersion(DeviceIdentifier, String, int)}.
+     *
+     * @param enrolmentIds ids of the enrolments.
+     * @param tenantId tenant id.
+     * @return returns the versions keyed by the enrolment id, enrolments not found are not included.
+     * @throws DeviceManagementDAOException
+     */
+    Map<Integer, String> getEnrolmentVersions(List<Integer> enrolmentIds, int tenantId)
+            throws DeviceManagementDAOException;
+
     /**
      * This method is used to retrieve a device of a given device-identifier, enrollment status and tenant-id.
      *
@@ -204,6 +231,17 @@ public interface DeviceDAO {
      */
     List<Device> getDevices(PaginationRequest request, int tenantId) throws DeviceManagementDAOException;
 
+    /**
+     * This method is used to retrieve the ids of the enrolments of the page of devices given by
+     * {@link #getDevices(PaginationRequest, int)}, without reading the devices.
+     *
+     * @param request  PaginationRequest object holding the data for pagination
+     * @param tenantId tenant id.
+     * @return returns the enrolment ids of the page, in the order of the devices.
+     * @throws DeviceManagementDAOException
+     */
+    List<Integer> getEnrolmentIds(PaginationRequest request, int tenantId) throws DeviceManagementDAOException;
+
     /**
      * This method is used to retrieve all the devices of a given tenant and device type.
      *
@@ -214,6 +252,21 @@ public interface DeviceDAO {
      */
     List<Device> getDevices(String type, int tenantId) throws DeviceManagementDAOException;
 
+    /**
+     * This method is used to retrieve a page of devices of a given tenant and device type, ordered by the enrolment
+     * id. Only the enrolments having an id greater than the given enrolment id are returned, so the caller can walk
+     * through all the devices of the type by passing the last enrolment id of the previous page.
+     *
+     * @param type device type.
+     * @param lastEnrolmentId enrolment id of the last device of the previous page, 0 for the first page.
+     * @param limit maximum number of devices to be returned.
+     * @param tenantId tenant id.
+     * @return returns list of devices of provided type.
+     * @throws DeviceManagementDAOException
+     */
+    List<Device> getDevices(String type, int lastEnrolmentId, int limit, int tenantId)
+            throws DeviceManagementDAOException;
+
     List<Device> getDevices(long timestamp, int tenantId) throws DeviceManagementDAOException;
 
     /**
@@ -41,9 +41,33 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
 
+    /**
+     * Columns of a page of devices read by the paginated queries of the DAO implementations, as loaded by
+     * {@link DeviceManagementDAOUtil#loadDevice(ResultSet)}.
+     */
+    protected static final String DEVICE_COLUMNS = "d1.ID AS DEVICE_ID, d1.DESCRIPTION, d1.NAME AS DEVICE_NAME, " +
+            "d1.DEVICE_TYPE, d1.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
+            "e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID";
+
+    /**
+     * Reads what the version of an enrolment is built from: the device and enrolment rows, the last updates of the
+     * device details and location, and the application mappings of the enrolment. The query is completed with the
+     * conditions selecting the enrolments.
+     */
+    private static final String DEVICE_VERSION_QUERY = "SELECT d.ID AS DEVICE_ID, d.LAST_UPDATED_TIMESTAMP, " +
+            "e.ID AS ENROLMENT_ID, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
+            "(SELECT MAX(dt.UPDATE_TIMESTAMP) FROM DM_DEVICE_DETAIL dt WHERE dt.DEVICE_ID = d.ID) AS DETAIL_TIMESTAMP, " +
+            "(SELECT MAX(l.UPDATE_TIMESTAMP) FROM DM_DEVICE_LOCATION l WHERE l.DEVICE_ID = d.ID) AS LOCATION_TIMESTAMP, " +
+            "(SELECT COUNT(a.ID) FROM DM_DEVICE_APPLICATION_MAPPING a WHERE a.ENROLMENT_ID = e.ID) AS APP_COUNT, " +
+            "(SELECT SUM(a.ID) FROM DM_DEVICE_APPLICATION_MAPPING a WHERE a.ENROLMENT_ID = e.ID) AS APP_ID_SUM, " +
+            "(SELECT MAX(a.ID) FROM DM_DEVICE_APPLICATION_MAPPING a WHERE a.ENROLMENT_ID = e.ID) AS LAST_APP_ID " +
+            "FROM DM_DEVICE d INNER JOIN DM_DEVICE_TYPE t ON t.ID = d.DEVICE_TYPE_ID " +
+            "INNER JOIN DM_ENROLMENT e ON e.DEVICE_ID = d.ID WHERE ";
+
     @Override
     public int addDevice(int typeId, Device device, int tenantId) throws DeviceManagementDAOException {
         Connection conn;
@@ -249,6 +273,95 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
         return device;
     }
 
+    @Override
+    public String getDeviceVersion(DeviceIdentifier deviceIdentifier, String owner, int tenantId)
+            throws DeviceManagementDAOException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection conn = this.getConnection();
+            String sql = DEVICE_VERSION_QUERY + "t.NAME = ? AND d.DEVICE_IDENTIFICATION = ? AND d.TENANT_ID = ? " +
+                    "AND e.TENANT_ID = ?";
+            if (owner != null) {
+                sql = sql + " AND e.OWNER = ?";
+            }
+            stmt = conn.prepareStatement(sql + " ORDER BY e.ID");
+            stmt.setString(1, deviceIdentifier.getType());
+            stmt.setString(2, deviceIdentifier.getId());
+            stmt.setInt(3, tenantId);
+            stmt.setInt(4, tenantId);
+            if (owner != null) {
+                stmt.setString(5, owner);
+            }
+            rs = stmt.executeQuery();
+            StringBuilder version = null;
+            while (rs.next()) {
+                version = (version == null) ? new StringBuilder() : version.append(';');
+                version.append(this.getEnrolmentVersion(rs));
+            }
+            return (version == null) ? null : version.toString();
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the version of the '" +
+                    deviceIdentifier.getType() + "' device '" + deviceIdentifier.getId() + "'", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+    }
+
+    @Override
+    public Map<Integer, String> getEnrolmentVersions(List<Integer> enrolmentIds, int tenantId)
+            throws DeviceManagementDAOException {
+        Map<Integer, String> versions = new HashMap<>();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection conn = this.getConnection();
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < enrolmentIds.size(); start += chunkSize) {
+                List<Integer> chunk = enrolmentIds.subList(start, Math.min(start + chunkSize, enrolmentIds.size()));
+                String sql = DEVICE_VERSION_QUERY + "e.TENANT_ID = ? AND e.ID IN (" +
+                        DeviceManagementDAOUtil.getInClause(chunk.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                int index = 1;
+                stmt.setInt(index++, tenantId);
+                for (Integer enrolmentId : chunk) {
+                    stmt.setInt(index++, enrolmentId);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    versions.put(rs.getInt("ENROLMENT_ID"), this.getEnrolmentVersion(rs));
+                }
+                DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the versions of " +
+                    enrolmentIds.size() + " enrolments", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return versions;
+    }
+
+    /**
+     * Builds the version of an enrolment read by {@link #DEVICE_VERSION_QUERY}. Application mappings are replaced
+     * rather than updated when the installed applications change, so their count, sum and maximum of ids change with
+     * them.
+     */
+    private String getEnrolmentVersion(ResultSet rs) throws SQLException {
+        return rs.getInt("DEVICE_ID") + ":" + rs.getInt("ENROLMENT_ID") + ":" + rs.getString("OWNER") + ":" +
+                rs.getString("OWNERSHIP") + ":" + rs.getString("STATUS") + ":" +
+                getTime(rs.getTimestamp("LAST_UPDATED_TIMESTAMP")) + ":" +
+                getTime(rs.getTimestamp("DATE_OF_LAST_UPDATE")) + ":" + rs.getLong("DETAIL_TIMESTAMP") + ":" +
+                rs.getLong("LOCATION_TIMESTAMP") + ":" + rs.getInt("APP_COUNT") + ":" + rs.getLong("APP_ID_SUM") +
+                ":" + rs.getInt("LAST_APP_ID");
+    }
+
+    private static long getTime(Timestamp timestamp) {
+        return (timestamp == null) ? 0 : timestamp.getTime();
+    }
+
     @Override
     public Device getDevice(DeviceIdentifier deviceIdentifier, EnrolmentInfo.Status status, int tenantId) throws
                                                                                          DeviceManagementDAOException {
@@ -111,6 +111,7 @@ public class DeviceTypeDAOImpl implements DeviceTypeDAO {
 				DeviceType deviceType = new DeviceType();
 				deviceType.setId(rs.getInt("DEVICE_TYPE_ID"));
 				deviceType.setName(rs.getString("DEVICE_TYPE"));
+				deviceType.setLastUpdatedTimestamp(this.getLastUpdatedTimestamp(rs));
                 String devicetypeMeta = rs.getString("DEVICE_TYPE_META");
                 if (devicetypeMeta != null && devicetypeMeta.length() > 0) {
                     Gson gson = new Gson();
@@ -229,8 +230,8 @@ public class DeviceTypeDAOImpl implements DeviceTypeDAO {
 		DeviceType deviceType = null;
 		try {
 			conn = this.getConnection();
-			String sql = "SELECT ID AS DEVICE_TYPE_ID, DEVICE_TYPE_META FROM DM_DEVICE_TYPE WHERE (PROVIDER_TENANT_ID =? OR " +
-							"SHARED_WITH_ALL_TENANTS = ?) AND NAME =?";
+			String sql = "SELECT ID AS DEVICE_TYPE_ID, DEVICE_TYPE_META, LAST_UPDATED_TIMESTAMP FROM DM_DEVICE_TYPE " +
+					"WHERE (PROVIDER_TENANT_ID =? OR SHARED_WITH_ALL_TENANTS = ?) AND NAME =?";
 			stmt = conn.prepareStatement(sql);
 			stmt.setInt(1, tenantId);
 			stmt.setBoolean(2, true);
@@ -240,6 +241,7 @@ public class DeviceTypeDAOImpl implements DeviceTypeDAO {
 				deviceType = new DeviceType();
 				deviceType.setId(rs.getInt("DEVICE_TYPE_ID"));
 				deviceType.setName(type);
+				deviceType.setLastUpdatedTimestamp(this.getLastUpdatedTimestamp(rs));
                 String devicetypeMeta = rs.getString("DEVICE_TYPE_META");
                 if (devicetypeMeta != null && devicetypeMeta.length() > 0) {
                     Gson gson = new Gson();
@@ -261,6 +263,11 @@ public class DeviceTypeDAOImpl implements DeviceTypeDAO {
 
 	}
 
+	private long getLastUpdatedTimestamp(ResultSet rs) throws SQLException {
+		Timestamp lastUpdatedTimestamp = rs.getTimestamp("LAST_UPDATED_TIMESTAMP");
+		return lastUpdatedTimestamp == null ? 0 : lastUpdatedTimestamp.getTime();
+	}
+
 	private Connection getConnection() throws SQLException {
 		return DeviceManagementDAOFactory.getConnection();
 	}
@@ -38,10 +38,53 @@ public class GenericDeviceDAOImpl extends AbstractDeviceDAOImpl {
     @Override
     public List<Device> getDevices(PaginationRequest request, int tenantId)
             throws DeviceManagementDAOException {
-        Connection conn;
         PreparedStatement stmt = null;
         ResultSet rs = null;
         List<Device> devices = null;
+        try {
+            stmt = this.getDevicesStatement(DEVICE_COLUMNS, request, tenantId);
+            rs = stmt.executeQuery();
+            devices = new ArrayList<>();
+            while (rs.next()) {
+                Device device = DeviceManagementDAOUtil.loadDevice(rs);
+                devices.add(device);
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving information of all " +
+                                                   "registered devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return devices;
+    }
+
+    @Override
+    public List<Integer> getEnrolmentIds(PaginationRequest request, int tenantId)
+            throws DeviceManagementDAOException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Integer> enrolmentIds = new ArrayList<>();
+        try {
+            stmt = this.getDevicesStatement("e.ID AS ENROLMENT_ID", request, tenantId);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                enrolmentIds.add(rs.getInt("ENROLMENT_ID"));
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while retrieving the enrolments of a page of " +
+                                                   "devices", e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return enrolmentIds;
+    }
+
+    /**
+     * Prepares the query of a page of the devices matching the given request, selecting the given columns of the
+     * enrolment e and the device d1.
+     */
+    private PreparedStatement getDevicesStatement(String columns, PaginationRequest request, int tenantId)
+            throws SQLException {
         String deviceType = request.getDeviceType();
         boolean isDeviceTypeProvided = false;
         String deviceName = request.getDeviceName();
@@ -56,97 +99,126 @@ public class GenericDeviceDAOImpl extends AbstractDeviceDAOImpl {
         boolean isStatusProvided = false;
         Date since = request.getSince();
         boolean isSinceProvided = false;
-        try {
-            conn = this.getConnection();
-            String sql = "SELECT d1.ID AS DEVICE_ID, d1.DESCRIPTION, d1.NAME AS DEVICE_NAME, d1.DEVICE_TYPE, " +
-                         "d1.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
-                         "e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID FROM DM_ENROLMENT e, (SELECT d.ID, d.DESCRIPTION, " +
-                         "d.NAME, d.DEVICE_IDENTIFICATION, t.NAME AS DEVICE_TYPE " +
-                         "FROM DM_DEVICE d, DM_DEVICE_TYPE t ";
-
-            //Add the query to filter active devices on timestamp
-            if (since != null) {
-                sql = sql + ", DM_DEVICE_DETAIL dt";
-                isSinceProvided = true;
-            }
+        Connection conn = this.getConnection();
+        String sql = "SELECT " + columns + " FROM DM_ENROLMENT e, (SELECT d.ID, d.DESCRIPTION, " +
+                     "d.NAME, d.DEVICE_IDENTIFICATION, t.NAME AS DEVICE_TYPE " +
+                     "FROM DM_DEVICE d, DM_DEVICE_TYPE t ";
+
+        //Add the query to filter active devices on timestamp
+        if (since != null) {
+            sql = sql + ", DM_DEVICE_DETAIL dt";
+            isSinceProvided = true;
+        }
 
-            sql = sql + " WHERE DEVICE_TYPE_ID = t.ID AND d.TENANT_ID = ?";
+        sql = sql + " WHERE DEVICE_TYPE_ID = t.ID AND d.TENANT_ID = ?";
 
-            //Add query for last updated timestamp
-            if (isSinceProvided) {
-                sql = sql + " AND dt.DEVICE_ID = d.ID AND dt.UPDATE_TIMESTAMP > ?";
-            }
+        //Add query for last updated timestamp
+        if (isSinceProvided) {
+            sql = sql + " AND dt.DEVICE_ID = d.ID AND dt.UPDATE_TIMESTAMP > ?";
+        }
 
-            //Add the query for device-type
-            if (deviceType != null && !deviceType.isEmpty()) {
-                sql = sql + " AND t.NAME = ?";
-                isDeviceTypeProvided = true;
-            }
-            //Add the query for device-name
-            if (deviceName != null && !deviceName.isEmpty()) {
-                sql = sql + " AND d.NAME LIKE ?";
-                isDeviceNameProvided = true;
-            }
+        //Add the query for device-type
+        if (deviceType != null && !deviceType.isEmpty()) {
+            sql = sql + " AND t.NAME = ?";
+            isDeviceTypeProvided = true;
+        }
+        //Add the query for device-name
+        if (deviceName != null && !deviceName.isEmpty()) {
+            sql = sql + " AND d.NAME LIKE ?";
+            isDeviceNameProvided = true;
+        }
 
-            sql = sql + ") d1 WHERE d1.ID = e.DEVICE_ID AND TENANT_ID = ?";
+        sql = sql + ") d1 WHERE d1.ID = e.DEVICE_ID AND TENANT_ID = ?";
 
-            //Add the query for ownership
-            if (ownership != null && !ownership.isEmpty()) {
-                sql = sql + " AND e.OWNERSHIP = ?";
-                isOwnershipProvided = true;
-            }
-            //Add the query for owner
-            if (owner != null && !owner.isEmpty()) {
-                sql = sql + " AND e.OWNER = ?";
-                isOwnerProvided = true;
-            } else if (ownerPattern != null && !ownerPattern.isEmpty()) {
-                sql = sql + " AND e.OWNER LIKE ?";
-                isOwnerPatternProvided = true;
-            }
-            //Add the query for status
-            if (status != null && !status.isEmpty()) {
-                sql = sql + " AND e.STATUS = ?";
-                isStatusProvided = true;
-            }
+        //Add the query for ownership
+        if (ownership != null && !ownership.isEmpty()) {
+            sql = sql + " AND e.OWNERSHIP = ?";
+            isOwnershipProvided = true;
+        }
+        //Add the query for owner
+        if (owner != null && !owner.isEmpty()) {
+            sql = sql + " AND e.OWNER = ?";
+            isOwnerProvided = true;
+        } else if (ownerPattern != null && !ownerPattern.isEmpty()) {
+            sql = sql + " AND e.OWNER LIKE ?";
+            isOwnerPatternProvided = true;
+        }
+        //Add the query for status
+        if (status != null && !status.isEmpty()) {
+            sql = sql + " AND e.STATUS = ?";
+            isStatusProvided = true;
+        }
 
-            sql = sql + " LIMIT ?,?";
+        //Seek past the previous page for cursor based requests, ordering on the enrolment id
+        if (request.isCursorBased()) {
+            sql = sql + " AND e.ID > ? ORDER BY e.ID LIMIT ?";
+        } else {
+            sql = sql + " ORDER BY e.ID LIMIT ?,?";
+        }
 
-            stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, tenantId);
-            int paramIdx = 2;
-            if (isSinceProvided) {
-                stmt.setLong(paramIdx++, since.getTime());
-            }
-            if (isDeviceTypeProvided) {
-                stmt.setString(paramIdx++, deviceType);
-            }
-            if (isDeviceNameProvided) {
-                stmt.setString(paramIdx++, deviceName + "%");
-            }
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        stmt.setInt(1, tenantId);
+        int paramIdx = 2;
+        if (isSinceProvided) {
+            stmt.setLong(paramIdx++, since.getTime());
+        }
+        if (isDeviceTypeProvided) {
+            stmt.setString(paramIdx++, deviceType);
+        }
+        if (isDeviceNameProvided) {
+            stmt.setString(paramIdx++, deviceName + "%");
+        }
 
-            stmt.setInt(paramIdx++, tenantId);
-            if (isOwnershipProvided) {
-                stmt.setString(paramIdx++, ownership);
-            }
-            if (isOwnerProvided) {
-                stmt.setString(paramIdx++, owner);
-            } else if (isOwnerPatternProvided) {
-                stmt.setString(paramIdx++, ownerPattern + "%");
-            }
-            if (isStatusProvided) {
-                stmt.setString(paramIdx++, status);
-            }
+        stmt.setInt(paramIdx++, tenantId);
+        if (isOwnershipProvided) {
+            stmt.setString(paramIdx++, ownership);
+        }
+        if (isOwnerProvided) {
+            stmt.setString(paramIdx++, owner);
+        } else if (isOwnerPatternProvided) {
+            stmt.setString(paramIdx++, ownerPattern + "%");
+        }
+        if (isStatusProvided) {
+            stmt.setString(paramIdx++, status);
+        }
+        if (request.isCursorBased()) {
+            stmt.setInt(paramIdx++, request.getLastEnrolmentId());
+            stmt.setInt(paramIdx, request.getRowCount());
+        } else {
             stmt.setInt(paramIdx++, request.getStartIndex());
             stmt.setInt(paramIdx, request.getRowCount());
+        }
+        return stmt;
+    }
+
+    @Override
+    public List<Device> getDevices(String type, int lastEnrolmentId, int limit, int tenantId)
+            throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Device> devices = new ArrayList<>();
+        try {
+            conn = this.getConnection();
+            String sql = "SELECT d.ID AS DEVICE_ID, d.DESCRIPTION, d.NAME AS DEVICE_NAME, t.NAME AS DEVICE_TYPE, " +
+                         "d.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, e.DATE_OF_LAST_UPDATE, " +
+                         "e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID FROM DM_ENROLMENT e, DM_DEVICE d, " +
+                         "DM_DEVICE_TYPE t WHERE e.DEVICE_ID = d.ID AND d.DEVICE_TYPE_ID = t.ID AND t.NAME = ? " +
+                         "AND d.TENANT_ID = ? AND e.TENANT_ID = ? AND e.ID > ? ORDER BY e.ID LIMIT ?";
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, type);
+            stmt.setInt(2, tenantId);
+            stmt.setInt(3, tenantId);
+            stmt.setInt(4, lastEnrolmentId);
+            stmt.setInt(5, limit);
             rs = stmt.executeQuery();
-            devices = new ArrayList<>();
             while (rs.next()) {
                 Device device = DeviceManagementDAOUtil.loadDevice(rs);
                 devices.add(device);
             }
         } catch (SQLException e) {
-            throw new DeviceManagementDAOException("Error occurred while retrieving information of all " +
-                                                   "registered devices", e);
+            throw new DeviceManagementDAOException("Error occurred while listing devices for type '" + type +
+                                                   "' after the enrolment '" + lastEnrolmentId + "'", e);
         } finally {
             DeviceManagementDAOUtil.cleanupResources(stmt, rs);
         }
@@ -44,6 +44,11 @@ public final class DeviceManagementDAOUtil {
 
     private static final Log log = LogFactory.getLog(DeviceManagementDAOUtil.class);
 
+    /**
+     * Maximum no of parameters added to a single IN clause, kept below the limits of all the supported databases.
+     */
+    public static final int MAX_IN_CLAUSE_SIZE = 500;
+
     public static void cleanupResources(Connection conn, PreparedStatement stmt, ResultSet rs) {
         if (rs != null) {
             try {
@@ -246,4 +251,14 @@ public final class DeviceManagementDAOUtil {
         return deviceInfo;
     }
 
+    /**
+     * Returns the parameter placeholders of an IN clause of the given size, such as "?, ?, ?".
+     */
+    public static String getInClause(int size) {
+        StringBuilder params = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            params.append(i == 0 ? "?" : ", ?");
+        }
+        return params.toString();
+    }
 }
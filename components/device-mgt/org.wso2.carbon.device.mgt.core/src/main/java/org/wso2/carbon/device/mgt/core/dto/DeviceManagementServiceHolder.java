@@ -20,28 +20,32 @@ package org.wso2.carbon.device.mgt.core.dto;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 
 /**
- * This holds the information of the registered device management service against the device type
- * definition loaded timestamp. This is used to handle device type update scenario.
+ * This holds the information of the registered device management service against the version of the device type
+ * definition it was built from. This is used to handle device type update scenario.
  */
 public class DeviceManagementServiceHolder {
 
-    private DeviceManagementService deviceManagementService;
-    private long timestamp;
+    private final DeviceManagementService deviceManagementService;
+    private final long definitionVersion;
 
     public DeviceManagementServiceHolder(DeviceManagementService deviceManagementService) {
+        this(deviceManagementService, 0);
+    }
+
+    public DeviceManagementServiceHolder(DeviceManagementService deviceManagementService, long definitionVersion) {
         this.deviceManagementService = deviceManagementService;
-        this.timestamp = System.currentTimeMillis();
+        this.definitionVersion = definitionVersion;
     }
 
     public DeviceManagementService getDeviceManagementService() {
         return deviceManagementService;
     }
 
-    public long getTimestamp() {
-        return timestamp;
-    }
-
-    public void setTimestamp(long timestamp) {
-        this.timestamp = timestamp;
+    /**
+     * Returns the last updated timestamp of the stored device type definition the service was built from, or 0 if
+     * it is not known yet.
+     */
+    public long getDefinitionVersion() {
+        return definitionVersion;
     }
 }
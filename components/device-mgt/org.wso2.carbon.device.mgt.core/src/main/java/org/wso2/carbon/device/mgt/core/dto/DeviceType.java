@@ -37,6 +37,9 @@ public class DeviceType implements Serializable {
     @ApiModelProperty(name = "metaDefinition", value = "Device type definition", required = true)
     private DeviceTypeMetaDefinition deviceTypeMetaDefinition;
 
+    @ApiModelProperty(name = "lastUpdatedTimestamp", value = "Time the device type definition was last updated")
+    private long lastUpdatedTimestamp;
+
     public DeviceType() {
     }
 
@@ -69,4 +72,12 @@ public class DeviceType implements Serializable {
         this.deviceTypeMetaDefinition = deviceTypeMetaDefinition;
     }
 
+    public long getLastUpdatedTimestamp() {
+        return lastUpdatedTimestamp;
+    }
+
+    public void setLastUpdatedTimestamp(long lastUpdatedTimestamp) {
+        this.lastUpdatedTimestamp = lastUpdatedTimestamp;
+    }
+
 }
@@ -34,6 +34,7 @@ import org.wso2.carbon.device.mgt.common.permission.mgt.PermissionManagerService
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.common.spi.DeviceTypeGeneratorService;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.DeviceManagementPluginRepository;
 import org.wso2.carbon.device.mgt.core.app.mgt.ApplicationManagementProviderService;
 import org.wso2.carbon.device.mgt.core.app.mgt.ApplicationManagerProviderServiceImpl;
 import org.wso2.carbon.device.mgt.core.app.mgt.config.AppManagementConfig;
@@ -243,7 +244,12 @@ public class DeviceManagementServiceComponent {
 
     @SuppressWarnings("unused")
     protected void deactivate(ComponentContext componentContext) {
-        //do nothing
+        DeviceManagementPluginRepository.stopDefinitionWatcher();
+        PrivacyComplianceProvider privacyComplianceProvider =
+                DeviceManagementDataHolder.getInstance().getPrivacyComplianceProvider();
+        if (privacyComplianceProvider instanceof PrivacyComplianceProviderImpl) {
+            ((PrivacyComplianceProviderImpl) privacyComplianceProvider).shutdown();
+        }
     }
 
     private void initOperationsManager() throws OperationManagementException {
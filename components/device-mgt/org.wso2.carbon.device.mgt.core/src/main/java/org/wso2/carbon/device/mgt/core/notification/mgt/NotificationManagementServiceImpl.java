@@ -40,7 +40,9 @@ import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class implements the NotificationManagementService.
@@ -86,6 +88,45 @@ public class NotificationManagementServiceImpl implements NotificationManagement
         return true;
     }
 
+    @Override
+    public int addNotifications(List<DeviceIdentifier> deviceIds,
+                                Notification notification) throws NotificationManagementException {
+        if (log.isDebugEnabled()) {
+            log.debug("Adding a Notification : [" + notification.toString() + "] to " + deviceIds.size() +
+                    " devices");
+        }
+        Map<String, List<String>> deviceIdentifiersOfType = new HashMap<>();
+        for (DeviceIdentifier deviceId : deviceIds) {
+            List<String> identifiers = deviceIdentifiersOfType.get(deviceId.getType());
+            if (identifiers == null) {
+                identifiers = new ArrayList<>();
+                deviceIdentifiersOfType.put(deviceId.getType(), identifiers);
+            }
+            identifiers.add(deviceId.getId());
+        }
+        int tenantId = NotificationDAOUtil.getTenantId();
+        int count = 0;
+        try {
+            NotificationManagementDAOFactory.beginTransaction();
+            for (Map.Entry<String, List<String>> entry : deviceIdentifiersOfType.entrySet()) {
+                count += notificationDAO.addNotifications(entry.getKey(), entry.getValue(), tenantId, notification);
+            }
+            NotificationManagementDAOFactory.commitTransaction();
+        } catch (TransactionManagementException e) {
+            NotificationManagementDAOFactory.rollbackTransaction();
+            throw new NotificationManagementException("Error occurred while adding notifications", e);
+        } catch (NotificationManagementException e) {
+            NotificationManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            NotificationManagementDAOFactory.closeConnection();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(count + " notifications were added to the table.");
+        }
+        return count;
+    }
+
     private Device getDevice(DeviceIdentifier deviceId) throws NotificationManagementException {
         Device device;
         try {
@@ -141,6 +182,31 @@ public class NotificationManagementServiceImpl implements NotificationManagement
         return true;
     }
 
+    @Override
+    public boolean updateNotificationStatus(List<Integer> notificationIds, Notification.Status status)
+            throws NotificationManagementException {
+        if (log.isDebugEnabled()) {
+            log.debug("Updating the status of " + notificationIds.size() + " notifications");
+        }
+        if (notificationIds.isEmpty()) {
+            return true;
+        }
+        try {
+            NotificationManagementDAOFactory.beginTransaction();
+            notificationDAO.updateNotificationStatus(notificationIds, status, NotificationDAOUtil.getTenantId());
+            NotificationManagementDAOFactory.commitTransaction();
+        } catch (TransactionManagementException e) {
+            NotificationManagementDAOFactory.rollbackTransaction();
+            throw new NotificationManagementException("Error occurred while updating notifications", e);
+        } catch (NotificationManagementException e) {
+            NotificationManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            NotificationManagementDAOFactory.closeConnection();
+        }
+        return true;
+    }
+
     @Override
     public boolean updateAllNotifications(Notification.Status status, int tenantID) throws
             NotificationManagementException {
@@ -249,4 +315,32 @@ public class NotificationManagementServiceImpl implements NotificationManagement
         }
     }
 
+    @Override
+    public PaginationResult getNotifications(Notification.Status status, int lastNotificationId, int limit,
+                                             boolean countRequired) throws NotificationManagementException {
+        PaginationRequest request = DeviceManagerUtil.validateNotificationListPageSize(
+                new PaginationRequest(0, Math.max(limit, 0)));
+        PaginationResult paginationResult = new PaginationResult();
+        int tenantId = NotificationDAOUtil.getTenantId();
+        try {
+            NotificationManagementDAOFactory.openConnection();
+            List<Notification> notifications = notificationDAO.getNotifications(status, lastNotificationId,
+                    request.getRowCount(), tenantId);
+            int count = -1;
+            if (countRequired) {
+                count = status == null ? notificationDAO.getNotificationCount(tenantId) :
+                        notificationDAO.getNotificationCountByStatus(status, tenantId);
+            }
+            paginationResult.setData(notifications);
+            paginationResult.setRecordsFiltered(count);
+            paginationResult.setRecordsTotal(count);
+            return paginationResult;
+        } catch (SQLException e) {
+            throw new NotificationManagementException("Error occurred while opening a connection " +
+                    "to the data source", e);
+        } finally {
+            NotificationManagementDAOFactory.closeConnection();
+        }
+    }
+
 }
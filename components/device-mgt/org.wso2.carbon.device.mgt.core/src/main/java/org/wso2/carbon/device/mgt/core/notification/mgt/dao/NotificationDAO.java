@@ -41,6 +41,20 @@ public interface NotificationDAO {
 	int addNotification(int deviceId, int tenantId, Notification notification) throws
 	                                                                NotificationManagementException;
 
+	/**
+	 * This method is used to add the same notification to a set of devices of a device type. The devices are
+	 * resolved as part of the insert, so no separate device lookup is needed.
+	 *
+	 * @param deviceType device type of the devices.
+	 * @param deviceIdentifiers identifiers of the devices.
+	 * @param tenantId tenant id.
+	 * @param notification Notification object.
+	 * @return returns the no of added records.
+	 * @throws NotificationManagementException
+	 */
+	int addNotifications(String deviceType, List<String> deviceIdentifiers, int tenantId,
+	                     Notification notification) throws NotificationManagementException;
+
 	/**
 	 * This method is used to update a notification.
 	 *
@@ -70,6 +84,18 @@ public interface NotificationDAO {
 	int updateAllNotifications(Notification.Status status, int tenantID) throws
 			NotificationManagementException;
 
+	/**
+	 * This method is used to update the status of a set of notifications.
+	 *
+	 * @param notificationIds notification ids.
+	 * @param status Notification.Status.
+	 * @param tenantId tenant id.
+	 * @return returns the no of updated records.
+	 * @throws NotificationManagementException
+	 */
+	int updateNotificationStatus(List<Integer> notificationIds, Notification.Status status, int tenantId)
+			throws NotificationManagementException;
+
 	/**
 	 * This method is used to get all notifications based on tenant-id.
 	 *
@@ -87,6 +113,20 @@ public interface NotificationDAO {
 
 	int getNotificationCountByStatus(Notification.Status status, int tenantId) throws NotificationManagementException;
 
+	/**
+	 * This method is used to get a page of notifications ordered by the notification id, starting after the given
+	 * notification id.
+	 *
+	 * @param status Notification.Status, or null to get notifications of all statuses.
+	 * @param lastNotificationId id of the last notification of the previous page, 0 for the first page.
+	 * @param limit maximum no of notifications to be returned.
+	 * @param tenantId tenant id.
+	 * @return returns the matching notifications.
+	 * @throws NotificationManagementException
+	 */
+	List<Notification> getNotifications(Notification.Status status, int lastNotificationId, int limit,
+	                                    int tenantId) throws NotificationManagementException;
+
 	/**
 	 * This method is used to get all notifications based on notification-status.
 	 *
@@ -19,7 +19,9 @@
 package org.wso2.carbon.device.mgt.core.notification.mgt.dao.impl;
 
 import org.wso2.carbon.device.mgt.common.notification.mgt.Notification;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.notification.mgt.NotificationManagementException;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import org.wso2.carbon.device.mgt.core.notification.mgt.dao.NotificationDAO;
 import org.wso2.carbon.device.mgt.core.notification.mgt.dao.NotificationManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.notification.mgt.dao.util.NotificationDAOUtil;
@@ -68,6 +70,52 @@ public abstract class AbstractNotificationDAOImpl implements NotificationDAO {
         return notificationId;
     }
 
+    @Override
+    public int addNotifications(String deviceType, List<String> deviceIdentifiers, int tenantId,
+                                Notification notification) throws NotificationManagementException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        int rows = 0;
+        try {
+            conn = NotificationManagementDAOFactory.getConnection();
+            Timestamp timestamp = new Timestamp(new Date().getTime());
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < deviceIdentifiers.size(); start += chunkSize) {
+                List<String> identifiers = deviceIdentifiers.subList(start,
+                        Math.min(start + chunkSize, deviceIdentifiers.size()));
+                String sql = "INSERT INTO DM_NOTIFICATION(DEVICE_ID, OPERATION_ID, STATUS, DESCRIPTION, " +
+                        "TENANT_ID, LAST_UPDATED_TIMESTAMP) SELECT d.ID, ?, ?, ?, ?, ? FROM DM_DEVICE d, " +
+                        "DM_DEVICE_TYPE t WHERE d.DEVICE_TYPE_ID = t.ID AND t.NAME = ? AND d.TENANT_ID = ? AND " +
+                        "EXISTS (SELECT 1 FROM DM_ENROLMENT e WHERE e.DEVICE_ID = d.ID AND e.TENANT_ID = ? AND " +
+                        "e.STATUS <> ?) AND d.DEVICE_IDENTIFICATION IN (" +
+                        DeviceManagementDAOUtil.getInClause(identifiers.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                int paramIdx = 1;
+                stmt.setInt(paramIdx++, notification.getOperationId());
+                stmt.setString(paramIdx++, notification.getStatus().toString());
+                stmt.setString(paramIdx++, notification.getDescription());
+                stmt.setInt(paramIdx++, tenantId);
+                stmt.setTimestamp(paramIdx++, timestamp);
+                stmt.setString(paramIdx++, deviceType);
+                stmt.setInt(paramIdx++, tenantId);
+                stmt.setInt(paramIdx++, tenantId);
+                stmt.setString(paramIdx++, EnrolmentInfo.Status.REMOVED.toString());
+                for (String identifier : identifiers) {
+                    stmt.setString(paramIdx++, identifier);
+                }
+                rows += stmt.executeUpdate();
+                NotificationDAOUtil.cleanupResources(stmt, null);
+                stmt = null;
+            }
+        } catch (SQLException e) {
+            throw new NotificationManagementException("Error occurred while adding the Notification for " +
+                    deviceIdentifiers.size() + " devices of type '" + deviceType + "'", e);
+        } finally {
+            NotificationDAOUtil.cleanupResources(stmt, null);
+        }
+        return rows;
+    }
+
     @Override
     public Notification getNotification(int tenantId, int notificationId) throws NotificationManagementException {
         Connection conn;
@@ -154,11 +202,13 @@ public abstract class AbstractNotificationDAOImpl implements NotificationDAO {
         int rows;
         try {
             conn = NotificationManagementDAOFactory.getConnection();
-            String sql = "UPDATE DM_NOTIFICATION SET STATUS = ?, LAST_UPDATED_TIMESTAMP = ? WHERE TENANT_ID= ?";
+            String sql = "UPDATE DM_NOTIFICATION SET STATUS = ?, LAST_UPDATED_TIMESTAMP = ? WHERE TENANT_ID= ? " +
+                    "AND (STATUS IS NULL OR STATUS <> ?)";
             stmt = conn.prepareStatement(sql);
             stmt.setString(1, status.toString());
             stmt.setTimestamp(2, new Timestamp(new Date().getTime()));
             stmt.setInt(3, tenantID);
+            stmt.setString(4, status.toString());
             rows = stmt.executeUpdate();
         } catch (Exception e) {
             throw new NotificationManagementException("Error while trying to clear all " +
@@ -169,6 +219,42 @@ public abstract class AbstractNotificationDAOImpl implements NotificationDAO {
         return rows;
     }
 
+    @Override
+    public int updateNotificationStatus(List<Integer> notificationIds, Notification.Status status, int tenantId)
+            throws NotificationManagementException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        int rows = 0;
+        try {
+            conn = NotificationManagementDAOFactory.getConnection();
+            Timestamp timestamp = new Timestamp(new Date().getTime());
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < notificationIds.size(); start += chunkSize) {
+                List<Integer> ids = notificationIds.subList(start,
+                        Math.min(start + chunkSize, notificationIds.size()));
+                String sql = "UPDATE DM_NOTIFICATION SET STATUS = ?, LAST_UPDATED_TIMESTAMP = ? WHERE TENANT_ID = ? " +
+                        "AND NOTIFICATION_ID IN (" + DeviceManagementDAOUtil.getInClause(ids.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                int paramIdx = 1;
+                stmt.setString(paramIdx++, status.toString());
+                stmt.setTimestamp(paramIdx++, timestamp);
+                stmt.setInt(paramIdx++, tenantId);
+                for (Integer id : ids) {
+                    stmt.setInt(paramIdx++, id);
+                }
+                rows += stmt.executeUpdate();
+                NotificationDAOUtil.cleanupResources(stmt, null);
+                stmt = null;
+            }
+        } catch (SQLException e) {
+            throw new NotificationManagementException("Error occurred while updating the status of " +
+                    notificationIds.size() + " notifications", e);
+        } finally {
+            NotificationDAOUtil.cleanupResources(stmt, null);
+        }
+        return rows;
+    }
+
     @Override
     public List<Notification> getAllNotifications(int tenantId) throws NotificationManagementException {
         Connection conn;
@@ -207,22 +293,11 @@ public abstract class AbstractNotificationDAOImpl implements NotificationDAO {
         ResultSet rs = null;
         try {
             conn = NotificationManagementDAOFactory.getConnection();
-            String sql =
-                    "SELECT COUNT(n1.NOTIFICATION_ID) AS NOTIFICATION_COUNT FROM DM_DEVICE d, DM_DEVICE_TYPE t, (SELECT " +
-                            "NOTIFICATION_ID, DEVICE_ID, OPERATION_ID, STATUS, DESCRIPTION FROM DM_NOTIFICATION WHERE " +
-                            "TENANT_ID = ?) n1 WHERE n1.DEVICE_ID = d.ID AND d.DEVICE_TYPE_ID=t.ID AND TENANT_ID = ?";
-
-            /*if (deviceType != null && !deviceType.isEmpty()) {
-                sql = sql + " AND t.NAME = ?";
-                isDeviceTypeProvided = true;
-            }*/
+            // Every notification refers to a device of the same tenant, so the count is taken from the
+            // notification table alone, which is served by the tenant and status index.
+            String sql = "SELECT COUNT(NOTIFICATION_ID) AS NOTIFICATION_COUNT FROM DM_NOTIFICATION WHERE TENANT_ID = ?";
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, tenantId);
-            stmt.setInt(2, tenantId);
-            //int paramIdx = 2;
-            /*if (isDeviceTypeProvided) {
-                stmt.setString(paramIdx++, request.getDeviceType());
-            }*/
 
             rs = stmt.executeQuery();
             if (rs.next()) {
@@ -283,16 +358,11 @@ public abstract class AbstractNotificationDAOImpl implements NotificationDAO {
         try {
             conn = NotificationManagementDAOFactory.getConnection();
 
-            String sql = "SELECT COUNT(n1.NOTIFICATION_ID) AS NOTIFICATION_COUNT FROM " +
-                    "DM_DEVICE d, DM_DEVICE_TYPE t, (SELECT NOTIFICATION_ID, DEVICE_ID, " +
-                    "OPERATION_ID, STATUS, DESCRIPTION FROM DM_NOTIFICATION WHERE " +
-                    "TENANT_ID = ? AND STATUS = ?) n1 WHERE n1.DEVICE_ID = d.ID AND d.DEVICE_TYPE_ID=t.ID " +
-                    "AND TENANT_ID = ?";
-
+            String sql = "SELECT COUNT(NOTIFICATION_ID) AS NOTIFICATION_COUNT FROM DM_NOTIFICATION WHERE " +
+                    "TENANT_ID = ? AND STATUS = ?";
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, tenantId);
             stmt.setString(2, status.toString());
-            stmt.setInt(3, tenantId);
 
             rs = stmt.executeQuery();
             if (rs.next()) {
@@ -149,4 +149,42 @@ public class OracleNotificationDAOImpl extends AbstractNotificationDAOImpl {
         }
         return notifications;
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<Notification> getNotifications(Notification.Status status, int lastNotificationId, int limit,
+                                               int tenantId) throws NotificationManagementException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Notification> notifications = new ArrayList<>();
+        try {
+            conn = NotificationManagementDAOFactory.getConnection();
+            String sql = "SELECT n1.NOTIFICATION_ID, n1.DEVICE_ID, n1.OPERATION_ID, n1.STATUS, n1.DESCRIPTION, " +
+                    "d.DEVICE_IDENTIFICATION, d.NAME AS DEVICE_NAME, t.NAME AS DEVICE_TYPE FROM DM_NOTIFICATION n1, " +
+                    "DM_DEVICE d, DM_DEVICE_TYPE t WHERE n1.TENANT_ID = ? AND n1.NOTIFICATION_ID > ? AND " +
+                    "n1.DEVICE_ID = d.ID AND d.DEVICE_TYPE_ID = t.ID";
+            if (status != null) {
+                sql = sql + " AND n1.STATUS = ?";
+            }
+            sql = sql + " ORDER BY n1.NOTIFICATION_ID FETCH NEXT ? ROWS ONLY";
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, tenantId);
+            stmt.setInt(2, lastNotificationId);
+            int paramIdx = 3;
+            if (status != null) {
+                stmt.setString(paramIdx++, status.toString());
+            }
+            stmt.setInt(paramIdx, limit);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                notifications.add(NotificationDAOUtil.getNotificationWithDeviceInfo(rs));
+            }
+        } catch (SQLException e) {
+            throw new NotificationManagementException("Error occurred while retrieving notifications after the " +
+                    "notification id : " + lastNotificationId, e);
+        } finally {
+            NotificationDAOUtil.cleanupResources(stmt, rs);
+        }
+        return notifications;
+    }
+}
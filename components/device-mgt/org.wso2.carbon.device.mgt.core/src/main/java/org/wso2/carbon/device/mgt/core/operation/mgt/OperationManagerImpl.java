@@ -28,16 +28,19 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.InvalidDeviceException;
 import org.wso2.carbon.device.mgt.common.MonitoringOperation;
+import org.wso2.carbon.device.mgt.common.OperationMonitoringTaskConfig;
 import org.wso2.carbon.device.mgt.common.PaginationRequest;
 import org.wso2.carbon.device.mgt.common.PaginationResult;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
 import org.wso2.carbon.device.mgt.common.authorization.DeviceAccessAuthorizationException;
 import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroupConstants;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityFeed;
 import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityStatus;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
+import org.wso2.carbon.device.mgt.common.operation.mgt.PendingOperations;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
@@ -45,6 +48,7 @@ import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecu
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationProvider;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCountCache;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
@@ -58,9 +62,6 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.util.OperationDAOUtil;
 import org.wso2.carbon.device.mgt.core.operation.mgt.util.DeviceIDHolder;
 import org.wso2.carbon.device.mgt.core.operation.mgt.util.OperationCreateTimeComparator;
-import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
-import org.wso2.carbon.device.mgt.core.task.DeviceTaskManager;
-import org.wso2.carbon.device.mgt.core.task.impl.DeviceTaskManagerImpl;
 import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 
 import java.sql.SQLException;
@@ -69,8 +70,12 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * This class implements all the functionality exposed as part of the OperationManager. Any transaction initiated
@@ -95,6 +100,8 @@ public class OperationManagerImpl implements OperationManager {
     private DeviceManagementService deviceManagementService;
     private Map<Integer, NotificationStrategy> notificationStrategies;
     private Map<Integer, Long> lastUpdatedTimeStamps;
+    private Set<String> taskOperationCodes;
+    private Set<String> taskOperationCodesIgnoreCase;
 
     public OperationManagerImpl() {
         commandOperationDAO = OperationManagementDAOFactory.getCommandOperationDAO();
@@ -107,12 +114,27 @@ public class OperationManagerImpl implements OperationManager {
         enrollmentDAO = DeviceManagementDAOFactory.getEnrollmentDAO();
         notificationStrategies = new HashMap<>();
         lastUpdatedTimeStamps = new HashMap<>();
+        taskOperationCodes = Collections.emptySet();
+        taskOperationCodesIgnoreCase = Collections.emptySet();
     }
 
     public OperationManagerImpl(String deviceType, DeviceManagementService deviceManagementService) {
         this();
         this.deviceType = deviceType;
         this.deviceManagementService = deviceManagementService;
+        // An operation manager is created whenever the device type is registered, including when its definition
+        // changes, so the monitoring operations of the type are resolved once here instead of on every operation.
+        OperationMonitoringTaskConfig monitoringConfig = deviceManagementService.getOperationMonitoringConfig();
+        if (monitoringConfig != null && monitoringConfig.getMonitoringOperation() != null) {
+            Set<String> codes = new HashSet<>();
+            Set<String> codesIgnoreCase = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            for (MonitoringOperation monitoringOperation : monitoringConfig.getMonitoringOperation()) {
+                codes.add(monitoringOperation.getTaskName());
+                codesIgnoreCase.add(monitoringOperation.getTaskName());
+            }
+            this.taskOperationCodes = Collections.unmodifiableSet(codes);
+            this.taskOperationCodesIgnoreCase = Collections.unmodifiableSet(codesIgnoreCase);
+        }
     }
 
     public NotificationStrategy getNotificationStrategy() {
@@ -312,6 +334,107 @@ public class OperationManagerImpl implements OperationManager {
         }
     }
 
+    @Override
+    public void addTaskOperations(List<String> operationCodes, List<Device> devices)
+            throws OperationManagementException {
+        Map<Integer, Device> activeDevices = new LinkedHashMap<>();
+        for (Device device : devices) {
+            EnrolmentInfo enrolmentInfo = device.getEnrolmentInfo();
+            if (enrolmentInfo != null && enrolmentInfo.getStatus() != EnrolmentInfo.Status.BLOCKED &&
+                    enrolmentInfo.getStatus() != EnrolmentInfo.Status.REMOVED &&
+                    enrolmentInfo.getStatus() != EnrolmentInfo.Status.SUSPENDED) {
+                activeDevices.put(enrolmentInfo.getId(), device);
+            }
+        }
+        if (operationCodes.isEmpty() || activeDevices.isEmpty()) {
+            return;
+        }
+        List<Integer> enrolmentIds = new ArrayList<>(activeDevices.keySet());
+        NotificationStrategy notificationStrategy = getNotificationStrategy();
+        boolean isScheduled = false;
+        if (DeviceConfigurationManager.getInstance().getDeviceManagementConfig().
+                getPushNotificationConfiguration().getSchedulerBatchSize() <= enrolmentIds.size() &&
+                notificationStrategy != null) {
+            isScheduled = notificationStrategy.getConfig().isScheduled();
+        }
+
+        List<Operation> addedOperations = new ArrayList<>();
+        Map<Integer, List<Integer>> mappedEnrolments = new HashMap<>();
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            for (String operationCode : operationCodes) {
+                List<Integer> targetEnrolmentIds = new ArrayList<>(enrolmentIds);
+                targetEnrolmentIds.removeAll(new HashSet<>(
+                        operationDAO.getEnrolmentsWithPendingOperation(enrolmentIds, operationCode)));
+                if (targetEnrolmentIds.isEmpty()) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("All the devices of the page contain a pending operation for the Operation Code: "
+                                + operationCode);
+                    }
+                    continue;
+                }
+                CommandOperation operation = new CommandOperation();
+                operation.setEnabled(true);
+                operation.setType(Operation.Type.COMMAND);
+                operation.setCode(operationCode);
+                int operationId = commandOperationDAO.addOperation(OperationDAOUtil.convertOperation(operation));
+                operationMappingDAO.addOperationMappings(operationId, targetEnrolmentIds, isScheduled);
+                operation.setId(operationId);
+                operation.setActivityId(DeviceManagementConstants.OperationAttributes.ACTIVITY + operationId);
+                addedOperations.add(operation);
+                mappedEnrolments.put(operationId, targetEnrolmentIds);
+            }
+            OperationManagementDAOFactory.commitTransaction();
+        } catch (OperationManagementDAOException e) {
+            OperationManagementDAOFactory.rollbackTransaction();
+            throw new OperationManagementException("Error occurred while adding task operations", e);
+        } catch (TransactionManagementException e) {
+            throw new OperationManagementException("Error occurred while initiating the transaction", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+
+        if (notificationStrategy != null && !isScheduled) {
+            List<OperationMapping> failedMappings = new ArrayList<>();
+            for (Operation operation : addedOperations) {
+                for (Integer enrolmentId : mappedEnrolments.get(operation.getId())) {
+                    Device device = activeDevices.get(enrolmentId);
+                    DeviceIdentifier deviceId = new DeviceIdentifier(device.getDeviceIdentifier(), device.getType());
+                    try {
+                        notificationStrategy.execute(new NotificationContext(deviceId, operation));
+                    } catch (PushNotificationExecutionFailedException e) {
+                        log.error("Error occurred while sending push notifications to " + deviceId.getType() +
+                                " device carrying id '" + deviceId + "'", e);
+                        OperationMapping operationMapping = new OperationMapping();
+                        operationMapping.setOperationId(operation.getId());
+                        operationMapping.setEnrollmentId(enrolmentId);
+                        operationMapping.setPushNotificationStatus(org.wso2.carbon.device.mgt.core.dto.operation.mgt.
+                                Operation.PushNotificationStatus.SCHEDULED);
+                        failedMappings.add(operationMapping);
+                    }
+                }
+            }
+            if (!failedMappings.isEmpty()) {
+                this.rescheduleNotifications(failedMappings);
+            }
+        }
+    }
+
+    private void rescheduleNotifications(List<OperationMapping> operationMappings) {
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            operationMappingDAO.updateOperationMapping(operationMappings);
+            OperationManagementDAOFactory.commitTransaction();
+        } catch (OperationManagementDAOException e) {
+            OperationManagementDAOFactory.rollbackTransaction();
+            log.error("Error occurred while setting push notification status to SCHEDULED.", e);
+        } catch (TransactionManagementException e) {
+            log.error("Error occurred while initiating the transaction to reschedule push notifications.", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
     private List<ActivityStatus> getActivityStatus(DeviceIDHolder deviceIdValidationResult, DeviceIDHolder deviceAuthResult,
                                                    String deviceType) {
         List<ActivityStatus> activityStatuses = new ArrayList<>();
@@ -475,31 +598,16 @@ public class OperationManagerImpl implements OperationManager {
         if (log.isDebugEnabled()) {
             log.debug("Device identifier id:[" + deviceId.getId() + "] type:[" + deviceId.getType() + "]");
         }
+        return this.getPendingOperations(this.getEnrolmentIdOfPendingOperations(deviceId), deviceId);
+    }
+
+    /**
+     * Reads the pending operations of an enrolment, whose access is already authorized.
+     */
+    private List<? extends Operation> getPendingOperations(int enrolmentId, DeviceIdentifier deviceId)
+            throws OperationManagementException {
         List<Operation> operations = new ArrayList<>();
         List<org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation> dtoOperationList = new ArrayList<>();
-
-        if (!isActionAuthorized(deviceId)) {
-            throw new OperationManagementException("User '" + getUser() + "' is not authorized to access the '" +
-                    deviceId.getType() + "' device, which carries the identifier '" +
-                    deviceId.getId() + "'");
-        }
-
-        //
-        EnrolmentInfo enrolmentInfo = this.getActiveEnrolmentInfo(deviceId);
-        if (enrolmentInfo == null) {
-            throw new OperationManagementException("Device not found for the given device Identifier:" +
-                    deviceId.getId() + " and given type:" +
-                    deviceId.getType());
-        }
-        int enrolmentId = enrolmentInfo.getId();
-        //Changing the enrollment status & attempt count if the device is marked as inactive or unreachable
-        switch (enrolmentInfo.getStatus()) {
-            case INACTIVE:
-            case UNREACHABLE:
-                this.setEnrolmentStatus(enrolmentId, EnrolmentInfo.Status.ACTIVE);
-                break;
-        }
-
         try {
             OperationManagementDAOFactory.openConnection();
             dtoOperationList.addAll(commandOperationDAO.getOperationsByDeviceAndStatus(
@@ -529,6 +637,65 @@ public class OperationManagerImpl implements OperationManager {
         return operations;
     }
 
+    @Override
+    public PendingOperations getVersionedPendingOperations(final DeviceIdentifier deviceId)
+            throws OperationManagementException {
+        final int enrolmentId = this.getEnrolmentIdOfPendingOperations(deviceId);
+        final String version;
+        try {
+            OperationManagementDAOFactory.openConnection();
+            version = operationDAO.getPendingOperationsVersion(enrolmentId);
+        } catch (OperationManagementDAOException e) {
+            throw new OperationManagementException("Error occurred while retrieving the version of the " +
+                    "pending operations assigned for '" + deviceId.getType() + "' device '" + deviceId.getId() +
+                    "'", e);
+        } catch (SQLException e) {
+            throw new OperationManagementException(
+                    "Error occurred while opening a connection to the data source", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+        return new PendingOperations() {
+            @Override
+            public String getVersion() {
+                return version;
+            }
+
+            @Override
+            public List<? extends Operation> getOperations() throws OperationManagementException {
+                return OperationManagerImpl.this.getPendingOperations(enrolmentId, deviceId);
+            }
+        };
+    }
+
+    /**
+     * Returns the active enrolment of a device fetching its pending operations. The device is marked as active again
+     * if it was marked as inactive or unreachable, as it has just contacted the server.
+     */
+    private int getEnrolmentIdOfPendingOperations(DeviceIdentifier deviceId) throws OperationManagementException {
+        if (!isActionAuthorized(deviceId)) {
+            throw new OperationManagementException("User '" + getUser() + "' is not authorized to access the '" +
+                    deviceId.getType() + "' device, which carries the identifier '" +
+                    deviceId.getId() + "'");
+        }
+
+        EnrolmentInfo enrolmentInfo = this.getActiveEnrolmentInfo(deviceId);
+        if (enrolmentInfo == null) {
+            throw new OperationManagementException("Device not found for the given device Identifier:" +
+                    deviceId.getId() + " and given type:" +
+                    deviceId.getType());
+        }
+        int enrolmentId = enrolmentInfo.getId();
+        //Changing the enrollment status & attempt count if the device is marked as inactive or unreachable
+        switch (enrolmentInfo.getStatus()) {
+            case INACTIVE:
+            case UNREACHABLE:
+                this.setEnrolmentStatus(enrolmentId, enrolmentInfo.getStatus(), EnrolmentInfo.Status.ACTIVE);
+                break;
+        }
+        return enrolmentId;
+    }
+
     @Override
     public Operation getNextPendingOperation(DeviceIdentifier deviceId) throws OperationManagementException {
         if (log.isDebugEnabled()) {
@@ -553,7 +720,7 @@ public class OperationManagerImpl implements OperationManager {
         switch (enrolmentInfo.getStatus()) {
             case INACTIVE:
             case UNREACHABLE:
-                this.setEnrolmentStatus(enrolmentId, EnrolmentInfo.Status.ACTIVE);
+                this.setEnrolmentStatus(enrolmentId, enrolmentInfo.getStatus(), EnrolmentInfo.Status.ACTIVE);
                 break;
         }
 
@@ -890,6 +1057,22 @@ public class OperationManagerImpl implements OperationManager {
     }
 
 
+    @Override
+    public ActivityFeed getActivityFeed(long timestamp, int lastMappingId, int limit, boolean includeResponses)
+            throws OperationManagementException {
+        try {
+            OperationManagementDAOFactory.openConnection();
+            return operationDAO.getActivityFeed(timestamp, lastMappingId, limit, includeResponses);
+        } catch (SQLException e) {
+            throw new OperationManagementException("Error occurred while opening a connection to the data source.", e);
+        } catch (OperationManagementDAOException e) {
+            throw new OperationManagementException("Error occurred while getting the activity feed changed after a " +
+                    "given time.", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public List<Activity> getFilteredActivities(String operationCode, int limit, int offset) throws OperationManagementException{
         try {
@@ -957,8 +1140,7 @@ public class OperationManagerImpl implements OperationManager {
     private boolean isAuthenticationSkippedOperation(Operation operation) {
 
         //This is to check weather operations are coming from the task related to retrieving device information.
-        DeviceTaskManager taskManager = new DeviceTaskManagerImpl(deviceType);
-        if (taskManager.isTaskOperation(operation.getCode())) {
+        if (taskOperationCodesIgnoreCase.contains(operation.getCode())) {
             return true;
         }
 
@@ -1044,7 +1226,8 @@ public class OperationManagerImpl implements OperationManager {
         return enrolmentInfo;
     }
 
-    private boolean setEnrolmentStatus(int enrolmentId, EnrolmentInfo.Status status) throws OperationManagementException {
+    private boolean setEnrolmentStatus(int enrolmentId, EnrolmentInfo.Status previousStatus,
+                                       EnrolmentInfo.Status status) throws OperationManagementException {
         boolean updateStatus;
         try {
             DeviceManagementDAOFactory.beginTransaction();
@@ -1052,6 +1235,9 @@ public class OperationManagerImpl implements OperationManager {
             String user = this.getUser();
             updateStatus = enrollmentDAO.setStatus(enrolmentId, user, status, tenantId);
             DeviceManagementDAOFactory.commitTransaction();
+            if (updateStatus) {
+                DeviceCountCache.getInstance().updateStatus(tenantId, previousStatus, status);
+            }
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             throw new OperationManagementException("Error occurred while updating enrollment status of device of " +
@@ -1065,15 +1251,7 @@ public class OperationManagerImpl implements OperationManager {
     }
 
     private boolean isTaskScheduledOperation(Operation operation) {
-        DeviceManagementProviderService deviceManagementProviderService = DeviceManagementDataHolder.getInstance().
-                getDeviceManagementProvider();
-        List<MonitoringOperation> monitoringOperations = deviceManagementProviderService.getMonitoringOperationList(deviceType);//Get task list from each device type
-        for (MonitoringOperation op : monitoringOperations) {
-            if (operation.getCode().equals(op.getTaskName())) {
-                return true;
-            }
-        }
-        return false;
+        return taskOperationCodes.contains(operation.getCode());
     }
 
     private boolean isSameUser(String user, String owner) {
@@ -20,6 +20,7 @@ package org.wso2.carbon.device.mgt.core.operation.mgt.dao;
 
 import org.wso2.carbon.device.mgt.common.PaginationRequest;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityFeed;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMapping;
 
@@ -56,6 +57,27 @@ public interface OperationDAO {
 
     boolean updateTaskOperation(int enrolmentId, String operationCode) throws OperationManagementDAOException;
 
+    /**
+     * Returns the enrolments, out of the given ones, which already have a pending operation with the given code.
+     *
+     * @param enrolmentIds  enrolments to look at, the list is used in a single IN clause.
+     * @param operationCode code of the operation.
+     * @return IDs of the enrolments having a pending operation with the given code.
+     * @throws OperationManagementDAOException if the pending operations could not be read.
+     */
+    List<Integer> getEnrolmentsWithPendingOperation(List<Integer> enrolmentIds, String operationCode)
+            throws OperationManagementDAOException;
+
+    /**
+     * Returns the version of the pending operations of an enrolment, which changes whenever an operation is added to
+     * or leaves the pending operations of the enrolment, or a pending operation is updated.
+     *
+     * @param enrolmentId enrolment the operations are assigned to.
+     * @return the version of the pending operations.
+     * @throws OperationManagementDAOException if the pending operations could not be read.
+     */
+    String getPendingOperationsVersion(int enrolmentId) throws OperationManagementDAOException;
+
     void addOperationResponse(int enrolmentId, int operationId, Object operationResponse)
             throws OperationManagementDAOException;
 
@@ -67,6 +89,23 @@ public interface OperationDAO {
 
     List<Activity> getActivitiesUpdatedAfter(long timestamp, int limit, int offset) throws OperationManagementDAOException;
 
+    /**
+     * Retrieves the status changes of operations made after the given position of the activity feed, ordered by the
+     * update time and the id of the enrolment operation mapping. Changes of the last few seconds are left out until no
+     * more changes can be written with the same update time, so that the feed never moves past an unread change.
+     * A change committed later than that is missed if the feed has already moved past its update time, as there is
+     * no commit ordered key on the mappings to position the feed with.
+     *
+     * @param timestamp        update time, in seconds, of the last change already read.
+     * @param lastMappingId    mapping id of the last change already read.
+     * @param limit            maximum number of changes to be retrieved.
+     * @param includeResponses whether to load the responses of the devices to the operations.
+     * @return the page of the activity feed.
+     * @throws OperationManagementDAOException If the activities could not be retrieved.
+     */
+    ActivityFeed getActivityFeed(long timestamp, int lastMappingId, int limit, boolean includeResponses)
+            throws OperationManagementDAOException;
+
     List<Activity> getFilteredActivities(String operationCode, int limit, int offset) throws OperationManagementDAOException;
 
     int getTotalCountOfFilteredActivities(String operationCode) throws OperationManagementDAOException;
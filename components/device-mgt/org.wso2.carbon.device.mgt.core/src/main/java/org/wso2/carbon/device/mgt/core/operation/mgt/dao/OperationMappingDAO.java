@@ -30,6 +30,18 @@ public interface OperationMappingDAO {
 
     void addOperationMapping(int operationId, Integer deviceId, boolean isScheduled) throws OperationManagementDAOException;
 
+    /**
+     * Maps the given operation to all the given enrolments, as a single batch where the driver supports batch
+     * updates.
+     *
+     * @param operationId  operation to be mapped.
+     * @param enrolmentIds enrolments the operation is added to.
+     * @param isScheduled  whether the push notifications of the mappings are sent by the scheduler task.
+     * @throws OperationManagementDAOException if the mappings could not be persisted.
+     */
+    void addOperationMappings(int operationId, List<Integer> enrolmentIds, boolean isScheduled)
+            throws OperationManagementDAOException;
+
     void removeOperationMapping(int operationId, Integer deviceId) throws OperationManagementDAOException;
 
     void updateOperationMapping(int operationId, Integer deviceId, Operation.PushNotificationStatus pushNotificationStatus) throws
@@ -23,8 +23,10 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.PaginationRequest;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityFeed;
 import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityStatus;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationResponse;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import org.wso2.carbon.device.mgt.core.dto.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMapping;
 import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationDAO;
@@ -57,6 +59,13 @@ import java.util.Map;
 public class GenericOperationDAOImpl implements OperationDAO {
 
     private static final Log log = LogFactory.getLog(GenericOperationDAOImpl.class);
+    /**
+     * Number of seconds after which no further operation status change is expected to be written with an update time
+     * of a given second. The activity feed only reads the changes of seconds older than this. Status changes update
+     * the existing mappings, so neither the mapping id nor any other column orders the changes by their commit, and a
+     * change whose transaction commits later than this is not read once the feed has moved past its update time.
+     */
+    private static final int ACTIVITY_FEED_SETTLE_TIME = 2;
 
     public int addOperation(Operation operation) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
@@ -177,6 +186,74 @@ public class GenericOperationDAOImpl implements OperationDAO {
         return result;
     }
 
+    @Override
+    public List<Integer> getEnrolmentsWithPendingOperation(List<Integer> enrolmentIds, String operationCode)
+            throws OperationManagementDAOException {
+        List<Integer> pendingEnrolmentIds = new ArrayList<>();
+        if (enrolmentIds == null || enrolmentIds.isEmpty()) {
+            return pendingEnrolmentIds;
+        }
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection connection = OperationManagementDAOFactory.getConnection();
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < enrolmentIds.size(); start += chunkSize) {
+                List<Integer> chunk = enrolmentIds.subList(start, Math.min(start + chunkSize, enrolmentIds.size()));
+                String sql = "SELECT DISTINCT EOM.ENROLMENT_ID FROM DM_ENROLMENT_OP_MAPPING EOM INNER JOIN " +
+                        "DM_OPERATION DM ON DM.ID = EOM.OPERATION_ID WHERE DM.OPERATION_CODE = ? AND " +
+                        "EOM.STATUS = ? AND EOM.ENROLMENT_ID IN (" +
+                        DeviceManagementDAOUtil.getInClause(chunk.size()) + ")";
+                stmt = connection.prepareStatement(sql);
+                int index = 1;
+                stmt.setString(index++, operationCode);
+                stmt.setString(index++, Operation.Status.PENDING.toString());
+                for (Integer enrolmentId : chunk) {
+                    stmt.setInt(index++, enrolmentId);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    pendingEnrolmentIds.add(rs.getInt("ENROLMENT_ID"));
+                }
+                OperationManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while retrieving the enrolments having a " +
+                    "pending '" + operationCode + "' operation", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return pendingEnrolmentIds;
+    }
+
+    @Override
+    public String getPendingOperationsVersion(int enrolmentId) throws OperationManagementDAOException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection connection = OperationManagementDAOFactory.getConnection();
+            String sql = "SELECT COUNT(ID) AS MAPPING_COUNT, SUM(ID) AS MAPPING_ID_SUM, MAX(ID) AS LAST_MAPPING_ID, " +
+                    "MAX(UPDATED_TIMESTAMP) AS LAST_UPDATED_TIMESTAMP FROM DM_ENROLMENT_OP_MAPPING " +
+                    "WHERE ENROLMENT_ID = ? AND STATUS = ?";
+            stmt = connection.prepareStatement(sql);
+            stmt.setInt(1, enrolmentId);
+            stmt.setString(2, Operation.Status.PENDING.toString());
+            rs = stmt.executeQuery();
+            if (rs.next()) {
+                return enrolmentId + ":" + rs.getInt("MAPPING_COUNT") + ":" + rs.getLong("MAPPING_ID_SUM") + ":" +
+                        rs.getInt("LAST_MAPPING_ID") + ":" + rs.getLong("LAST_UPDATED_TIMESTAMP");
+            }
+            return enrolmentId + ":0";
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while retrieving the version of the pending " +
+                    "operations of the enrolment '" + enrolmentId + "'", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+    }
+
     @Override
     public void addOperationResponse(int enrolmentId, int operationId, Object operationResponse)
             throws OperationManagementDAOException {
@@ -881,6 +958,135 @@ public class GenericOperationDAOImpl implements OperationDAO {
         return 0;
     }
 
+    @Override
+    public ActivityFeed getActivityFeed(long timestamp, int lastMappingId, int limit, boolean includeResponses)
+            throws OperationManagementDAOException {
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        ActivityFeed feed = new ActivityFeed();
+        feed.setLastUpdatedTimestamp(timestamp);
+        feed.setLastMappingId(lastMappingId);
+        Map<Integer, ActivityStatus> statusesOfMappings = new HashMap<>();
+        try {
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            String sql = "SELECT opm.ID MAPPING_ID, opm.ENROLMENT_ID, opm.CREATED_TIMESTAMP, opm.UPDATED_TIMESTAMP, " +
+                    "opm.OPERATION_ID, op.OPERATION_CODE, op.TYPE OPERATION_TYPE, opm.STATUS, " +
+                    "de.DEVICE_IDENTIFICATION, dt.NAME DEVICE_TYPE FROM DM_ENROLMENT_OP_MAPPING opm " +
+                    "INNER JOIN DM_OPERATION op ON opm.OPERATION_ID = op.ID " +
+                    "INNER JOIN DM_ENROLMENT en ON opm.ENROLMENT_ID = en.ID " +
+                    "INNER JOIN DM_DEVICE de ON en.DEVICE_ID = de.ID " +
+                    "INNER JOIN DM_DEVICE_TYPE dt ON dt.ID = de.DEVICE_TYPE_ID " +
+                    "WHERE en.TENANT_ID = ? AND opm.UPDATED_TIMESTAMP < ? AND (opm.UPDATED_TIMESTAMP > ? OR " +
+                    "(opm.UPDATED_TIMESTAMP = ? AND opm.ID > ?)) " +
+                    "ORDER BY opm.UPDATED_TIMESTAMP, opm.ID" + this.getActivityFeedLimitClause();
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
+            // Update times only have a resolution of seconds, so rows of a second which may still be updated could
+            // get a lower mapping id than the cursor. Only the seconds which have settled are read, so the cursor
+            // never passes a row which is yet to be written.
+            stmt.setLong(2, System.currentTimeMillis() / 1000 - ACTIVITY_FEED_SETTLE_TIME);
+            stmt.setLong(3, timestamp);
+            stmt.setLong(4, timestamp);
+            stmt.setInt(5, lastMappingId);
+            stmt.setInt(6, limit);
+            rs = stmt.executeQuery();
+
+            int operationId = 0;
+            Activity activity = null;
+            while (rs.next()) {
+                // Rows of an operation are grouped into a single activity only while they are consecutive, as the
+                // feed is ordered by the time the rows were updated.
+                if (activity == null || operationId != rs.getInt("OPERATION_ID")) {
+                    operationId = rs.getInt("OPERATION_ID");
+                    activity = new Activity();
+                    activity.setActivityId(OperationDAOUtil.getActivityId(operationId));
+                    activity.setType(Activity.Type.valueOf(rs.getString("OPERATION_TYPE")));
+                    activity.setCreatedTimeStamp(new java.util.Date(rs.getLong("CREATED_TIMESTAMP") * 1000).toString());
+                    activity.setCode(rs.getString("OPERATION_CODE"));
+                    activity.setActivityStatus(new ArrayList<ActivityStatus>());
+                    feed.getActivities().add(activity);
+                }
+                ActivityStatus activityStatus = new ActivityStatus();
+                DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
+                deviceIdentifier.setId(rs.getString("DEVICE_IDENTIFICATION"));
+                deviceIdentifier.setType(rs.getString("DEVICE_TYPE"));
+                activityStatus.setDeviceIdentifier(deviceIdentifier);
+                activityStatus.setStatus(ActivityStatus.Status.valueOf(rs.getString("STATUS")));
+                long updatedTimestamp = rs.getLong("UPDATED_TIMESTAMP");
+                if (updatedTimestamp != 0) {
+                    activityStatus.setUpdatedTimestamp(new java.util.Date(updatedTimestamp * 1000).toString());
+                }
+                activityStatus.setResponses(new ArrayList<OperationResponse>());
+                activity.getActivityStatus().add(activityStatus);
+
+                int mappingId = rs.getInt("MAPPING_ID");
+                statusesOfMappings.put(mappingId, activityStatus);
+                feed.setLastUpdatedTimestamp(updatedTimestamp);
+                feed.setLastMappingId(mappingId);
+                feed.setChangeCount(feed.getChangeCount() + 1);
+            }
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while getting the activity feed from the " +
+                    "database.", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        if (includeResponses && !statusesOfMappings.isEmpty()) {
+            this.addOperationResponses(statusesOfMappings);
+        }
+        return feed;
+    }
+
+    /**
+     * @return the clause limiting the activity feed to the number of rows bound as its last parameter.
+     */
+    protected String getActivityFeedLimitClause() {
+        return " LIMIT ?";
+    }
+
+    private void addOperationResponses(Map<Integer, ActivityStatus> statusesOfMappings)
+            throws OperationManagementDAOException {
+        List<Integer> mappingIds = new ArrayList<>(statusesOfMappings.keySet());
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < mappingIds.size(); start += chunkSize) {
+                List<Integer> chunk = mappingIds.subList(start, Math.min(start + chunkSize, mappingIds.size()));
+                String sql = "SELECT EN_OP_MAP_ID, RECEIVED_TIMESTAMP, OPERATION_RESPONSE FROM " +
+                        "DM_DEVICE_OPERATION_RESPONSE WHERE EN_OP_MAP_ID IN (" +
+                        DeviceManagementDAOUtil.getInClause(chunk.size()) + ") ORDER BY ID";
+                stmt = conn.prepareStatement(sql);
+                int index = 1;
+                for (Integer mappingId : chunk) {
+                    stmt.setInt(index++, mappingId);
+                }
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    ActivityStatus activityStatus = statusesOfMappings.get(rs.getInt("EN_OP_MAP_ID"));
+                    if (activityStatus != null) {
+                        activityStatus.getResponses().add(OperationDAOUtil.getOperationResponse(rs));
+                    }
+                }
+                OperationManagementDAOUtil.cleanupResources(stmt, rs);
+                stmt = null;
+                rs = null;
+            }
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while getting the operation responses of the " +
+                    "activity feed from the database.", e);
+        } catch (ClassNotFoundException e) {
+            throw new OperationManagementDAOException("Error occurred while converting the operation response to " +
+                    "string.", e);
+        } catch (IOException e) {
+            throw new OperationManagementDAOException("IO exception occurred while converting the operations " +
+                    "responses.", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+    }
+
     @Override
     public Operation getOperation(int id) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
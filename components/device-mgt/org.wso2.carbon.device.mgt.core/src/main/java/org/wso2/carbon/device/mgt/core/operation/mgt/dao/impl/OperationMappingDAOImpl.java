@@ -66,6 +66,43 @@ public class OperationMappingDAOImpl implements OperationMappingDAO {
         }
     }
 
+    @Override
+    public void addOperationMappings(int operationId, List<Integer> enrolmentIds, boolean isScheduled)
+            throws OperationManagementDAOException {
+        PreparedStatement stmt = null;
+        try {
+            long time = System.currentTimeMillis() / 1000;
+            String pushNotificationStatus = isScheduled ? Operation.PushNotificationStatus.SCHEDULED.toString() :
+                    Operation.PushNotificationStatus.COMPLETED.toString();
+            Connection conn = OperationManagementDAOFactory.getConnection();
+            String sql = "INSERT INTO DM_ENROLMENT_OP_MAPPING(ENROLMENT_ID, OPERATION_ID, STATUS, " +
+                    "PUSH_NOTIFICATION_STATUS, CREATED_TIMESTAMP, UPDATED_TIMESTAMP) VALUES (?, ?, ?, ?, ?, ?)";
+            stmt = conn.prepareStatement(sql);
+            boolean isBatchSupported = conn.getMetaData().supportsBatchUpdates();
+            for (Integer enrolmentId : enrolmentIds) {
+                stmt.setInt(1, enrolmentId);
+                stmt.setInt(2, operationId);
+                stmt.setString(3, Operation.Status.PENDING.toString());
+                stmt.setString(4, pushNotificationStatus);
+                stmt.setLong(5, time);
+                stmt.setLong(6, time);
+                if (isBatchSupported) {
+                    stmt.addBatch();
+                } else {
+                    stmt.executeUpdate();
+                }
+            }
+            if (isBatchSupported) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while persisting device operation mappings " +
+                    "as batch", e);
+        } finally {
+            OperationManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
     @Override
     public void removeOperationMapping(int operationId,
                                        Integer deviceId) throws OperationManagementDAOException {
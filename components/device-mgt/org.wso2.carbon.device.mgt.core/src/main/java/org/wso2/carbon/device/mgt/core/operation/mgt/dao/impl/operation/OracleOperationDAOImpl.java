@@ -362,4 +362,9 @@ public class OracleOperationDAOImpl extends GenericOperationDAOImpl {
         }
         return activities;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected String getActivityFeedLimitClause() {
+        return " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+    }
+}
@@ -361,4 +361,9 @@ public class SQLServerOperationDAOImpl extends GenericOperationDAOImpl {
         }
         return operationMappingsTenantMap;
     }
+
+    @Override
+    protected String getActivityFeedLimitClause() {
+        return " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.permission.mgt;
+
+import org.wso2.carbon.device.mgt.common.permission.mgt.Permission;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read only matcher compiled from the contents of a {@link PermissionTree}. The permissions of each HTTP method are
+ * kept in a trie of their own, so a request is only matched against the paths having a permission for its method.
+ * Literal path segments are preferred over dynamic ones ('*'), and when a literal path does not lead to a permission
+ * the dynamic path at the same level is tried as well. Matching only walks the segments of the request URL, so the
+ * resolved permissions are not cached.
+ */
+public class PermissionMatcher {
+
+    private static final String DYNAMIC_PATH_NOTATION = "*";
+    private static final char PATH_SEPARATOR = '/';
+
+    private final Map<String, MatcherNode> methodRoots = new HashMap<>();
+
+    /**
+     * Compiles the permissions held by the tree rooted at the given node.
+     *
+     * @param rootNode root node of the permission tree.
+     */
+    PermissionMatcher(PermissionNode rootNode) {
+        this.compile(rootNode, new ArrayList<String>());
+    }
+
+    /**
+     * Returns the permission of the given request.
+     *
+     * @param url        Request URL.
+     * @param httpMethod HTTP method of the request.
+     * @return the permission of the most specific path matching the request, or null if there is none.
+     */
+    public Permission getPermission(String url, String httpMethod) {
+        MatcherNode root = methodRoots.get(httpMethod);
+        return (root == null) ? null : match(root, split(url), 0);
+    }
+
+    private void compile(PermissionNode node, List<String> path) {
+        for (Permission permission : node.getPermissions()) {
+            MatcherNode current = methodRoots.get(permission.getMethod());
+            if (current == null) {
+                current = new MatcherNode();
+                methodRoots.put(permission.getMethod(), current);
+            }
+            for (String segment : path) {
+                current = current.getOrAddChild(segment);
+            }
+            current.permission = permission;
+        }
+        for (PermissionNode child : node.getChildren()) {
+            path.add(child.getPathName());
+            this.compile(child, path);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    private static Permission match(MatcherNode node, List<String> segments, int index) {
+        if (index == segments.size()) {
+            return node.permission;
+        }
+        String segment = segments.get(index);
+        MatcherNode literalChild = node.literalChildren.get(segment);
+        if (literalChild != null) {
+            Permission permission = match(literalChild, segments, index + 1);
+            if (permission != null) {
+                return permission;
+            }
+        }
+        if (node.dynamicChild != null) {
+            return match(node.dynamicChild, segments, index + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Splits the URL into its path segments, skipping empty segments in the same way the permission tree does.
+     */
+    private static List<String> split(String url) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= url.length(); i++) {
+            if (i == url.length() || url.charAt(i) == PATH_SEPARATOR) {
+                if (i > start) {
+                    segments.add(url.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    private static class MatcherNode {
+
+        private final Map<String, MatcherNode> literalChildren = new HashMap<>();
+        private MatcherNode dynamicChild;
+        private Permission permission;
+
+        MatcherNode getOrAddChild(String segment) {
+            if (DYNAMIC_PATH_NOTATION.equals(segment)) {
+                if (dynamicChild == null) {
+                    dynamicChild = new MatcherNode();
+                }
+                return dynamicChild;
+            }
+            MatcherNode child = literalChildren.get(segment);
+            if (child == null) {
+                child = new MatcherNode();
+                literalChildren.put(segment.intern(), child);
+            }
+            return child;
+        }
+    }
+
+}
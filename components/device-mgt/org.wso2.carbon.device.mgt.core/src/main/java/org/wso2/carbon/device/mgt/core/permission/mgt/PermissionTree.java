@@ -26,10 +26,13 @@ import java.util.StringTokenizer;
 
 /**
  * This class represents a tree data structure which will be used for adding and retrieving permissions.
+ * Permissions are retrieved through a {@link PermissionMatcher} compiled from the tree, which is compiled again
+ * on the first retrieval after a permission has been added.
  */
 public class PermissionTree {
 
     private PermissionNode rootNode;
+    private volatile PermissionMatcher matcher;
     private static final String DYNAMIC_PATH_NOTATION = "*";
     private static final String ROOT = "/";
     private static final Log log = LogFactory.getLog(PermissionTree.class);
@@ -45,7 +48,7 @@ public class PermissionTree {
      *
      * @param permission Permission object.
      */
-    public void addPermission(Permission permission) {
+    public synchronized void addPermission(Permission permission) {
         StringTokenizer st = new StringTokenizer(permission.getUrl(), ROOT);
         PermissionNode tempRoot = rootNode;
         PermissionNode tempChild;
@@ -54,6 +57,7 @@ public class PermissionTree {
             tempRoot = addPermissionNode(tempRoot, tempChild);
         }
         tempRoot.addPermission(permission.getMethod(), permission); //setting permission to the vertex
+        matcher = null;
     }
 
     /**
@@ -75,7 +79,6 @@ public class PermissionTree {
 
     /**
      * This method is used to retrieve the permission for a given url and http method.
-     * Breath First Search (BFS) is used to traverse the tree.
      *
      * @param url        Request URL.
      * @param httpMethod HTTP method of the request.
@@ -83,31 +86,21 @@ public class PermissionTree {
      * no any permission that is stored with respected to the given request path.
      */
     public Permission getPermission(String url, String httpMethod) {
-        StringTokenizer st = new StringTokenizer(url, ROOT);
-        PermissionNode tempRoot;
-        PermissionNode currentRoot = rootNode;
-        while (st.hasMoreTokens()) {
-            String currentToken = st.nextToken();
-
-            // returns the child node which matches with the 'currentToken' path.
-            tempRoot = currentRoot.getChild(currentToken);
+        PermissionMatcher currentMatcher = matcher;
+        if (currentMatcher == null) {
+            currentMatcher = this.compileMatcher();
+        }
+        Permission permission = currentMatcher.getPermission(url, httpMethod);
+        if (permission == null && log.isDebugEnabled()) {
+            log.debug("Permission for request path '" + url + "' does not exist");
+        }
+        return permission;
+    }
 
-            // if tempRoot is null, that means 'currentToken' is not matched with the child's path.
-            // It means that it is at a point where the request must have dynamic path variables.
-            // Therefor it looks for '*' in the request path. ('*' denotes dynamic path variable).
-            if (tempRoot == null) {
-                tempRoot = currentRoot.getChild(DYNAMIC_PATH_NOTATION);
-                // if tempRoot is null, that means there is no any permission which matches with the
-                // given path
-                if (tempRoot == null) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Permission for request path '" + url + "' does not exist");
-                    }
-                    return null;
-                }
-            }
-            currentRoot = tempRoot;
+    private synchronized PermissionMatcher compileMatcher() {
+        if (matcher == null) {
+            matcher = new PermissionMatcher(rootNode);
         }
-        return currentRoot.getPermission(httpMethod);
+        return matcher;
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.privacy;
+
+/**
+ * Progress of erasing the devices of a user. Every chunk of devices is erased in its own transaction, so the erased
+ * device count only grows, and running the erasure again after a failure continues with the remaining devices.
+ */
+public class DeviceErasureStatus {
+
+    public enum State {
+        PENDING, IN_PROGRESS, COMPLETED, FAILED
+    }
+
+    private final String username;
+    private final int tenantId;
+    private volatile State state = State.PENDING;
+    private volatile int totalDevices;
+    private volatile int erasedDevices;
+    private volatile String message;
+    private volatile long startedTime;
+    private volatile long completedTime;
+
+    public DeviceErasureStatus(String username, int tenantId) {
+        this.username = username;
+        this.tenantId = tenantId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getTenantId() {
+        return tenantId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getTotalDevices() {
+        return totalDevices;
+    }
+
+    public int getErasedDevices() {
+        return erasedDevices;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getStartedTime() {
+        return startedTime;
+    }
+
+    public long getCompletedTime() {
+        return completedTime;
+    }
+
+    public boolean isDone() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    public void start(int totalDevices) {
+        this.totalDevices = totalDevices;
+        this.erasedDevices = 0;
+        this.message = null;
+        this.startedTime = System.currentTimeMillis();
+        this.state = State.IN_PROGRESS;
+    }
+
+    public synchronized void addErasedDevices(int count) {
+        this.erasedDevices += count;
+    }
+
+    public void complete() {
+        this.completedTime = System.currentTimeMillis();
+        this.state = State.COMPLETED;
+    }
+
+    public void fail(String message) {
+        this.message = message;
+        this.completedTime = System.currentTimeMillis();
+        this.state = State.FAILED;
+    }
+
+}
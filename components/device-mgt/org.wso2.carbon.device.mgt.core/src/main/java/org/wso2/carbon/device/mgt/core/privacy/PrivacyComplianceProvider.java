@@ -28,5 +28,22 @@ public interface PrivacyComplianceProvider {
 
     void deleteDeviceDetails(DeviceIdentifier deviceIdentifier) throws PrivacyComplianceException;
 
+    /**
+     * Starts erasing the devices of the given user of the current tenant in the background. If an erasure of the user
+     * is already running, its status is returned instead of starting another one.
+     *
+     * @param username owner of the devices.
+     * @return status of the erasure, updated as the erasure progresses.
+     */
+    DeviceErasureStatus eraseDevicesOfUser(String username);
+
+    /**
+     * Returns the status of the last erasure of the devices of the given user of the current tenant.
+     *
+     * @param username owner of the devices.
+     * @return status of the erasure, or null if no erasure was started for the user.
+     */
+    DeviceErasureStatus getErasureStatus(String username);
+
 }
 
@@ -47,4 +47,24 @@ public interface PrivacyComplianceDAO {
 
     void deleteOperationEnrolmentMappings(int enrolmentId) throws PrivacyComplianceDAOException;
 
+    /**
+     * Set based variants of the above, used to erase the data of many enrolments at once. The callers are expected to
+     * keep the id lists short enough to be used in a single IN clause.
+     */
+    void deleteDeviceOperationDetails(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException;
+
+    void deleteOperationEnrolmentMappings(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException;
+
+    void deleteDeviceApplications(List<Integer> enrolmentIds, int tenantId) throws PrivacyComplianceDAOException;
+
+    void deleteDeviceDetails(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException;
+
+    void deleteDeviceProperties(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException;
+
+    void deleteDeviceLocation(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException;
+
+    void deleteDeviceEnrollments(List<Integer> deviceIds, int tenantId) throws PrivacyComplianceDAOException;
+
+    void deleteDevices(List<Integer> deviceIds, int tenantId) throws PrivacyComplianceDAOException;
+
 }
@@ -279,6 +279,94 @@ public class PrivacyComplianceDAOImpl implements PrivacyComplianceDAO {
         }
     }
 
+    @Override
+    public void deleteDeviceOperationDetails(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException {
+        this.deleteByIds("DELETE FROM DM_DEVICE_OPERATION_RESPONSE WHERE ENROLMENT_ID", enrolmentIds, null,
+                "Error occurred while deleting the device operation responses.");
+    }
+
+    @Override
+    public void deleteOperationEnrolmentMappings(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException {
+        this.deleteByIds("DELETE FROM DM_ENROLMENT_OP_MAPPING WHERE ENROLMENT_ID", enrolmentIds, null,
+                "Error occurred while deleting the operation enrolment mappings.");
+    }
+
+    @Override
+    public void deleteDeviceApplications(List<Integer> enrolmentIds, int tenantId)
+            throws PrivacyComplianceDAOException {
+        this.deleteByIds("DELETE FROM DM_DEVICE_APPLICATION_MAPPING WHERE ENROLMENT_ID", enrolmentIds, tenantId,
+                "Error occurred while deleting the device applications.");
+    }
+
+    @Override
+    public void deleteDeviceDetails(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException {
+        this.deleteByIds("DELETE FROM DM_DEVICE_DETAIL WHERE ENROLMENT_ID", enrolmentIds, null,
+                "Error occurred while deleting the device details.");
+    }
+
+    @Override
+    public void deleteDeviceProperties(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException {
+        this.deleteByIds("DELETE FROM DM_DEVICE_INFO WHERE ENROLMENT_ID", enrolmentIds, null,
+                "Error occurred while deleting the device information.");
+    }
+
+    @Override
+    public void deleteDeviceLocation(List<Integer> enrolmentIds) throws PrivacyComplianceDAOException {
+        this.deleteByIds("DELETE FROM DM_DEVICE_LOCATION WHERE ENROLMENT_ID", enrolmentIds, null,
+                "Error occurred while deleting the device location.");
+    }
+
+    @Override
+    public void deleteDeviceEnrollments(List<Integer> deviceIds, int tenantId) throws PrivacyComplianceDAOException {
+        this.deleteByIds("DELETE FROM DM_ENROLMENT WHERE DEVICE_ID", deviceIds, tenantId,
+                "Error occurred while deleting the device enrolments");
+    }
+
+    @Override
+    public void deleteDevices(List<Integer> deviceIds, int tenantId) throws PrivacyComplianceDAOException {
+        this.deleteByIds("DELETE FROM DM_DEVICE WHERE ID", deviceIds, tenantId,
+                "Error occurred while deleting the devices");
+    }
+
+    /**
+     * Deletes the rows whose id column, given as the end of the where clause, matches any of the given ids. The ids
+     * are deleted in chunks, so that the IN clause of a statement never exceeds the supported size.
+     */
+    private void deleteByIds(String query, List<Integer> ids, Integer tenantId, String errorMessage)
+            throws PrivacyComplianceDAOException {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        Connection conn;
+        PreparedStatement stmt = null;
+        try {
+            conn = this.getConnection();
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < ids.size(); start += chunkSize) {
+                List<Integer> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+                String sql = query + " IN (" + DeviceManagementDAOUtil.getInClause(chunk.size()) + ")";
+                if (tenantId != null) {
+                    sql += " AND TENANT_ID = ?";
+                }
+                stmt = conn.prepareStatement(sql);
+                int index = 1;
+                for (Integer id : chunk) {
+                    stmt.setInt(index++, id);
+                }
+                if (tenantId != null) {
+                    stmt.setInt(index, tenantId);
+                }
+                stmt.executeUpdate();
+                DeviceManagementDAOUtil.cleanupResources(stmt, null);
+                stmt = null;
+            }
+        } catch (SQLException e) {
+            throw new PrivacyComplianceDAOException(errorMessage, e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, null);
+        }
+    }
+
     private Connection getConnection() throws SQLException {
         return DeviceManagementDAOFactory.getConnection();
     }
@@ -27,25 +27,50 @@ import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.PrivacyComplianceException;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCountCache;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
+import org.wso2.carbon.device.mgt.core.privacy.DeviceErasureStatus;
 import org.wso2.carbon.device.mgt.core.privacy.PrivacyComplianceProvider;
 import org.wso2.carbon.device.mgt.core.privacy.dao.PrivacyComplianceDAO;
 import org.wso2.carbon.device.mgt.core.privacy.dao.PrivacyComplianceDAOException;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 public class PrivacyComplianceProviderImpl implements PrivacyComplianceProvider {
 
     private static final Log log = LogFactory.getLog(PrivacyComplianceProviderImpl.class);
 
+    private static final int ERASURE_CHUNK_SIZE = 100;
+    private static final long ERASURE_STATUS_RETENTION = TimeUnit.HOURS.toMillis(24);
+
     PrivacyComplianceDAO complianceDAO;
+    long erasureStatusRetention = ERASURE_STATUS_RETENTION;
+    private final Map<String, DeviceErasureStatus> erasureStatuses = new ConcurrentHashMap<>();
+    private final ExecutorService erasureExecutor;
+    private volatile boolean shutdown;
 
     public PrivacyComplianceProviderImpl() {
         complianceDAO = DeviceManagementDAOFactory.getPrivacyComplianceDAO();
+        erasureExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "device-erasure-worker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     @Override
@@ -54,54 +79,174 @@ public class PrivacyComplianceProviderImpl implements PrivacyComplianceProvider
         if (log.isDebugEnabled()) {
             log.debug("Deleting the requested users.");
         }
-        try {
-            DeviceManagementDAOFactory.beginTransaction();
-            int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
-            List<DeviceEnrollmentMapping> enrollmentMappings = complianceDAO.getDevicesOfUser(username, tenantId);
-            if(enrollmentMappings == null || enrollmentMappings.isEmpty()){
-                log.info("No enrolments found with the user..!");
-                return;
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        this.eraseDevicesOfUser(new DeviceErasureStatus(username, tenantId));
+    }
+
+    @Override
+    public DeviceErasureStatus eraseDevicesOfUser(String username) {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        String key = this.getErasureKey(username, tenantId);
+        final DeviceErasureStatus status = new DeviceErasureStatus(username, tenantId);
+        this.pruneErasureStatuses();
+        synchronized (erasureStatuses) {
+            DeviceErasureStatus currentStatus = erasureStatuses.get(key);
+            if (currentStatus != null && !currentStatus.isDone()) {
+                return currentStatus;
             }
-            Map<Integer, List<Integer>> deviceMap = new HashMap<>();
-            int x = -1;
-            for (DeviceEnrollmentMapping m : enrollmentMappings) {
-                if (m.getDeviceId() != x) {
-                    x = m.getDeviceId();
-                    List<Integer> enrolments = new ArrayList<>();
-                    enrolments.add(m.getEnrolmentId());
-                    deviceMap.put(m.getDeviceId(), enrolments);
-                } else {
-                    deviceMap.get(m.getDeviceId()).add(m.getEnrolmentId());
+            erasureStatuses.put(key, status);
+        }
+        try {
+            erasureExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        eraseDevicesOfUser(status);
+                    } catch (PrivacyComplianceException e) {
+                        // Failure is already logged and recorded in the erasure status.
+                    }
                 }
+            });
+        } catch (RejectedExecutionException e) {
+            String msg = "Device erasure service is shut down, hence the devices of user " + username +
+                    " cannot be erased";
+            log.error(msg, e);
+            status.fail(msg);
+        }
+        return status;
+    }
+
+    /**
+     * Stops the erasure worker. The running erasure is stopped after its current chunk, so that running it again
+     * continues with the remaining devices, and erasures requested afterwards are marked as failed.
+     */
+    public void shutdown() {
+        shutdown = true;
+        erasureExecutor.shutdown();
+    }
+
+    @Override
+    public DeviceErasureStatus getErasureStatus(String username) {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        this.pruneErasureStatuses();
+        return erasureStatuses.get(this.getErasureKey(username, tenantId));
+    }
+
+    /**
+     * Drops the statuses of the erasures which have finished longer than the retention period ago.
+     */
+    private void pruneErasureStatuses() {
+        long expiredTime = System.currentTimeMillis() - erasureStatusRetention;
+        Iterator<DeviceErasureStatus> iterator = erasureStatuses.values().iterator();
+        while (iterator.hasNext()) {
+            DeviceErasureStatus status = iterator.next();
+            if (status.isDone() && status.getCompletedTime() < expiredTime) {
+                iterator.remove();
             }
-            for (int deviceId : deviceMap.keySet()) {
-                List<Integer> enrollmentIds = deviceMap.get(deviceId);
-                for (Integer enrolmentId : enrollmentIds) {
-                    complianceDAO.deleteDeviceOperationDetails(enrolmentId);
-                    complianceDAO.deleteOperationEnrolmentMappings(enrolmentId);
-                    complianceDAO.deleteDeviceApplications(deviceId, enrolmentId, tenantId);
-                    complianceDAO.deleteDeviceDetails(deviceId, enrolmentId);
-                    complianceDAO.deleteDeviceProperties(deviceId, enrolmentId, tenantId);
-                    complianceDAO.deleteDeviceLocation(deviceId, enrolmentId);
-                    complianceDAO.deleteDeviceEnrollments(deviceId, tenantId);
-                }
-                complianceDAO.deleteDevice(deviceId, tenantId);
+        }
+    }
+
+    /**
+     * Erases the devices of a user. The enrolments of the user are read once, and then the devices are erased in
+     * chunks, each with set based statements in its own transaction. Therefore locks are only held for a chunk at a
+     * time, and if the erasure fails, running it again only finds the devices which were not erased yet.
+     */
+    private void eraseDevicesOfUser(DeviceErasureStatus status) throws PrivacyComplianceException {
+        List<DeviceEnrollmentMapping> enrollmentMappings;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            enrollmentMappings = complianceDAO.getDevicesOfUser(status.getUsername(), status.getTenantId());
+        } catch (PrivacyComplianceDAOException e) {
+            throw this.failErasure(status, "Error occurred while retrieving the devices of the given user", e);
+        } catch (SQLException e) {
+            throw this.failErasure(status, "Database error occurred while retrieving the devices of the given user",
+                    e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        if (enrollmentMappings == null || enrollmentMappings.isEmpty()) {
+            log.info("No enrolments found with the user..!");
+            status.start(0);
+            status.complete();
+            return;
+        }
+        Map<Integer, List<Integer>> deviceMap = new LinkedHashMap<>();
+        for (DeviceEnrollmentMapping m : enrollmentMappings) {
+            List<Integer> enrolments = deviceMap.get(m.getDeviceId());
+            if (enrolments == null) {
+                enrolments = new ArrayList<>();
+                deviceMap.put(m.getDeviceId(), enrolments);
             }
+            enrolments.add(m.getEnrolmentId());
+        }
+        status.start(deviceMap.size());
+
+        List<Integer> deviceIds = new ArrayList<>();
+        List<Integer> enrolmentIds = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> entry : deviceMap.entrySet()) {
+            deviceIds.add(entry.getKey());
+            enrolmentIds.addAll(entry.getValue());
+            if (enrolmentIds.size() >= ERASURE_CHUNK_SIZE) {
+                this.eraseDevices(status, deviceIds, enrolmentIds);
+                deviceIds = new ArrayList<>();
+                enrolmentIds = new ArrayList<>();
+            }
+        }
+        if (!deviceIds.isEmpty()) {
+            this.eraseDevices(status, deviceIds, enrolmentIds);
+        }
+        status.complete();
+        log.info("Requested users device has been successfully removed..!");
+    }
+
+    private void eraseDevices(DeviceErasureStatus status, List<Integer> deviceIds, List<Integer> enrolmentIds)
+            throws PrivacyComplianceException {
+        if (shutdown) {
+            String msg = "Device erasure service is shut down before erasing all devices of user " +
+                    status.getUsername();
+            log.warn(msg);
+            status.fail(msg);
+            throw new PrivacyComplianceException(msg);
+        }
+        int tenantId = status.getTenantId();
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            complianceDAO.deleteDeviceOperationDetails(enrolmentIds);
+            complianceDAO.deleteOperationEnrolmentMappings(enrolmentIds);
+            complianceDAO.deleteDeviceApplications(enrolmentIds, tenantId);
+            complianceDAO.deleteDeviceDetails(enrolmentIds);
+            complianceDAO.deleteDeviceProperties(enrolmentIds);
+            complianceDAO.deleteDeviceLocation(enrolmentIds);
+            complianceDAO.deleteDeviceEnrollments(deviceIds, tenantId);
+            complianceDAO.deleteDevices(deviceIds, tenantId);
             DeviceManagementDAOFactory.commitTransaction();
+            DeviceCountCache.getInstance().clear(tenantId);
         } catch (PrivacyComplianceDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
-            String msg = "Error occurred while deleting the devices and details of the given user";
-            log.error(msg, e);
-            throw new PrivacyComplianceException(msg, e);
+            throw this.failErasure(status, "Error occurred while deleting the devices and details of the given user",
+                    e);
         } catch (TransactionManagementException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
-            String msg = "Database error occurred while deleting the devices and details of the given user";
-            log.error(msg, e);
-            throw new PrivacyComplianceException(msg, e);
+            throw this.failErasure(status, "Database error occurred while deleting the devices and details of the " +
+                    "given user", e);
         } finally {
             DeviceManagementDAOFactory.closeConnection();
         }
-        log.info("Requested users device has been successfully removed..!");
+        status.addErasedDevices(deviceIds.size());
+        if (log.isDebugEnabled()) {
+            log.debug("Erased " + status.getErasedDevices() + " of " + status.getTotalDevices() + " devices of user " +
+                    status.getUsername());
+        }
+    }
+
+    private PrivacyComplianceException failErasure(DeviceErasureStatus status, String msg, Exception e) {
+        log.error(msg, e);
+        status.fail(msg);
+        return new PrivacyComplianceException(msg, e);
+    }
+
+    private String getErasureKey(String username, int tenantId) {
+        return tenantId + ":" + username;
     }
 
     @Override
@@ -30,8 +30,10 @@ import org.wso2.carbon.device.mgt.common.configuration.mgt.ConfigurationManageme
 import org.wso2.carbon.device.mgt.common.configuration.mgt.PlatformConfiguration;
 import org.wso2.carbon.device.mgt.common.license.mgt.License;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityFeed;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.PendingOperations;
 import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyMonitoringManager;
 import org.wso2.carbon.device.mgt.common.pull.notification.PullNotificationExecutionFailedException;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
@@ -72,6 +74,19 @@ public interface DeviceManagementProviderService {
      */
     List<Device> getAllDevices(String deviceType, boolean requireDeviceInfo) throws DeviceManagementException;
 
+    /**
+     * Method to retrieve a page of devices of a given device type, ordered by the enrolment id. This is meant to be
+     * used by background jobs which need to go through all the devices of a type without loading them at once.
+     *
+     * @param deviceType Device-type of the required devices
+     * @param lastEnrolmentId Enrolment id of the last device of the previous page, 0 to get the first page.
+     * @param limit Maximum number of devices to be returned.
+     * @return List of devices of given device-type, which is empty when there are no more devices.
+     * @throws DeviceManagementException If some unusual behaviour is observed while fetching the
+     *                                   devices.
+     */
+    List<Device> getAllDevices(String deviceType, int lastEnrolmentId, int limit) throws DeviceManagementException;
+
     /**
      * Method to retrieve all the devices registered in the system.
      *
@@ -157,6 +172,19 @@ public interface DeviceManagementProviderService {
      */
     PaginationResult getAllDevices(PaginationRequest request, boolean requireDeviceInfo) throws DeviceManagementException;
 
+    /**
+     * Method to retrieve the version of a page of devices, which changes whenever the page returned by
+     * {@link #getAllDevices(PaginationRequest, boolean)} changes. Only the enrolment ids of the page are read, along
+     * with the keys and update times the version is built from, so the version is much cheaper to read than the page.
+     *
+     * @param request PaginationRequest object holding the data for pagination
+     * @return the version of the page, or null if the version of the page can not be read, i.e. when the devices are
+     * filtered by the role of their owners.
+     * @throws DeviceManagementException If some unusual behaviour is observed while fetching the
+     *                                   devices.
+     */
+    String getDevicesVersion(PaginationRequest request) throws DeviceManagementException;
+
     /**
      * Returns the device of specified id.
      *
@@ -198,6 +226,17 @@ public interface DeviceManagementProviderService {
      */
     Device getDevice(DeviceIdentifier deviceId, String owner, boolean requireDeviceInfo) throws DeviceManagementException;
 
+    /**
+     * Returns the version of the device of specified id, which changes whenever the device, its enrolments, its
+     * device-info or the applications installed on it are changed.
+     *
+     * @param deviceId - Device Id
+     * @param owner - Username of the owner, null to include the enrolments of all the owners
+     * @return the version of the device, null when device is not available.
+     * @throws DeviceManagementException
+     */
+    String getDeviceVersion(DeviceIdentifier deviceId, String owner) throws DeviceManagementException;
+
 
     /**
      * Returns the device of specified id.
@@ -541,6 +580,18 @@ public interface DeviceManagementProviderService {
     Activity addOperation(String type, Operation operation,
                           List<DeviceIdentifier> devices) throws OperationManagementException, InvalidDeviceException;
 
+    /**
+     * Adds the due operations of the device monitoring task of a device type to a page of its devices, within a
+     * single transaction.
+     *
+     * @param type           device type of the devices.
+     * @param operationCodes codes of the monitoring operations which are due.
+     * @param devices        page of devices to add the operations to.
+     * @throws OperationManagementException if the operations could not be added.
+     */
+    void addTaskOperations(String type, List<String> operationCodes,
+                           List<Device> devices) throws OperationManagementException;
+
     List<? extends Operation> getOperations(DeviceIdentifier deviceId) throws OperationManagementException;
 
     PaginationResult getOperations(DeviceIdentifier deviceId,
@@ -549,6 +600,8 @@ public interface DeviceManagementProviderService {
     List<? extends Operation> getPendingOperations(
             DeviceIdentifier deviceId) throws OperationManagementException;
 
+    PendingOperations getVersionedPendingOperations(DeviceIdentifier deviceId) throws OperationManagementException;
+
     Operation getNextPendingOperation(DeviceIdentifier deviceId) throws OperationManagementException;
 
     void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException;
@@ -572,6 +625,9 @@ public interface DeviceManagementProviderService {
 
     List<Activity> getActivitiesUpdatedAfter(long timestamp, int limit, int offset) throws OperationManagementException;
 
+    ActivityFeed getActivityFeed(long timestamp, int lastMappingId, int limit, boolean includeResponses)
+            throws OperationManagementException;
+
     List<Activity> getFilteredActivities(String operationCode, int limit, int offset) throws OperationManagementException;
 
     int getTotalCountOfFilteredActivities(String operationCode) throws OperationManagementException;
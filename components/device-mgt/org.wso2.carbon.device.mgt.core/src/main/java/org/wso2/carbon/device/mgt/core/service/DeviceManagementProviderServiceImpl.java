@@ -24,6 +24,7 @@ import org.wso2.carbon.CarbonConstants;
 import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
+import org.wso2.carbon.device.mgt.common.BulkDeviceManager;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
@@ -35,6 +36,7 @@ import org.wso2.carbon.device.mgt.common.InitialOperationConfig;
 import org.wso2.carbon.device.mgt.common.InvalidDeviceException;
 import org.wso2.carbon.device.mgt.common.MonitoringOperation;
 import org.wso2.carbon.device.mgt.common.OperationMonitoringTaskConfig;
+import org.wso2.carbon.device.mgt.common.PaginationCursor;
 import org.wso2.carbon.device.mgt.common.PaginationRequest;
 import org.wso2.carbon.device.mgt.common.PaginationResult;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
@@ -50,8 +52,10 @@ import org.wso2.carbon.device.mgt.common.group.mgt.GroupManagementException;
 import org.wso2.carbon.device.mgt.common.license.mgt.License;
 import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityFeed;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.PendingOperations;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
 import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyMonitoringManager;
 import org.wso2.carbon.device.mgt.common.pull.notification.PullNotificationExecutionFailedException;
@@ -60,6 +64,7 @@ import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.core.DeviceManagementPluginRepository;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCountCache;
 import org.wso2.carbon.device.mgt.core.cache.impl.DeviceCacheManagerImpl;
 import org.wso2.carbon.device.mgt.core.dao.ApplicationDAO;
 import org.wso2.carbon.device.mgt.core.dao.DeviceDAO;
@@ -111,6 +116,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
     private EnrollmentDAO enrollmentDAO;
     private ApplicationDAO applicationDAO;
     private DeviceManagementPluginRepository pluginRepository;
+    private DeviceCountCache deviceCountCache = DeviceCountCache.getInstance();
 
     public DeviceManagementProviderServiceImpl() {
         this.pluginRepository = new DeviceManagementPluginRepository();
@@ -214,6 +220,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                 }
                 if (!status) {
                     int enrolmentId, updateStatus = 0;
+                    EnrolmentInfo.Status existingStatus = existingEnrolmentInfo.getStatus();
                     try {
                         //Remove the existing enrollment
                         DeviceManagementDAOFactory.beginTransaction();
@@ -227,6 +234,10 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                                     addEnrollment(existingDevice.getId(), newEnrolmentInfo, tenantId);
                             DeviceManagementDAOFactory.commitTransaction();
                             this.removeDeviceFromCache(deviceIdentifier);
+                            if (updateStatus > 0) {
+                                deviceCountCache.updateStatus(tenantId, existingStatus, EnrolmentInfo.Status.REMOVED);
+                            }
+                            deviceCountCache.addEnrolment(tenantId, device.getType(), newEnrolmentInfo);
                             if (log.isDebugEnabled()) {
                                 log.debug("An enrolment is successfully added with the id '" + enrolmentId +
                                         "' associated with " + "the device identified by key '" +
@@ -262,6 +273,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                     int deviceId = deviceDAO.addDevice(type.getId(), device, tenantId);
                     enrolmentId = enrollmentDAO.addEnrollment(deviceId, device.getEnrolmentInfo(), tenantId);
                     DeviceManagementDAOFactory.commitTransaction();
+                    deviceCountCache.addEnrolment(tenantId, device.getType(), device.getEnrolmentInfo());
                 } else {
                     DeviceManagementDAOFactory.rollbackTransaction();
                     throw new DeviceManagementException("No device type registered with name - " + device.getType()
@@ -338,6 +350,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             enrollmentDAO.updateEnrollment(device.getEnrolmentInfo());
             DeviceManagementDAOFactory.commitTransaction();
             this.removeDeviceFromCache(deviceIdentifier);
+            deviceCountCache.updateEnrolments(tenantId);
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             String msg = "Error occurred while modifying the device '" + device.getId() + "'";
@@ -427,6 +440,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             return true;
         }
 
+        EnrolmentInfo.Status previousStatus = device.getEnrolmentInfo().getStatus();
         try {
             device.getEnrolmentInfo().setDateOfLastUpdate(new Date().getTime());
             device.getEnrolmentInfo().setStatus(EnrolmentInfo.Status.REMOVED);
@@ -435,6 +449,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             deviceDAO.updateDevice(device, tenantId);
             DeviceManagementDAOFactory.commitTransaction();
             this.removeDeviceFromCache(deviceId);
+            deviceCountCache.updateStatus(tenantId, previousStatus, EnrolmentInfo.Status.REMOVED);
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             String msg = "Error occurred while dis-enrolling '" + deviceId.getType() +
@@ -534,6 +549,35 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return allDevices;
     }
 
+    @Override
+    public List<Device> getAllDevices(String deviceType, int lastEnrolmentId, int limit)
+            throws DeviceManagementException {
+        if (deviceType == null) {
+            String msg = "Device type is empty for method getAllDevices";
+            log.error(msg);
+            throw new DeviceManagementException(msg);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Getting devices of type '" + deviceType + "' after enrolment '" + lastEnrolmentId +
+                    "' with limit " + limit);
+        }
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDevices(deviceType, lastEnrolmentId, limit, this.getTenantId());
+        } catch (DeviceManagementDAOException e) {
+            String msg = "Error occurred while retrieving devices of type '" + deviceType +
+                    "' after enrolment '" + lastEnrolmentId + "'";
+            log.error(msg);
+            throw new DeviceManagementException(msg, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public List<Device> getAllDevices() throws DeviceManagementException {
         return this.getAllDevices(true);
@@ -637,7 +681,13 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         try {
             DeviceManagementDAOFactory.openConnection();
             allDevices = deviceDAO.getDevices(request, tenantId);
-            count = deviceDAO.getDeviceCountByType(deviceType, tenantId);
+            Integer cachedCount = deviceCountCache.getCount(tenantId, DeviceCountCache.getTypeKey(deviceType));
+            if (cachedCount != null) {
+                count = cachedCount;
+            } else {
+                count = deviceDAO.getDeviceCountByType(deviceType, tenantId);
+                deviceCountCache.putCount(tenantId, DeviceCountCache.getTypeKey(deviceType), count);
+            }
         } catch (DeviceManagementDAOException e) {
             String msg = "Error occurred while retrieving device list pertaining to the current tenant of type "
                     + deviceType;
@@ -699,7 +749,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             try {
                 DeviceManagementDAOFactory.openConnection();
                 allDevices = deviceDAO.getDevices(request, tenantId);
-                count = deviceDAO.getDeviceCount(request, tenantId);
+                count = this.getFilteredDeviceCount(request, tenantId);
             } catch (DeviceManagementDAOException e) {
                 String msg = "Error occurred while retrieving device list pertaining to the current tenant";
                 log.error(msg, e);
@@ -715,6 +765,10 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             } finally {
                 DeviceManagementDAOFactory.closeConnection();
             }
+            if (request.isCursorBased() && !allDevices.isEmpty() && allDevices.size() == request.getRowCount()) {
+                Device lastDevice = allDevices.get(allDevices.size() - 1);
+                paginationResult.setNextCursor(PaginationCursor.encode(lastDevice.getEnrolmentInfo().getId()));
+            }
             if (requireDeviceInfo && !allDevices.isEmpty()) {
                 paginationResult.setData(getAllDeviceInfo(allDevices));
             } else {
@@ -726,6 +780,91 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return paginationResult;
     }
 
+    @Override
+    public String getDevicesVersion(PaginationRequest request) throws DeviceManagementException {
+        if (request == null) {
+            String msg = "Received incomplete pagination request for method getDevicesVersion";
+            log.error(msg);
+            throw new DeviceManagementException(msg);
+        }
+        if (!StringUtils.isEmpty(request.getOwnerRole())) {
+            return null;
+        }
+        int tenantId = this.getTenantId();
+        request = DeviceManagerUtil.validateDeviceListPageSize(request);
+        // Only the enrolment ids of the page are read, the version is then built from the keys and timestamps of
+        // the enrolments.
+        List<Integer> enrolmentIds;
+        Map<Integer, String> versions;
+        int count;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            enrolmentIds = deviceDAO.getEnrolmentIds(request, tenantId);
+            count = this.getFilteredDeviceCount(request, tenantId);
+            versions = deviceDAO.getEnrolmentVersions(enrolmentIds, tenantId);
+        } catch (DeviceManagementDAOException e) {
+            String msg = "Error occurred while retrieving the versions of a page of devices";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        String nextCursor = null;
+        if (request.isCursorBased() && !enrolmentIds.isEmpty() && enrolmentIds.size() == request.getRowCount()) {
+            nextCursor = PaginationCursor.encode(enrolmentIds.get(enrolmentIds.size() - 1));
+        }
+        StringBuilder version = new StringBuilder();
+        version.append(count).append('|').append(nextCursor);
+        for (Integer enrolmentId : enrolmentIds) {
+            version.append('|').append(versions.get(enrolmentId));
+        }
+        return version.toString();
+    }
+
+    /**
+     * Returns the number of devices matching the filters of a paginated request, from the count cache when it is
+     * cached. This has to be called with a connection opened.
+     */
+    private int getFilteredDeviceCount(PaginationRequest request, int tenantId) throws DeviceManagementDAOException {
+        String countKey = DeviceCountCache.getKey(request);
+        Integer cachedCount = (countKey == null) ? null : deviceCountCache.getCount(tenantId, countKey);
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+        int count = deviceDAO.getDeviceCount(request, tenantId);
+        if (countKey != null) {
+            deviceCountCache.putCount(tenantId, countKey, count);
+        }
+        return count;
+    }
+
+    @Override
+    public String getDeviceVersion(DeviceIdentifier deviceId, String owner) throws DeviceManagementException {
+        if (deviceId == null) {
+            String msg = "Received null device identifier for method getDeviceVersion";
+            log.error(msg);
+            throw new DeviceManagementException(msg);
+        }
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDeviceVersion(deviceId, owner, this.getTenantId());
+        } catch (DeviceManagementDAOException e) {
+            String msg = "Error occurred while retrieving the version of the device '" + deviceId.getId() + "'";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public Device getDevice(DeviceIdentifier deviceId, boolean requireDeviceInfo) throws DeviceManagementException {
         if (deviceId == null) {
@@ -1278,11 +1417,16 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             Device device = this.getDevice(deviceId, false);
             EnrolmentInfo enrolmentInfo = device.getEnrolmentInfo();
             DeviceManagementDAOFactory.beginTransaction();
+            EnrolmentInfo.Status previousStatus = null;
             if (enrolmentInfo != null) {
+                previousStatus = enrolmentInfo.getStatus();
                 success = enrollmentDAO.setStatus(enrolmentInfo.getId(), currentOwner, status, tenantId);
             }
             DeviceManagementDAOFactory.commitTransaction();
             this.removeDeviceFromCache(deviceId);
+            if (success) {
+                deviceCountCache.updateStatus(tenantId, previousStatus, status);
+            }
             return success;
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
@@ -1314,6 +1458,9 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             DeviceManagementDAOFactory.beginTransaction();
             success = enrollmentDAO.setStatus(currentOwner, status, tenantId);
             DeviceManagementDAOFactory.commitTransaction();
+            if (success) {
+                deviceCountCache.updateEnrolments(tenantId);
+            }
             return success;
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
@@ -1423,6 +1570,12 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return pluginRepository.getOperationManager(type, this.getTenantId()).addOperation(operation, devices);
     }
 
+    @Override
+    public void addTaskOperations(String type, List<String> operationCodes,
+                                  List<Device> devices) throws OperationManagementException {
+        pluginRepository.getOperationManager(type, this.getTenantId()).addTaskOperations(operationCodes, devices);
+    }
+
     @Override
     public List<? extends Operation> getOperations(DeviceIdentifier deviceId) throws OperationManagementException {
         return pluginRepository.getOperationManager(deviceId.getType(), this.getTenantId()).getOperations(deviceId);
@@ -1443,6 +1596,13 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                 .getPendingOperations(deviceId);
     }
 
+    @Override
+    public PendingOperations getVersionedPendingOperations(DeviceIdentifier deviceId)
+            throws OperationManagementException {
+        return pluginRepository.getOperationManager(deviceId.getType(), this.getTenantId())
+                .getVersionedPendingOperations(deviceId);
+    }
+
     @Override
     public Operation getNextPendingOperation(DeviceIdentifier deviceId) throws OperationManagementException {
         return pluginRepository.getOperationManager(deviceId.getType(), this.getTenantId())
@@ -1545,6 +1705,14 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return DeviceManagementDataHolder.getInstance().getOperationManager().getActivitiesUpdatedAfter(timestamp, limit, offset);
     }
 
+    @Override
+    public ActivityFeed getActivityFeed(long timestamp, int lastMappingId, int limit, boolean includeResponses)
+            throws OperationManagementException {
+        limit = DeviceManagerUtil.validateActivityListPageSize(limit);
+        return DeviceManagementDataHolder.getInstance().getOperationManager()
+                .getActivityFeed(timestamp, lastMappingId, limit, includeResponses);
+    }
+
     @Override
     public List<Activity> getFilteredActivities(String operationCode, int limit, int offset) throws OperationManagementException {
         limit = DeviceManagerUtil.validateActivityListPageSize(limit);
@@ -1760,7 +1928,13 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         try {
             DeviceManagementDAOFactory.openConnection();
             allDevices = deviceDAO.getDevicesByOwnership(request, tenantId);
-            deviceCount = deviceDAO.getDeviceCountByOwnership(ownerShip, tenantId);
+            Integer cachedCount = deviceCountCache.getCount(tenantId, DeviceCountCache.getOwnershipKey(ownerShip));
+            if (cachedCount != null) {
+                deviceCount = cachedCount;
+            } else {
+                deviceCount = deviceDAO.getDeviceCountByOwnership(ownerShip, tenantId);
+                deviceCountCache.putCount(tenantId, DeviceCountCache.getOwnershipKey(ownerShip), deviceCount);
+            }
         } catch (DeviceManagementDAOException e) {
             String msg = "Error occurred while fetching the list of devices that matches to ownership : '" + ownerShip + "'";
             log.error(msg, e);
@@ -1877,9 +2051,16 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         if (log.isDebugEnabled()) {
             log.debug("Get devices count");
         }
+        int tenantId = this.getTenantId();
+        Integer deviceCount = deviceCountCache.getCount(tenantId, DeviceCountCache.getTotalKey());
+        if (deviceCount != null) {
+            return deviceCount;
+        }
         try {
             DeviceManagementDAOFactory.openConnection();
-            return deviceDAO.getDeviceCount(this.getTenantId());
+            deviceCount = deviceDAO.getDeviceCount(tenantId);
+            deviceCountCache.putCount(tenantId, DeviceCountCache.getTotalKey(), deviceCount);
+            return deviceCount;
         } catch (DeviceManagementDAOException e) {
             String msg = "Error occurred while retrieving the device count";
             log.error(msg, e);
@@ -2080,7 +2261,11 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         try {
             DeviceManagementDAOFactory.openConnection();
             allDevices = deviceDAO.getDevicesByStatus(request, tenantId);
-            int deviceCount = deviceDAO.getDeviceCountByStatus(status, tenantId);
+            Integer deviceCount = deviceCountCache.getCount(tenantId, DeviceCountCache.getStatusKey(status));
+            if (deviceCount == null) {
+                deviceCount = deviceDAO.getDeviceCountByStatus(status, tenantId);
+                deviceCountCache.putCount(tenantId, DeviceCountCache.getStatusKey(status), deviceCount);
+            }
             result.setRecordsTotal(deviceCount);
             result.setRecordsFiltered(deviceCount);
         } catch (DeviceManagementDAOException e) {
@@ -2204,6 +2389,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             int updatedRows = enrollmentDAO.updateEnrollment(deviceId, enrolmentInfo, tenantId);
             if (updatedRows > 0) {
                 isUpdatedEnrollment = true;
+                deviceCountCache.updateEnrolments(tenantId);
             }
         } catch (SQLException e) {
             String msg = "Error occurred while opening a connection to the data source";
@@ -2548,6 +2734,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             log.debug("Get all device info of devices, num of devices: " + allDevices.size());
         }
         List<Device> devices = new ArrayList<>();
+        Map<String, Map<String, Device>> dmsDevicesOfTypes = new HashMap<>();
         for (Device device : allDevices) {
             device.setDeviceInfo(this.getDeviceInfo(device));
             device.setApplications(this.getInstalledApplications(device));
@@ -2560,8 +2747,18 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                 devices.add(device);
                 continue;
             }
-            Device dmsDevice =
-                    deviceManager.getDevice(new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
+            Device dmsDevice;
+            if (deviceManager instanceof BulkDeviceManager) {
+                Map<String, Device> dmsDevices = dmsDevicesOfTypes.get(device.getType());
+                if (dmsDevices == null) {
+                    dmsDevices = this.getDmsDevices((BulkDeviceManager) deviceManager, device.getType(), allDevices);
+                    dmsDevicesOfTypes.put(device.getType(), dmsDevices);
+                }
+                dmsDevice = dmsDevices.get(device.getDeviceIdentifier());
+            } else {
+                dmsDevice = deviceManager.getDevice(
+                        new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
+            }
             if (dmsDevice != null) {
                 device.setFeatures(dmsDevice.getFeatures());
                 device.setProperties(dmsDevice.getProperties());
@@ -2571,6 +2768,29 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return devices;
     }
 
+    /**
+     * Reads the plugin-db data of all the devices of the given type in the given list at once.
+     *
+     * @return the devices read from the device manager, keyed by their device identifiers.
+     */
+    private Map<String, Device> getDmsDevices(BulkDeviceManager deviceManager, String deviceType,
+                                              List<Device> allDevices) throws DeviceManagementException {
+        List<DeviceIdentifier> deviceIds = new ArrayList<>();
+        for (Device device : allDevices) {
+            if (deviceType.equals(device.getType())) {
+                deviceIds.add(new DeviceIdentifier(device.getDeviceIdentifier(), deviceType));
+            }
+        }
+        Map<String, Device> dmsDevices = new HashMap<>();
+        List<Device> devices = deviceManager.getDevices(deviceIds);
+        if (devices != null) {
+            for (Device device : devices) {
+                dmsDevices.put(device.getDeviceIdentifier(), device);
+            }
+        }
+        return dmsDevices;
+    }
+
     /**
      * Returns all the available information (device-info, location, applications and plugin-db data)
      * of a given device.
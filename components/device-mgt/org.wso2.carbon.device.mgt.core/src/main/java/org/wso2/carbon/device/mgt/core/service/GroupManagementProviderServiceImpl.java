@@ -36,6 +36,7 @@ import org.wso2.carbon.device.mgt.common.group.mgt.GroupAlreadyExistException;
 import org.wso2.carbon.device.mgt.common.group.mgt.GroupManagementException;
 import org.wso2.carbon.device.mgt.common.group.mgt.GroupNotExistException;
 import org.wso2.carbon.device.mgt.common.group.mgt.RoleDoesNotExistException;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCountCache;
 import org.wso2.carbon.device.mgt.core.dao.GroupDAO;
 import org.wso2.carbon.device.mgt.core.dao.GroupManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.GroupManagementDAOFactory;
@@ -170,8 +171,10 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
         }
         try {
             GroupManagementDAOFactory.beginTransaction();
-            this.groupDAO.deleteGroup(groupId, CarbonContext.getThreadLocalCarbonContext().getTenantId());
+            int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+            this.groupDAO.deleteGroup(groupId, tenantId);
             GroupManagementDAOFactory.commitTransaction();
+            DeviceCountCache.getInstance().updateGroups(tenantId);
             if (log.isDebugEnabled()) {
                 log.debug("DeviceGroup " + deviceGroup.getName() + " removed.");
             }
@@ -667,6 +670,7 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
                 }
             }
             GroupManagementDAOFactory.commitTransaction();
+            DeviceCountCache.getInstance().updateGroups(tenantId);
         } catch (DeviceManagementException e) {
             String msg = "Error occurred while retrieving device.";
             log.error(msg, e);
@@ -711,6 +715,7 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
                 this.groupDAO.removeDevice(groupId, device.getId(), tenantId);
             }
             GroupManagementDAOFactory.commitTransaction();
+            DeviceCountCache.getInstance().updateGroups(tenantId);
         } catch (DeviceManagementException e) {
             String msg = "Error occurred while retrieving device.";
             log.error(msg, e);
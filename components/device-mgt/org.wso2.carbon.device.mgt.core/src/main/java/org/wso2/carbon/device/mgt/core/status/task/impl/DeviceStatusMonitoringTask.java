@@ -25,6 +25,7 @@ import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceStatusTaskPluginConfig;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCountCache;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOException;
 import org.wso2.carbon.device.mgt.core.dao.DeviceManagementDAOFactory;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationEnrolmentMapping;
@@ -143,6 +144,9 @@ public class DeviceStatusMonitoringTask implements Task {
             DeviceManagementDAOFactory.beginTransaction();
             updateStatus = DeviceManagementDAOFactory.getEnrollmentDAO().updateEnrollmentStatus(enrolmentInfos);
             DeviceManagementDAOFactory.commitTransaction();
+            if (updateStatus) {
+                DeviceCountCache.getInstance().updateEnrolmentsOfAllTenants();
+            }
         } catch (DeviceManagementDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             throw new DeviceStatusTaskException("Error occurred while updating enrollment status of devices of type '"
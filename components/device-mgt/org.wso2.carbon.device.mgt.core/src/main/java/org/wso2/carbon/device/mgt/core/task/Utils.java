@@ -21,20 +21,23 @@ package org.wso2.carbon.device.mgt.core.task;
 
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class Utils {
 
-    public static Map<String, Long> getTenantedTaskOperationMap(Map<Integer, Map<String, Long>> map) {
+    public static ConcurrentMap<String, Long> getTenantedTaskOperationMap(
+            ConcurrentMap<Integer, ConcurrentMap<String, Long>> map) {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
-        if (map.containsKey(tenantId)) {
-            return map.get(tenantId);
-        } else {
-            Map<String, Long> mp = new HashMap<>();
-            map.put(tenantId, mp);
-            return mp;
+        ConcurrentMap<String, Long> mp = map.get(tenantId);
+        if (mp == null) {
+            mp = new ConcurrentHashMap<>();
+            ConcurrentMap<String, Long> existing = map.putIfAbsent(tenantId, mp);
+            if (existing != null) {
+                mp = existing;
+            }
         }
+        return mp;
     }
 
 }
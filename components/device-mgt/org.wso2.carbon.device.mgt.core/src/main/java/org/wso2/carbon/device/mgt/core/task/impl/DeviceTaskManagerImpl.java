@@ -21,32 +21,34 @@ package org.wso2.carbon.device.mgt.core.task.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
-import org.wso2.carbon.device.mgt.common.InvalidDeviceException;
 import org.wso2.carbon.device.mgt.common.MonitoringOperation;
 import org.wso2.carbon.device.mgt.common.OperationMonitoringTaskConfig;
-import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
-import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.task.DeviceMgtTaskException;
 import org.wso2.carbon.device.mgt.core.task.DeviceTaskManager;
 import org.wso2.carbon.device.mgt.core.task.Utils;
-import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class DeviceTaskManagerImpl implements DeviceTaskManager {
 
     private static Log log = LogFactory.getLog(DeviceTaskManagerImpl.class);
     private String deviceType;
-    private static Map<Integer, Map<String, Long>> map = new HashMap<>();
+    private static final int DEVICE_PAGE_SIZE = 500;
+    private static final ConcurrentMap<Integer, ConcurrentMap<String, Long>> map = new ConcurrentHashMap<>();
+    private static final Set<String> runningOperations =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
     private OperationMonitoringTaskConfig operationMonitoringTaskConfig;
 
     public DeviceTaskManagerImpl(String deviceType,
@@ -85,60 +87,72 @@ public class DeviceTaskManagerImpl implements DeviceTaskManager {
     public void addOperations() throws DeviceMgtTaskException {
         DeviceManagementProviderService deviceManagementProviderService = DeviceManagementDataHolder.getInstance().
                 getDeviceManagementProvider();
+        long startedTime = System.currentTimeMillis();
+        List<String> operations = this.getValidOperationNames(startedTime); //list operations for each device type
+        if (operations.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("No operations are available.");
+            }
+            return;
+        }
         try {
+            //add the operations to the devices of the type page by page, so that neither the devices nor the
+            //transactions grow with the number of devices
+            int lastEnrolmentId = 0;
+            int deviceCount = 0;
+            int failedPages = 0;
             List<Device> devices;
-            List<String> operations;
-
-            operations = this.getValidOperationNames(); //list operations for each device type
-            devices = deviceManagementProviderService.getAllDevices(deviceType, false);//list devices for each type
-            if (!devices.isEmpty()) {
-                if (operations != null && DeviceManagerUtil.getValidDeviceIdentifiers(devices).size() != 0) {
-                    for (String str : operations) {
-                        CommandOperation operation = new CommandOperation();
-                        operation.setEnabled(true);
-                        operation.setType(Operation.Type.COMMAND);
-                        operation.setCode(str);
-                        deviceManagementProviderService.addOperation(deviceType, operation,
-                                DeviceManagerUtil.getValidDeviceIdentifiers(devices));
-                    }
-                } else {
-                    if (log.isDebugEnabled()) {
-                        log.debug("No operations are available.");
+            do {
+                devices = deviceManagementProviderService.getAllDevices(deviceType, lastEnrolmentId,
+                        DEVICE_PAGE_SIZE);
+                if (!devices.isEmpty()) {
+                    try {
+                        deviceManagementProviderService.addTaskOperations(deviceType, operations, devices);
+                    } catch (OperationManagementException e) {
+                        //a failed page is rolled back on its own, so carry on with the rest of the devices
+                        failedPages++;
+                        log.error("Error occurred while adding the operations to the " + deviceType +
+                                " devices after enrolment " + lastEnrolmentId, e);
                     }
+                    lastEnrolmentId = devices.get(devices.size() - 1).getEnrolmentInfo().getId();
+                    deviceCount += devices.size();
                 }
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("No devices are available to perform the operations.");
-                }
+            } while (devices.size() == DEVICE_PAGE_SIZE);
+
+            if (failedPages > 0) {
+                //the operations are not registered as executed, so the next run retries them. Devices of the pages
+                //which succeeded are skipped then, as they already have a pending operation.
+                throw new DeviceMgtTaskException("Error occurred while adding the operations to " + failedPages +
+                        " page(s) of " + deviceType + " devices");
+            }
+            this.registerExecutedOperations(operations, startedTime);
+            if (deviceCount == 0 && log.isDebugEnabled()) {
+                log.debug("No devices are available to perform the operations.");
             }
-        } catch (InvalidDeviceException e) {
-            throw new DeviceMgtTaskException("Invalid DeviceIdentifiers found.", e);
         } catch (DeviceManagementException e) {
             throw new DeviceMgtTaskException("Error occurred while retrieving the device list.", e);
-        } catch (OperationManagementException e) {
-            throw new DeviceMgtTaskException("Error occurred while adding the operations to devices", e);
+        } finally {
+            this.releaseOperations(operations);
         }
     }
 
-    private List<String> getValidOperationNames() throws DeviceMgtTaskException {
+    /**
+     * Returns the operations which are due, and claims them so that concurrent executions of the task do not add
+     * them as well. The claimed operations must be released with {@link #releaseOperations(List)}.
+     */
+    private List<String> getValidOperationNames(long milliseconds) throws DeviceMgtTaskException {
 
         List<MonitoringOperation> monitoringOperations = this.getOperationList();
         List<String> opNames = new ArrayList<>();
-        Long milliseconds = System.currentTimeMillis();
-        int frequency = this.getTaskFrequency();
-        Map<String, Long> mp = Utils.getTenantedTaskOperationMap(map);
+        long frequency = this.getTaskFrequency();
+        ConcurrentMap<String, Long> mp = Utils.getTenantedTaskOperationMap(map);
 
         for (MonitoringOperation top : monitoringOperations) {
-            if (!mp.containsKey(top.getTaskName())) {
+            String key = this.getOperationKey(top.getTaskName());
+            Long lastExecutedTime = mp.get(key);
+            if ((lastExecutedTime == null || lastExecutedTime + (frequency * top.getRecurrentTimes()) <= milliseconds)
+                    && runningOperations.add(this.getRunningOperationKey(key))) {
                 opNames.add(top.getTaskName());
-                mp.put(top.getTaskName(), milliseconds);
-            } else {
-                Long lastExecutedTime = mp.get(top.getTaskName());
-                Long evalTime = lastExecutedTime + (frequency * top.getRecurrentTimes());
-                if (evalTime <= milliseconds) {
-                    opNames.add(top.getTaskName());
-                    mp.put(top.getTaskName(), milliseconds);
-                }
             }
         }
 
@@ -148,6 +162,30 @@ public class DeviceTaskManagerImpl implements DeviceTaskManager {
         return opNames;
     }
 
+    /**
+     * Records the time at which the given operations were added, once they are committed for all the devices.
+     */
+    private void registerExecutedOperations(List<String> operations, long milliseconds) {
+        ConcurrentMap<String, Long> mp = Utils.getTenantedTaskOperationMap(map);
+        for (String operation : operations) {
+            mp.put(this.getOperationKey(operation), milliseconds);
+        }
+    }
+
+    private void releaseOperations(List<String> operations) {
+        for (String operation : operations) {
+            runningOperations.remove(this.getRunningOperationKey(this.getOperationKey(operation)));
+        }
+    }
+
+    private String getOperationKey(String operation) {
+        return deviceType + ":" + operation;
+    }
+
+    private String getRunningOperationKey(String operationKey) {
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId() + ":" + operationKey;
+    }
+
     private List<MonitoringOperation> getOperationListforTask() throws DeviceMgtTaskException {
 
         DeviceManagementProviderService deviceManagementProviderService = DeviceManagementDataHolder
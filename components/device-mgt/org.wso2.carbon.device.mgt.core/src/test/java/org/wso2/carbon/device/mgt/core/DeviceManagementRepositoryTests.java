@@ -21,14 +21,24 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.DeviceManager;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
+import org.wso2.carbon.device.mgt.common.spi.DeviceTypeGeneratorService;
+import org.wso2.carbon.device.mgt.common.type.mgt.DeviceTypeDefinitionProvider;
+import org.wso2.carbon.device.mgt.common.type.mgt.DeviceTypeMetaDefinition;
 import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
 import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
+import org.wso2.carbon.device.mgt.core.dto.DeviceTypeServiceIdentifier;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
 import org.wso2.carbon.device.mgt.core.task.impl.DeviceTaskManagerServiceImpl;
+import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
+
+import java.util.Map;
 
 public class DeviceManagementRepositoryTests{
 
+	private static final String DEFINITION_DEVICE_TYPE = "definitionDeviceType";
+
 	private DeviceManagementPluginRepository repository;
 
 	@BeforeClass
@@ -54,6 +64,16 @@ public class DeviceManagementRepositoryTests{
 	}
 
 	@Test(dependsOnMethods = "testAddDeviceManagementService")
+	public void testGetAllDeviceManagementServices() {
+		Map<DeviceTypeServiceIdentifier, DeviceManagementService> providers =
+				this.getRepository().getAllDeviceManagementServices(TestDataHolder.SUPER_TENANT_ID);
+		DeviceManagementService targetProvider = providers.get(new DeviceTypeServiceIdentifier(
+				TestDataHolder.TEST_DEVICE_TYPE, TestDataHolder.SUPER_TENANT_ID));
+		Assert.assertNotNull(targetProvider, "Added device management service is not available for the tenant");
+		Assert.assertEquals(targetProvider.getType(), TestDataHolder.TEST_DEVICE_TYPE);
+	}
+
+	@Test(dependsOnMethods = {"testAddDeviceManagementService", "testGetAllDeviceManagementServices"})
 	public void testRemoveDeviceManagementService() {
 		DeviceManagementService sourceProvider = new TestDeviceManagementService(TestDataHolder.TEST_DEVICE_TYPE,
 																				 TestDataHolder.SUPER_TENANT_DOMAIN);
@@ -68,8 +88,94 @@ public class DeviceManagementRepositoryTests{
 		Assert.assertNull(targetProvider);
 	}
 
+	@Test(dependsOnMethods = "testRemoveDeviceManagementService")
+	public void testRefreshDeviceTypeDefinition() throws DeviceManagementException {
+		DeviceTypeGeneratorService originalGeneratorService =
+				DeviceManagementDataHolder.getInstance().getDeviceTypeGeneratorService();
+		DeviceManagementDataHolder.getInstance().setDeviceTypeGeneratorService(new DeviceTypeGeneratorService() {
+			@Override
+			public DeviceManagementService populateDeviceManagementService(
+					String deviceTypeName, DeviceTypeMetaDefinition deviceTypeMetaDefinition) {
+				return new DefinitionProvidedService(deviceTypeName, deviceTypeMetaDefinition);
+			}
+		});
+		// Services are only registered along with their notification strategies and tasks after the startup.
+		this.getRepository().notifyObserver();
+		try {
+			DeviceManagerUtil.registerDeviceType(DEFINITION_DEVICE_TYPE, TestDataHolder.SUPER_TENANT_ID, false,
+					createDefinition("v1"));
+			DeviceManagementService service = this.getRepository().getDeviceManagementService(
+					DEFINITION_DEVICE_TYPE, TestDataHolder.SUPER_TENANT_ID);
+			Assert.assertNotNull(service, "Device management service is not built from the stored definition");
+			Assert.assertEquals(getDescription(service), "v1");
+
+			this.getRepository().refreshDeviceTypeDefinitions();
+			Assert.assertSame(this.getRepository().getDeviceManagementService(DEFINITION_DEVICE_TYPE,
+					TestDataHolder.SUPER_TENANT_ID), service, "Service is rebuilt while the definition is unchanged");
+
+			DeviceManagerUtil.registerDeviceType(DEFINITION_DEVICE_TYPE, TestDataHolder.SUPER_TENANT_ID, false,
+					createDefinition("v2"));
+			this.getRepository().refreshDeviceTypeDefinitions();
+			DeviceManagementService refreshedService = this.getRepository().getDeviceManagementService(
+					DEFINITION_DEVICE_TYPE, TestDataHolder.SUPER_TENANT_ID);
+			Assert.assertNotSame(refreshedService, service, "Service is not rebuilt from the updated definition");
+			Assert.assertEquals(getDescription(refreshedService), "v2");
+			Assert.assertSame(((DefinitionProvidedService) refreshedService).getServiceSeenOnRegistration(), service,
+					"Device type is not served by the previous service while the new service is registered");
+
+			this.getRepository().refreshDeviceTypeDefinitions();
+			Assert.assertSame(this.getRepository().getDeviceManagementService(DEFINITION_DEVICE_TYPE,
+					TestDataHolder.SUPER_TENANT_ID), refreshedService);
+		} finally {
+			DeviceManagementDataHolder.getInstance().setDeviceTypeGeneratorService(originalGeneratorService);
+			DeviceManagementPluginRepository.stopDefinitionWatcher();
+		}
+	}
+
+	private DeviceTypeMetaDefinition createDefinition(String description) {
+		DeviceTypeMetaDefinition definition = new DeviceTypeMetaDefinition();
+		definition.setDescription(description);
+		return definition;
+	}
+
+	private String getDescription(DeviceManagementService service) {
+		return ((DeviceTypeDefinitionProvider) service).getDeviceTypeMetaDefinition().getDescription();
+	}
+
 	private DeviceManagementPluginRepository getRepository() {
 		return repository;
 	}
 
+	private class DefinitionProvidedService extends TestDeviceManagementService
+			implements DeviceTypeDefinitionProvider {
+
+		private final DeviceTypeMetaDefinition definition;
+
+		private DeviceManagementService serviceSeenOnRegistration;
+
+		DefinitionProvidedService(String deviceType, DeviceTypeMetaDefinition definition) {
+			super(deviceType, TestDataHolder.SUPER_TENANT_DOMAIN);
+			this.definition = definition;
+		}
+
+		@Override
+		public DeviceTypeMetaDefinition getDeviceTypeMetaDefinition() {
+			return definition;
+		}
+
+		@Override
+		public DeviceManager getDeviceManager() {
+			// Records the service registered for the device type while this service is being registered.
+			if (serviceSeenOnRegistration == null) {
+				serviceSeenOnRegistration = repository.getAllDeviceManagementServices(TestDataHolder.SUPER_TENANT_ID)
+						.get(new DeviceTypeServiceIdentifier(getType(), TestDataHolder.SUPER_TENANT_ID));
+			}
+			return super.getDeviceManager();
+		}
+
+		DeviceManagementService getServiceSeenOnRegistration() {
+			return serviceSeenOnRegistration;
+		}
+	}
+
 }
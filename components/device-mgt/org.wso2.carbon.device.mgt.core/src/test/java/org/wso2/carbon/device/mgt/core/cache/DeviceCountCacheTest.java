@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.PaginationRequest;
+
+import java.util.Date;
+
+/**
+ * This contains unit tests for maintaining the cached device counts.
+ */
+public class DeviceCountCacheTest {
+
+    private static final int TENANT_ID = 1234;
+    private static final String DEVICE_TYPE = "count-test-type";
+
+    private DeviceCountCache deviceCountCache = DeviceCountCache.getInstance();
+
+    @AfterMethod
+    public void clear() {
+        deviceCountCache.clear(TENANT_ID);
+    }
+
+    @Test(description = "Test resolving the count keys of pagination requests.")
+    public void testGetKey() {
+        PaginationRequest request = new PaginationRequest(0, 10);
+        Assert.assertEquals(DeviceCountCache.getKey(request), DeviceCountCache.getTotalKey());
+        request.setDeviceType(DEVICE_TYPE);
+        Assert.assertEquals(DeviceCountCache.getKey(request), DeviceCountCache.getTypeKey(DEVICE_TYPE));
+        request.setStatus(EnrolmentInfo.Status.ACTIVE.toString());
+        String filterKey = DeviceCountCache.getKey(request);
+        Assert.assertNotEquals(filterKey, DeviceCountCache.getTypeKey(DEVICE_TYPE));
+        Assert.assertNotEquals(filterKey, DeviceCountCache.getStatusKey(EnrolmentInfo.Status.ACTIVE.toString()));
+        request.setSince(new Date());
+        Assert.assertNull(DeviceCountCache.getKey(request));
+    }
+
+    @Test(description = "Test resolving the count keys of pagination requests filtering on a group.")
+    public void testGetKeyOfGroup() {
+        PaginationRequest request = new PaginationRequest(0, 10);
+        request.setDeviceType(DEVICE_TYPE);
+        request.setGroupId(1);
+        String groupKey = DeviceCountCache.getKey(request);
+        Assert.assertNotEquals(groupKey, DeviceCountCache.getTypeKey(DEVICE_TYPE));
+        request.setGroupId(2);
+        Assert.assertNotEquals(DeviceCountCache.getKey(request), groupKey);
+        request.setGroupId(0);
+        Assert.assertEquals(DeviceCountCache.getKey(request), DeviceCountCache.getTypeKey(DEVICE_TYPE));
+    }
+
+    @Test(description = "Test dropping the filtered counts when group memberships change.")
+    public void testUpdateGroups() {
+        PaginationRequest request = new PaginationRequest(0, 10);
+        request.setGroupId(1);
+        String groupKey = DeviceCountCache.getKey(request);
+        deviceCountCache.putCount(TENANT_ID, groupKey, 4);
+        deviceCountCache.putCount(TENANT_ID, DeviceCountCache.getTotalKey(), 5);
+
+        deviceCountCache.updateGroups(TENANT_ID);
+
+        Assert.assertNull(deviceCountCache.getCount(TENANT_ID, groupKey), "Group count is not dropped.");
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, DeviceCountCache.getTotalKey()), Integer.valueOf(5));
+    }
+
+    @Test(description = "Test adjusting the counters when a device is enrolled.")
+    public void testAddEnrolment() {
+        String activeKey = DeviceCountCache.getStatusKey(EnrolmentInfo.Status.ACTIVE.toString());
+        String filterKey = DeviceCountCache.getKey(createFilteredRequest());
+        deviceCountCache.putCount(TENANT_ID, DeviceCountCache.getTotalKey(), 5);
+        deviceCountCache.putCount(TENANT_ID, DeviceCountCache.getTypeKey(DEVICE_TYPE), 3);
+        deviceCountCache.putCount(TENANT_ID, activeKey, 2);
+        deviceCountCache.putCount(TENANT_ID, filterKey, 1);
+
+        deviceCountCache.addEnrolment(TENANT_ID, DEVICE_TYPE, createEnrolment(EnrolmentInfo.Status.ACTIVE));
+
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, DeviceCountCache.getTotalKey()), Integer.valueOf(6));
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, DeviceCountCache.getTypeKey(DEVICE_TYPE)),
+                Integer.valueOf(4));
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, activeKey), Integer.valueOf(3));
+        Assert.assertNull(deviceCountCache.getCount(TENANT_ID, filterKey), "Filtered count is not dropped.");
+        Assert.assertNull(deviceCountCache.getCount(TENANT_ID,
+                DeviceCountCache.getOwnershipKey(EnrolmentInfo.OwnerShip.BYOD.toString())));
+    }
+
+    @Test(description = "Test adjusting the counters when the status of a device changes.")
+    public void testUpdateStatus() {
+        String activeKey = DeviceCountCache.getStatusKey(EnrolmentInfo.Status.ACTIVE.toString());
+        String removedKey = DeviceCountCache.getStatusKey(EnrolmentInfo.Status.REMOVED.toString());
+        deviceCountCache.putCount(TENANT_ID, DeviceCountCache.getTotalKey(), 5);
+        deviceCountCache.putCount(TENANT_ID, activeKey, 4);
+        deviceCountCache.putCount(TENANT_ID, removedKey, 1);
+
+        deviceCountCache.updateStatus(TENANT_ID, EnrolmentInfo.Status.ACTIVE, EnrolmentInfo.Status.REMOVED);
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, activeKey), Integer.valueOf(3));
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, removedKey), Integer.valueOf(2));
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, DeviceCountCache.getTotalKey()), Integer.valueOf(5));
+
+        deviceCountCache.updateStatus(TENANT_ID, null, EnrolmentInfo.Status.ACTIVE);
+        Assert.assertNull(deviceCountCache.getCount(TENANT_ID, activeKey), "Status counter is not dropped.");
+        Assert.assertNull(deviceCountCache.getCount(TENANT_ID, removedKey), "Status counter is not dropped.");
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, DeviceCountCache.getTotalKey()), Integer.valueOf(5));
+    }
+
+    @Test(description = "Test dropping the counts affected by updates of enrolments.")
+    public void testUpdateEnrolments() {
+        String ownershipKey = DeviceCountCache.getOwnershipKey(EnrolmentInfo.OwnerShip.COPE.toString());
+        deviceCountCache.putCount(TENANT_ID, DeviceCountCache.getTypeKey(DEVICE_TYPE), 3);
+        deviceCountCache.putCount(TENANT_ID, ownershipKey, 2);
+
+        deviceCountCache.updateEnrolmentsOfAllTenants();
+
+        Assert.assertNull(deviceCountCache.getCount(TENANT_ID, ownershipKey), "Ownership counter is not dropped.");
+        Assert.assertEquals(deviceCountCache.getCount(TENANT_ID, DeviceCountCache.getTypeKey(DEVICE_TYPE)),
+                Integer.valueOf(3));
+    }
+
+    private static PaginationRequest createFilteredRequest() {
+        PaginationRequest request = new PaginationRequest(0, 10);
+        request.setDeviceType(DEVICE_TYPE);
+        request.setOwner("admin");
+        return request;
+    }
+
+    private static EnrolmentInfo createEnrolment(EnrolmentInfo.Status status) {
+        EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+        enrolmentInfo.setStatus(status);
+        enrolmentInfo.setOwnership(EnrolmentInfo.OwnerShip.BYOD);
+        enrolmentInfo.setOwner("admin");
+        return enrolmentInfo;
+    }
+
+}
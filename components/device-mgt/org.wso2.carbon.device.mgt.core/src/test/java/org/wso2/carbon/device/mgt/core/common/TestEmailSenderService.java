@@ -27,4 +27,24 @@ public class TestEmailSenderService implements EmailSenderService {
     @Override
     public void sendEmail(EmailContext emailCtx) throws EmailSendingFailedException, EmailTransportNotConfiguredException {
     }
+
+    @Override
+    public long getSentEmailCount() {
+        return 0;
+    }
+
+    @Override
+    public long getRetriedEmailCount() {
+        return 0;
+    }
+
+    @Override
+    public long getFailedEmailCount() {
+        return 0;
+    }
+
+    @Override
+    public int getQueuedBatchCount() {
+        return 0;
+    }
 }
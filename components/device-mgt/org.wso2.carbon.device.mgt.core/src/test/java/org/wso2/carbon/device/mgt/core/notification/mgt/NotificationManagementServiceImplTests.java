@@ -223,5 +223,61 @@ public class NotificationManagementServiceImplTests {
                 .Status.CHECKED, -1234));
     }
 
-}
+    @Test(dependsOnMethods = "updateNotificationStatus", description = "this tests the keyset pagination of " +
+            "notifications by reading all the checked notifications page by page.")
+    public void getNotificationsWithKeysetPagination() throws NotificationManagementException {
+        int pageSize = 4;
+        int lastNotificationId = 0;
+        int noOfNotifications = 0;
+        PaginationResult result;
+        do {
+            result = notificationManagementService.getNotifications(Notification.Status.CHECKED,
+                    lastNotificationId, pageSize, false);
+            Assert.assertEquals(result.getRecordsTotal(), -1, "Notifications were counted when the count " +
+                    "was not required.");
+            Assert.assertTrue(result.getData().size() <= pageSize, "Returned page is larger than the page size.");
+            for (Object data : result.getData()) {
+                Notification notification = (Notification) data;
+                Assert.assertTrue(notification.getNotificationId() > lastNotificationId, "Notifications are not " +
+                        "returned in the order of the notification id.");
+                lastNotificationId = notification.getNotificationId();
+                noOfNotifications++;
+            }
+        } while (!result.getData().isEmpty());
+        Assert.assertEquals(noOfNotifications, NO_OF_NOTIFICATIONS, "Returned no. of notifications is not same " +
+                "as added no. of notifications.");
+        result = notificationManagementService.getNotifications(null, 0, pageSize, true);
+        Assert.assertEquals(result.getData().size(), pageSize, "Returned page is not of the page size.");
+        Assert.assertEquals(result.getRecordsTotal(), NO_OF_NOTIFICATIONS, "Returned no. of records is not same" +
+                " as added no. of records.");
+    }
 
+    @Test(dependsOnMethods = {"getAllNotifications", "getNotification", "getNotificationsByStatus",
+            "getAllNotificationsWithPaginationRequest", "getAllNotificationsWithPaginationRequestAndStatus",
+            "getNotificationsWithKeysetPagination", "updateStatusOfAllNotifications"},
+            description = "this adds a notification to all the devices at once along with a device which is not " +
+                    "enrolled, and updates the status of the added notifications at once.")
+    public void addAndUpdateNotificationsInBulk() throws NotificationManagementException {
+        List<DeviceIdentifier> bulkDeviceIds = new ArrayList<>(deviceIds);
+        bulkDeviceIds.add(new DeviceIdentifier(DEVICE_ID_PREFIX + 123, DEVICE_TYPE));
+        Notification notification = TestDataHolder.getNotification(0, Notification.Status.NEW.toString(), null,
+                TEST_NOTIFICATION_DESCRIPTION, null, NOTIFICATION_OPERATION_ID, DEVICE_TYPE);
+        Assert.assertEquals(notificationManagementService.addNotifications(bulkDeviceIds, notification),
+                NO_OF_DEVICES, "Notifications were not added to all the enrolled devices.");
+
+        PaginationResult result = notificationManagementService.getNotifications(Notification.Status.NEW, 0,
+                NO_OF_DEVICES * 2, true);
+        Assert.assertEquals(result.getRecordsTotal(), NO_OF_DEVICES, "Returned no. of new notifications is not " +
+                "same as added no. of notifications.");
+        List<Integer> notificationIds = new ArrayList<>();
+        for (Object data : result.getData()) {
+            notificationIds.add(((Notification) data).getNotificationId());
+        }
+        Assert.assertTrue(notificationManagementService.updateNotificationStatus(notificationIds,
+                Notification.Status.CHECKED), "Bulk notification status update failed.");
+        result = notificationManagementService.getNotifications(Notification.Status.NEW, 0, NO_OF_DEVICES, true);
+        Assert.assertEquals(result.getRecordsTotal(), 0, "Notification status is not updated for all the " +
+                "notifications.");
+    }
+
+}
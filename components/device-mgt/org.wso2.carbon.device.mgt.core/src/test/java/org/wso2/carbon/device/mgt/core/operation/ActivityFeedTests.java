@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.operation;
+
+import org.powermock.api.mockito.PowerMockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityFeed;
+import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityStatus;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
+import org.wso2.carbon.device.mgt.core.TestDeviceManagementService;
+import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
+import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
+import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.OperationManagerImpl;
+import org.wso2.carbon.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This contains unit tests for reading the activity feed page by page, keyed by the update time and the id of the
+ * enrolment operation mappings.
+ */
+public class ActivityFeedTests extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "FEED_TEST_TYPE";
+    private static final String DEVICE_ID_PREFIX = "FEED-TEST-DEVICE-ID-";
+    private static final String OPERATION_CODE = "FEED-TEST";
+    private static final int NO_OF_DEVICES = 3;
+    private static final int PAGE_SIZE = 2;
+    // Update time, in seconds, given to the mappings of this test, so that they are read before any other mapping.
+    private static final long SETTLED_SECOND = 1000;
+    // Time to wait until the changes of the current second are settled and included in the feed.
+    private static final long SETTLE_WAIT = TimeUnit.SECONDS.toMillis(3);
+
+    private List<Integer> mappingIds = new ArrayList<>();
+    private List<String> mappingDevices = new ArrayList<>();
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        List<DeviceIdentifier> deviceIds = new ArrayList<>();
+        for (int i = 0; i < NO_OF_DEVICES; i++) {
+            deviceIds.add(new DeviceIdentifier(DEVICE_ID_PREFIX + i, DEVICE_TYPE));
+        }
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        TestDeviceManagementService deviceManagementService = new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        deviceMgtService.registerDeviceType(deviceManagementService);
+        for (Device device : TestDataHolder.generateDummyDeviceData(deviceIds)) {
+            deviceMgtService.enrollDevice(device);
+        }
+        OperationManager operationManager = PowerMockito.spy(
+                new OperationManagerImpl(DEVICE_TYPE, deviceManagementService));
+        PowerMockito.when(operationManager, "getNotificationStrategy").thenReturn(new TestNotificationStrategy());
+        operationManager.addOperation(OperationManagementTests.getOperation(new CommandOperation(),
+                Operation.Type.COMMAND, OPERATION_CODE), deviceIds);
+
+        try (Connection conn = this.getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT opm.ID, de.DEVICE_IDENTIFICATION " +
+                     "FROM DM_ENROLMENT_OP_MAPPING opm INNER JOIN DM_OPERATION op ON opm.OPERATION_ID = op.ID " +
+                     "INNER JOIN DM_ENROLMENT en ON opm.ENROLMENT_ID = en.ID " +
+                     "INNER JOIN DM_DEVICE de ON en.DEVICE_ID = de.ID WHERE op.OPERATION_CODE = ? ORDER BY opm.ID")) {
+            stmt.setString(1, OPERATION_CODE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    mappingIds.add(rs.getInt("ID"));
+                    mappingDevices.add(rs.getString("DEVICE_IDENTIFICATION"));
+                }
+            }
+        }
+        Assert.assertEquals(mappingIds.size(), NO_OF_DEVICES, "Operation is not added to all the devices.");
+    }
+
+    @Test(description = "Test that the changes of a second are read in the order of the mapping ids across pages.")
+    public void testReadSettledSecond() throws Exception {
+        for (int mappingId : mappingIds) {
+            setUpdatedTimestamp(mappingId, SETTLED_SECOND);
+        }
+        List<String> changedDevices = new ArrayList<>();
+        ActivityFeed feed = readFeed(SETTLED_SECOND - 1, 0, changedDevices);
+
+        Assert.assertEquals(changedDevices, mappingDevices, "Changes of the same second are not read in order.");
+        Assert.assertTrue(feed.getLastUpdatedTimestamp() >= SETTLED_SECOND);
+    }
+
+    @Test(description = "Test that a change written with the update time of an already read change is not skipped.",
+            dependsOnMethods = "testReadSettledSecond")
+    public void testReadLateChangeOfSecond() throws Exception {
+        long currentSecond = System.currentTimeMillis() / 1000;
+        setUpdatedTimestamp(mappingIds.get(2), currentSecond);
+        List<String> changedDevices = new ArrayList<>();
+        ActivityFeed feed = readFeed(SETTLED_SECOND, mappingIds.get(1), changedDevices);
+        Assert.assertTrue(changedDevices.isEmpty(), "Changes of a second which is not settled are read.");
+
+        // A change with a lower mapping id is written with the same update time after the feed has been read.
+        setUpdatedTimestamp(mappingIds.get(0), currentSecond);
+        Thread.sleep(SETTLE_WAIT);
+        readFeed(feed.getLastUpdatedTimestamp(), feed.getLastMappingId(), changedDevices);
+
+        List<String> expectedDevices = new ArrayList<>();
+        expectedDevices.add(mappingDevices.get(0));
+        expectedDevices.add(mappingDevices.get(2));
+        Assert.assertEquals(changedDevices, expectedDevices, "Late change of the second is skipped by the feed.");
+    }
+
+    @Test(description = "Test that a change committed after its second has settled is not read once the feed has " +
+            "moved past it, which is a documented limitation of the feed.",
+            dependsOnMethods = "testReadLateChangeOfSecond")
+    public void testReadChangeCommittedAfterSettleTime() throws Exception {
+        List<String> changedDevices = new ArrayList<>();
+        ActivityFeed feed = readFeed(SETTLED_SECOND, 0, changedDevices);
+        Assert.assertFalse(changedDevices.isEmpty());
+
+        // A change written before the position of the feed is committed after its second has settled.
+        setUpdatedTimestamp(mappingIds.get(1), SETTLED_SECOND + 1);
+        changedDevices.clear();
+        readFeed(feed.getLastUpdatedTimestamp(), feed.getLastMappingId(), changedDevices);
+        Assert.assertTrue(changedDevices.isEmpty(), "Change committed after the settle time is read.");
+
+        // The change is only read by reading the feed again from a position before its update time.
+        readFeed(SETTLED_SECOND, 0, changedDevices);
+        Assert.assertTrue(changedDevices.contains(mappingDevices.get(1)));
+    }
+
+    /**
+     * Reads the feed from the given position until no more changes are found, collecting the devices of this test
+     * whose operation status changed.
+     */
+    private ActivityFeed readFeed(long timestamp, int lastMappingId, List<String> changedDevices) throws Exception {
+        ActivityFeed feed;
+        do {
+            OperationManagementDAOFactory.openConnection();
+            try {
+                feed = OperationManagementDAOFactory.getOperationDAO().getActivityFeed(timestamp, lastMappingId,
+                        PAGE_SIZE, false);
+            } finally {
+                OperationManagementDAOFactory.closeConnection();
+            }
+            Assert.assertTrue(feed.getChangeCount() <= PAGE_SIZE);
+            for (Activity activity : feed.getActivities()) {
+                for (ActivityStatus status : activity.getActivityStatus()) {
+                    if (DEVICE_TYPE.equals(status.getDeviceIdentifier().getType())) {
+                        changedDevices.add(status.getDeviceIdentifier().getId());
+                    }
+                }
+            }
+            timestamp = feed.getLastUpdatedTimestamp();
+            lastMappingId = feed.getLastMappingId();
+        } while (feed.getChangeCount() > 0);
+        return feed;
+    }
+
+    private void setUpdatedTimestamp(int mappingId, long timestamp) throws Exception {
+        try (Connection conn = this.getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE DM_ENROLMENT_OP_MAPPING SET UPDATED_TIMESTAMP = ? WHERE ID = ?")) {
+            stmt.setLong(1, timestamp);
+            stmt.setInt(2, mappingId);
+            stmt.executeUpdate();
+        }
+    }
+
+}
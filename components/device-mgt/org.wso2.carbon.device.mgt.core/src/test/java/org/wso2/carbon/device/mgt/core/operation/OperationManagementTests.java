@@ -38,6 +38,7 @@ import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.core.TestDeviceManagementService;
+import org.wso2.carbon.device.mgt.core.cache.DeviceCountCache;
 import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
 import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
@@ -360,6 +361,26 @@ public class OperationManagementTests extends BaseDeviceManagementTest {
         Assert.assertTrue(operation.getType().equals(Operation.Type.POLICY));
     }
 
+    @Test(dependsOnMethods = "getNextPendingOperation")
+    public void getNextPendingOperationOfUnreachableDevice() throws OperationManagementException,
+            DeviceManagementException {
+        DeviceIdentifier deviceIdentifier = this.deviceIds.get(1);
+        Assert.assertTrue(this.deviceMgmtProvider.setStatus(deviceIdentifier, TestDataHolder.OWNER,
+                EnrolmentInfo.Status.UNREACHABLE));
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        String activeKey = DeviceCountCache.getStatusKey(EnrolmentInfo.Status.ACTIVE.toString());
+        String unreachableKey = DeviceCountCache.getStatusKey(EnrolmentInfo.Status.UNREACHABLE.toString());
+        DeviceCountCache.getInstance().putCount(tenantId, activeKey, 10);
+        DeviceCountCache.getInstance().putCount(tenantId, unreachableKey, 1);
+
+        this.operationMgtService.getNextPendingOperation(deviceIdentifier);
+
+        Assert.assertEquals(DeviceCountCache.getInstance().getCount(tenantId, activeKey), Integer.valueOf(11),
+                "Cached active device count is not updated.");
+        Assert.assertEquals(DeviceCountCache.getInstance().getCount(tenantId, unreachableKey), Integer.valueOf(0),
+                "Cached unreachable device count is not updated.");
+    }
+
     @Test(dependsOnMethods = "updateOperation", expectedExceptions = OperationManagementException.class)
     public void getNextPendingOperationAsNonAdmin() throws OperationManagementException {
         startTenantFlowAsNonAdmin();
@@ -90,7 +90,8 @@ public class ScheduledTaskOperationTests extends BaseDeviceManagementTest {
         }
         DeviceConfigurationManager.getInstance().initConfig(CDM_CONFIG_LOCATION);
         DeviceManagementService deviceManagementService
-                = new TestDeviceManagementService(DEVICE_TYPE, MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+                = new TestDeviceManagementService(DEVICE_TYPE, MultitenantConstants.SUPER_TENANT_DOMAIN_NAME,
+                COMMAND_OPERATON_CODE);
         this.operationMgtService = PowerMockito.spy(new OperationManagerImpl(DEVICE_TYPE, deviceManagementService));
         PowerMockito.when(this.operationMgtService, "getNotificationStrategy")
                 .thenReturn(new TestNotificationStrategy());
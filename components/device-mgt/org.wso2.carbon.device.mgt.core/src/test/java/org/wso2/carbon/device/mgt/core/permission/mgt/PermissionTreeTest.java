@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.permission.mgt;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.permission.mgt.Permission;
+
+/**
+ * This contains unit tests for matching request paths against the PermissionTree.
+ */
+public class PermissionTreeTest {
+
+    private PermissionTree permissionTree;
+
+    @BeforeClass
+    public void init() {
+        permissionTree = new PermissionTree();
+        permissionTree.addPermission(createPermission("view-devices", "/devices/*", "GET"));
+        permissionTree.addPermission(createPermission("view-device-info", "/devices/*/info", "GET"));
+        permissionTree.addPermission(createPermission("search-devices", "/devices/search", "POST"));
+        permissionTree.addPermission(createPermission("view-device-type", "/devices/types/*", "GET"));
+    }
+
+    @Test(description = "Test retrieving permissions of literal and dynamic request paths.")
+    public void testGetPermission() {
+        Assert.assertEquals(permissionTree.getPermission("/devices/search", "POST").getName(), "search-devices");
+        Assert.assertEquals(permissionTree.getPermission("/devices/1234", "GET").getName(), "view-devices");
+        Assert.assertEquals(permissionTree.getPermission("/devices/types/android", "GET").getName(),
+                "view-device-type");
+        Assert.assertNull(permissionTree.getPermission("/devices/1234", "DELETE"));
+        Assert.assertNull(permissionTree.getPermission("/users", "GET"));
+    }
+
+    @Test(description = "Test retrieving permissions where a literal path segment overlaps with a dynamic one.")
+    public void testGetPermissionOfOverlappingPaths() {
+        // 'search' matches the literal segment, which only has a permission for POST.
+        Assert.assertEquals(permissionTree.getPermission("/devices/search", "GET").getName(), "view-devices");
+        // 'types' matches the literal segment, which does not have a permission of its own.
+        Assert.assertEquals(permissionTree.getPermission("/devices/types", "GET").getName(), "view-devices");
+        // 'search' matches the literal segment, which does not have an 'info' child.
+        Assert.assertEquals(permissionTree.getPermission("/devices/search/info", "GET").getName(),
+                "view-device-info");
+    }
+
+    @Test(dependsOnMethods = {"testGetPermission", "testGetPermissionOfOverlappingPaths"},
+            description = "Test retrieving a permission added after the tree has been matched against.")
+    public void testGetPermissionAfterAddingPermission() {
+        Assert.assertNull(permissionTree.getPermission("/devices/1234", "DELETE"));
+        permissionTree.addPermission(createPermission("delete-device", "/devices/*", "DELETE"));
+        Assert.assertEquals(permissionTree.getPermission("/devices/1234", "DELETE").getName(), "delete-device");
+    }
+
+    private static Permission createPermission(String name, String url, String method) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        permission.setPath("/permission/admin/device-mgt/" + name);
+        permission.setUrl(url);
+        permission.setMethod(method);
+        return permission;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.core.privacy.impl;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.PrivacyComplianceException;
+import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
+import org.wso2.carbon.device.mgt.core.privacy.DeviceErasureStatus;
+import org.wso2.carbon.device.mgt.core.privacy.dao.PrivacyComplianceDAO;
+import org.wso2.carbon.device.mgt.core.privacy.dao.PrivacyComplianceDAOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This contains unit tests for erasing the devices of a user in chunks on the background worker.
+ */
+public class PrivacyComplianceProviderImplTest extends BaseDeviceManagementTest {
+
+    private static final String USERNAME = "erasure-user";
+    private static final int DEVICE_COUNT = 250;
+    private static final long WAIT_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    private PrivacyComplianceProviderImpl provider;
+    private PrivacyComplianceDAO complianceDAO;
+
+    @Override
+    public void init() throws Exception {
+    }
+
+    @BeforeMethod
+    public void initProvider() throws PrivacyComplianceDAOException {
+        complianceDAO = Mockito.mock(PrivacyComplianceDAO.class);
+        Mockito.when(complianceDAO.getDevicesOfUser(Mockito.eq(USERNAME), Mockito.anyInt()))
+                .thenReturn(createMappings(DEVICE_COUNT));
+        provider = new PrivacyComplianceProviderImpl();
+        provider.complianceDAO = complianceDAO;
+    }
+
+    @AfterMethod
+    public void shutdownProvider() {
+        provider.shutdown();
+    }
+
+    @Test(description = "Test erasing the devices of a user in chunks on the background worker.")
+    public void testEraseDevicesOfUser() throws Exception {
+        DeviceErasureStatus status = provider.eraseDevicesOfUser(USERNAME);
+        waitUntilDone(status);
+
+        Assert.assertEquals(status.getState(), DeviceErasureStatus.State.COMPLETED);
+        Assert.assertEquals(status.getTotalDevices(), DEVICE_COUNT);
+        Assert.assertEquals(status.getErasedDevices(), DEVICE_COUNT);
+        Assert.assertSame(provider.getErasureStatus(USERNAME), status);
+        Mockito.verify(complianceDAO, Mockito.times(3))
+                .deleteDevices(Mockito.anyListOf(Integer.class), Mockito.anyInt());
+    }
+
+    @Test(description = "Test that a failed chunk keeps the devices erased by the earlier chunks.")
+    public void testEraseDevicesOfUserFailure() throws Exception {
+        Mockito.doNothing().doThrow(new PrivacyComplianceDAOException("Failed to delete the devices."))
+                .when(complianceDAO).deleteDevices(Mockito.anyListOf(Integer.class), Mockito.anyInt());
+        DeviceErasureStatus status = provider.eraseDevicesOfUser(USERNAME);
+        waitUntilDone(status);
+
+        Assert.assertEquals(status.getState(), DeviceErasureStatus.State.FAILED);
+        Assert.assertEquals(status.getErasedDevices(), 100);
+        Assert.assertNotNull(status.getMessage());
+    }
+
+    @Test(description = "Test that shutting down the provider stops the running erasure after its current chunk " +
+            "and fails the erasures requested afterwards.")
+    public void testShutdown() throws Exception {
+        final CountDownLatch chunkStarted = new CountDownLatch(1);
+        final CountDownLatch shutdown = new CountDownLatch(1);
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws InterruptedException {
+                chunkStarted.countDown();
+                shutdown.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+                return null;
+            }
+        }).when(complianceDAO).deleteDevices(Mockito.anyListOf(Integer.class), Mockito.anyInt());
+
+        DeviceErasureStatus status = provider.eraseDevicesOfUser(USERNAME);
+        Assert.assertTrue(chunkStarted.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS), "Erasure did not start.");
+        provider.shutdown();
+        shutdown.countDown();
+        waitUntilDone(status);
+
+        Assert.assertEquals(status.getState(), DeviceErasureStatus.State.FAILED);
+        Assert.assertEquals(status.getErasedDevices(), 100, "Erasure should stop after the current chunk.");
+        Mockito.verify(complianceDAO, Mockito.times(1))
+                .deleteDevices(Mockito.anyListOf(Integer.class), Mockito.anyInt());
+
+        DeviceErasureStatus rejectedStatus = provider.eraseDevicesOfUser(USERNAME);
+        Assert.assertEquals(rejectedStatus.getState(), DeviceErasureStatus.State.FAILED);
+    }
+
+    @Test(description = "Test that the status of a finished erasure is dropped after the retention period.")
+    public void testErasureStatusRetention() throws Exception {
+        DeviceErasureStatus status = provider.eraseDevicesOfUser(USERNAME);
+        waitUntilDone(status);
+        Assert.assertSame(provider.getErasureStatus(USERNAME), status);
+
+        provider.erasureStatusRetention = -1;
+        Assert.assertNull(provider.getErasureStatus(USERNAME), "Expired erasure status should be dropped.");
+    }
+
+    @Test(description = "Test erasing the devices of a user synchronously.")
+    public void testDeleteDevicesOfUser() throws Exception {
+        provider.deleteDevicesOfUser(USERNAME);
+        Mockito.verify(complianceDAO, Mockito.times(3))
+                .deleteDevices(Mockito.anyListOf(Integer.class), Mockito.anyInt());
+        Assert.assertNull(provider.getErasureStatus(USERNAME), "Synchronous erasure should not be tracked.");
+    }
+
+    @Test(description = "Test erasing the devices of a user synchronously when a chunk fails.",
+            expectedExceptions = PrivacyComplianceException.class)
+    public void testDeleteDevicesOfUserFailure() throws Exception {
+        Mockito.doThrow(new PrivacyComplianceDAOException("Failed to delete the devices."))
+                .when(complianceDAO).deleteDevices(Mockito.anyListOf(Integer.class), Mockito.anyInt());
+        provider.deleteDevicesOfUser(USERNAME);
+    }
+
+    private void waitUntilDone(DeviceErasureStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+        while (!status.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(status.isDone(), "Erasure did not finish in time.");
+    }
+
+    private static List<DeviceEnrollmentMapping> createMappings(int count) {
+        List<DeviceEnrollmentMapping> mappings = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            DeviceEnrollmentMapping mapping = new DeviceEnrollmentMapping();
+            mapping.setDeviceId(i);
+            mapping.setEnrolmentId(i);
+            mappings.add(mapping);
+        }
+        return mappings;
+    }
+
+}
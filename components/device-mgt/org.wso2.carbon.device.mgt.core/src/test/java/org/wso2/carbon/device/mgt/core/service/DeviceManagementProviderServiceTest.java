@@ -26,6 +26,7 @@ import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.PaginationCursor;
 import org.wso2.carbon.device.mgt.common.PaginationRequest;
 import org.wso2.carbon.device.mgt.common.PaginationResult;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
@@ -58,9 +59,11 @@ import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import javax.sql.DataSource;
@@ -576,6 +579,69 @@ public class DeviceManagementProviderServiceTest extends BaseDeviceManagementTes
         Assert.assertTrue(result.getRecordsTotal() > 0);
     }
 
+    @Test(dependsOnMethods = {"testSuccessfulDeviceEnrollment"})
+    public void testGetAllDevicesCursorBased() throws DeviceManagementException, NoSuchFieldException,
+            IllegalAccessException {
+        PaginationRequest request = new PaginationRequest(0, 1);
+        request.setCursorBased(true);
+        MockDataSource dataSource = setDatasourceForGetDevice();
+        PaginationResult result = deviceMgtService.getAllDevices(request, false);
+        cleanupMockDatasource(dataSource);
+        Assert.assertEquals(result.getData().size(), 1);
+        Device device = (Device) result.getData().get(0);
+        Assert.assertEquals(result.getNextCursor(), PaginationCursor.encode(device.getEnrolmentInfo().getId()));
+        Assert.assertEquals(PaginationCursor.decode(result.getNextCursor()), device.getEnrolmentInfo().getId());
+    }
+
+    @Test(dependsOnMethods = {"testGetAllDevicesCursorBased"})
+    public void testGetAllDevicesCursorBasedPages() throws DeviceManagementException {
+        if (isMock()) {
+            return;
+        }
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(deviceMgtService.enrollDevice(TestDataHolder.generateDummyDeviceData(
+                    new DeviceIdentifier("cursor-device-" + i, DEVICE_TYPE))));
+        }
+        PaginationRequest request = new PaginationRequest(0, 2);
+        request.setCursorBased(true);
+        PaginationResult result = deviceMgtService.getAllDevices(request, false);
+        List<Integer> pagedEnrolmentIds = getEnrolmentIds(result);
+        Assert.assertEquals(pagedEnrolmentIds.size(), 2);
+
+        // Devices enrolled while paging are appended to the last page, without shifting the following pages.
+        Assert.assertTrue(deviceMgtService.enrollDevice(TestDataHolder.generateDummyDeviceData(
+                new DeviceIdentifier("cursor-device-late", DEVICE_TYPE))));
+        int pages = 1;
+        while (result.getNextCursor() != null) {
+            Assert.assertTrue(++pages < 100, "Paging does not end");
+            request = new PaginationRequest(0, 2);
+            request.setCursorBased(true);
+            request.setLastEnrolmentId(PaginationCursor.decode(result.getNextCursor()));
+            result = deviceMgtService.getAllDevices(request, false);
+            List<Integer> pageEnrolmentIds = getEnrolmentIds(result);
+            // The page after a full last page is empty.
+            Assert.assertTrue(pageEnrolmentIds.isEmpty() ||
+                            pageEnrolmentIds.get(0) > pagedEnrolmentIds.get(pagedEnrolmentIds.size() - 1),
+                    "Page does not start after the previous page");
+            pagedEnrolmentIds.addAll(pageEnrolmentIds);
+        }
+        Assert.assertTrue(pages > 1, "Second page is not requested");
+
+        List<Integer> allEnrolmentIds = getEnrolmentIds(deviceMgtService.getAllDevices(new PaginationRequest(0,
+                1000), false));
+        Assert.assertEquals(new HashSet<>(pagedEnrolmentIds).size(), pagedEnrolmentIds.size(),
+                "Same device is returned in more than one page");
+        Assert.assertEquals(pagedEnrolmentIds, allEnrolmentIds, "Devices are missed while paging");
+    }
+
+    private List<Integer> getEnrolmentIds(PaginationResult result) {
+        List<Integer> enrolmentIds = new ArrayList<>();
+        for (Object device : result.getData()) {
+            enrolmentIds.add(((Device) device).getEnrolmentInfo().getId());
+        }
+        return enrolmentIds;
+    }
+
     @Test(dependsOnMethods = {"testSuccessfulDeviceEnrollment"}, expectedExceptions =
             DeviceManagementException.class)
     public void testGetAllDevicesWithNullRequest() throws DeviceManagementException {
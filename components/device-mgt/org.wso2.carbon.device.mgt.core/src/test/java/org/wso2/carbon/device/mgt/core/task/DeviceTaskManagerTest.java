@@ -19,6 +19,9 @@ package org.wso2.carbon.device.mgt.core.task;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -27,6 +30,7 @@ import org.testng.annotations.Test;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
@@ -60,6 +64,7 @@ public class DeviceTaskManagerTest extends BaseDeviceManagementTest {
 
     private static final Log log = LogFactory.getLog(DeviceTaskManagerTest.class);
     private static final String NEW_DEVICE_TYPE = "NEW-DEVICE-TYPE";
+    private static final String PAGED_DEVICE_TYPE = "PAGED-DEVICE-TYPE";
     private static final String DEVICE_DETAIL_RETRIEVER_OPPCONFIG = "{\"isEnabled\":true,\"frequency\":60000," +
             "\"monitoringOperation\":[{\"taskName\":\"DEVICE_INFO\",\"recurrentTimes\":2}]}";
     private List<DeviceIdentifier> deviceIds;
@@ -184,6 +189,65 @@ public class DeviceTaskManagerTest extends BaseDeviceManagementTest {
         }
     }
 
+    @Test(groups = "Device Task Manager Test Group",
+            description = "Testing that a failed page neither skips the remaining pages nor marks the operations as " +
+                    "executed")
+    public void testAddOperationsWithFailedPage() throws Exception {
+        DeviceManagementProviderService deviceMgtService = Mockito.mock(DeviceManagementProviderService.class);
+        // The first page is full, so the task has to read a second, partial page.
+        Mockito.when(deviceMgtService.getAllDevices(Mockito.eq(PAGED_DEVICE_TYPE), Mockito.anyInt(), Mockito.anyInt()))
+                .thenAnswer(new Answer<List<Device>>() {
+                    @Override
+                    public List<Device> answer(InvocationOnMock invocation) {
+                        int lastEnrolmentId = (Integer) invocation.getArguments()[1];
+                        int limit = (Integer) invocation.getArguments()[2];
+                        return lastEnrolmentId == 0 ? createDevices(1, limit) : createDevices(lastEnrolmentId + 1, 2);
+                    }
+                });
+        Mockito.doThrow(new OperationManagementException("Failed to add operations to the page.")).doNothing()
+                .when(deviceMgtService).addTaskOperations(Mockito.eq(PAGED_DEVICE_TYPE),
+                        Mockito.anyListOf(String.class), Mockito.anyListOf(Device.class));
+
+        DeviceManagementDataHolder.getInstance().setDeviceManagementProvider(deviceMgtService);
+        try {
+            DeviceTaskManager taskManager = new DeviceTaskManagerImpl(PAGED_DEVICE_TYPE,
+                    TestDataHolder.generateMonitoringTaskConfig(true, 60000, 2));
+            try {
+                taskManager.addOperations();
+                Assert.fail("Failed page is not reported.");
+            } catch (DeviceMgtTaskException e) {
+                // Expected, as the first page failed.
+            }
+            Mockito.verify(deviceMgtService, Mockito.times(2)).addTaskOperations(Mockito.eq(PAGED_DEVICE_TYPE),
+                    Mockito.anyListOf(String.class), Mockito.anyListOf(Device.class));
+
+            taskManager.addOperations();
+            Mockito.verify(deviceMgtService, Mockito.times(4)).addTaskOperations(Mockito.eq(PAGED_DEVICE_TYPE),
+                    Mockito.anyListOf(String.class), Mockito.anyListOf(Device.class));
+
+            taskManager.addOperations();
+            Mockito.verify(deviceMgtService, Mockito.times(4)).addTaskOperations(Mockito.eq(PAGED_DEVICE_TYPE),
+                    Mockito.anyListOf(String.class), Mockito.anyListOf(Device.class));
+        } finally {
+            DeviceManagementDataHolder.getInstance().setDeviceManagementProvider(this.deviceMgtProviderService);
+        }
+    }
+
+    private static List<Device> createDevices(int firstEnrolmentId, int count) {
+        List<Device> devices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+            enrolmentInfo.setId(firstEnrolmentId + i);
+            enrolmentInfo.setStatus(EnrolmentInfo.Status.ACTIVE);
+            Device device = new Device();
+            device.setDeviceIdentifier("paged-device-" + enrolmentInfo.getId());
+            device.setType(PAGED_DEVICE_TYPE);
+            device.setEnrolmentInfo(enrolmentInfo);
+            devices.add(device);
+        }
+        return devices;
+    }
+
     @AfterClass
     public void cleanup() throws DeviceManagementException {
         for (DeviceIdentifier deviceId: deviceIds) {
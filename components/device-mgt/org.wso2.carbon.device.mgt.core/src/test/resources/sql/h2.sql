@@ -408,6 +408,7 @@ CREATE TABLE IF NOT EXISTS DM_NOTIFICATION (
     CONSTRAINT fk_dm_operation_notification FOREIGN KEY (OPERATION_ID) REFERENCES
     DM_OPERATION (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
 );
+CREATE INDEX IF NOT EXISTS IDX_DM_NOTIF_TENANT_STATUS ON DM_NOTIFICATION(TENANT_ID, STATUS, NOTIFICATION_ID);
 -- NOTIFICATION TABLE END --
 
 CREATE TABLE IF NOT EXISTS DM_DEVICE_INFO (
@@ -22,6 +22,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.BulkDeviceManager;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
@@ -51,7 +52,6 @@ import org.wso2.carbon.registry.api.Resource;
 import org.wso2.carbon.utils.CarbonUtils;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
@@ -62,19 +62,21 @@ import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * This holds the implementation of the device manager. From which an instance of it will be created using the
  * deployer file.
  */
-public class DeviceTypeManager implements DeviceManager {
+public class DeviceTypeManager implements DeviceManager, BulkDeviceManager {
 
     private static final Log log = LogFactory.getLog(DeviceTypeManager.class);
     private String deviceType;
     private DeviceTypePluginDAOManager deviceTypePluginDAOManager;
     private LicenseManager licenseManager;
     private PlatformConfiguration defaultPlatformConfiguration;
+    private PlatformConfigurationCache platformConfigurationCache;
     private boolean propertiesExist;
     private boolean requiredDeviceTypeAuthorization;
     private boolean claimable;
@@ -88,6 +90,7 @@ public class DeviceTypeManager implements DeviceManager {
     public DeviceTypeManager(DeviceTypeConfigIdentifier deviceTypeConfigIdentifier,
                              DeviceTypeConfiguration deviceTypeConfiguration) {
         deviceType = deviceTypeConfigIdentifier.getDeviceType();
+        platformConfigurationCache = PlatformConfigurationCache.getInstance();
         if (deviceTypeConfiguration.getFeatures() != null && deviceTypeConfiguration.getFeatures().
                 getFeature() != null) {
             List<Feature> features = deviceTypeConfiguration.getFeatures().getFeature();
@@ -182,7 +185,8 @@ public class DeviceTypeManager implements DeviceManager {
                                 log.error("Exception occurred while initializing device management database schema", e);
                             }
                         }
-                        deviceTypePluginDAOManager = new DeviceTypePluginDAOManager(datasourceName, deviceDAODefinition);
+                        deviceTypePluginDAOManager = new DeviceTypePluginDAOManager(datasourceName,
+                                deviceDAODefinition, DeviceTypePluginDAOManager.getCacheSize(deviceDetails));
                     } else {
                         throw new DeviceTypeDeployerPayloadException("Invalid datasource name.");
                     }
@@ -215,14 +219,16 @@ public class DeviceTypeManager implements DeviceManager {
                 log.debug("Persisting " + deviceType + " configurations in Registry");
             }
             StringWriter writer = new StringWriter();
-            JAXBContext context = JAXBContext.newInstance(PlatformConfiguration.class);
-            Marshaller marshaller = context.createMarshaller();
+            Marshaller marshaller = DeviceTypeUtils.getPlatformConfigurationContext().createMarshaller();
             marshaller.marshal(tenantConfiguration, writer);
 
             Resource resource = DeviceTypeUtils.getConfigurationRegistry().newResource();
             resource.setContent(writer.toString());
             resource.setMediaType(DeviceTypePluginConstants.MEDIA_TYPE_XML);
             DeviceTypeUtils.putRegistryResource(deviceType, resource);
+            // The configuration is committed by now, so configurations read from here on will not be stale.
+            platformConfigurationCache.removeConfiguration(
+                    PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(), deviceType);
             return true;
         } catch (DeviceTypeMgtPluginException e) {
             throw new DeviceManagementException(
@@ -239,6 +245,26 @@ public class DeviceTypeManager implements DeviceManager {
 
     @Override
     public PlatformConfiguration getConfiguration() throws DeviceManagementException {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        PlatformConfigurationCache.Entry entry = platformConfigurationCache.getEntry(tenantId, deviceType);
+        PlatformConfiguration configuration;
+        if (entry != null) {
+            configuration = entry.getConfiguration();
+        } else {
+            long cacheGeneration = platformConfigurationCache.getGeneration();
+            configuration = this.getSavedConfiguration();
+            platformConfigurationCache.putConfiguration(tenantId, deviceType, configuration, cacheGeneration);
+        }
+        if (configuration != null) {
+            return configuration;
+        }
+        return defaultPlatformConfiguration;
+    }
+
+    /**
+     * @return the platform configuration saved in the registry of the tenant, or null if there is none.
+     */
+    private PlatformConfiguration getSavedConfiguration() throws DeviceManagementException {
         Resource resource;
         try {
             resource = DeviceTypeUtils.getRegistryResource(deviceType);
@@ -250,11 +276,8 @@ public class DeviceTypeManager implements DeviceManager {
                         new StringReader(new String((byte[]) resource.getContent(), Charset
                                 .forName(DeviceTypePluginConstants.CHARSET_UTF8))));
 
-                JAXBContext context = JAXBContext.newInstance(PlatformConfiguration.class);
-                Unmarshaller unmarshaller = context.createUnmarshaller();
+                Unmarshaller unmarshaller = DeviceTypeUtils.getPlatformConfigurationContext().createUnmarshaller();
                 return (PlatformConfiguration) unmarshaller.unmarshal(reader);
-            } else if (defaultPlatformConfiguration != null) {
-                return defaultPlatformConfiguration;
             }
             return null;
         } catch (DeviceTypeMgtPluginException e) {
@@ -300,6 +323,8 @@ public class DeviceTypeManager implements DeviceManager {
                 }
                 String msg = "Error while enrolling the " + deviceType + " device : " + device.getDeviceIdentifier();
                 throw new DeviceManagementException(msg, e);
+            } finally {
+                deviceTypePluginDAOManager.evictDevice(device.getDeviceIdentifier());
             }
             return status;
         }
@@ -328,6 +353,8 @@ public class DeviceTypeManager implements DeviceManager {
                 String msg = "Error while updating the enrollment of the " + deviceType + " device : " +
                         device.getDeviceIdentifier();
                 throw new DeviceManagementException(msg, e);
+            } finally {
+                deviceTypePluginDAOManager.evictDevice(device.getDeviceIdentifier());
             }
             return status;
         }
@@ -351,7 +378,6 @@ public class DeviceTypeManager implements DeviceManager {
                 if (log.isDebugEnabled()) {
                     log.debug("Checking the enrollment of Android device : " + deviceId.getId());
                 }
-                deviceTypePluginDAOManager.getDeviceTypeDAOHandler().beginTransaction();
                 Device device =
                         deviceTypePluginDAOManager.getDeviceDAO().getDevice(deviceId.getId());
                 if (device != null) {
@@ -397,7 +423,6 @@ public class DeviceTypeManager implements DeviceManager {
                 if (log.isDebugEnabled()) {
                     log.debug("Getting the details of " + deviceType + " device : '" + deviceId.getId() + "'");
                 }
-                deviceTypePluginDAOManager.getDeviceTypeDAOHandler().beginTransaction();
                 device = deviceTypePluginDAOManager.getDeviceDAO().getDevice(deviceId.getId());
             } catch (DeviceTypeMgtPluginException e) {
                 throw new DeviceManagementException(
@@ -415,6 +440,35 @@ public class DeviceTypeManager implements DeviceManager {
         return null;
     }
 
+    @Override
+    public List<Device> getDevices(List<DeviceIdentifier> deviceIds) throws DeviceManagementException {
+        if (deviceIds == null) {
+            throw new DeviceManagementException("Cannot get the devices. DeviceIdentifier list is null");
+        }
+        if (propertiesExist) {
+            List<String> ids = new ArrayList<>(deviceIds.size());
+            for (DeviceIdentifier deviceId : deviceIds) {
+                ids.add(deviceId.getId());
+            }
+            try {
+                if (log.isDebugEnabled()) {
+                    log.debug("Getting the details of " + ids.size() + " " + deviceType + " devices");
+                }
+                return deviceTypePluginDAOManager.getDeviceDAO().getDevices(ids);
+            } catch (DeviceTypeMgtPluginException e) {
+                throw new DeviceManagementException(
+                        "Error occurred while fetching " + ids.size() + " " + deviceType + " devices", e);
+            } finally {
+                try {
+                    deviceTypePluginDAOManager.getDeviceTypeDAOHandler().closeConnection();
+                } catch (DeviceTypeMgtPluginException e) {
+                    log.warn("Error occurred while closing the connection to get " + ids.size() + " devices", e);
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public boolean updateDeviceProperties(DeviceIdentifier deviceId, List<Device.Property> propertyList)
             throws DeviceManagementException {
@@ -439,6 +493,8 @@ public class DeviceTypeManager implements DeviceManager {
                 }
                 throw new DeviceManagementException(
                         "Error occurred while fetching the " + deviceType + " device: '" + deviceId.getId() + "'", e);
+            } finally {
+                deviceTypePluginDAOManager.evictDevice(deviceId.getId());
             }
         }
         return status;
@@ -489,8 +545,7 @@ public class DeviceTypeManager implements DeviceManager {
 
             if (platformConfig.exists()) {
                 Document doc = DeviceTypeUtils.convertToDocument(platformConfig);
-                JAXBContext context = JAXBContext.newInstance(PlatformConfiguration.class);
-                Unmarshaller unmarshaller = context.createUnmarshaller();
+                Unmarshaller unmarshaller = DeviceTypeUtils.getPlatformConfigurationContext().createUnmarshaller();
                 return (PlatformConfiguration) unmarshaller.unmarshal(doc);
             } else {
                 log.warn(deviceType + "-default-platform-configuration.xml is not available, hence default " +
@@ -537,6 +592,8 @@ public class DeviceTypeManager implements DeviceManager {
                 throw new DeviceManagementException(
                         "Error occurred while updating the " + deviceType + " device: '" +
                                 device.getDeviceIdentifier() + "'", e);
+            } finally {
+                deviceTypePluginDAOManager.evictDevice(existingDevice.getDeviceIdentifier());
             }
             return status;
         }
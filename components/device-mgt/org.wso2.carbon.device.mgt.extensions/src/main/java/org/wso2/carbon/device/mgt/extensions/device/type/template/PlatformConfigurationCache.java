@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.device.type.template;
+
+import org.wso2.carbon.device.mgt.common.configuration.mgt.ConfigurationEntry;
+import org.wso2.carbon.device.mgt.common.configuration.mgt.PlatformConfiguration;
+
+import javax.cache.Cache;
+import javax.cache.Caching;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the platform configurations saved in the registry for each tenant, keyed by device type, so that agents
+ * fetching the configuration do not read and parse the registry resource every time. The absence of a saved
+ * configuration is cached as well. Configurations are kept in a tenant scoped, cluster aware cache, so that a
+ * configuration saved on one node is dropped on the other nodes, and the entries expire after the default expiry of
+ * the caching implementation so that configurations edited directly in the registry are picked up. An entry is
+ * dropped once a configuration saved for its device type is written to the registry.
+ */
+public class PlatformConfigurationCache {
+
+    public static final String PLATFORM_CONFIGURATION_CACHE_MANAGER = "platformConfigurationCacheManager";
+    public static final String PLATFORM_CONFIGURATION_CACHE = "platformConfigurationCache";
+
+    private static final PlatformConfigurationCache instance = new PlatformConfigurationCache();
+
+    /**
+     * Incremented whenever a configuration is dropped, so that a configuration read from the registry before it was
+     * saved is not put into the cache after it was dropped.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    PlatformConfigurationCache() {
+    }
+
+    public static PlatformConfigurationCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the cached entry of the platform configuration of the given device type.
+     *
+     * @param tenantId   tenant the configuration belongs to.
+     * @param deviceType device type of the configuration.
+     * @return the cached entry, or null if the configuration is not cached.
+     */
+    public Entry getEntry(int tenantId, String deviceType) {
+        return getConfigurationCache().get(getKey(tenantId, deviceType));
+    }
+
+    /**
+     * Returns the current generation of the cached configurations, which has to be taken before reading a
+     * configuration from the registry and handed over to
+     * {@link #putConfiguration(int, String, PlatformConfiguration, long)}.
+     *
+     * @return the current generation.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the platform configuration of the given device type, unless a configuration was dropped after the
+     * configuration was read.
+     *
+     * @param tenantId       tenant the configuration belongs to.
+     * @param deviceType     device type of the configuration.
+     * @param configuration  configuration to be cached, null if the configuration is not saved in the registry.
+     * @param readGeneration generation taken before the configuration was read.
+     */
+    public void putConfiguration(int tenantId, String deviceType, PlatformConfiguration configuration,
+                                 long readGeneration) {
+        if (readGeneration != generation.get()) {
+            return;
+        }
+        Cache<String, Entry> configurationCache = getConfigurationCache();
+        configurationCache.put(getKey(tenantId, deviceType), new Entry(copyOf(configuration)));
+        // A configuration may have been dropped between the check and the put, in which case the put may be stale.
+        if (readGeneration != generation.get()) {
+            configurationCache.remove(getKey(tenantId, deviceType));
+        }
+    }
+
+    /**
+     * Drops the cached platform configuration of the given device type. This has to be called once a configuration
+     * of the device type is written to the registry.
+     *
+     * @param tenantId   tenant the configuration belongs to.
+     * @param deviceType device type of the configuration.
+     */
+    public void removeConfiguration(int tenantId, String deviceType) {
+        generation.incrementAndGet();
+        getConfigurationCache().remove(getKey(tenantId, deviceType));
+    }
+
+    /**
+     * Returns a copy of the given configuration, so that a cached configuration is not changed by its callers. The
+     * values of the configuration entries are shared, as they are not changed in place.
+     *
+     * @param configuration configuration to be copied.
+     * @return a copy of the configuration, or null if the configuration is null.
+     */
+    public static PlatformConfiguration copyOf(PlatformConfiguration configuration) {
+        if (configuration == null) {
+            return null;
+        }
+        PlatformConfiguration copy = new PlatformConfiguration();
+        copy.setType(configuration.getType());
+        if (configuration.getConfiguration() != null) {
+            List<ConfigurationEntry> entries = new ArrayList<>(configuration.getConfiguration().size());
+            for (ConfigurationEntry configurationEntry : configuration.getConfiguration()) {
+                ConfigurationEntry entryCopy = new ConfigurationEntry();
+                entryCopy.setName(configurationEntry.getName());
+                entryCopy.setContentType(configurationEntry.getContentType());
+                entryCopy.setValue(configurationEntry.getValue());
+                entries.add(entryCopy);
+            }
+            copy.setConfiguration(entries);
+        }
+        return copy;
+    }
+
+    private static String getKey(int tenantId, String deviceType) {
+        return tenantId + ":" + deviceType;
+    }
+
+    Cache<String, Entry> getConfigurationCache() {
+        return Caching.getCacheManagerFactory().getCacheManager(PLATFORM_CONFIGURATION_CACHE_MANAGER)
+                .getCache(PLATFORM_CONFIGURATION_CACHE);
+    }
+
+    /**
+     * Cached platform configuration of a device type.
+     */
+    public static class Entry {
+
+        private final PlatformConfiguration configuration;
+
+        Entry(PlatformConfiguration configuration) {
+            this.configuration = configuration;
+        }
+
+        /**
+         * @return a copy of the cached configuration, or null if the configuration is not saved in the registry.
+         */
+        public PlatformConfiguration getConfiguration() {
+            return copyOf(configuration);
+        }
+    }
+
+}
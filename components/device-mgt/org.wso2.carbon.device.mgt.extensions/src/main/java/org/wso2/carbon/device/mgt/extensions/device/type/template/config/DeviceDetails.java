@@ -35,6 +35,7 @@ import javax.xml.bind.annotation.XmlType;
  *   &lt;simpleContent>
  *     &lt;extension base="&lt;http://www.w3.org/2001/XMLSchema>string">
  *       &lt;attribute name="table-id" type="{http://www.w3.org/2001/XMLSchema}string" />
+ *       &lt;attribute name="cache-size" type="{http://www.w3.org/2001/XMLSchema}int" />
  *     &lt;/extension>
  *   &lt;/simpleContent>
  * &lt;/complexType>
@@ -50,6 +51,8 @@ public class DeviceDetails {
 
     @XmlAttribute(name = "table-id")
     protected String tableId;
+    @XmlAttribute(name = "cache-size")
+    protected Integer cacheSize;
     @XmlElement(name = "Properties", required = true)
     protected Properties properties;
 
@@ -77,6 +80,31 @@ public class DeviceDetails {
         this.tableId = value;
     }
 
+    /**
+     * Gets the value of the cacheSize property, the maximum number of devices whose properties are cached. The
+     * properties are not cached if it is not set or set to 0.
+     *
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *
+     */
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets the value of the cacheSize property.
+     *
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *
+     */
+    public void setCacheSize(Integer value) {
+        this.cacheSize = value;
+    }
+
     /**
      * Gets the value of the properties property.
      *
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.device.type.template.dao;
+
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.exception.DeviceTypeMgtPluginException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the plugin properties of the devices of a device type read through the wrapped DAO, so that devices read over
+ * and over, e.g. by device lists and push notification strategies, do not cost a query every time.
+ * <p>
+ * The devices are kept in a bounded LRU map keyed by tenant and device identifier. The entry of a device has to be
+ * dropped through {@link #evict(String)} once the transaction adding or updating the device ends, as an entry dropped
+ * earlier could be filled again with the data read before the change is committed. Devices read before an eviction
+ * are not cached once the eviction happened, so that a read racing with the change does not outlive the eviction.
+ * Entries expire after a while, so that changes made by other nodes are picked up. The absence of a device is not
+ * cached, so that a device is found as soon as it is enrolled.
+ */
+public class CachedPluginDAO implements PluginDAO {
+
+    private static final long DEVICE_TTL = 5 * 60 * 1000L;
+
+    private final PluginDAO pluginDAO;
+    private final Map<String, Entry> devices;
+    /**
+     * Incremented whenever a device is evicted, so that a device read from the wrapped DAO before an eviction is not
+     * put into the cache after the eviction.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param pluginDAO  DAO the devices are read from and written to.
+     * @param maxDevices maximum number of devices kept in the cache.
+     */
+    public CachedPluginDAO(PluginDAO pluginDAO, final int maxDevices) {
+        this.pluginDAO = pluginDAO;
+        this.devices = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxDevices;
+            }
+        });
+    }
+
+    @Override
+    public Device getDevice(String deviceId) throws DeviceTypeMgtPluginException {
+        String key = getKey(deviceId);
+        Device device = getCachedDevice(key);
+        if (device == null) {
+            long readGeneration = generation.get();
+            device = pluginDAO.getDevice(deviceId);
+            if (device != null) {
+                cacheDevice(key, device, readGeneration);
+            }
+        }
+        return device;
+    }
+
+    @Override
+    public List<Device> getDevices(List<String> deviceIds) throws DeviceTypeMgtPluginException {
+        Map<String, Device> foundDevices = new HashMap<>();
+        List<String> missingDeviceIds = new ArrayList<>();
+        for (String deviceId : deviceIds) {
+            Device device = getCachedDevice(getKey(deviceId));
+            if (device != null) {
+                foundDevices.put(deviceId, device);
+            } else {
+                missingDeviceIds.add(deviceId);
+            }
+        }
+        if (!missingDeviceIds.isEmpty()) {
+            long readGeneration = generation.get();
+            for (Device device : pluginDAO.getDevices(missingDeviceIds)) {
+                cacheDevice(getKey(device.getDeviceIdentifier()), device, readGeneration);
+                foundDevices.put(device.getDeviceIdentifier(), device);
+            }
+        }
+        List<Device> result = new ArrayList<>(foundDevices.size());
+        for (String deviceId : deviceIds) {
+            Device device = foundDevices.remove(deviceId);
+            if (device != null) {
+                result.add(device);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addDevice(Device device) throws DeviceTypeMgtPluginException {
+        return pluginDAO.addDevice(device);
+    }
+
+    @Override
+    public boolean updateDevice(Device device) throws DeviceTypeMgtPluginException {
+        return pluginDAO.updateDevice(device);
+    }
+
+    @Override
+    public List<Device> getAllDevices() throws DeviceTypeMgtPluginException {
+        return pluginDAO.getAllDevices();
+    }
+
+    /**
+     * Drops the cached plugin data of a device of the current tenant.
+     *
+     * @param deviceId identifier of the device.
+     */
+    public void evict(String deviceId) {
+        generation.incrementAndGet();
+        devices.remove(getKey(deviceId));
+    }
+
+    /**
+     * Caches a device read from the wrapped DAO, unless a device was evicted after it was read. The check and the put
+     * are done holding the lock of the map, so an eviction either skips the put or removes the device put.
+     *
+     * @param readGeneration generation taken before the device was read.
+     */
+    private void cacheDevice(String key, Device device, long readGeneration) {
+        synchronized (devices) {
+            if (readGeneration == generation.get()) {
+                devices.put(key, new Entry(copyOf(device)));
+            }
+        }
+    }
+
+    private Device getCachedDevice(String key) {
+        Entry entry = devices.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            devices.remove(key);
+            return null;
+        }
+        return copyOf(entry.device);
+    }
+
+    private static String getKey(String deviceId) {
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true) + ":" + deviceId;
+    }
+
+    /**
+     * Returns a copy of the given device, so that a cached device is not changed by its callers.
+     */
+    private static Device copyOf(Device device) {
+        Device copy = new Device();
+        copy.setDeviceIdentifier(device.getDeviceIdentifier());
+        copy.setType(device.getType());
+        if (device.getProperties() != null) {
+            List<Device.Property> properties = new ArrayList<>(device.getProperties().size());
+            for (Device.Property property : device.getProperties()) {
+                Device.Property propertyCopy = new Device.Property();
+                propertyCopy.setName(property.getName());
+                propertyCopy.setValue(property.getValue());
+                properties.add(propertyCopy);
+            }
+            copy.setProperties(properties);
+        }
+        return copy;
+    }
+
+    private static class Entry {
+
+        private final Device device;
+        private final long expiryTime;
+
+        Entry(Device device) {
+            this.device = device;
+            this.expiryTime = System.currentTimeMillis() + DEVICE_TTL;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiryTime;
+        }
+    }
+
+}
@@ -39,12 +39,14 @@ import java.util.List;
 public class DeviceTypePluginDAOImpl implements PluginDAO {
 
     private static final Log log = LogFactory.getLog(DeviceTypePluginDAOImpl.class);
+    private static final int MAX_DEVICES_PER_QUERY = 100;
     private DeviceTypeDAOHandler deviceTypeDAOHandler;
     private DeviceDAODefinition deviceDAODefinition;
     private String selectDBQueryForGetDevice;
     private String createDBqueryForAddDevice;
     private String updateDBQueryForUpdateDevice;
     private String selectDBQueryToGetAllDevice;
+    private String selectDBQueryForGetDevices;
 
     public DeviceTypePluginDAOImpl(DeviceDAODefinition deviceDAODefinition,
                                    DeviceTypeDAOHandler deviceTypeDAOHandler) {
@@ -94,6 +96,46 @@ public class DeviceTypePluginDAOImpl implements PluginDAO {
         return device;
     }
 
+    public List<Device> getDevices(List<String> deviceIds) throws DeviceTypeMgtPluginException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        List<Device> devices = new ArrayList<>();
+        try {
+            conn = deviceTypeDAOHandler.getConnection();
+            for (int start = 0; start < deviceIds.size(); start += MAX_DEVICES_PER_QUERY) {
+                List<String> chunk = deviceIds.subList(start,
+                        Math.min(start + MAX_DEVICES_PER_QUERY, deviceIds.size()));
+                stmt = conn.prepareStatement(selectDBQueryForGetDevices + "(" +
+                        getPreparedInputString(chunk.size()) + ")");
+                int index = 1;
+                for (String deviceId : chunk) {
+                    stmt.setString(index++, deviceId);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    devices.add(this.getDevice(resultSet));
+                }
+                DeviceTypeUtils.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(devices.size() + " of " + deviceIds.size() + " devices have been fetched from " +
+                        deviceDAODefinition.getDeviceTableName() + " database.");
+            }
+            return devices;
+        } catch (SQLException e) {
+            String msg = "Error occurred while fetching " + deviceIds.size() + " devices from " +
+                    deviceDAODefinition.getDeviceTableName();
+            log.error(msg, e);
+            throw new DeviceTypeMgtPluginException(msg, e);
+        } finally {
+            DeviceTypeUtils.cleanupResources(stmt, resultSet);
+            deviceTypeDAOHandler.closeConnection();
+        }
+    }
+
     public boolean addDevice(Device device) throws DeviceTypeMgtPluginException {
         boolean status = false;
         Connection conn = null;
@@ -161,24 +203,13 @@ public class DeviceTypePluginDAOImpl implements PluginDAO {
         Connection conn;
         PreparedStatement stmt = null;
         ResultSet resultSet = null;
-        Device device;
         List<Device> devices = new ArrayList<>();
         try {
             conn = deviceTypeDAOHandler.getConnection();
             stmt = conn.prepareStatement(selectDBQueryToGetAllDevice);
             resultSet = stmt.executeQuery();
             while (resultSet.next()) {
-                device = new Device();
-                device.setDeviceIdentifier(resultSet.getString(deviceDAODefinition.getPrimaryKey()));
-                List<Device.Property> properties = new ArrayList<>();
-                for (String columnName : deviceDAODefinition.getColumnNames()) {
-                    Device.Property property = new Device.Property();
-                    property.setName(columnName);
-                    property.setValue(resultSet.getString(columnName));
-                    properties.add(property);
-                }
-                device.setProperties(properties);
-                devices.add(device);
+                devices.add(this.getDevice(resultSet));
             }
             if (log.isDebugEnabled()) {
                 log.debug(
@@ -196,6 +227,20 @@ public class DeviceTypePluginDAOImpl implements PluginDAO {
         }
     }
 
+    private Device getDevice(ResultSet resultSet) throws SQLException {
+        Device device = new Device();
+        device.setDeviceIdentifier(resultSet.getString(deviceDAODefinition.getPrimaryKey()));
+        List<Device.Property> properties = new ArrayList<>();
+        for (String columnName : deviceDAODefinition.getColumnNames()) {
+            Device.Property property = new Device.Property();
+            property.setName(columnName);
+            property.setValue(resultSet.getString(columnName));
+            properties.add(property);
+        }
+        device.setProperties(properties);
+        return device;
+    }
+
     private String getDeviceTableColumnNames() {
         return StringUtils.join(deviceDAODefinition.getColumnNames(), ", ");
     }
@@ -239,5 +284,8 @@ public class DeviceTypePluginDAOImpl implements PluginDAO {
         selectDBQueryToGetAllDevice =
                 "SELECT " + getDeviceTableColumnNames() + "," + deviceDAODefinition.getPrimaryKey() + " FROM "
                         + deviceDAODefinition.getDeviceTableName();
+
+        selectDBQueryForGetDevices = selectDBQueryToGetAllDevice + " WHERE " + deviceDAODefinition.getPrimaryKey()
+                + " IN ";
     }
 }
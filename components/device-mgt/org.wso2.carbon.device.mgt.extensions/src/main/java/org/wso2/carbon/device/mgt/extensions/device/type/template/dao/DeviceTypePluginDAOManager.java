@@ -28,10 +28,22 @@ public class DeviceTypePluginDAOManager {
     private PluginDAO deviceTypePluginDAO;
     private DeviceTypeDAOHandler deviceTypeDAOHandler;
     private static final String DEFAULT_DATASOURCE_NAME = "jdbc/DM_DS";
+    private static final int DEFAULT_CACHE_SIZE = 0;
 
     public DeviceTypePluginDAOManager(String datasourceName, DeviceDAODefinition deviceDAODefinition) {
+        this(datasourceName, deviceDAODefinition, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param datasourceName      name of the datasource holding the device table.
+     * @param deviceDAODefinition definition of the device table.
+     * @param cacheSize           maximum number of devices to be cached, 0 to read the devices from the table always.
+     */
+    public DeviceTypePluginDAOManager(String datasourceName, DeviceDAODefinition deviceDAODefinition,
+                                      int cacheSize) {
         deviceTypeDAOHandler = new DeviceTypeDAOHandler(datasourceName);
-        deviceTypePluginDAO = new DeviceTypePluginDAOImpl(deviceDAODefinition, deviceTypeDAOHandler);
+        deviceTypePluginDAO = withCache(new DeviceTypePluginDAOImpl(deviceDAODefinition, deviceTypeDAOHandler),
+                cacheSize);
     }
 
     public DeviceTypePluginDAOManager(String deviceType, DeviceDetails deviceDetails) {
@@ -43,13 +55,39 @@ public class DeviceTypePluginDAOManager {
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
-        deviceTypePluginDAO = new PropertyBasedPluginDAOImpl(deviceDetails, deviceTypeDAOHandler, deviceType);
+        PluginDAO pluginDAO = new PropertyBasedPluginDAOImpl(deviceDetails, deviceTypeDAOHandler, deviceType);
+        deviceTypePluginDAO = withCache(pluginDAO, getCacheSize(deviceDetails));
+    }
+
+    /**
+     * @param deviceDetails device details of the device type configuration.
+     * @return the maximum number of devices to be cached. Devices are not cached unless the device type sets a cache
+     * size, as the cache is local to each node and picks up changes made by other nodes only once its entries expire.
+     */
+    public static int getCacheSize(DeviceDetails deviceDetails) {
+        return deviceDetails.getCacheSize() == null ? DEFAULT_CACHE_SIZE : deviceDetails.getCacheSize();
+    }
+
+    private static PluginDAO withCache(PluginDAO pluginDAO, int cacheSize) {
+        return cacheSize > 0 ? new CachedPluginDAO(pluginDAO, cacheSize) : pluginDAO;
     }
 
     public PluginDAO getDeviceDAO() {
         return deviceTypePluginDAO;
     }
 
+    /**
+     * Drops the cached plugin data of a device. This has to be called once a transaction which added or updated the
+     * device is committed or rolled back, so that the device is not cached with data read before the change.
+     *
+     * @param deviceId identifier of the device.
+     */
+    public void evictDevice(String deviceId) {
+        if (deviceTypePluginDAO instanceof CachedPluginDAO) {
+            ((CachedPluginDAO) deviceTypePluginDAO).evict(deviceId);
+        }
+    }
+
     public DeviceTypeDAOHandler getDeviceTypeDAOHandler() {
         return deviceTypeDAOHandler;
     }
@@ -26,6 +26,15 @@ public interface PluginDAO {
 
     Device getDevice(String deviceId) throws DeviceTypeMgtPluginException;
 
+    /**
+     * Returns the devices having the given identifiers, read with as few queries as possible.
+     *
+     * @param deviceIds identifiers of the devices.
+     * @return the devices found, devices which do not exist are not included.
+     * @throws DeviceTypeMgtPluginException if the devices could not be read.
+     */
+    List<Device> getDevices(List<String> deviceIds) throws DeviceTypeMgtPluginException;
+
     boolean addDevice(Device device) throws DeviceTypeMgtPluginException;
 
     boolean updateDevice(Device device) throws DeviceTypeMgtPluginException;
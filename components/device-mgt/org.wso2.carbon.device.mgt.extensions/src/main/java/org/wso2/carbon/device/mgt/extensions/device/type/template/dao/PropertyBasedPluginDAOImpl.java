@@ -33,6 +33,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -48,6 +49,8 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
     private String deviceType;
     private static final String PROPERTY_KEY_COLUMN_NAME = "PROPERTY_NAME";
     private static final String PROPERTY_VALUE_COLUMN_NAME = "PROPERTY_VALUE";
+    private static final String DEVICE_ID_COLUMN_NAME = "DEVICE_IDENTIFICATION";
+    private static final int MAX_DEVICES_PER_QUERY = 100;
 
     public PropertyBasedPluginDAOImpl(DeviceDetails deviceDetails,
                                       DeviceTypeDAOHandler deviceTypeDAOHandler, String deviceType) {
@@ -95,6 +98,52 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
         return device;
     }
 
+    public List<Device> getDevices(List<String> deviceIds) throws DeviceTypeMgtPluginException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<String, Device> deviceMap = new LinkedHashMap<>();
+        try {
+            conn = deviceTypeDAOHandler.getConnection();
+            int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true);
+            for (int start = 0; start < deviceIds.size(); start += MAX_DEVICES_PER_QUERY) {
+                List<String> chunk = deviceIds.subList(start,
+                        Math.min(start + MAX_DEVICES_PER_QUERY, deviceIds.size()));
+                StringBuilder sql = new StringBuilder("SELECT DEVICE_IDENTIFICATION, PROPERTY_NAME, PROPERTY_VALUE " +
+                        "FROM DM_DEVICE_PROPERTIES WHERE DEVICE_TYPE_NAME = ? AND TENANT_ID = ? AND " +
+                        "DEVICE_IDENTIFICATION IN (?");
+                for (int i = 1; i < chunk.size(); i++) {
+                    sql.append(", ?");
+                }
+                sql.append(")");
+                stmt = conn.prepareStatement(sql.toString());
+                int index = 1;
+                stmt.setString(index++, deviceType);
+                stmt.setInt(index++, tenantId);
+                for (String deviceId : chunk) {
+                    stmt.setString(index++, deviceId);
+                }
+                resultSet = stmt.executeQuery();
+                this.addProperties(resultSet, deviceMap);
+                DeviceTypeUtils.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(deviceMap.size() + " of " + deviceIds.size() + " devices have been fetched from " +
+                        deviceType + " device properties.");
+            }
+            return new ArrayList<>(deviceMap.values());
+        } catch (SQLException e) {
+            String msg = "Error occurred while fetching " + deviceIds.size() + " devices of type " + deviceType;
+            log.error(msg, e);
+            throw new DeviceTypeMgtPluginException(msg, e);
+        } finally {
+            DeviceTypeUtils.cleanupResources(stmt, resultSet);
+            deviceTypeDAOHandler.closeConnection();
+        }
+    }
+
     public boolean addDevice(Device device) throws DeviceTypeMgtPluginException {
         boolean status = false;
         Connection conn = null;
@@ -169,22 +218,7 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
             stmt.setString(1, deviceType);
             stmt.setInt(2, PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true));
             resultSet = stmt.executeQuery();
-            while (resultSet.next()) {
-                String deviceId = resultSet.getString("DEVICE_IDENTIFICATION");
-                Device deviceInMap = deviceMap.get(deviceId);
-                if (deviceInMap == null) {
-                    deviceInMap = new Device();
-                    deviceInMap.setDeviceIdentifier(deviceId);
-                    deviceInMap.setType(deviceType);
-                    List<Device.Property> properties = new ArrayList<>();
-                    deviceInMap.setProperties(properties);
-                    deviceMap.put(deviceId, deviceInMap);
-                }
-                Device.Property prop = new Device.Property();
-                prop.setName(resultSet.getString(PROPERTY_KEY_COLUMN_NAME));
-                prop.setName(resultSet.getString(PROPERTY_VALUE_COLUMN_NAME));
-                deviceInMap.getProperties().add(prop);
-            }
+            this.addProperties(resultSet, deviceMap);
             if (log.isDebugEnabled()) {
                 log.debug(
                         "All device details have fetched from " + deviceType + " table.");
@@ -201,6 +235,29 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
         }
     }
 
+    /**
+     * Adds the properties read from the given result set to the devices they belong to, creating the devices which
+     * are not in the map yet.
+     */
+    private void addProperties(ResultSet resultSet, Map<String, Device> deviceMap) throws SQLException {
+        while (resultSet.next()) {
+            String deviceId = resultSet.getString(DEVICE_ID_COLUMN_NAME);
+            Device deviceInMap = deviceMap.get(deviceId);
+            if (deviceInMap == null) {
+                deviceInMap = new Device();
+                deviceInMap.setDeviceIdentifier(deviceId);
+                deviceInMap.setType(deviceType);
+                List<Device.Property> properties = new ArrayList<>();
+                deviceInMap.setProperties(properties);
+                deviceMap.put(deviceId, deviceInMap);
+            }
+            Device.Property prop = new Device.Property();
+            prop.setName(resultSet.getString(PROPERTY_KEY_COLUMN_NAME));
+            prop.setValue(resultSet.getString(PROPERTY_VALUE_COLUMN_NAME));
+            deviceInMap.getProperties().add(prop);
+        }
+    }
+
     private String getPropertyValue(List<Device.Property> properties, String propertyName) {
         for (Device.Property property : properties) {
             if (property.getName() != null && property.getName().equals(propertyName)) {
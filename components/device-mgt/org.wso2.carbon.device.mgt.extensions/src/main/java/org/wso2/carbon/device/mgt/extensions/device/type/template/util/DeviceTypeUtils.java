@@ -22,6 +22,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.configuration.mgt.PlatformConfiguration;
 import org.wso2.carbon.device.mgt.extensions.device.type.template.exception.DeviceTypeMgtPluginException;
 import org.wso2.carbon.device.mgt.extensions.internal.DeviceTypeExtensionDataHolder;
 import org.wso2.carbon.registry.api.RegistryException;
@@ -33,6 +34,8 @@ import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.sql.DataSource;
 import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.File;
@@ -47,6 +50,7 @@ import java.sql.SQLException;
 public class DeviceTypeUtils {
 
     private static Log log = LogFactory.getLog(DeviceTypeUtils.class);
+    private static volatile JAXBContext platformConfigurationContext;
 
     public static void cleanupResources(Connection conn, PreparedStatement stmt, ResultSet rs) {
         if (rs != null) {
@@ -137,6 +141,24 @@ public class DeviceTypeUtils {
         }
     }
 
+    /**
+     * Returns the JAXB context of platform configurations, which is created once and shared, as it is thread safe.
+     * Marshallers and unmarshallers created from it are not, and should not be shared.
+     *
+     * @return JAXB context bound to {@link PlatformConfiguration}.
+     * @throws JAXBException if the context could not be created.
+     */
+    public static JAXBContext getPlatformConfigurationContext() throws JAXBException {
+        if (platformConfigurationContext == null) {
+            synchronized (DeviceTypeUtils.class) {
+                if (platformConfigurationContext == null) {
+                    platformConfigurationContext = JAXBContext.newInstance(PlatformConfiguration.class);
+                }
+            }
+        }
+        return platformConfigurationContext;
+    }
+
     public static Document convertToDocument(File file) throws DeviceTypeMgtPluginException {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
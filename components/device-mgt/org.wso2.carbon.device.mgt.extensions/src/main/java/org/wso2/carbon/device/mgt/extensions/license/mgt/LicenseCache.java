@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.license.mgt;
+
+import org.wso2.carbon.device.mgt.common.license.mgt.License;
+
+import javax.cache.Cache;
+import javax.cache.Caching;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the licenses of each tenant, keyed by device type and language, so that enrolments do not search the
+ * registry for the license every time. The absence of a license is cached as well. Licenses are kept in a tenant
+ * scoped, cluster aware cache, which expires the entries after the default expiry of the caching implementation so
+ * that licenses edited directly in the registry are picked up. The cache of a tenant is cleared once a license added
+ * by the tenant is written to the registry.
+ */
+public class LicenseCache {
+
+    public static final String LICENSE_CACHE_MANAGER = "licenseCacheManager";
+    public static final String LICENSE_CACHE = "licenseCache";
+
+    private static final LicenseCache instance = new LicenseCache();
+
+    /**
+     * Incremented whenever the licenses are cleared, so that a license read from the registry before a clear is not
+     * put into the cache after the clear.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    LicenseCache() {
+    }
+
+    public static LicenseCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the cached entry of the license of the given device type and language.
+     *
+     * @param tenantId     tenant the license belongs to.
+     * @param deviceType   device type of the license.
+     * @param languageCode language of the license.
+     * @return the cached entry, or null if the license is not cached.
+     */
+    public Entry getEntry(int tenantId, String deviceType, String languageCode) {
+        return getLicenseCache().get(getKey(tenantId, deviceType, languageCode));
+    }
+
+    /**
+     * Returns the current generation of the cached licenses, which has to be taken before reading a license from the
+     * registry and handed over to {@link #putLicense(int, String, String, License, long)}.
+     *
+     * @return the current generation.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the license of the given device type and language, unless the licenses were cleared after the license
+     * was read.
+     *
+     * @param tenantId       tenant the license belongs to.
+     * @param deviceType     device type of the license.
+     * @param languageCode   language of the license.
+     * @param license        license to be cached, null if the device type does not have a license in the language.
+     * @param readGeneration generation taken before the license was read.
+     */
+    public void putLicense(int tenantId, String deviceType, String languageCode, License license,
+                           long readGeneration) {
+        if (readGeneration != generation.get()) {
+            return;
+        }
+        Cache<String, Entry> licenseCache = getLicenseCache();
+        licenseCache.put(getKey(tenantId, deviceType, languageCode), new Entry(copyOf(license)));
+        // A clear may have happened between the check and the put, in which case the license put may be stale.
+        if (readGeneration != generation.get()) {
+            licenseCache.remove(getKey(tenantId, deviceType, languageCode));
+        }
+    }
+
+    /**
+     * Drops the cached licenses of the tenant of the current carbon context. This has to be called once a license
+     * change is written to the registry.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        getLicenseCache().removeAll();
+    }
+
+    /**
+     * Returns a copy of the given license, so that a cached license is not changed by its callers.
+     *
+     * @param license license to be copied.
+     * @return a copy of the license, or null if the license is null.
+     */
+    public static License copyOf(License license) {
+        if (license == null) {
+            return null;
+        }
+        License copy = new License();
+        copy.setProvider(license.getProvider());
+        copy.setName(license.getName());
+        copy.setVersion(license.getVersion());
+        copy.setLanguage(license.getLanguage());
+        copy.setText(license.getText());
+        if (license.getValidFrom() != null) {
+            copy.setValidFrom(new Date(license.getValidFrom().getTime()));
+        }
+        if (license.getValidTo() != null) {
+            copy.setValidTo(new Date(license.getValidTo().getTime()));
+        }
+        return copy;
+    }
+
+    private static String getKey(int tenantId, String deviceType, String languageCode) {
+        // Licenses are matched ignoring the case of the device type and the language.
+        return tenantId + ":" + (deviceType + ":" + languageCode).toLowerCase(Locale.ENGLISH);
+    }
+
+    Cache<String, Entry> getLicenseCache() {
+        return Caching.getCacheManagerFactory().getCacheManager(LICENSE_CACHE_MANAGER).getCache(LICENSE_CACHE);
+    }
+
+    /**
+     * Cached license of a device type and language.
+     */
+    public static class Entry {
+
+        private final License license;
+
+        Entry(License license) {
+            this.license = license;
+        }
+
+        /**
+         * @return a copy of the cached license, or null if the device type does not have a license.
+         */
+        public License getLicense() {
+            return copyOf(license);
+        }
+    }
+
+}
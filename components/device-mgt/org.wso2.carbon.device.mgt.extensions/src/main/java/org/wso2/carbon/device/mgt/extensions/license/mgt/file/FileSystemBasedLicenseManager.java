@@ -21,18 +21,25 @@ package org.wso2.carbon.device.mgt.extensions.license.mgt.file;
 import org.wso2.carbon.device.mgt.common.license.mgt.License;
 import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManagementException;
 import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManager;
+import org.wso2.carbon.device.mgt.extensions.license.mgt.LicenseCache;
 import org.wso2.carbon.utils.CarbonUtils;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class FileSystemBasedLicenseManager implements LicenseManager {
 
     private static final String PATH_MOBILE_PLUGIN_CONF_DIR =
             CarbonUtils.getEtcCarbonConfigDirPath() + File.separator + "device-mgt-plugins";
 
+    // License files are only read again when they are modified, and the JAXB context is shared as it is thread safe.
+    private static final ConcurrentMap<String, LicenseFile> licenseFiles = new ConcurrentHashMap<>();
+    private static volatile JAXBContext licenseContext;
+
     @Override
     public License getLicense(String deviceType, String languageCode) throws LicenseManagementException {
         try {
@@ -41,12 +48,18 @@ public class FileSystemBasedLicenseManager implements LicenseManager {
             File licenseConfig = new File(licenseConfigPath);
 
             if (!licenseConfig.exists()) {
+                licenseFiles.remove(licenseConfigPath);
                 throw new LicenseManagementException(
                         "License file not found in the path for the device type " + deviceType);
             }
-            JAXBContext context = JAXBContext.newInstance(License.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            return (License) unmarshaller.unmarshal(licenseConfig);
+            long lastModified = licenseConfig.lastModified();
+            LicenseFile licenseFile = licenseFiles.get(licenseConfigPath);
+            if (licenseFile == null || licenseFile.lastModified != lastModified) {
+                Unmarshaller unmarshaller = getLicenseContext().createUnmarshaller();
+                licenseFile = new LicenseFile((License) unmarshaller.unmarshal(licenseConfig), lastModified);
+                licenseFiles.put(licenseConfigPath, licenseFile);
+            }
+            return LicenseCache.copyOf(licenseFile.license);
 
         } catch (JAXBException e) {
             throw new LicenseManagementException("Error occurred while un-marshalling license configuration " +
@@ -60,4 +73,26 @@ public class FileSystemBasedLicenseManager implements LicenseManager {
                 "FileSystemBasedLicenseManager");
     }
 
+    private static JAXBContext getLicenseContext() throws JAXBException {
+        if (licenseContext == null) {
+            synchronized (FileSystemBasedLicenseManager.class) {
+                if (licenseContext == null) {
+                    licenseContext = JAXBContext.newInstance(License.class);
+                }
+            }
+        }
+        return licenseContext;
+    }
+
+    private static class LicenseFile {
+
+        private final License license;
+        private final long lastModified;
+
+        LicenseFile(License license, long lastModified) {
+            this.license = license;
+            this.lastModified = lastModified;
+        }
+    }
+
 }
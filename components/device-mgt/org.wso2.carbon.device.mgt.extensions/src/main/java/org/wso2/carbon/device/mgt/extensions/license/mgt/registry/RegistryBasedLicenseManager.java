@@ -27,6 +27,7 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.common.license.mgt.License;
 import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManagementException;
 import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManager;
+import org.wso2.carbon.device.mgt.extensions.license.mgt.LicenseCache;
 import org.wso2.carbon.governance.api.exception.GovernanceException;
 import org.wso2.carbon.governance.api.generic.GenericArtifactFilter;
 import org.wso2.carbon.governance.api.generic.GenericArtifactManager;
@@ -45,6 +46,8 @@ import java.util.Locale;
 public class RegistryBasedLicenseManager implements LicenseManager {
 
     private GenericArtifactManager artifactManager;
+    private int tenantId;
+    private LicenseCache licenseCache;
     private static final Log log = LogFactory.getLog(RegistryBasedLicenseManager.class);
 
     public RegistryBasedLicenseManager() {
@@ -53,6 +56,8 @@ public class RegistryBasedLicenseManager implements LicenseManager {
             throw new IllegalArgumentException("Registry instance retrieved is null. Hence, " +
                     "'Registry based license manager cannot be initialized'");
         }
+        this.tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        this.licenseCache = LicenseCache.getInstance();
         try {
             this.artifactManager = GenericArtifactManagerFactory.getTenantAwareGovernanceArtifactManager(registry);
         } catch (LicenseManagementException e) {
@@ -63,16 +68,24 @@ public class RegistryBasedLicenseManager implements LicenseManager {
 
     @Override
     public License getLicense(final String deviceType, final String languageCode) throws LicenseManagementException {
+        LicenseCache.Entry cachedLicense = licenseCache.getEntry(tenantId, deviceType, languageCode);
+        if (cachedLicense != null) {
+            return cachedLicense.getLicense();
+        }
+        long cacheGeneration = licenseCache.getGeneration();
         try {
             GenericArtifact artifact = this.getGenericArtifact(deviceType, languageCode);
+            License license = null;
             if (artifact == null) {
                 if (log.isDebugEnabled()) {
                     log.debug("Generic artifact is null for '" + deviceType + "' device type. Hence license does not " +
                             "have content");
                 }
-                return null;
+            } else {
+                license = this.populateLicense(artifact);
             }
-            return this.populateLicense(artifact);
+            licenseCache.putLicense(tenantId, deviceType, languageCode, license, cacheGeneration);
+            return license;
         } catch (GovernanceException e) {
             throw new LicenseManagementException("Error occurred while retrieving license corresponding to " +
                     "device type '" + deviceType + "'", e);
@@ -141,6 +154,8 @@ public class RegistryBasedLicenseManager implements LicenseManager {
                 }
                 artifactManager.addGenericArtifact(artifact);
             }
+            // The artifact is stored by now, so licenses read from here on will not be stale.
+            licenseCache.clear();
         } catch (GovernanceException e) {
             throw new LicenseManagementException("Error occurred while adding license for device type " +
                     deviceType + "'", e);
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.device.type.template;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.dao.CachedPluginDAO;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.dao.DeviceTypeDAOHandler;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.dao.DeviceTypePluginDAOManager;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.dao.PluginDAO;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.exception.DeviceTypeMgtPluginException;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class tests that the {@link DeviceTypeManager} drops the cached plugin data of a device once the transaction
+ * changing the device ends, so that a device read while the transaction is in progress is not left in the cache.
+ */
+public class DeviceTypeManagerCacheTest {
+
+    private static final String DEVICE_TYPE = "cachedDeviceType";
+    private static final String DEVICE_ID = "cached-device";
+    private static final String PROPERTY_NAME = "cached_property";
+
+    private DeviceTypeManager deviceTypeManager;
+    private DeviceTypeDAOHandler deviceTypeDAOHandler;
+    private PluginDAO pluginDAO;
+    private DeviceIdentifier deviceIdentifier = new DeviceIdentifier(DEVICE_ID, DEVICE_TYPE);
+
+    @BeforeMethod
+    public void init() throws Exception {
+        pluginDAO = Mockito.mock(PluginDAO.class);
+        deviceTypeDAOHandler = Mockito.mock(DeviceTypeDAOHandler.class);
+        DeviceTypePluginDAOManager deviceTypePluginDAOManager = Mockito
+                .mock(DeviceTypePluginDAOManager.class, Mockito.CALLS_REAL_METHODS);
+        setField(DeviceTypePluginDAOManager.class, "deviceTypePluginDAO", deviceTypePluginDAOManager,
+                new CachedPluginDAO(pluginDAO, 10));
+        setField(DeviceTypePluginDAOManager.class, "deviceTypeDAOHandler", deviceTypePluginDAOManager,
+                deviceTypeDAOHandler);
+
+        deviceTypeManager = Mockito.mock(DeviceTypeManager.class, Mockito.CALLS_REAL_METHODS);
+        setField(DeviceTypeManager.class, "deviceTypePluginDAOManager", deviceTypeManager,
+                deviceTypePluginDAOManager);
+        setField(DeviceTypeManager.class, "deviceType", deviceTypeManager, DEVICE_TYPE);
+        setField(DeviceTypeManager.class, "propertiesExist", deviceTypeManager, true);
+
+        Mockito.when(pluginDAO.getDevice(DEVICE_ID)).thenReturn(createDevice("value-1"));
+        Assert.assertEquals(getPropertyValue(deviceTypeManager.getDevice(deviceIdentifier)), "value-1");
+    }
+
+    @Test(description = "This test case tests whether a device read before the update is committed is not kept "
+            + "cached")
+    public void testModifyEnrollment() throws Exception {
+        Device device = createDevice("value-2");
+        Mockito.when(pluginDAO.updateDevice(device)).thenReturn(true);
+        readBeforeCommit(device);
+
+        Assert.assertTrue(deviceTypeManager.modifyEnrollment(device));
+        Assert.assertEquals(getPropertyValue(deviceTypeManager.getDevice(deviceIdentifier)), "value-2",
+                "Device read before the update was committed is returned");
+    }
+
+    @Test(description = "This test case tests whether the updated properties of a device are read after the "
+            + "update is committed")
+    public void testUpdateDeviceProperties() throws Exception {
+        Device device = createDevice("value-2");
+        Mockito.when(pluginDAO.updateDevice(Mockito.any(Device.class))).thenReturn(true);
+        readBeforeCommit(device);
+
+        Assert.assertTrue(deviceTypeManager.updateDeviceProperties(deviceIdentifier, device.getProperties()));
+        Assert.assertEquals(getPropertyValue(deviceTypeManager.getDevice(deviceIdentifier)), "value-2",
+                "Device read before the update was committed is returned");
+    }
+
+    @Test(description = "This test case tests whether the updated info of a device is read after the update is "
+            + "committed")
+    public void testUpdateDeviceInfo() throws Exception {
+        Device device = createDevice("value-2");
+        Mockito.when(pluginDAO.updateDevice(Mockito.any(Device.class))).thenReturn(true);
+        readBeforeCommit(device);
+
+        Assert.assertTrue(deviceTypeManager.updateDeviceInfo(deviceIdentifier, device));
+        Assert.assertEquals(getPropertyValue(deviceTypeManager.getDevice(deviceIdentifier)), "value-2",
+                "Device read before the update was committed is returned");
+    }
+
+    @Test(description = "This test case tests whether the device is read again after a failed update is rolled "
+            + "back")
+    public void testRollback() throws Exception {
+        Device device = createDevice("value-2");
+        Mockito.when(pluginDAO.updateDevice(device))
+                .thenThrow(new DeviceTypeMgtPluginException("Failed to update the device"));
+        try {
+            deviceTypeManager.modifyEnrollment(device);
+            Assert.fail("Failure of the update is not thrown");
+        } catch (DeviceManagementException e) {
+            // Expected, as the update failed.
+        }
+        Mockito.verify(deviceTypeDAOHandler).rollbackTransaction();
+        deviceTypeManager.getDevice(deviceIdentifier);
+        Mockito.verify(pluginDAO, Mockito.times(2)).getDevice(DEVICE_ID);
+    }
+
+    @Test(description = "This test case tests whether the devices which are cached are not read in bulk")
+    public void testGetDevices() throws Exception {
+        DeviceIdentifier otherDeviceIdentifier = new DeviceIdentifier("other-device", DEVICE_TYPE);
+        Mockito.when(pluginDAO.getDevices(Collections.singletonList("other-device")))
+                .thenReturn(new ArrayList<Device>());
+
+        List<Device> devices = deviceTypeManager.getDevices(Arrays.asList(deviceIdentifier, otherDeviceIdentifier));
+        Assert.assertEquals(devices.size(), 1);
+        Assert.assertEquals(devices.get(0).getDeviceIdentifier(), DEVICE_ID);
+        Mockito.verify(pluginDAO).getDevices(Collections.singletonList("other-device"));
+    }
+
+    /**
+     * Reads the device while the transaction updating it is in progress, so that the device is cached with the data
+     * read before the update is committed. The updated device is read from the database once it is committed.
+     */
+    private void readBeforeCommit(final Device updatedDevice) throws DeviceTypeMgtPluginException {
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                deviceTypeManager.getDevice(deviceIdentifier);
+                Mockito.when(pluginDAO.getDevice(DEVICE_ID)).thenReturn(createDevice(
+                        getPropertyValue(updatedDevice)));
+                return null;
+            }
+        }).when(deviceTypeDAOHandler).commitTransaction();
+    }
+
+    private static Device createDevice(String propertyValue) {
+        Device.Property property = new Device.Property();
+        property.setName(PROPERTY_NAME);
+        property.setValue(propertyValue);
+        Device device = new Device();
+        device.setDeviceIdentifier(DEVICE_ID);
+        device.setType(DEVICE_TYPE);
+        device.setProperties(new ArrayList<>(Collections.singletonList(property)));
+        return device;
+    }
+
+    private static String getPropertyValue(Device device) {
+        return device.getProperties().get(0).getValue();
+    }
+
+    private static void setField(Class<?> clazz, String name, Object target, Object value) throws Exception {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+}
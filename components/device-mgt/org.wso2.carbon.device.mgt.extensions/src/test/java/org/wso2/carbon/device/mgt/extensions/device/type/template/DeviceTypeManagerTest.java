@@ -163,6 +163,28 @@ public class DeviceTypeManagerTest {
                 "GetDevice call" + " failed in custom deviceTypeManager");
     }
 
+    @Test(description = "This test case tests the getDevices method of the DeviceTypeManager", dependsOnMethods =
+            {"testEnrollDevice"})
+    public void testGetDevices() throws DeviceManagementException {
+        DeviceIdentifier existingDeviceIdentifier = new DeviceIdentifier(sampleDevice1.getDeviceIdentifier(),
+                androidDeviceType);
+        List<Device> devices = androidDeviceTypeManager
+                .getDevices(Arrays.asList(existingDeviceIdentifier, nonExistingDeviceIdentifier));
+        Assert.assertEquals(devices.size(), 1, "Only the existing sampleDevice should be retrieved");
+        Assert.assertEquals(devices.get(0).getDeviceIdentifier(), sampleDevice1.getDeviceIdentifier(),
+                "Existing sampleDevice was not retrieved");
+        Assert.assertEquals(devices.get(0).getProperties().size(),
+                androidDeviceTypeManager.getDevice(existingDeviceIdentifier).getProperties().size(),
+                "GetDevices call failed to retrieve the properties of the sampleDevice");
+
+        DeviceIdentifier customDeviceIdentifier = new DeviceIdentifier(customDeviceType, customDeviceType);
+        devices = customDeviceTypeManager.getDevices(Arrays.asList(customDeviceIdentifier,
+                new DeviceIdentifier("NON-EXISTING", customDeviceType)));
+        Assert.assertEquals(devices.size(), 1, "GetDevices call failed in custom deviceTypeManager");
+        Assert.assertEquals(devices.get(0).getProperties().size(), 2,
+                "GetDevices call failed to retrieve the properties in custom deviceTypeManager");
+    }
+
     @Test(description = "This test case tests the enrollment of the device")
     public void testEnrollDevice() throws DeviceManagementException {
         Assert.assertTrue(androidDeviceTypeManager.enrollDevice(sampleDevice1), "New android device enrollment failed");
@@ -203,6 +225,15 @@ public class DeviceTypeManagerTest {
         Assert.assertNull(customDeviceTypeManager.getConfiguration());
     }
 
+    @Test(description = "This test case tests whether the cached platform configuration is not changed by the callers",
+            dependsOnMethods = {"testAddPlatformConfiguration"})
+    public void testGetCachedPlatformConfiguration() throws DeviceManagementException {
+        PlatformConfiguration platformConfiguration = androidDeviceTypeManager.getConfiguration();
+        platformConfiguration.setType(customDeviceType);
+        Assert.assertEquals(androidDeviceTypeManager.getConfiguration().getType(), androidDeviceType,
+                "Cached platform configuration is changed by the caller of the DeviceType Manager");
+    }
+
     @Test (description = "This test case tests the getDefaultConfiguration method")
     public void testGetDefaultConfiguration()
             throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.device.type.template;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.configuration.mgt.ConfigurationEntry;
+import org.wso2.carbon.device.mgt.common.configuration.mgt.PlatformConfiguration;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.util.DeviceTypePluginConstants;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.util.DeviceTypeUtils;
+import org.wso2.carbon.registry.api.Resource;
+
+import javax.cache.Cache;
+import javax.xml.bind.Marshaller;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class tests the caching of the platform configurations read by the {@link DeviceTypeManager} in the
+ * {@link PlatformConfigurationCache}. The configurations are saved in the registry set up by the
+ * {@link BaseExtensionsTest}.
+ */
+public class PlatformConfigurationCacheTest {
+
+    private static final String DEVICE_TYPE = "configuredDeviceType";
+    private static final String VERSION_ENTRY = "version";
+
+    private DeviceTypeManager deviceTypeManager;
+    private Map<String, PlatformConfigurationCache.Entry> entries;
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void init() throws Exception {
+        // Tenant scoped cache of the carbon caching implementation, backed by a map.
+        entries = new HashMap<>();
+        Cache<String, PlatformConfigurationCache.Entry> cache = Mockito.mock(Cache.class);
+        Mockito.when(cache.get(Mockito.anyString())).thenAnswer(new Answer<PlatformConfigurationCache.Entry>() {
+            @Override
+            public PlatformConfigurationCache.Entry answer(InvocationOnMock invocation) {
+                return entries.get((String) invocation.getArguments()[0]);
+            }
+        });
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                entries.put((String) invocation.getArguments()[0],
+                        (PlatformConfigurationCache.Entry) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(cache).put(Mockito.anyString(), Mockito.any(PlatformConfigurationCache.Entry.class));
+        Mockito.doAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                return entries.remove((String) invocation.getArguments()[0]) != null;
+            }
+        }).when(cache).remove(Mockito.anyString());
+        PlatformConfigurationCache configurationCache = Mockito.spy(new PlatformConfigurationCache());
+        Mockito.doReturn(cache).when(configurationCache).getConfigurationCache();
+
+        deviceTypeManager = Mockito.mock(DeviceTypeManager.class, Mockito.CALLS_REAL_METHODS);
+        setField("deviceType", DEVICE_TYPE);
+        setField("platformConfigurationCache", configurationCache);
+        storeConfiguration("v1");
+    }
+
+    @Test(description = "This test case tests whether a configuration is read from the registry only once")
+    public void testGetConfiguration() throws Exception {
+        Assert.assertEquals(getVersion(deviceTypeManager.getConfiguration()), "v1");
+
+        // Changed directly in the registry, which is picked up only once the cached entry expires.
+        storeConfiguration("v2");
+        Assert.assertEquals(getVersion(deviceTypeManager.getConfiguration()), "v1",
+                "Configuration is read from the registry while it is cached");
+    }
+
+    @Test(description = "This test case tests whether the configuration saved is read instead of the cached "
+            + "configuration")
+    public void testSaveConfiguration() throws Exception {
+        Assert.assertEquals(getVersion(deviceTypeManager.getConfiguration()), "v1");
+
+        Assert.assertTrue(deviceTypeManager.saveConfiguration(createConfiguration("v2")));
+        Assert.assertTrue(entries.isEmpty(), "Cached configuration is not dropped after the configuration is saved");
+        Assert.assertEquals(getVersion(deviceTypeManager.getConfiguration()), "v2",
+                "Cached configuration is returned after the configuration is saved");
+    }
+
+    @Test(description = "This test case tests whether a configuration read before a configuration is saved is not "
+            + "cached after the configuration is saved")
+    public void testSaveConfigurationWhileReading() throws Exception {
+        PlatformConfigurationCache configurationCache = getField("platformConfigurationCache");
+        final Cache<String, PlatformConfigurationCache.Entry> cache = configurationCache.getConfigurationCache();
+        Mockito.doAnswer(new Answer<Void>() {
+            private boolean saved;
+
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                if (!saved) {
+                    // The configuration is saved after the old configuration is read, but before it is cached.
+                    saved = true;
+                    deviceTypeManager.saveConfiguration(createConfiguration("v2"));
+                }
+                entries.put((String) invocation.getArguments()[0],
+                        (PlatformConfigurationCache.Entry) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(cache).put(Mockito.anyString(), Mockito.any(PlatformConfigurationCache.Entry.class));
+
+        Assert.assertEquals(getVersion(deviceTypeManager.getConfiguration()), "v1");
+        Assert.assertEquals(getVersion(deviceTypeManager.getConfiguration()), "v2",
+                "Configuration read before the configuration was saved is cached");
+    }
+
+    private static void storeConfiguration(String version) throws Exception {
+        StringWriter writer = new StringWriter();
+        Marshaller marshaller = DeviceTypeUtils.getPlatformConfigurationContext().createMarshaller();
+        marshaller.marshal(createConfiguration(version), writer);
+        Resource resource = DeviceTypeUtils.getConfigurationRegistry().newResource();
+        resource.setContent(writer.toString());
+        resource.setMediaType(DeviceTypePluginConstants.MEDIA_TYPE_XML);
+        DeviceTypeUtils.putRegistryResource(DEVICE_TYPE, resource);
+    }
+
+    private static PlatformConfiguration createConfiguration(String version) {
+        ConfigurationEntry configurationEntry = new ConfigurationEntry();
+        configurationEntry.setName(VERSION_ENTRY);
+        configurationEntry.setContentType("text");
+        configurationEntry.setValue(version);
+        PlatformConfiguration configuration = new PlatformConfiguration();
+        configuration.setType(DEVICE_TYPE);
+        configuration.setConfiguration(Collections.singletonList(configurationEntry));
+        return configuration;
+    }
+
+    private static String getVersion(PlatformConfiguration configuration) {
+        Assert.assertNotNull(configuration, "Saved configuration is not returned");
+        return String.valueOf(configuration.getConfiguration().get(0).getValue());
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = DeviceTypeManager.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(deviceTypeManager, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getField(String name) throws Exception {
+        Field field = DeviceTypeManager.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(deviceTypeManager);
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.device.type.template.dao;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.extensions.device.type.template.exception.DeviceTypeMgtPluginException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class tests the caching of the plugin data of devices by {@link CachedPluginDAO}.
+ */
+public class CachedPluginDAOTest {
+
+    private static final String PROPERTY_NAME = "imei";
+    private static final int CACHE_SIZE = 3;
+
+    private PluginDAO pluginDAO;
+    private CachedPluginDAO cachedPluginDAO;
+
+    @BeforeMethod
+    public void init() {
+        pluginDAO = Mockito.mock(PluginDAO.class);
+        cachedPluginDAO = new CachedPluginDAO(pluginDAO, CACHE_SIZE);
+    }
+
+    @Test(description = "This test case tests whether a device is read from the wrapped DAO only once")
+    public void testGetDevice() throws DeviceTypeMgtPluginException {
+        Mockito.when(pluginDAO.getDevice("device-1")).thenReturn(createDevice("device-1", "value-1"));
+
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-1");
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-1");
+        Mockito.verify(pluginDAO, Mockito.times(1)).getDevice("device-1");
+    }
+
+    @Test(description = "This test case tests whether the absence of a device is not cached")
+    public void testGetNonExistingDevice() throws DeviceTypeMgtPluginException {
+        Assert.assertNull(cachedPluginDAO.getDevice("device-1"));
+        Mockito.when(pluginDAO.getDevice("device-1")).thenReturn(createDevice("device-1", "value-1"));
+        Assert.assertNotNull(cachedPluginDAO.getDevice("device-1"), "Enrolled device is not found");
+    }
+
+    @Test(description = "This test case tests whether the cached devices are not changed by the callers")
+    public void testGetCachedDeviceCopy() throws DeviceTypeMgtPluginException {
+        Mockito.when(pluginDAO.getDevice("device-1")).thenReturn(createDevice("device-1", "value-1"));
+
+        Device device = cachedPluginDAO.getDevice("device-1");
+        device.getProperties().get(0).setValue("changed");
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-1",
+                "Cached device was changed by the caller");
+        cachedPluginDAO.getDevice("device-1").getProperties().get(0).setValue("changed");
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-1",
+                "Cached device was changed by the caller");
+    }
+
+    @Test(description = "This test case tests whether only the devices which are not cached are read in bulk")
+    public void testGetDevices() throws DeviceTypeMgtPluginException {
+        Mockito.when(pluginDAO.getDevice("device-2")).thenReturn(createDevice("device-2", "value-2"));
+        cachedPluginDAO.getDevice("device-2");
+        Mockito.when(pluginDAO.getDevices(Arrays.asList("device-1", "device-3", "device-4")))
+                .thenReturn(Arrays.asList(createDevice("device-3", "value-3"), createDevice("device-1", "value-1")));
+
+        List<Device> devices = cachedPluginDAO.getDevices(Arrays.asList("device-1", "device-2", "device-3",
+                "device-4"));
+        Assert.assertEquals(getDeviceIds(devices), Arrays.asList("device-1", "device-2", "device-3"),
+                "Devices are not returned in the requested order");
+        Assert.assertEquals(getPropertyValue(devices.get(1)), "value-2");
+
+        devices = cachedPluginDAO.getDevices(Arrays.asList("device-3", "device-1"));
+        Assert.assertEquals(getDeviceIds(devices), Arrays.asList("device-3", "device-1"));
+        Mockito.verify(pluginDAO, Mockito.times(1)).getDevices(Mockito.anyListOf(String.class));
+    }
+
+    @Test(description = "This test case tests whether a device is kept cached until it is evicted")
+    public void testEvict() throws DeviceTypeMgtPluginException {
+        Mockito.when(pluginDAO.getDevice("device-1")).thenReturn(createDevice("device-1", "value-1"));
+        cachedPluginDAO.getDevice("device-1");
+
+        Device updatedDevice = createDevice("device-1", "value-2");
+        Mockito.when(pluginDAO.updateDevice(updatedDevice)).thenReturn(true);
+        Assert.assertTrue(cachedPluginDAO.updateDevice(updatedDevice));
+        Mockito.verify(pluginDAO).updateDevice(updatedDevice);
+        Mockito.when(pluginDAO.getDevice("device-1")).thenReturn(updatedDevice);
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-1",
+                "Device should be evicted once the transaction ends, not by the update");
+
+        cachedPluginDAO.evict("device-1");
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-2");
+        Mockito.verify(pluginDAO, Mockito.times(2)).getDevice("device-1");
+    }
+
+    @Test(description = "This test case tests whether a device read before it is evicted is not cached after the "
+            + "eviction")
+    public void testEvictWhileReading() throws DeviceTypeMgtPluginException {
+        Mockito.when(pluginDAO.getDevice("device-1")).thenAnswer(new Answer<Device>() {
+            private boolean evicted;
+
+            @Override
+            public Device answer(InvocationOnMock invocation) {
+                if (!evicted) {
+                    // The update is committed and evicted after the old device is read, but before it is cached.
+                    evicted = true;
+                    cachedPluginDAO.evict("device-1");
+                    return createDevice("device-1", "value-1");
+                }
+                return createDevice("device-1", "value-2");
+            }
+        });
+
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-1");
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-2",
+                "Device read before the eviction is cached");
+    }
+
+    @Test(description = "This test case tests whether devices read in bulk before one of them is evicted are not "
+            + "cached after the eviction")
+    public void testEvictWhileReadingInBulk() throws DeviceTypeMgtPluginException {
+        Mockito.when(pluginDAO.getDevices(Mockito.anyListOf(String.class))).thenAnswer(new Answer<List<Device>>() {
+            @Override
+            public List<Device> answer(InvocationOnMock invocation) {
+                cachedPluginDAO.evict("device-1");
+                return Arrays.asList(createDevice("device-1", "value-1"), createDevice("device-2", "value-2"));
+            }
+        });
+
+        cachedPluginDAO.getDevices(Arrays.asList("device-1", "device-2"));
+        cachedPluginDAO.getDevices(Arrays.asList("device-1", "device-2"));
+        Mockito.verify(pluginDAO, Mockito.times(2)).getDevices(Mockito.anyListOf(String.class));
+    }
+
+    @Test(description = "This test case tests whether the least recently used device is dropped when the cache is "
+            + "full")
+    public void testCacheSize() throws DeviceTypeMgtPluginException {
+        for (int i = 0; i <= CACHE_SIZE; i++) {
+            String deviceId = "device-" + i;
+            Mockito.when(pluginDAO.getDevice(deviceId)).thenReturn(createDevice(deviceId, "value-" + i));
+        }
+        cachedPluginDAO.getDevice("device-0");
+        cachedPluginDAO.getDevice("device-1");
+        cachedPluginDAO.getDevice("device-2");
+        cachedPluginDAO.getDevice("device-0");
+        cachedPluginDAO.getDevice("device-3");
+
+        cachedPluginDAO.getDevice("device-0");
+        Mockito.verify(pluginDAO, Mockito.times(1)).getDevice("device-0");
+        cachedPluginDAO.getDevice("device-1");
+        Mockito.verify(pluginDAO, Mockito.times(2)).getDevice("device-1");
+    }
+
+    @Test(description = "This test case tests whether the devices of different tenants are cached separately")
+    public void testTenants() throws DeviceTypeMgtPluginException {
+        Mockito.when(pluginDAO.getDevice("device-1")).thenReturn(createDevice("device-1", "value-1"));
+        cachedPluginDAO.getDevice("device-1");
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(1);
+            Mockito.when(pluginDAO.getDevice("device-1")).thenReturn(createDevice("device-1", "tenant-value"));
+            Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "tenant-value",
+                    "Device of another tenant is returned");
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        Assert.assertEquals(getPropertyValue(cachedPluginDAO.getDevice("device-1")), "value-1");
+    }
+
+    private static Device createDevice(String deviceId, String propertyValue) {
+        Device.Property property = new Device.Property();
+        property.setName(PROPERTY_NAME);
+        property.setValue(propertyValue);
+        Device device = new Device();
+        device.setDeviceIdentifier(deviceId);
+        device.setProperties(new ArrayList<>(Collections.singletonList(property)));
+        return device;
+    }
+
+    private static String getPropertyValue(Device device) {
+        return device.getProperties().get(0).getValue();
+    }
+
+    private static List<String> getDeviceIds(List<Device> devices) {
+        List<String> deviceIds = new ArrayList<>();
+        for (Device device : devices) {
+            deviceIds.add(device.getDeviceIdentifier());
+        }
+        return deviceIds;
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.license.mgt;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.DeviceManagementConstants;
+import org.wso2.carbon.device.mgt.common.license.mgt.License;
+import org.wso2.carbon.device.mgt.extensions.license.mgt.registry.RegistryBasedLicenseManager;
+import org.wso2.carbon.governance.api.generic.GenericArtifactFilter;
+import org.wso2.carbon.governance.api.generic.GenericArtifactManager;
+import org.wso2.carbon.governance.api.generic.dataobjects.GenericArtifact;
+
+import javax.cache.Cache;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class tests the caching of the licenses read by the {@link RegistryBasedLicenseManager} in the
+ * {@link LicenseCache}.
+ */
+public class LicenseCacheTest {
+
+    private static final String DEVICE_TYPE = "licensedDeviceType";
+    private static final String LANGUAGE = "en_US";
+    private static final int TENANT_ID = -1234;
+
+    private GenericArtifactManager artifactManager;
+    private RegistryBasedLicenseManager licenseManager;
+    private GenericArtifact storedArtifact;
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void init() throws Exception {
+        // Tenant scoped cache of the carbon caching implementation, backed by a map.
+        final Map<String, LicenseCache.Entry> entries = new HashMap<>();
+        Cache<String, LicenseCache.Entry> cache = Mockito.mock(Cache.class);
+        Mockito.when(cache.get(Mockito.anyString())).thenAnswer(new Answer<LicenseCache.Entry>() {
+            @Override
+            public LicenseCache.Entry answer(InvocationOnMock invocation) {
+                return entries.get((String) invocation.getArguments()[0]);
+            }
+        });
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                entries.put((String) invocation.getArguments()[0], (LicenseCache.Entry) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(cache).put(Mockito.anyString(), Mockito.any(LicenseCache.Entry.class));
+        Mockito.doAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                return entries.remove((String) invocation.getArguments()[0]) != null;
+            }
+        }).when(cache).remove(Mockito.anyString());
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                entries.clear();
+                return null;
+            }
+        }).when(cache).removeAll();
+        LicenseCache licenseCache = Mockito.spy(new LicenseCache());
+        Mockito.doReturn(cache).when(licenseCache).getLicenseCache();
+
+        storedArtifact = null;
+        artifactManager = Mockito.mock(GenericArtifactManager.class);
+        Mockito.when(artifactManager.findGenericArtifacts(Mockito.any(GenericArtifactFilter.class)))
+                .thenAnswer(new Answer<GenericArtifact[]>() {
+                    @Override
+                    public GenericArtifact[] answer(InvocationOnMock invocation) {
+                        return storedArtifact == null ? new GenericArtifact[0] : new GenericArtifact[]{storedArtifact};
+                    }
+                });
+        licenseManager = Mockito.mock(RegistryBasedLicenseManager.class, Mockito.CALLS_REAL_METHODS);
+        setField("artifactManager", artifactManager);
+        setField("tenantId", TENANT_ID);
+        setField("licenseCache", licenseCache);
+    }
+
+    @Test(description = "This test case tests whether a license is searched in the registry only once")
+    public void testGetLicense() throws Exception {
+        storeLicense("v1");
+
+        Assert.assertEquals(licenseManager.getLicense(DEVICE_TYPE, LANGUAGE).getVersion(), "v1");
+        Assert.assertEquals(licenseManager.getLicense(DEVICE_TYPE, LANGUAGE).getVersion(), "v1");
+        Mockito.verify(artifactManager, Mockito.times(1))
+                .findGenericArtifacts(Mockito.any(GenericArtifactFilter.class));
+    }
+
+    @Test(description = "This test case tests whether the absence of a license is cached as well")
+    public void testGetNonExistingLicense() throws Exception {
+        Assert.assertNull(licenseManager.getLicense(DEVICE_TYPE, LANGUAGE));
+        Assert.assertNull(licenseManager.getLicense(DEVICE_TYPE, LANGUAGE));
+        Mockito.verify(artifactManager, Mockito.times(1))
+                .findGenericArtifacts(Mockito.any(GenericArtifactFilter.class));
+    }
+
+    @Test(description = "This test case tests whether the license added is read instead of the cached license")
+    public void testAddLicense() throws Exception {
+        storeLicense("v1");
+        Assert.assertEquals(licenseManager.getLicense(DEVICE_TYPE, LANGUAGE).getVersion(), "v1");
+
+        licenseManager.addLicense(DEVICE_TYPE, createLicense("v2"));
+        storeLicense("v2");
+        Assert.assertEquals(licenseManager.getLicense(DEVICE_TYPE, LANGUAGE).getVersion(), "v2",
+                "Cached license is returned after a license is added");
+    }
+
+    @Test(description = "This test case tests whether a license read before a license is added is not cached after "
+            + "the license is added")
+    public void testAddLicenseWhileReading() throws Exception {
+        storeLicense("v1");
+        final GenericArtifact newArtifact = createArtifact("v2");
+        Mockito.when(artifactManager.findGenericArtifacts(Mockito.any(GenericArtifactFilter.class)))
+                .thenAnswer(new Answer<GenericArtifact[]>() {
+                    private boolean added;
+
+                    @Override
+                    public GenericArtifact[] answer(InvocationOnMock invocation) throws Throwable {
+                        GenericArtifact artifact = storedArtifact;
+                        if (!added) {
+                            // The license is added after the old license is read, but before it is cached.
+                            added = true;
+                            storedArtifact = newArtifact;
+                            licenseManager.addLicense(DEVICE_TYPE, createLicense("v2"));
+                        }
+                        return new GenericArtifact[]{artifact};
+                    }
+                });
+
+        Assert.assertEquals(licenseManager.getLicense(DEVICE_TYPE, LANGUAGE).getVersion(), "v1");
+        Assert.assertEquals(licenseManager.getLicense(DEVICE_TYPE, LANGUAGE).getVersion(), "v2",
+                "License read before the license was added is cached");
+    }
+
+    private void storeLicense(String version) throws Exception {
+        storedArtifact = createArtifact(version);
+    }
+
+    private static GenericArtifact createArtifact(String version) throws Exception {
+        GenericArtifact artifact = Mockito.mock(GenericArtifact.class);
+        Mockito.when(artifact.getAttribute(DeviceManagementConstants.LicenseProperties.NAME)).thenReturn(DEVICE_TYPE);
+        Mockito.when(artifact.getAttribute(DeviceManagementConstants.LicenseProperties.LANGUAGE))
+                .thenReturn(LANGUAGE);
+        Mockito.when(artifact.getAttribute(DeviceManagementConstants.LicenseProperties.VERSION)).thenReturn(version);
+        return artifact;
+    }
+
+    private static License createLicense(String version) {
+        License license = new License();
+        license.setName(DEVICE_TYPE);
+        license.setLanguage(LANGUAGE);
+        license.setVersion(version);
+        return license;
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = RegistryBasedLicenseManager.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(licenseManager, value);
+    }
+
+}
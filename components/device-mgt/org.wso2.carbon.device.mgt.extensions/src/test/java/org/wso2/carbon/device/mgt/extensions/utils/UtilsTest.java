@@ -81,6 +81,15 @@ public class UtilsTest {
                 "FileBased License cannot " + "be retrieved by FileBasedLicenseManager");
     }
 
+    @Test(description = "This test case makes sure that changes to a retrieved license do not affect the license "
+            + "returned by the later calls of the FileBasedLicenseManager")
+    public void testFileBasedLicenseManagerGetCachedLicense() throws LicenseManagementException {
+        License license = fileSystemBasedLicenseManager.getLicense(Utils.TEST_STRING, "en_US");
+        license.setText("Modified license");
+        Assert.assertEquals(fileSystemBasedLicenseManager.getLicense(Utils.TEST_STRING, "en_US").getText(),
+                "This is a file based license", "Cached file based license has been modified by its caller");
+    }
+
     @Test(description = "This test case tests the behaviour of file based license manager when the relevant license "
             + "is missing in file system", expectedExceptions = {LicenseManagementException.class},
             expectedExceptionsMessageRegExp = "License file not found in the path for the device type test2")
@@ -28,6 +28,7 @@ import org.wso2.carbon.registry.api.Registry;
 import org.wso2.carbon.registry.api.RegistryException;
 
 import java.io.InputStream;
+import java.util.Date;
 
 public class RegistryBasedResourceLoader extends ResourceLoader {
 
@@ -41,11 +42,7 @@ public class RegistryBasedResourceLoader extends ResourceLoader {
     @Override
     public InputStream getResourceStream(String name) throws ResourceNotFoundException {
         try {
-            Registry registry =
-                    CarbonContext.getThreadLocalCarbonContext().getRegistry(RegistryType.SYSTEM_CONFIGURATION);
-            if (registry == null) {
-                throw new IllegalStateException("No valid registry instance is attached to the current carbon context");
-            }
+            Registry registry = getRegistry();
             if (!registry.resourceExists(EMAIL_CONFIG_BASE_LOCATION + "/" + name)) {
                 throw new ResourceNotFoundException("Resource '" + name + "' does not exist");
             }
@@ -60,12 +57,41 @@ public class RegistryBasedResourceLoader extends ResourceLoader {
 
     @Override
     public boolean isSourceModified(Resource resource) {
-        return false;
+        return resource.getLastModified() != getLastModified(resource);
     }
 
     @Override
     public long getLastModified(Resource resource) {
-        return 0;
+        return getTemplateLastModifiedTime(resource.getName());
+    }
+
+    /**
+     * Returns the time the given template was last modified in the registry of the current tenant.
+     *
+     * @param name name of the template.
+     * @return last modified time of the template, 0 if the template does not exist.
+     * @throws ResourceNotFoundException if the template could not be looked up.
+     */
+    static long getTemplateLastModifiedTime(String name) throws ResourceNotFoundException {
+        try {
+            Registry registry = getRegistry();
+            if (!registry.resourceExists(EMAIL_CONFIG_BASE_LOCATION + "/" + name)) {
+                return 0;
+            }
+            Date lastModified = registry.get(EMAIL_CONFIG_BASE_LOCATION + "/" + name).getLastModified();
+            return lastModified == null ? 0 : lastModified.getTime();
+        } catch (RegistryException e) {
+            throw new ResourceNotFoundException("Error occurred while retrieving resource", e);
+        }
+    }
+
+    private static Registry getRegistry() {
+        Registry registry =
+                CarbonContext.getThreadLocalCarbonContext().getRegistry(RegistryType.SYSTEM_CONFIGURATION);
+        if (registry == null) {
+            throw new IllegalStateException("No valid registry instance is attached to the current carbon context");
+        }
+        return registry;
     }
 
 }
@@ -36,10 +36,22 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Builds email content from Velocity templates stored in the registry. Parsed templates are cached per tenant, and
+ * a cached template is checked against the modification time of its registry resource at most once a minute, so
+ * that sending a mail does not read and parse the template again.
+ */
 public class VelocityBasedEmailContentProvider implements EmailContentProvider {
 
+    private static final long TEMPLATE_VALIDATION_INTERVAL = 60 * 1000L;
+
     private VelocityEngine engine;
+    long templateValidationInterval = TEMPLATE_VALIDATION_INTERVAL;
+    private final ConcurrentMap<Integer, ConcurrentMap<String, CachedTemplate>> templates = new ConcurrentHashMap<>();
+    private static volatile JAXBContext emailDataContext;
     private static final Log log = LogFactory.getLog(VelocityBasedEmailContentProvider.class);
 
     public VelocityBasedEmailContentProvider() {
@@ -58,15 +70,14 @@ public class VelocityBasedEmailContentProvider implements EmailContentProvider {
         for (Map.Entry<String, TypedValue<Class<?>, Object>> param : params.entrySet()) {
             ctx.put(param.getKey(), param.getValue().getValue());
         }
-        Template template = engine.getTemplate(name);
+        Template template = this.getTemplate(name);
 
         StringWriter content = new StringWriter();
         template.merge(ctx, content);
 
         InputStream is = null;
         try {
-            JAXBContext jaxbCtx = JAXBContext.newInstance(EmailData.class);
-            Unmarshaller unmarshaller = jaxbCtx.createUnmarshaller();
+            Unmarshaller unmarshaller = getEmailDataContext().createUnmarshaller();
 
             is = new ByteArrayInputStream(content.toString().getBytes());
             return (EmailData) unmarshaller.unmarshal(is);
@@ -84,4 +95,57 @@ public class VelocityBasedEmailContentProvider implements EmailContentProvider {
         }
     }
 
+    private Template getTemplate(String name) {
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        ConcurrentMap<String, CachedTemplate> templatesOfTenant = templates.get(tenantId);
+        if (templatesOfTenant == null) {
+            templatesOfTenant = new ConcurrentHashMap<>();
+            ConcurrentMap<String, CachedTemplate> existing = templates.putIfAbsent(tenantId, templatesOfTenant);
+            if (existing != null) {
+                templatesOfTenant = existing;
+            }
+        }
+        long now = System.currentTimeMillis();
+        CachedTemplate cachedTemplate = templatesOfTenant.get(name);
+        if (cachedTemplate != null && now < cachedTemplate.nextValidationTime) {
+            return cachedTemplate.template;
+        }
+        long lastModified = RegistryBasedResourceLoader.getTemplateLastModifiedTime(name);
+        if (cachedTemplate != null && cachedTemplate.lastModified == lastModified) {
+            cachedTemplate.nextValidationTime = now + templateValidationInterval;
+            return cachedTemplate.template;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Loading email template '" + name + "' of tenant " + tenantId);
+        }
+        Template template = engine.getTemplate(name);
+        templatesOfTenant.put(name, new CachedTemplate(template, lastModified,
+                now + templateValidationInterval));
+        return template;
+    }
+
+    private static JAXBContext getEmailDataContext() throws JAXBException {
+        if (emailDataContext == null) {
+            synchronized (VelocityBasedEmailContentProvider.class) {
+                if (emailDataContext == null) {
+                    emailDataContext = JAXBContext.newInstance(EmailData.class);
+                }
+            }
+        }
+        return emailDataContext;
+    }
+
+    private static class CachedTemplate {
+
+        private final Template template;
+        private final long lastModified;
+        private volatile long nextValidationTime;
+
+        CachedTemplate(Template template, long lastModified, long nextValidationTime) {
+            this.template = template;
+            this.lastModified = lastModified;
+            this.nextValidationTime = nextValidationTime;
+        }
+    }
+
 }
@@ -74,7 +74,10 @@ public class EmailSenderServiceComponent {
 
     @SuppressWarnings("unused")
     protected void deactivate(ComponentContext componentContext) {
-        //do nothing
+        EmailSenderService emailServiceProvider = EmailSenderDataHolder.getInstance().getEmailServiceProvider();
+        if (emailServiceProvider instanceof EmailSenderServiceImpl) {
+            ((EmailSenderServiceImpl) emailServiceProvider).shutdown();
+        }
     }
 
     private void registerServices(ComponentContext componentContext) {
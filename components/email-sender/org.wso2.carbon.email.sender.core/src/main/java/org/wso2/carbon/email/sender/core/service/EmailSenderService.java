@@ -25,4 +25,29 @@ public interface EmailSenderService {
 
     void sendEmail(EmailContext emailCtx) throws EmailSendingFailedException, EmailTransportNotConfiguredException;
 
+    /**
+     * This is used to get the number of emails which were handed over to the mail transport since the service was
+     * started.
+     * @return number of sent emails
+     */
+    long getSentEmailCount();
+
+    /**
+     * This is used to get the number of emails which were scheduled to be sent again after a failed delivery.
+     * @return number of retried emails
+     */
+    long getRetriedEmailCount();
+
+    /**
+     * This is used to get the number of emails which were given up after the last retry, or could not be retried.
+     * @return number of failed emails
+     */
+    long getFailedEmailCount();
+
+    /**
+     * This is used to get the number of batches of recipients which are waiting for a sender thread.
+     * @return number of queued batches
+     */
+    int getQueuedBatchCount();
+
 }
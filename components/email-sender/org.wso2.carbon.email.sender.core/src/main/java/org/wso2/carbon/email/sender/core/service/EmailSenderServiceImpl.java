@@ -35,30 +35,75 @@ import org.wso2.carbon.email.sender.core.internal.EmailSenderDataHolder;
 import org.wso2.carbon.utils.ConfigurationContextService;
 
 import javax.xml.stream.XMLStreamException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Sends emails through the Axis2 mail transport in the background. The content of an email is built once for all of
+ * its recipients, and the recipients are sent in batches, each batch through a single service client on one of the
+ * bounded pool of sender threads. Recipients which could not be reached are retried a few times with an increasing
+ * delay before they are given up. The number of sent, retried and failed emails, and the number of queued batches,
+ * are reported by the service.
+ */
 public class EmailSenderServiceImpl implements EmailSenderService {
 
-    private static ThreadPoolExecutor threadPoolExecutor;
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_RETRIES = 3;
+    private static final long INITIAL_RETRY_DELAY = 1000L;
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+    private final ScheduledExecutorService retryScheduler;
+    private final long initialRetryDelay;
+    private final AtomicLong sentEmailCount = new AtomicLong();
+    private final AtomicLong retriedEmailCount = new AtomicLong();
+    private final AtomicLong failedEmailCount = new AtomicLong();
     private EmailContentProvider contentProvider;
     private static final String TRANSPORT_SENDER_NAME = "mailto";
 
-    static {
-        EmailSenderConfig config = EmailSenderConfig.getInstance();
-        threadPoolExecutor = new ThreadPoolExecutor(config.getMinThreads(), config.getMaxThreads(),
-                config.getKeepAliveDuration(), TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(config.getThreadQueueCapacity()));
-    }
-
     private static final String EMAIL_URI_SCHEME = "mailto:";
     private static Log log = LogFactory.getLog(EmailSenderServiceImpl.class);
 
     public EmailSenderServiceImpl() {
-        this.contentProvider = EmailContentProviderFactory.getContentProvider();
+        this(EmailContentProviderFactory.getContentProvider(), createThreadPool(EmailSenderConfig.getInstance()),
+                INITIAL_RETRY_DELAY);
+    }
+
+    EmailSenderServiceImpl(EmailContentProvider contentProvider, ThreadPoolExecutor threadPoolExecutor,
+                           long initialRetryDelay) {
+        this.contentProvider = contentProvider;
+        this.threadPoolExecutor = threadPoolExecutor;
+        this.initialRetryDelay = initialRetryDelay;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "email-sender-retry");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private static ThreadPoolExecutor createThreadPool(EmailSenderConfig config) {
+        return new ThreadPoolExecutor(config.getMinThreads(), config.getMaxThreads(),
+                config.getKeepAliveDuration(), TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(config.getThreadQueueCapacity()), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "email-sender");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
     }
 
     private boolean isMailServerConfigured() {
@@ -70,17 +115,15 @@ public class EmailSenderServiceImpl implements EmailSenderService {
     public void sendEmail(EmailContext emailCtx) throws EmailSendingFailedException,
             EmailTransportNotConfiguredException {
         if (this.isMailServerConfigured()) {
-            for (String recipient : emailCtx.getRecipients()) {
-                ContentProviderInfo info = emailCtx.getContentProviderInfo();
-                EmailData emailData;
-                try {
-                    emailData = contentProvider.getContent(info.getTemplate(), info.getParams());
-                    threadPoolExecutor.submit(new EmailSender(recipient, emailData.getSubject(), emailData.getBody()));
-                } catch (ContentProcessingInterruptedException e) {
-                    throw new EmailSendingFailedException("Error occurred while retrieving email content to be " +
-                            "sent for recipient '" + recipient + "'", e);
-                }
+            ContentProviderInfo info = emailCtx.getContentProviderInfo();
+            EmailData emailData;
+            try {
+                emailData = contentProvider.getContent(info.getTemplate(), info.getParams());
+            } catch (ContentProcessingInterruptedException e) {
+                throw new EmailSendingFailedException("Error occurred while retrieving email content to be " +
+                        "sent for recipients '" + emailCtx.getRecipients() + "'", e);
             }
+            this.sendEmail(new ArrayList<>(emailCtx.getRecipients()), emailData.getSubject(), emailData.getBody());
         } else {
             String msg = "Email sender transport is not configured. Please configure the 'mailto' sender" +
                     " transport in axis2.xml.";
@@ -89,53 +132,169 @@ public class EmailSenderServiceImpl implements EmailSenderService {
         }
     }
 
-    public static class EmailSender implements Runnable {
+    /**
+     * Queues the given recipients in batches. Either all the batches are queued, or none of them is queued when the
+     * sender threads cannot take all of them. If a batch is still rejected, for instance because other emails were
+     * queued meanwhile, the recipients which were not queued are reported in the exception.
+     */
+    void sendEmail(List<String> recipients, String subject, String body) throws EmailSendingFailedException {
+        int batchCount = (recipients.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+        int capacity = threadPoolExecutor.getQueue().remainingCapacity() +
+                threadPoolExecutor.getMaximumPoolSize() - threadPoolExecutor.getPoolSize();
+        if (batchCount > capacity) {
+            throw new EmailSendingFailedException("Email sending queue is full, hence emails to '" + recipients +
+                    "' could not be queued");
+        }
+        for (int i = 0; i < recipients.size(); i += BATCH_SIZE) {
+            List<String> batch = recipients.subList(i, Math.min(i + BATCH_SIZE, recipients.size()));
+            try {
+                threadPoolExecutor.execute(new EmailSender(new ArrayList<>(batch), subject, body, 0));
+            } catch (RejectedExecutionException e) {
+                throw new EmailSendingFailedException("Email sending queue is full, hence emails to '" +
+                        recipients.subList(i, recipients.size()) + "' could not be queued, while emails to '" +
+                        recipients.subList(0, i) + "' were queued", e);
+            }
+        }
+    }
+
+    @Override
+    public long getSentEmailCount() {
+        return sentEmailCount.get();
+    }
+
+    @Override
+    public long getRetriedEmailCount() {
+        return retriedEmailCount.get();
+    }
 
-        String to;
+    @Override
+    public long getFailedEmailCount() {
+        return failedEmailCount.get();
+    }
+
+    @Override
+    public int getQueuedBatchCount() {
+        return threadPoolExecutor.getQueue().size();
+    }
+
+    /**
+     * Stops the sender threads. Emails which are being sent are completed, while the queued and retried emails are
+     * dropped.
+     */
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        threadPoolExecutor.shutdownNow();
+    }
+
+    ServiceClient createServiceClient() throws AxisFault {
+        ConfigurationContextService configCtxService =
+                EmailSenderDataHolder.getInstance().getConfigurationContextService();
+        if (configCtxService == null) {
+            throw new IllegalStateException("Configuration Context Service is not available");
+        }
+        ConfigurationContext configCtx = configCtxService.getServerConfigContext();
+        return new ServiceClient(configCtx, null);
+    }
+
+    private void retry(final List<String> recipients, final String subject, final String body, final int attempt) {
+        if (attempt >= MAX_RETRIES) {
+            failedEmailCount.addAndGet(recipients.size());
+            log.error("Giving up delivering the message, subject: '" + subject + "', to: '" + recipients +
+                    "' after " + attempt + " retries");
+            return;
+        }
+        long delay = initialRetryDelay << attempt;
+        retriedEmailCount.addAndGet(recipients.size());
+        try {
+            retryScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        threadPoolExecutor.execute(new EmailSender(recipients, subject, body, attempt + 1));
+                    } catch (RejectedExecutionException e) {
+                        failedEmailCount.addAndGet(recipients.size());
+                        log.error("Email sending queue is full, hence the message, subject: '" + subject +
+                                "', to: '" + recipients + "' could not be retried", e);
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            failedEmailCount.addAndGet(recipients.size());
+            log.error("Email sender is shut down, hence the message, subject: '" + subject + "', to: '" +
+                    recipients + "' could not be retried", e);
+        }
+    }
+
+    private class EmailSender implements Runnable {
+
+        List<String> recipients;
         String subject;
         String body;
+        int attempt;
 
-        EmailSender(String to, String subject, String body) {
-            this.to = to;
+        EmailSender(List<String> recipients, String subject, String body, int attempt) {
+            this.recipients = recipients;
             this.subject = subject;
             this.body = body;
+            this.attempt = attempt;
         }
 
         public void run() {
-            OMElement payload = null;
+            List<String> failedRecipients = new ArrayList<>();
+            ServiceClient serviceClient = null;
+            int index = 0;
             try {
-                payload = AXIOMUtil.stringToOM(body);
-            } catch (XMLStreamException e) {
-                log.error("Error occurred while converting email body contents to an XML", e);
-            }
-            try {
-                ConfigurationContextService configCtxService =
-                        EmailSenderDataHolder.getInstance().getConfigurationContextService();
-                if (configCtxService == null) {
-                    throw new IllegalStateException("Configuration Context Service is not available");
-                }
-                ConfigurationContext configCtx = configCtxService.getServerConfigContext();
-                ServiceClient serviceClient = new ServiceClient(configCtx, null);
+                serviceClient = createServiceClient();
 
                 Map<String, String> headerMap = new HashMap<>();
                 headerMap.put(MailConstants.MAIL_HEADER_SUBJECT, subject);
 
-                Options options = new Options();
-                options.setProperty(MessageContext.TRANSPORT_HEADERS, headerMap);
-                options.setProperty("FORCE_CONTENT_TYPE_BASED_FORMATTER", "true");
-                options.setProperty(Constants.Configuration.MESSAGE_TYPE, "application/xml");
-                options.setProperty(Constants.Configuration.CONTENT_TYPE, "text/html");
-                options.setTo(new EndpointReference(EMAIL_URI_SCHEME + to));
-
-                serviceClient.setOptions(options);
-                serviceClient.fireAndForget(payload);
-                if (log.isDebugEnabled()) {
-                    log.debug("Email has been successfully sent to '" + to + "'");
+                for (; index < recipients.size(); index++) {
+                    String to = recipients.get(index);
+                    OMElement payload;
+                    try {
+                        payload = AXIOMUtil.stringToOM(body);
+                    } catch (XMLStreamException e) {
+                        log.error("Error occurred while converting email body contents to an XML", e);
+                        failedEmailCount.addAndGet(recipients.size() - index);
+                        return;
+                    }
+                    Options options = new Options();
+                    options.setProperty(MessageContext.TRANSPORT_HEADERS, headerMap);
+                    options.setProperty("FORCE_CONTENT_TYPE_BASED_FORMATTER", "true");
+                    options.setProperty(Constants.Configuration.MESSAGE_TYPE, "application/xml");
+                    options.setProperty(Constants.Configuration.CONTENT_TYPE, "text/html");
+                    options.setTo(new EndpointReference(EMAIL_URI_SCHEME + to));
+
+                    serviceClient.setOptions(options);
+                    try {
+                        serviceClient.fireAndForget(payload);
+                        sentEmailCount.incrementAndGet();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Email has been successfully sent to '" + to + "'");
+                        }
+                    } catch (AxisFault e) {
+                        log.error("Error occurred while delivering the message, subject: '" + subject + "', to: '" +
+                                to + "'", e);
+                        failedRecipients.add(to);
+                    }
                 }
             } catch (AxisFault e) {
-                log.error("Error occurred while delivering the message, subject: '" + subject + "', to: '" + to +
-                        "'", e);
+                log.error("Error occurred while creating the service client to deliver the message, subject: '" +
+                        subject + "'", e);
+                failedRecipients.addAll(recipients.subList(index, recipients.size()));
+            } finally {
+                if (serviceClient != null) {
+                    try {
+                        serviceClient.cleanup();
+                    } catch (AxisFault e) {
+                        log.warn("Error occurred while cleaning up the service client used to deliver emails", e);
+                    }
+                }
+            }
+            if (!failedRecipients.isEmpty()) {
+                retry(failedRecipients, subject, body, attempt);
             }
         }
     }
-}
\ No newline at end of file
+}
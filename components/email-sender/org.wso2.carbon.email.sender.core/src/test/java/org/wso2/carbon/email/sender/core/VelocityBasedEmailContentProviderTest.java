@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.email.sender.core;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.context.RegistryType;
+import org.wso2.carbon.registry.api.Registry;
+import org.wso2.carbon.registry.api.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * This contains unit tests for caching the parsed email templates. The templates are served by a stub registry
+ * attached to the carbon context.
+ */
+public class VelocityBasedEmailContentProviderTest {
+
+    private static final String TEMPLATE_NAME = "user-invitation";
+    private static final int TENANT_ID = 1;
+
+    private VelocityBasedEmailContentProvider contentProvider;
+    private Resource templateResource;
+    private volatile String templateContent;
+    private volatile long lastModified;
+
+    @BeforeMethod
+    public void init() throws Exception {
+        templateResource = Mockito.mock(Resource.class);
+        Mockito.when(templateResource.getContentStream()).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) {
+                return new ByteArrayInputStream(templateContent.getBytes());
+            }
+        });
+        Mockito.when(templateResource.getLastModified()).thenAnswer(new Answer<Date>() {
+            @Override
+            public Date answer(InvocationOnMock invocation) {
+                return new Date(lastModified);
+            }
+        });
+        Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.resourceExists(Mockito.anyString())).thenReturn(true);
+        Mockito.when(registry.get(Mockito.anyString())).thenReturn(templateResource);
+
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(TENANT_ID);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setRegistry(RegistryType.SYSTEM_CONFIGURATION, registry);
+
+        storeTemplate("Welcome", 1000L);
+        contentProvider = new VelocityBasedEmailContentProvider();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        PrivilegedCarbonContext.endTenantFlow();
+    }
+
+    @Test(description = "Test that a template is parsed once and then served from the cache.")
+    public void testCachedTemplate() throws Exception {
+        Assert.assertEquals(getContent("admin").getSubject(), "Welcome admin");
+        Assert.assertEquals(getContent("user").getSubject(), "Welcome user",
+                "Parameters are not merged into the cached template.");
+        Mockito.verify(templateResource, Mockito.times(1)).getContentStream();
+    }
+
+    @Test(description = "Test that an unchanged template is not parsed again when it is validated.")
+    public void testUnchangedTemplate() throws Exception {
+        contentProvider.templateValidationInterval = 0;
+        Assert.assertEquals(getContent("admin").getSubject(), "Welcome admin");
+        Assert.assertEquals(getContent("admin").getSubject(), "Welcome admin");
+        Mockito.verify(templateResource, Mockito.times(1)).getContentStream();
+    }
+
+    @Test(description = "Test that a template changed in the registry is not validated before the validation "
+            + "interval elapses.")
+    public void testChangedTemplateBeforeValidation() throws Exception {
+        Assert.assertEquals(getContent("admin").getSubject(), "Welcome admin");
+
+        storeTemplate("Hello", 2000L);
+        Assert.assertEquals(getContent("admin").getSubject(), "Welcome admin",
+                "Template is validated before the validation interval elapsed.");
+        Mockito.verify(templateResource, Mockito.times(1)).getContentStream();
+    }
+
+    @Test(description = "Test that a template changed in the registry is parsed again once it is validated.")
+    public void testChangedTemplate() throws Exception {
+        contentProvider.templateValidationInterval = 0;
+        Assert.assertEquals(getContent("admin").getSubject(), "Welcome admin");
+
+        storeTemplate("Hello", 2000L);
+        Assert.assertEquals(getContent("admin").getSubject(), "Hello admin", "Changed template is not parsed again.");
+        Assert.assertEquals(getContent("admin").getSubject(), "Hello admin");
+        Mockito.verify(templateResource, Mockito.times(2)).getContentStream();
+    }
+
+    private EmailData getContent(String username) throws ContentProcessingInterruptedException {
+        Map<String, TypedValue<Class<?>, Object>> params = Collections.singletonMap("username",
+                new TypedValue<Class<?>, Object>(String.class, username));
+        return contentProvider.getContent(TEMPLATE_NAME, params);
+    }
+
+    private void storeTemplate(String greeting, long modifiedTime) {
+        templateContent = "<EmailConfig><Subject>" + greeting + " $username</Subject>" +
+                "<Body>Body of $username</Body></EmailConfig>";
+        lastModified = modifiedTime;
+    }
+
+}
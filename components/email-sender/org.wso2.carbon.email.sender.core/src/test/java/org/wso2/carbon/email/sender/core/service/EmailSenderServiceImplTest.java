@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.email.sender.core.service;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.client.Options;
+import org.apache.axis2.client.ServiceClient;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.email.sender.core.EmailSendingFailedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This contains unit tests for sending emails in batches and retrying the failed recipients. The mail transport is
+ * replaced with a stub service client which records the delivered recipients.
+ */
+public class EmailSenderServiceImplTest {
+
+    private static final String SUBJECT = "Test subject";
+    private static final String BODY = "<html><body>Test body</body></html>";
+    private static final long WAIT_TIMEOUT = 10;
+
+    private StubEmailSenderService emailSenderService;
+
+    @AfterMethod
+    public void shutdown() {
+        if (emailSenderService != null) {
+            emailSenderService.shutdown();
+        }
+    }
+
+    @Test(description = "Test sending the recipients of an email in batches, each through one service client.")
+    public void testSendInBatches() throws Exception {
+        emailSenderService = new StubEmailSenderService(2, 10);
+        List<String> recipients = createRecipients("user", 120);
+        emailSenderService.expectDeliveries(120);
+
+        emailSenderService.sendEmail(recipients, SUBJECT, BODY);
+
+        emailSenderService.awaitDeliveries();
+        Assert.assertEquals(emailSenderService.getDeliveredRecipients().size(), 120);
+        Assert.assertTrue(emailSenderService.getDeliveredRecipients().containsAll(recipients));
+        Assert.assertEquals(emailSenderService.getCreatedClients(), 3, "Recipients are not sent in batches of 50.");
+        waitUntilSent(120);
+        Assert.assertEquals(emailSenderService.getRetriedEmailCount(), 0);
+        Assert.assertEquals(emailSenderService.getFailedEmailCount(), 0);
+    }
+
+    @Test(description = "Test retrying the recipients whose delivery failed.")
+    public void testRetryFailedRecipients() throws Exception {
+        emailSenderService = new StubEmailSenderService(2, 10);
+        emailSenderService.failDeliveries("flaky@wso2.com", 2);
+        emailSenderService.expectDeliveries(3);
+
+        emailSenderService.sendEmail(createRecipients("stable", 2), SUBJECT, BODY);
+        emailSenderService.sendEmail(Collections.singletonList("flaky@wso2.com"), SUBJECT, BODY);
+
+        emailSenderService.awaitDeliveries();
+        Assert.assertTrue(emailSenderService.getDeliveredRecipients().contains("flaky@wso2.com"));
+        Assert.assertEquals(emailSenderService.getAttempts("flaky@wso2.com"), 3);
+        Assert.assertEquals(emailSenderService.getAttempts("stable0@wso2.com"), 1);
+        waitUntilSent(3);
+        Assert.assertEquals(emailSenderService.getRetriedEmailCount(), 2);
+        Assert.assertEquals(emailSenderService.getFailedEmailCount(), 0);
+    }
+
+    @Test(description = "Test giving up a recipient after the maximum number of retries.")
+    public void testGiveUpAfterRetries() throws Exception {
+        emailSenderService = new StubEmailSenderService(2, 10);
+        emailSenderService.failDeliveries("broken@wso2.com", Integer.MAX_VALUE);
+
+        emailSenderService.sendEmail(Collections.singletonList("broken@wso2.com"), SUBJECT, BODY);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(WAIT_TIMEOUT);
+        while (emailSenderService.getAttempts("broken@wso2.com") < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Waits longer than the remaining backoff to make sure that no further attempt is made.
+        Thread.sleep(200);
+        Assert.assertEquals(emailSenderService.getAttempts("broken@wso2.com"), 4,
+                "Recipient should be sent once and retried 3 times.");
+        Assert.assertFalse(emailSenderService.getDeliveredRecipients().contains("broken@wso2.com"));
+        Assert.assertEquals(emailSenderService.getSentEmailCount(), 0);
+        Assert.assertEquals(emailSenderService.getRetriedEmailCount(), 3);
+        Assert.assertEquals(emailSenderService.getFailedEmailCount(), 1);
+    }
+
+    @Test(description = "Test that no batch is queued when the sender threads cannot take all the batches.")
+    public void testQueueFull() throws Exception {
+        emailSenderService = new StubEmailSenderService(1, 1);
+        CountDownLatch release = emailSenderService.blockClients();
+        emailSenderService.sendEmail(Collections.singletonList("blocking@wso2.com"), SUBJECT, BODY);
+        emailSenderService.awaitBlockedClient();
+
+        try {
+            emailSenderService.sendEmail(createRecipients("user", 120), SUBJECT, BODY);
+            Assert.fail("Emails are queued although the queue cannot take all the batches.");
+        } catch (EmailSendingFailedException e) {
+            // Expected, as only one more batch fits into the queue.
+        }
+        Assert.assertEquals(emailSenderService.getQueuedBatchCount(), 0, "Part of the email is queued.");
+
+        emailSenderService.expectDeliveries(11);
+        emailSenderService.sendEmail(createRecipients("user", 10), SUBJECT, BODY);
+        Assert.assertEquals(emailSenderService.getQueuedBatchCount(), 1);
+        release.countDown();
+        emailSenderService.awaitDeliveries();
+    }
+
+    @Test(description = "Test that emails are not queued once the service is shut down.",
+            expectedExceptions = EmailSendingFailedException.class)
+    public void testShutdown() throws Exception {
+        emailSenderService = new StubEmailSenderService(1, 1);
+        emailSenderService.shutdown();
+        emailSenderService.sendEmail(Collections.singletonList("user@wso2.com"), SUBJECT, BODY);
+    }
+
+    private void waitUntilSent(long count) throws InterruptedException {
+        // Emails are counted as sent after they are handed over to the service client.
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(WAIT_TIMEOUT);
+        while (emailSenderService.getSentEmailCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(emailSenderService.getSentEmailCount(), count);
+    }
+
+    private static List<String> createRecipients(String prefix, int count) {
+        List<String> recipients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            recipients.add(prefix + i + "@wso2.com");
+        }
+        return recipients;
+    }
+
+    /**
+     * Email sender service which delivers to a stub service client in place of the SMTP transport.
+     */
+    private static class StubEmailSenderService extends EmailSenderServiceImpl {
+
+        private final List<String> deliveredRecipients = Collections.synchronizedList(new ArrayList<String>());
+        private final ConcurrentMap<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+        private final AtomicInteger createdClients = new AtomicInteger();
+        private volatile CountDownLatch deliveries = new CountDownLatch(0);
+        private volatile CountDownLatch release;
+        private final CountDownLatch blockedClient = new CountDownLatch(1);
+
+        StubEmailSenderService(int threads, int queueCapacity) {
+            super(null, new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(queueCapacity)), 10);
+        }
+
+        void expectDeliveries(int count) {
+            deliveries = new CountDownLatch(count);
+        }
+
+        void awaitDeliveries() throws InterruptedException {
+            Assert.assertTrue(deliveries.await(WAIT_TIMEOUT, TimeUnit.SECONDS), "Emails are not delivered in time.");
+        }
+
+        void failDeliveries(String recipient, int times) {
+            failures.put(recipient, times);
+        }
+
+        CountDownLatch blockClients() {
+            release = new CountDownLatch(1);
+            return release;
+        }
+
+        void awaitBlockedClient() throws InterruptedException {
+            Assert.assertTrue(blockedClient.await(WAIT_TIMEOUT, TimeUnit.SECONDS), "Sender thread is not started.");
+        }
+
+        List<String> getDeliveredRecipients() {
+            return deliveredRecipients;
+        }
+
+        int getAttempts(String recipient) {
+            AtomicInteger count = attempts.get(recipient);
+            return count == null ? 0 : count.get();
+        }
+
+        int getCreatedClients() {
+            return createdClients.get();
+        }
+
+        @Override
+        ServiceClient createServiceClient() throws AxisFault {
+            createdClients.incrementAndGet();
+            CountDownLatch latch = release;
+            if (latch != null && blockedClient.getCount() > 0) {
+                blockedClient.countDown();
+                try {
+                    latch.await(WAIT_TIMEOUT, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            final ServiceClient serviceClient = Mockito.mock(ServiceClient.class);
+            final List<String> currentRecipient = new ArrayList<>(1);
+            Mockito.doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) {
+                    Options options = (Options) invocation.getArguments()[0];
+                    currentRecipient.clear();
+                    currentRecipient.add(options.getTo().getAddress().substring("mailto:".length()));
+                    return null;
+                }
+            }).when(serviceClient).setOptions(Mockito.any(Options.class));
+            Mockito.doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) throws AxisFault {
+                    deliver(currentRecipient.get(0));
+                    return null;
+                }
+            }).when(serviceClient).fireAndForget(Mockito.any(OMElement.class));
+            return serviceClient;
+        }
+
+        private void deliver(String recipient) throws AxisFault {
+            attempts.putIfAbsent(recipient, new AtomicInteger());
+            int attempt = attempts.get(recipient).incrementAndGet();
+            Integer failureCount = failures.get(recipient);
+            if (failureCount != null && attempt <= failureCount) {
+                throw new AxisFault("Mail server rejected the recipient " + recipient);
+            }
+            deliveredRecipients.add(recipient);
+            deliveries.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.oauth.extensions.cache;
+
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.OAuthScopeDAO;
+
+import javax.cache.Cache;
+import javax.cache.Caching;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Caches the permissions bound to each scope, which the scope validators need on every token validation. The
+ * bindings are kept in a tenant scoped, cluster aware cache, so they have to be read within the tenant flow of the
+ * tenant the scope belongs to. The cache is cleared by the API publisher whenever the scopes of an API are published.
+ */
+public class ScopeValidationCache {
+
+    public static final String SCOPE_VALIDATION_CACHE_MANAGER = "scopeValidationCacheManager";
+    public static final String SCOPE_BINDING_CACHE = "scopeBindingCache";
+
+    private static final ScopeValidationCache instance = new ScopeValidationCache();
+
+    ScopeValidationCache() {
+    }
+
+    public static ScopeValidationCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the permissions bound to the given scope, reading them from the scope store only if they are not
+     * cached for the tenant of the current tenant flow.
+     *
+     * @param scopeDAO  DAO used to read the bindings of the scope.
+     * @param scopeName name of the scope.
+     * @param tenantId  tenant the scope belongs to.
+     * @return permissions of the scope, may be empty.
+     * @throws IdentityOAuth2Exception if the bindings could not be read.
+     */
+    public Set<String> getPermissionsOfScope(OAuthScopeDAO scopeDAO, String scopeName, int tenantId)
+            throws IdentityOAuth2Exception {
+        Cache<String, HashSet<String>> scopeBindingCache = getScopeBindingCache();
+        HashSet<String> permissions = scopeBindingCache.get(scopeName);
+        if (permissions == null) {
+            Set<String> bindings = scopeDAO.getBindingsOfScopeByScopeName(scopeName, tenantId);
+            permissions = (bindings == null) ? new HashSet<String>() : new HashSet<>(bindings);
+            scopeBindingCache.put(scopeName, permissions);
+        }
+        return Collections.unmodifiableSet(permissions);
+    }
+
+    /**
+     * Drops the cached bindings of all the scopes of the tenant of the current tenant flow.
+     */
+    public void clearScopeBindings() {
+        getScopeBindingCache().removeAll();
+    }
+
+    Cache<String, HashSet<String>> getScopeBindingCache() {
+        return Caching.getCacheManagerFactory().getCacheManager(SCOPE_VALIDATION_CACHE_MANAGER)
+                .getCache(SCOPE_BINDING_CACHE);
+    }
+
+}
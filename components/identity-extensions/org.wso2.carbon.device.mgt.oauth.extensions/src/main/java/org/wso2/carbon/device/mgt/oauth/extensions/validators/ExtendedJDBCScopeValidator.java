@@ -22,6 +22,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.oauth.extensions.cache.ScopeValidationCache;
 import org.wso2.carbon.device.mgt.oauth.extensions.internal.OAuthExtensionsDataHolder;
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
@@ -48,7 +49,7 @@ import java.util.Set;
 public class ExtendedJDBCScopeValidator extends OAuth2ScopeValidator {
 
     private static final Log log = LogFactory.getLog(ExtendedJDBCScopeValidator.class);
-    private static final String UI_EXECUTE = "ui.execute";
+    private static final String PERMISSION_ROOT = "/";
 
 
     @Override
@@ -116,33 +117,12 @@ public class ExtendedJDBCScopeValidator extends OAuth2ScopeValidator {
             RealmService realmService = OAuthExtensionsDataHolder.getInstance().getRealmService();
             int tenantId = realmService.getTenantManager().getTenantId(authorizedUser.getTenantDomain());
 
-            //Get the permissions associated with the scope, if any
-            Set<String> permissionsOfScope = scopeDAO.getBindingsOfScopeByScopeName(resourceScope, tenantId);
-
-            //If the scope doesn't have any permissions associated with it.
-            if (permissionsOfScope == null || permissionsOfScope.isEmpty()) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Did not find any roles associated to the scope " + resourceScope);
-                }
-                return true;
-            }
-
-            if (log.isDebugEnabled()) {
-                StringBuilder logMessage = new StringBuilder("Found permissions of scope '" + resourceScope + "' ");
-                for (String permission : permissionsOfScope) {
-                    logMessage.append(permission);
-                    logMessage.append(", ");
-                }
-                log.debug(logMessage.toString());
-            }
-
-
             if (tenantId == 0 || tenantId == -1) {
                 tenantId = IdentityTenantUtil.getTenantIdOfUser(authorizedUser.getUserName());
             }
 
             AuthorizationManager authorizationManager;
-            String[] userRoles;
+            Set<String> permissionsOfScope;
             boolean tenantFlowStarted = false;
 
             try {
@@ -154,6 +134,9 @@ public class ExtendedJDBCScopeValidator extends OAuth2ScopeValidator {
                     tenantFlowStarted = true;
                 }
 
+                //Get the permissions associated with the scope, if any
+                permissionsOfScope = ScopeValidationCache.getInstance().getPermissionsOfScope(scopeDAO,
+                        resourceScope, tenantId);
                 authorizationManager = realmService.getTenantUserRealm(tenantId).getAuthorizationManager();
 
             } finally {
@@ -161,22 +144,34 @@ public class ExtendedJDBCScopeValidator extends OAuth2ScopeValidator {
                     PrivilegedCarbonContext.endTenantFlow();
                 }
             }
+
+            //If the scope doesn't have any permissions associated with it.
+            if (permissionsOfScope == null || permissionsOfScope.isEmpty()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Did not find any roles associated to the scope " + resourceScope);
+                }
+                return true;
+            }
+
+            if (log.isDebugEnabled()) {
+                StringBuilder logMessage = new StringBuilder("Found permissions of scope '" + resourceScope + "' ");
+                for (String permission : permissionsOfScope) {
+                    logMessage.append(permission);
+                    logMessage.append(", ");
+                }
+                log.debug(logMessage.toString());
+            }
+
             boolean status = false;
-            String username = MultitenantUtils.getTenantAwareUsername(authorizedUser.getUserName());
-            for (String permission : permissionsOfScope) {
-                if (authorizationManager != null) {
-                    String userStore = authorizedUser.getUserStoreDomain();
-
-                    if (userStore != null) {
-                        status = authorizationManager
-                                .isUserAuthorized(userStore + "/" + username, permission, UI_EXECUTE);
-                    } else {
-                        status = authorizationManager.isUserAuthorized(username, permission, UI_EXECUTE);
-                    }
-                    if (status) {
-                        break;
-                    }
+            if (authorizationManager != null) {
+                String username = MultitenantUtils.getTenantAwareUsername(authorizedUser.getUserName());
+                String userStore = authorizedUser.getUserStoreDomain();
+                if (userStore != null) {
+                    username = userStore + "/" + username;
                 }
+                status = PermissionBasedScopeValidator.isAuthorizedForAny(
+                        authorizationManager.getAllowedUIResourcesForUser(username, PERMISSION_ROOT),
+                        permissionsOfScope);
             }
 
             if (status) {
@@ -22,6 +22,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.oauth.extensions.cache.ScopeValidationCache;
 import org.wso2.carbon.device.mgt.oauth.extensions.internal.OAuthExtensionsDataHolder;
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
@@ -44,7 +45,7 @@ import java.util.Set;
 public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
 
     private static final Log log = LogFactory.getLog(PermissionBasedScopeValidator.class);
-    private static final String UI_EXECUTE = "ui.execute";
+    private static final String PERMISSION_ROOT = "/";
 
 
     @Override
@@ -78,28 +79,9 @@ public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
             if (tenantId == 0 || tenantId == -1) {
                 tenantId = IdentityTenantUtil.getTenantIdOfUser(authorizedUser.getUserName());
             }
-            //Get the permissions associated with the scope, if any
-            Set<String> permissionsOfScope = authScopeDAO.getBindingsOfScopeByScopeName(resourceScope, tenantId);
-
-            //If the scope doesn't have any permissions associated with it.
-            if (permissionsOfScope == null || permissionsOfScope.isEmpty()) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Did not find any roles associated to the scope " + resourceScope);
-                }
-                return true;
-            }
-
-            if (log.isDebugEnabled()) {
-                StringBuilder logMessage = new StringBuilder("Found permissions of scope '" + resourceScope + "' ");
-                for (String permission : permissionsOfScope) {
-                    logMessage.append(permission);
-                    logMessage.append(", ");
-                }
-                log.debug(logMessage.toString());
-            }
 
             AuthorizationManager authorizationManager;
-            String[] userRoles;
+            Set<String> permissionsOfScope;
             boolean tenantFlowStarted = false;
 
             try {
@@ -111,6 +93,9 @@ public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
                     tenantFlowStarted = true;
                 }
 
+                //Get the permissions associated with the scope, if any
+                permissionsOfScope = ScopeValidationCache.getInstance().getPermissionsOfScope(authScopeDAO,
+                        resourceScope, tenantId);
                 authorizationManager = realmService.getTenantUserRealm(tenantId).getAuthorizationManager();
 
             } finally {
@@ -118,22 +103,33 @@ public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
                     PrivilegedCarbonContext.endTenantFlow();
                 }
             }
+
+            //If the scope doesn't have any permissions associated with it.
+            if (permissionsOfScope == null || permissionsOfScope.isEmpty()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Did not find any roles associated to the scope " + resourceScope);
+                }
+                return true;
+            }
+
+            if (log.isDebugEnabled()) {
+                StringBuilder logMessage = new StringBuilder("Found permissions of scope '" + resourceScope + "' ");
+                for (String permission : permissionsOfScope) {
+                    logMessage.append(permission);
+                    logMessage.append(", ");
+                }
+                log.debug(logMessage.toString());
+            }
+
             boolean status = false;
-            String username = MultitenantUtils.getTenantAwareUsername(authorizedUser.getUserName());
-            for (String permission : permissionsOfScope) {
-                if (authorizationManager != null) {
-                    String userStore = authorizedUser.getUserStoreDomain();
-
-                    if (userStore != null) {
-                        status = authorizationManager
-                                .isUserAuthorized(userStore + "/" + username, permission, UI_EXECUTE);
-                    } else {
-                        status = authorizationManager.isUserAuthorized(username, permission, UI_EXECUTE);
-                    }
-                    if (status) {
-                        break;
-                    }
+            if (authorizationManager != null) {
+                String username = MultitenantUtils.getTenantAwareUsername(authorizedUser.getUserName());
+                String userStore = authorizedUser.getUserStoreDomain();
+                if (userStore != null) {
+                    username = userStore + "/" + username;
                 }
+                status = isAuthorizedForAny(authorizationManager.getAllowedUIResourcesForUser(username,
+                        PERMISSION_ROOT), permissionsOfScope);
             }
 
             if (status) {
@@ -155,4 +151,24 @@ public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
         }
     }
 
+    /**
+     * Checks all the permissions of a scope against the UI resources allowed for the user, which are fetched in a
+     * single call. A permission is granted when the permission itself or one of its parents in the permission tree
+     * is allowed.
+     */
+    static boolean isAuthorizedForAny(String[] allowedResources, Set<String> permissions) {
+        if (allowedResources == null) {
+            return false;
+        }
+        for (String allowedResource : allowedResources) {
+            String parentPath = allowedResource.endsWith("/") ? allowedResource : allowedResource + "/";
+            for (String permission : permissions) {
+                if (permission.equals(allowedResource) || permission.startsWith(parentPath)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
 }
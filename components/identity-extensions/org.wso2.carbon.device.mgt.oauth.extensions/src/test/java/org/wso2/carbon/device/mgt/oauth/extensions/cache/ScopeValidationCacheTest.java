@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.oauth.extensions.cache;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.dao.OAuthScopeDAO;
+
+import javax.cache.Cache;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * This test class will test the scope binding cache of {@link ScopeValidationCache}.
+ */
+public class ScopeValidationCacheTest {
+
+    private static final String SCOPE = "perm:devices:view";
+    private static final String PERMISSION_VIEW = "/permission/admin/device-mgt/devices/view";
+    private static final String PERMISSION_OWNING = "/permission/admin/device-mgt/devices/owning-device/view";
+    private static final int TENANT_ID = 1;
+
+    private ScopeValidationCache scopeValidationCache;
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void init() {
+        // Tenant scoped cache of the carbon caching implementation, backed by a map.
+        final Map<String, HashSet<String>> entries = new HashMap<>();
+        Cache<String, HashSet<String>> cache = Mockito.mock(Cache.class);
+        Mockito.when(cache.get(Mockito.anyString())).thenAnswer(new Answer<HashSet<String>>() {
+            @Override
+            public HashSet<String> answer(InvocationOnMock invocation) {
+                return entries.get((String) invocation.getArguments()[0]);
+            }
+        });
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                entries.put((String) invocation.getArguments()[0], (HashSet<String>) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(cache).put(Mockito.anyString(), Mockito.any(HashSet.class));
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                entries.clear();
+                return null;
+            }
+        }).when(cache).removeAll();
+        scopeValidationCache = Mockito.spy(new ScopeValidationCache());
+        Mockito.doReturn(cache).when(scopeValidationCache).getScopeBindingCache();
+    }
+
+    @Test(description = "Bindings of a scope are read once and then served from the cache")
+    public void testScopeBindingsAreCached() throws Exception {
+        OAuthScopeDAO scopeDAO = Mockito.mock(OAuthScopeDAO.class);
+        Mockito.when(scopeDAO.getBindingsOfScopeByScopeName(SCOPE, TENANT_ID))
+                .thenReturn(new HashSet<>(Collections.singletonList(PERMISSION_VIEW)));
+
+        Assert.assertEquals(scopeValidationCache.getPermissionsOfScope(scopeDAO, SCOPE, TENANT_ID),
+                Collections.singleton(PERMISSION_VIEW));
+        Assert.assertEquals(scopeValidationCache.getPermissionsOfScope(scopeDAO, SCOPE, TENANT_ID),
+                Collections.singleton(PERMISSION_VIEW));
+        Mockito.verify(scopeDAO, Mockito.times(1)).getBindingsOfScopeByScopeName(SCOPE, TENANT_ID);
+    }
+
+    @Test(description = "A scope without bindings is cached as well, so it is not read on every validation")
+    public void testEmptyScopeBindingsAreCached() throws Exception {
+        OAuthScopeDAO scopeDAO = Mockito.mock(OAuthScopeDAO.class);
+
+        Assert.assertTrue(scopeValidationCache.getPermissionsOfScope(scopeDAO, SCOPE, TENANT_ID).isEmpty());
+        Assert.assertTrue(scopeValidationCache.getPermissionsOfScope(scopeDAO, SCOPE, TENANT_ID).isEmpty());
+        Mockito.verify(scopeDAO, Mockito.times(1)).getBindingsOfScopeByScopeName(SCOPE, TENANT_ID);
+    }
+
+    @Test(description = "Bindings of a scope are read again once the cached bindings are cleared")
+    public void testScopeBindingsAreReadAfterClear() throws Exception {
+        OAuthScopeDAO scopeDAO = Mockito.mock(OAuthScopeDAO.class);
+        Mockito.when(scopeDAO.getBindingsOfScopeByScopeName(SCOPE, TENANT_ID))
+                .thenReturn(new HashSet<>(Collections.singletonList(PERMISSION_VIEW)))
+                .thenReturn(new HashSet<>(Arrays.asList(PERMISSION_VIEW, PERMISSION_OWNING)));
+
+        Assert.assertEquals(scopeValidationCache.getPermissionsOfScope(scopeDAO, SCOPE, TENANT_ID).size(), 1);
+        scopeValidationCache.clearScopeBindings();
+        Assert.assertEquals(scopeValidationCache.getPermissionsOfScope(scopeDAO, SCOPE, TENANT_ID).size(), 2,
+                "Cleared bindings should be read from the scope store.");
+        Mockito.verify(scopeDAO, Mockito.times(2)).getBindingsOfScopeByScopeName(SCOPE, TENANT_ID);
+    }
+
+    @Test(description = "Cached bindings can not be modified by the callers",
+            expectedExceptions = UnsupportedOperationException.class)
+    public void testScopeBindingsAreNotModifiable() throws Exception {
+        OAuthScopeDAO scopeDAO = Mockito.mock(OAuthScopeDAO.class);
+        Mockito.when(scopeDAO.getBindingsOfScopeByScopeName(SCOPE, TENANT_ID))
+                .thenReturn(new HashSet<>(Collections.singletonList(PERMISSION_VIEW)));
+        scopeValidationCache.getPermissionsOfScope(scopeDAO, SCOPE, TENANT_ID).add(PERMISSION_OWNING);
+    }
+}
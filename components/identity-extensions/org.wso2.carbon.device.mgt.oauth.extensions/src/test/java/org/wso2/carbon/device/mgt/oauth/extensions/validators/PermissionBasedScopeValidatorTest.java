@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.oauth.extensions.validators;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This test class will test the bulk permission check of {@link PermissionBasedScopeValidator}.
+ */
+public class PermissionBasedScopeValidatorTest {
+
+    private static final String PERMISSION_VIEW = "/permission/admin/device-mgt/devices/view";
+    private static final String PERMISSION_OWNING = "/permission/admin/device-mgt/devices/owning-device/view";
+
+    @Test(description = "A permission of the scope which is allowed for the user authorizes the user")
+    public void testAuthorizedForAllowedPermission() {
+        Set<String> permissions = new HashSet<>(Arrays.asList(PERMISSION_VIEW, PERMISSION_OWNING));
+        Assert.assertTrue(PermissionBasedScopeValidator.isAuthorizedForAny(
+                new String[]{"/permission/admin/login", PERMISSION_OWNING}, permissions));
+    }
+
+    @Test(description = "A parent of a permission of the scope in the permission tree authorizes the user")
+    public void testAuthorizedForParentPermission() {
+        Set<String> permissions = Collections.singleton(PERMISSION_VIEW);
+        Assert.assertTrue(PermissionBasedScopeValidator.isAuthorizedForAny(
+                new String[]{"/permission/admin/device-mgt"}, permissions));
+        Assert.assertTrue(PermissionBasedScopeValidator.isAuthorizedForAny(new String[]{"/"}, permissions));
+    }
+
+    @Test(description = "Permissions which are not in the scope, or only share a prefix, do not authorize the user")
+    public void testNotAuthorized() {
+        Set<String> permissions = Collections.singleton(PERMISSION_VIEW);
+        Assert.assertFalse(PermissionBasedScopeValidator.isAuthorizedForAny(
+                new String[]{"/permission/admin/device-mgt/devices/view-all", PERMISSION_OWNING}, permissions));
+        Assert.assertFalse(PermissionBasedScopeValidator.isAuthorizedForAny(new String[0], permissions));
+        Assert.assertFalse(PermissionBasedScopeValidator.isAuthorizedForAny(null, permissions));
+    }
+}
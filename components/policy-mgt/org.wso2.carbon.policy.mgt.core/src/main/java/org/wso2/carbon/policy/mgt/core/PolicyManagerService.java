@@ -31,6 +31,7 @@ import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceExce
 import org.wso2.carbon.policy.mgt.core.task.TaskScheduleService;
 
 import java.util.List;
+import java.util.Map;
 
 public interface PolicyManagerService {
 
@@ -73,9 +74,14 @@ public interface PolicyManagerService {
     Policy getAppliedPolicyToDevice(
             DeviceIdentifier deviceIdentifier) throws PolicyManagementException;
 
+    String getAppliedPolicyVersion(DeviceIdentifier deviceIdentifier) throws PolicyManagementException;
+
     List<ComplianceFeature> checkPolicyCompliance(DeviceIdentifier deviceIdentifier, Object
             deviceResponse) throws PolicyComplianceException;
 
+    Map<DeviceIdentifier, List<ComplianceFeature>> checkPolicyCompliance(Map<DeviceIdentifier, Object>
+            deviceResponses) throws PolicyComplianceException;
+
     boolean checkCompliance(DeviceIdentifier deviceIdentifier, Object response) throws PolicyComplianceException;
 
     NonComplianceData getDeviceCompliance(DeviceIdentifier deviceIdentifier) throws PolicyComplianceException;
@@ -44,6 +44,7 @@ import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class PolicyManagerServiceImpl implements PolicyManagerService {
 
@@ -197,12 +198,23 @@ public class PolicyManagerServiceImpl implements PolicyManagerService {
         return policyManager.getAppliedPolicyToDevice(deviceIdentifier);
     }
 
+    @Override
+    public String getAppliedPolicyVersion(DeviceIdentifier deviceIdentifier) throws PolicyManagementException {
+        return policyManager.getAppliedPolicyVersion(deviceIdentifier);
+    }
+
     @Override
     public List<ComplianceFeature> checkPolicyCompliance(DeviceIdentifier deviceIdentifier, Object
             deviceResponse) throws PolicyComplianceException {
         return monitoringManager.checkPolicyCompliance(deviceIdentifier, deviceResponse);
     }
 
+    @Override
+    public Map<DeviceIdentifier, List<ComplianceFeature>> checkPolicyCompliance(Map<DeviceIdentifier, Object>
+            deviceResponses) throws PolicyComplianceException {
+        return monitoringManager.checkPolicyCompliance(deviceResponses);
+    }
+
     @Override
     public boolean checkCompliance(DeviceIdentifier deviceIdentifier, Object response) throws
             PolicyComplianceException {
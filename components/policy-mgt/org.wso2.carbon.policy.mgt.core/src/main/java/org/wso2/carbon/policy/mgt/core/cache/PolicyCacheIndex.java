@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per tenant index of the cached policies. The policies themselves are kept in a separate cache keyed by the policy
+ * id, so this index only holds the ids in their load order, the ids of each device type and a version stamp which is
+ * incremented on every change. Instances are immutable; every change returns a new index.
+ * <p>
+ * The version of an index built from scratch must follow the version of the index it replaces, see
+ * {@link #nextOf(PolicyCacheIndex)}, so that the version never goes backwards when the cache is repopulated.
+ */
+public class PolicyCacheIndex implements Serializable {
+
+    private static final long serialVersionUID = 2451237856128376234L;
+
+    private final long version;
+    private final List<Integer> policyIds;
+    private final Map<String, List<Integer>> deviceTypePolicyIds;
+
+    public PolicyCacheIndex() {
+        this(0);
+    }
+
+    /**
+     * @param version - Version of the empty index.
+     */
+    public PolicyCacheIndex(long version) {
+        this(version, new ArrayList<Integer>(), new HashMap<String, List<Integer>>());
+    }
+
+    private PolicyCacheIndex(long version, List<Integer> policyIds, Map<String, List<Integer>> deviceTypePolicyIds) {
+        this.version = version;
+        this.policyIds = policyIds;
+        this.deviceTypePolicyIds = deviceTypePolicyIds;
+    }
+
+    /**
+     * Returns an empty index to replace the given one. Its version is greater than the version of the given index and
+     * is seeded from the clock, so that it also moves forward when the previous index is no longer known, e.g. after
+     * a restart or an eviction.
+     *
+     * @param previous - Index being replaced, null if it is not known.
+     * @return - Empty index.
+     */
+    public static PolicyCacheIndex nextOf(PolicyCacheIndex previous) {
+        long version = System.currentTimeMillis();
+        if (previous != null && previous.getVersion() >= version) {
+            version = previous.getVersion() + 1;
+        }
+        return new PolicyCacheIndex(version);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Integer> getPolicyIds() {
+        return Collections.unmodifiableList(policyIds);
+    }
+
+    public List<Integer> getPolicyIdsOfDeviceType(String deviceType) {
+        List<Integer> ids = deviceTypePolicyIds.get(normalize(deviceType));
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    public boolean contains(int policyId) {
+        return policyIds.contains(policyId);
+    }
+
+    /**
+     * Returns a new index which contains the given policy. If the policy is already indexed under a different device
+     * type, it is moved to the new device type while keeping its position.
+     *
+     * @param policyId   - Id of the policy.
+     * @param deviceType - Device type of the policy profile, may be null.
+     * @return - Updated index.
+     */
+    public PolicyCacheIndex withPolicy(int policyId, String deviceType) {
+        List<Integer> ids = new ArrayList<>(policyIds);
+        if (!ids.contains(policyId)) {
+            ids.add(policyId);
+        }
+        Map<String, List<Integer>> typeIds = copyWithout(policyId);
+        if (deviceType != null) {
+            String key = normalize(deviceType);
+            List<Integer> idsOfType = typeIds.get(key);
+            if (idsOfType == null) {
+                idsOfType = new ArrayList<>();
+                typeIds.put(key, idsOfType);
+            }
+            idsOfType.add(policyId);
+        }
+        return new PolicyCacheIndex(version + 1, ids, typeIds);
+    }
+
+    /**
+     * Returns a new index without the given policy.
+     *
+     * @param policyId - Id of the policy.
+     * @return - Updated index.
+     */
+    public PolicyCacheIndex withoutPolicy(int policyId) {
+        List<Integer> ids = new ArrayList<>(policyIds);
+        ids.remove(Integer.valueOf(policyId));
+        return new PolicyCacheIndex(version + 1, ids, copyWithout(policyId));
+    }
+
+    private Map<String, List<Integer>> copyWithout(int policyId) {
+        Map<String, List<Integer>> typeIds = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : deviceTypePolicyIds.entrySet()) {
+            List<Integer> ids = new ArrayList<>(entry.getValue());
+            ids.remove(Integer.valueOf(policyId));
+            if (!ids.isEmpty()) {
+                typeIds.put(entry.getKey(), ids);
+            }
+        }
+        return typeIds;
+    }
+
+    private static String normalize(String deviceType) {
+        return deviceType == null ? null : deviceType.toLowerCase();
+    }
+
+}
@@ -49,6 +49,14 @@ public interface PolicyCacheManager {
      */
     List<Policy> getAllPolicies() throws PolicyManagementException;
 
+    /**
+     * This method will return the policies of the given device type, using the device type view of the cache.
+     * @param deviceType - Device type name.
+     * @return - list of policies
+     * @throws PolicyManagementException
+     */
+    List<Policy> getPoliciesOfDeviceType(String deviceType) throws PolicyManagementException;
+
     /**
      * This method will repopulate the cache, this will be called when there is a change of the policies.
      * @throws PolicyManagementException
@@ -23,6 +23,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheIndex;
 import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheManager;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
@@ -30,19 +31,39 @@ import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
 import javax.cache.Cache;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Policies of a tenant are cached individually against the policy id, together with a {@link PolicyCacheIndex}
+ * which keeps the order of the policies, the policies of each device type and a version stamp. Since a single
+ * policy change only touches its own entry and the small index, the cluster invalidation carries the changed policy
+ * id instead of the whole policy list.
+ * <p>
+ * The index is replaced by a read-modify-write, so the changes of the index made by this node are serialized by a
+ * lock. When the index is removed, an empty index carrying its version is kept, so that the repopulated index
+ * continues from that version.
+ */
 public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     private static final Log log = LogFactory.getLog(PolicyCacheManagerImpl.class);
 
+    private static final int INDEX_KEY = 1;
+    private static final int REMOVED_INDEX_KEY = 2;
+
     private static PolicyCacheManagerImpl policyCacheManager;
 
-    private static Cache<Integer, List<Policy>> getPolicyListCache() {
-        return PolicyManagerUtil.getPolicyListCache(PolicyManagementConstants.DM_CACHE_LIST);
+    private static Cache<Integer, Policy> getPolicyCache() {
+        return PolicyManagerUtil.getPolicyCache(PolicyManagementConstants.DM_POLICY_CACHE);
+    }
+
+    private static Cache<Integer, PolicyCacheIndex> getPolicyIndexCache() {
+        return PolicyManagerUtil.getPolicyIndexCache(PolicyManagementConstants.DM_POLICY_INDEX_CACHE);
     }
 
+    private final Object indexLock = new Object();
+
     private PolicyCacheManagerImpl() {
     }
 
@@ -60,29 +81,47 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
     @Override
     public void addAllPolicies(List<Policy> policies) {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        lCache.put(1, policies);
+        this.cacheAllPolicies(policies);
+    }
+
+    /**
+     * Caches the given policies and returns the index built for them. The returned index is used by the caller even
+     * if the cached entry is already evicted or expired.
+     */
+    private PolicyCacheIndex cacheAllPolicies(List<Policy> policies) {
+
+        Cache<Integer, Policy> pCache = getPolicyCache();
+        Cache<Integer, PolicyCacheIndex> iCache = getPolicyIndexCache();
+        synchronized (indexLock) {
+            PolicyCacheIndex previous = iCache.get(INDEX_KEY);
+            if (previous == null) {
+                previous = iCache.get(REMOVED_INDEX_KEY);
+            }
+            PolicyCacheIndex index = PolicyCacheIndex.nextOf(previous);
+            for (Policy policy : policies) {
+                pCache.put(policy.getId(), policy);
+                index = index.withPolicy(policy.getId(), getDeviceType(policy));
+            }
+            iCache.put(INDEX_KEY, index);
+            return index;
+        }
     }
 
     @Override
     public void updateAllPolicies(List<Policy> policies) {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        lCache.removeAll();
-        lCache.put(1, policies);
+        this.removeAllPolicies();
+        this.addAllPolicies(policies);
     }
 
     @Override
     public List<Policy> getAllPolicies() throws PolicyManagementException {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (!lCache.containsKey(1)) {
-            PolicyManager policyManager = new PolicyManagerImpl();
-            this.addAllPolicies(policyManager.getPolicies());
-        }
+        PolicyCacheIndex index = this.getIndex();
+        List<Policy> policies = this.getPolicies(index.getPolicyIds());
         if (log.isDebugEnabled()) {
-            List<Policy> cachedPolicy = lCache.get(1);
-            for (Policy policy : cachedPolicy) {
+            log.debug("Policy cache version : " + index.getVersion());
+            for (Policy policy : policies) {
                 log.debug("Policy id in cache .. : " + policy.getId() + " policy name : " + policy.
                         getPolicyName() + " Activated : " + policy.isActive());
 
@@ -95,10 +134,14 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
                     log.debug("Roles in cached policy : " + role);
                 }
             }
-
         }
-        return lCache.get(1);
+        return policies;
+    }
 
+    @Override
+    public List<Policy> getPoliciesOfDeviceType(String deviceType) throws PolicyManagementException {
+
+        return this.getPolicies(this.getIndex().getPolicyIdsOfDeviceType(deviceType));
     }
 
     @Override
@@ -111,93 +154,75 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
     @Override
     public void removeAllPolicies() {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        lCache.removeAll();
+        Cache<Integer, PolicyCacheIndex> iCache = getPolicyIndexCache();
+        synchronized (indexLock) {
+            PolicyCacheIndex index = iCache.get(INDEX_KEY);
+            if (index != null) {
+                iCache.put(REMOVED_INDEX_KEY, new PolicyCacheIndex(index.getVersion()));
+                iCache.remove(INDEX_KEY);
+            }
+        }
+        getPolicyCache().removeAll();
     }
 
     @Override
     public void addPolicy(Policy policy) {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-
-            for (Policy pol : cachedPolicy) {
-                if (pol.getId() == policy.getId()) {
-                    return;
-                }
+        Cache<Integer, PolicyCacheIndex> iCache = getPolicyIndexCache();
+        synchronized (indexLock) {
+            PolicyCacheIndex index = iCache.get(INDEX_KEY);
+            if (index != null && !index.contains(policy.getId())) {
+                getPolicyCache().put(policy.getId(), policy);
+                iCache.put(INDEX_KEY, index.withPolicy(policy.getId(), getDeviceType(policy)));
             }
-            cachedPolicy.add(policy);
         }
-
     }
 
     @Override
     public void updatePolicy(Policy policy) {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-            Iterator iterator = cachedPolicy.iterator();
-            while (iterator.hasNext()) {
-                Policy pol = (Policy) iterator.next();
-                if (pol.getId() == policy.getId()) {
-                    iterator.remove();
-                    break;
-                }
+        Cache<Integer, PolicyCacheIndex> iCache = getPolicyIndexCache();
+        synchronized (indexLock) {
+            PolicyCacheIndex index = iCache.get(INDEX_KEY);
+            if (index != null) {
+                getPolicyCache().put(policy.getId(), policy);
+                iCache.put(INDEX_KEY, index.withPolicy(policy.getId(), getDeviceType(policy)));
             }
-            cachedPolicy.add(policy);
-            lCache.replace(1, cachedPolicy);
         }
-
     }
 
     @Override
     public void updatePolicy(int policyId) throws PolicyManagementException {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
+        if (getPolicyIndexCache().containsKey(INDEX_KEY)) {
             PolicyManager policyManager = new PolicyManagerImpl();
             Policy policy = policyManager.getPolicy(policyId);
             this.updatePolicy(policy);
         }
-
     }
 
     @Override
     public void removePolicy(int policyId) {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-            Iterator iterator = cachedPolicy.iterator();
-            while (iterator.hasNext()) {
-                Policy pol = (Policy) iterator.next();
-                if (pol.getId() == policyId) {
-                    iterator.remove();
-                    break;
-                }
+        Cache<Integer, PolicyCacheIndex> iCache = getPolicyIndexCache();
+        synchronized (indexLock) {
+            PolicyCacheIndex index = iCache.get(INDEX_KEY);
+            if (index != null) {
+                iCache.put(INDEX_KEY, index.withoutPolicy(policyId));
             }
-            lCache.replace(1, cachedPolicy);
+            getPolicyCache().remove(policyId);
         }
     }
 
     @Override
     public Policy getPolicy(int policyId) throws PolicyManagementException {
 
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (!lCache.containsKey(1)) {
-            this.removeAllPolicies();
-            this.getAllPolicies();
-        }
-
-        Policy policy = null;
-        List<Policy> cachedPolicy = lCache.get(1);
-        Iterator iterator = cachedPolicy.iterator();
-        while (iterator.hasNext()) {
-            Policy pol = (Policy) iterator.next();
-            if (pol.getId() == policyId) {
-                policy = pol;
+        Cache<Integer, Policy> pCache = getPolicyCache();
+        Policy policy = pCache.get(policyId);
+        if (policy == null) {
+            PolicyCacheIndex index = this.getIndex();
+            if (index.contains(policyId)) {
+                policy = this.loadPolicy(policyId);
             }
         }
         return policy;
@@ -218,4 +243,49 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
         return 0;
     }
 
+    private PolicyCacheIndex getIndex() throws PolicyManagementException {
+
+        Cache<Integer, PolicyCacheIndex> iCache = getPolicyIndexCache();
+        PolicyCacheIndex index = iCache.get(INDEX_KEY);
+        if (index == null) {
+            // The index is rebuilt on a miss, and the rebuilt index is used directly as it may be evicted again
+            // before it is read back from the cache.
+            PolicyManager policyManager = new PolicyManagerImpl();
+            index = this.cacheAllPolicies(policyManager.getPolicies());
+        }
+        return index;
+    }
+
+    private List<Policy> getPolicies(List<Integer> policyIds) throws PolicyManagementException {
+
+        Cache<Integer, Policy> pCache = getPolicyCache();
+        List<Policy> policies = new ArrayList<>(policyIds.size());
+        for (Integer policyId : policyIds) {
+            Policy policy = pCache.get(policyId);
+            if (policy == null) {
+                // Entry has been evicted or invalidated by another node, hence reload only that policy.
+                policy = this.loadPolicy(policyId);
+            }
+            if (policy != null) {
+                policies.add(policy);
+            }
+        }
+        Collections.sort(policies);
+        return policies;
+    }
+
+    private Policy loadPolicy(int policyId) throws PolicyManagementException {
+
+        PolicyManager policyManager = new PolicyManagerImpl();
+        Policy policy = policyManager.getPolicy(policyId);
+        if (policy != null) {
+            getPolicyCache().put(policyId, policy);
+        }
+        return policy;
+    }
+
+    private static String getDeviceType(Policy policy) {
+        return (policy.getProfile() != null) ? policy.getProfile().getDeviceType() : null;
+    }
+
 }
@@ -19,6 +19,7 @@
 
 package org.wso2.carbon.policy.mgt.core.dao;
 
+import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.NonComplianceData;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyDeviceWrapper;
@@ -30,6 +31,19 @@ public interface MonitoringDAO {
 
     int addComplianceDetails(int deviceId, int policyId) throws MonitoringDAOException;
 
+    /**
+     * Adds the compliance status of an enrolment which does not have a compliance status yet.
+     *
+     * @param deviceId    id of the device.
+     * @param enrolmentId id of the current enrolment of the device.
+     * @param policyId    id of the policy applied to the device.
+     * @param compliant   whether the device is compliant with the policy.
+     * @return id of the added compliance status.
+     * @throws MonitoringDAOException
+     */
+    int addComplianceDetails(int deviceId, int enrolmentId, int policyId, boolean compliant)
+            throws MonitoringDAOException;
+
     /**
      * This is getting a list of values with device id and applied policy
      * @param devicePolicyMap <Device Id, Policy Id>
@@ -41,9 +55,19 @@ public interface MonitoringDAO {
 
     void addComplianceDetails(List<PolicyDeviceWrapper> policyDeviceWrappers) throws MonitoringDAOException;
 
-    void setDeviceAsNoneCompliance(int deviceId, int enrolmentId, int policyId) throws MonitoringDAOException;
+    /**
+     * Marks the existing compliance status of an enrolment as non compliant.
+     * @return true if the enrolment has a compliance status, false if no status is updated.
+     * @throws MonitoringDAOException
+     */
+    boolean setDeviceAsNoneCompliance(int deviceId, int enrolmentId, int policyId) throws MonitoringDAOException;
 
-    void setDeviceAsCompliance(int deviceId, int enrolmentId, int policyId) throws MonitoringDAOException;
+    /**
+     * Marks the existing compliance status of an enrolment as compliant.
+     * @return true if the enrolment has a compliance status, false if no status is updated.
+     * @throws MonitoringDAOException
+     */
+    boolean setDeviceAsCompliance(int deviceId, int enrolmentId, int policyId) throws MonitoringDAOException;
 
     void addNonComplianceFeatures(int policyComplianceStatusId, int deviceId, List<ComplianceFeature>
             complianceFeatures)
@@ -55,6 +79,16 @@ public interface MonitoringDAO {
 
     List<NonComplianceData> getCompliance() throws MonitoringDAOException;
 
+    /**
+     * Returns the compliance status of the current enrolments of the given devices. Only the status rows of the
+     * given devices are read.
+     *
+     * @param devices devices with their current enrolment.
+     * @return compliance status keyed by the enrolment id, devices without a status are not included.
+     * @throws MonitoringDAOException
+     */
+    Map<Integer, NonComplianceData> getComplianceOfDevices(List<Device> devices) throws MonitoringDAOException;
+
     List<ComplianceFeature> getNoneComplianceFeatures(int policyComplianceStatusId) throws MonitoringDAOException;
 
     void deleteNoneComplianceData(int policyComplianceStatusId) throws MonitoringDAOException;
@@ -19,6 +19,7 @@
 package org.wso2.carbon.policy.mgt.core.dao;
 
 import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.policy.mgt.common.Criterion;
 import org.wso2.carbon.device.mgt.common.policy.mgt.DeviceGroupWrapper;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
@@ -26,6 +27,7 @@ import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyCriterion;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface PolicyDAO {
 
@@ -147,7 +149,34 @@ public interface PolicyDAO {
 
     Policy getAppliedPolicy(int deviceId, int enrollmentId) throws PolicyManagerDAOException;
 
+    /**
+     * This method is used to retrieve the version of the policies applied to the enrolments of the given device, which
+     * changes whenever a policy is applied to an enrolment of the device or the enrolments of the device change.
+     * @param deviceIdentifier - Identifier of the device.
+     * @return - Version of the applied policies, null if the device is not found.
+     * @throws PolicyManagerDAOException
+     */
+    String getAppliedPolicyVersion(DeviceIdentifier deviceIdentifier) throws PolicyManagerDAOException;
+
     HashMap<Integer, Integer> getAppliedPolicyIds() throws PolicyManagerDAOException;
 
+    /**
+     * This method is used to retrieve the ids of the policies applied to the current enrolments of the given devices.
+     * Only the applied policy rows of the given devices are read.
+     * @param devices - Devices with their current enrolment.
+     * @return - Policy ids keyed by the enrolment id, devices without an applied policy are not included.
+     * @throws PolicyManagerDAOException
+     */
+    Map<Integer, Integer> getAppliedPolicyIds(List<Device> devices) throws PolicyManagerDAOException;
+
+    /**
+     * This method is used to retrieve the policies applied to the current enrolments of the given devices, as they
+     * were applied. Only the applied policy rows of the given devices are read.
+     * @param devices - Devices with their current enrolment.
+     * @return - Applied policies keyed by the enrolment id, devices without an applied policy are not included.
+     * @throws PolicyManagerDAOException
+     */
+    Map<Integer, Policy> getAppliedPolicies(List<Device> devices) throws PolicyManagerDAOException;
+
     HashMap<Integer, Integer> getAppliedPolicyIdsDeviceIds() throws PolicyManagerDAOException;
 }
@@ -22,8 +22,10 @@ package org.wso2.carbon.policy.mgt.core.dao.impl;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.NonComplianceData;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import org.wso2.carbon.policy.mgt.common.monitor.PolicyDeviceWrapper;
 import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAO;
 import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAOException;
@@ -72,6 +74,44 @@ public class MonitoringDAOImpl implements MonitoringDAO {
     }
 
 
+    @Override
+    public int addComplianceDetails(int deviceId, int enrolmentId, int policyId, boolean compliant)
+            throws MonitoringDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet generatedKeys = null;
+        Timestamp currentTimestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "INSERT INTO DM_POLICY_COMPLIANCE_STATUS (DEVICE_ID, ENROLMENT_ID, POLICY_ID, STATUS, " +
+                    "ATTEMPTS, LAST_REQUESTED_TIME, " + (compliant ? "LAST_SUCCESS_TIME" : "LAST_FAILED_TIME") +
+                    ", TENANT_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+            stmt = conn.prepareStatement(query, new String[] {"id"});
+            stmt.setInt(1, deviceId);
+            stmt.setInt(2, enrolmentId);
+            stmt.setInt(3, policyId);
+            stmt.setInt(4, compliant ? 1 : 0);
+            stmt.setInt(5, 0);
+            stmt.setTimestamp(6, currentTimestamp);
+            stmt.setTimestamp(7, currentTimestamp);
+            stmt.setInt(8, tenantId);
+            stmt.executeUpdate();
+
+            generatedKeys = stmt.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                return generatedKeys.getInt(1);
+            } else {
+                return 0;
+            }
+        } catch (SQLException e) {
+            throw new MonitoringDAOException("Error occurred while adding the compliance status of device " +
+                    deviceId + " to the database.", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, generatedKeys);
+        }
+    }
+
     @Override
     public void addComplianceDetails(Map<Integer, Integer> devicePolicyMap) throws MonitoringDAOException {
         Connection conn;
@@ -145,7 +185,7 @@ public class MonitoringDAOImpl implements MonitoringDAO {
     }
 
     @Override
-    public void setDeviceAsNoneCompliance(int deviceId, int enrolmentId, int policyId) throws MonitoringDAOException {
+    public boolean setDeviceAsNoneCompliance(int deviceId, int enrolmentId, int policyId) throws MonitoringDAOException {
         Connection conn;
         PreparedStatement stmt = null;
         ResultSet generatedKeys = null;
@@ -161,8 +201,7 @@ public class MonitoringDAOImpl implements MonitoringDAO {
             stmt.setInt(3, deviceId);
             stmt.setInt(4, tenantId);
             stmt.setInt(5, enrolmentId);
-            stmt.executeUpdate();
-
+            return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new MonitoringDAOException("Error occurred while updating the none compliance to the database.", e);
         } finally {
@@ -172,7 +211,7 @@ public class MonitoringDAOImpl implements MonitoringDAO {
     }
 
     @Override
-    public void setDeviceAsCompliance(int deviceId, int enrolmentId, int policyId) throws MonitoringDAOException {
+    public boolean setDeviceAsCompliance(int deviceId, int enrolmentId, int policyId) throws MonitoringDAOException {
         Connection conn;
         PreparedStatement stmt = null;
         ResultSet generatedKeys = null;
@@ -188,7 +227,7 @@ public class MonitoringDAOImpl implements MonitoringDAO {
             stmt.setInt(3, deviceId);
             stmt.setInt(4, tenantId);
             stmt.setInt(5, enrolmentId);
-            stmt.executeUpdate();
+            return stmt.executeUpdate() > 0;
 
 //            generatedKeys = stmt.getGeneratedKeys();
 //            if (generatedKeys.next()) {
@@ -347,6 +386,65 @@ public class MonitoringDAOImpl implements MonitoringDAO {
         }
     }
 
+    @Override
+    public Map<Integer, NonComplianceData> getComplianceOfDevices(List<Device> devices)
+            throws MonitoringDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<Integer, NonComplianceData> complianceDataMap = new HashMap<>();
+        Map<Integer, Integer> deviceEnrolmentIds = new HashMap<>();
+        for (Device device : devices) {
+            deviceEnrolmentIds.put(device.getId(), device.getEnrolmentInfo().getId());
+        }
+        List<Integer> deviceIds = new ArrayList<>(deviceEnrolmentIds.keySet());
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < deviceIds.size(); start += chunkSize) {
+                List<Integer> ids = deviceIds.subList(start,
+                        Math.min(start + chunkSize, deviceIds.size()));
+                String query = "SELECT * FROM DM_POLICY_COMPLIANCE_STATUS WHERE TENANT_ID = ? AND DEVICE_ID IN (" +
+                        DeviceManagementDAOUtil.getInClause(ids.size()) + ")";
+                stmt = conn.prepareStatement(query);
+                int paramIdx = 1;
+                stmt.setInt(paramIdx++, tenantId);
+                for (Integer id : ids) {
+                    stmt.setInt(paramIdx++, id);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    int enrolmentId = resultSet.getInt("ENROLMENT_ID");
+                    // Rows of the previous enrolments of the device are skipped.
+                    if (enrolmentId != deviceEnrolmentIds.get(resultSet.getInt("DEVICE_ID"))) {
+                        continue;
+                    }
+                    NonComplianceData complianceData = new NonComplianceData();
+                    complianceData.setId(resultSet.getInt("ID"));
+                    complianceData.setDeviceId(resultSet.getInt("DEVICE_ID"));
+                    complianceData.setEnrolmentId(enrolmentId);
+                    complianceData.setPolicyId(resultSet.getInt("POLICY_ID"));
+                    complianceData.setStatus(resultSet.getBoolean("STATUS"));
+                    complianceData.setAttempts(resultSet.getInt("ATTEMPTS"));
+                    complianceData.setLastRequestedTime(resultSet.getTimestamp("LAST_REQUESTED_TIME"));
+                    complianceData.setLastSucceededTime(resultSet.getTimestamp("LAST_SUCCESS_TIME"));
+                    complianceData.setLastFailedTime(resultSet.getTimestamp("LAST_FAILED_TIME"));
+                    complianceDataMap.put(enrolmentId, complianceData);
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            throw new MonitoringDAOException("Unable to retrieve compliance data of " + devices.size() +
+                    " devices from database.", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return complianceDataMap;
+    }
+
     @Override
     public List<ComplianceFeature> getNoneComplianceFeatures(int policyComplianceStatusId) throws
             MonitoringDAOException {
@@ -438,22 +536,30 @@ public class MonitoringDAOImpl implements MonitoringDAO {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
             conn = this.getConnection();
-            String query = "";
+            String query;
             if (reset) {
                 query = "UPDATE DM_POLICY_COMPLIANCE_STATUS SET ATTEMPTS = 0, LAST_REQUESTED_TIME = ? " +
-                        "WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+                        "WHERE TENANT_ID = ? AND DEVICE_ID IN (";
             } else {
                 query = "UPDATE DM_POLICY_COMPLIANCE_STATUS SET ATTEMPTS = ATTEMPTS + 1, LAST_REQUESTED_TIME = ? " +
-                        "WHERE DEVICE_ID = ? AND TENANT_ID = ?";
+                        "WHERE TENANT_ID = ? AND DEVICE_ID IN (";
             }
-            stmt = conn.prepareStatement(query);
-            for (int deviceId : deviceIds) {
-                stmt.setTimestamp(1, currentTimestamp);
-                stmt.setInt(2, deviceId);
-                stmt.setInt(3, tenantId);
-                stmt.addBatch();
+            // A single update is run per chunk of devices, instead of an update per device.
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < deviceIds.size(); start += chunkSize) {
+                List<Integer> ids = deviceIds.subList(start,
+                        Math.min(start + chunkSize, deviceIds.size()));
+                stmt = conn.prepareStatement(query + DeviceManagementDAOUtil.getInClause(ids.size()) + ")");
+                int paramIdx = 1;
+                stmt.setTimestamp(paramIdx++, currentTimestamp);
+                stmt.setInt(paramIdx++, tenantId);
+                for (Integer id : ids) {
+                    stmt.setInt(paramIdx++, id);
+                }
+                stmt.executeUpdate();
+                PolicyManagementDAOUtil.cleanupResources(stmt, null);
+                stmt = null;
             }
-            stmt.executeBatch();
         } catch (SQLException e) {
             throw new MonitoringDAOException("Unable to update the attempts  data in database.", e);
         } finally {
@@ -22,6 +22,8 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import org.wso2.carbon.policy.mgt.common.Criterion;
 import org.wso2.carbon.device.mgt.common.policy.mgt.DeviceGroupWrapper;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
@@ -1586,6 +1588,43 @@ public class PolicyDAOImpl implements PolicyDAO {
         return 0;
     }
 
+    @Override
+    public String getAppliedPolicyVersion(DeviceIdentifier deviceIdentifier) throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "SELECT e.ID AS ENROLMENT_ID, e.STATUS, e.DATE_OF_LAST_UPDATE, p.POLICY_ID, " +
+                    "p.UPDATED_TIME FROM DM_DEVICE d INNER JOIN DM_DEVICE_TYPE t ON t.ID = d.DEVICE_TYPE_ID " +
+                    "INNER JOIN DM_ENROLMENT e ON e.DEVICE_ID = d.ID LEFT JOIN DM_DEVICE_POLICY_APPLIED p ON " +
+                    "p.DEVICE_ID = d.ID AND p.ENROLMENT_ID = e.ID WHERE t.NAME = ? AND d.DEVICE_IDENTIFICATION = ? " +
+                    "AND d.TENANT_ID = ? AND e.TENANT_ID = ? ORDER BY e.ID";
+            stmt = conn.prepareStatement(query);
+            stmt.setString(1, deviceIdentifier.getType());
+            stmt.setString(2, deviceIdentifier.getId());
+            stmt.setInt(3, tenantId);
+            stmt.setInt(4, tenantId);
+            resultSet = stmt.executeQuery();
+            StringBuilder version = null;
+            while (resultSet.next()) {
+                version = (version == null) ? new StringBuilder() : version.append(';');
+                Timestamp lastUpdated = resultSet.getTimestamp("DATE_OF_LAST_UPDATE");
+                Timestamp policyUpdated = resultSet.getTimestamp("UPDATED_TIME");
+                version.append(resultSet.getInt("ENROLMENT_ID")).append(':').append(resultSet.getString("STATUS"))
+                        .append(':').append(lastUpdated == null ? 0 : lastUpdated.getTime())
+                        .append(':').append(resultSet.getInt("POLICY_ID"))
+                        .append(':').append(policyUpdated == null ? 0 : policyUpdated.getTime());
+            }
+            return (version == null) ? null : version.toString();
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while getting the version of the applied policy", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+    }
+
     @Override
     public Policy getAppliedPolicy(int deviceId, int enrollmentId) throws PolicyManagerDAOException {
         Connection conn;
@@ -1604,31 +1643,7 @@ public class PolicyDAOImpl implements PolicyDAO {
             resultSet = stmt.executeQuery();
 
             while (resultSet.next()) {
-                ByteArrayInputStream bais = null;
-                ObjectInputStream ois = null;
-                byte[] contentBytes;
-
-                try {
-                    contentBytes = resultSet.getBytes("POLICY_CONTENT");
-                    bais = new ByteArrayInputStream(contentBytes);
-                    ois = new ObjectInputStream(bais);
-                    policy = (Policy) ois.readObject();
-                } finally {
-                    if (bais != null) {
-                        try {
-                            bais.close();
-                        } catch (IOException e) {
-                            log.warn("Error occurred while closing ByteArrayOutputStream", e);
-                        }
-                    }
-                    if (ois != null) {
-                        try {
-                            ois.close();
-                        } catch (IOException e) {
-                            log.warn("Error occurred while closing ObjectOutputStream", e);
-                        }
-                    }
-                }
+                policy = this.readPolicyContent(resultSet.getBytes("POLICY_CONTENT"));
             }
 
         } catch (SQLException e) {
@@ -1677,6 +1692,133 @@ public class PolicyDAOImpl implements PolicyDAO {
         return devicePolicyIds;
     }
 
+    @Override
+    public Map<Integer, Integer> getAppliedPolicyIds(List<Device> devices) throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<Integer, Integer> enrolmentPolicyIds = new HashMap<>();
+        Map<Integer, Integer> deviceEnrolmentIds = new HashMap<>();
+        for (Device device : devices) {
+            deviceEnrolmentIds.put(device.getId(), device.getEnrolmentInfo().getId());
+        }
+        List<Integer> deviceIds = new ArrayList<>(deviceEnrolmentIds.keySet());
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < deviceIds.size(); start += chunkSize) {
+                List<Integer> ids = deviceIds.subList(start,
+                        Math.min(start + chunkSize, deviceIds.size()));
+                String query = "SELECT DEVICE_ID, ENROLMENT_ID, POLICY_ID FROM DM_DEVICE_POLICY_APPLIED WHERE " +
+                        "TENANT_ID = ? AND DEVICE_ID IN (" + DeviceManagementDAOUtil.getInClause(ids.size()) + ")";
+                stmt = conn.prepareStatement(query);
+                int paramIdx = 1;
+                stmt.setInt(paramIdx++, tenantId);
+                for (Integer id : ids) {
+                    stmt.setInt(paramIdx++, id);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    int enrolmentId = resultSet.getInt("ENROLMENT_ID");
+                    // Rows of the previous enrolments of the device are skipped.
+                    if (enrolmentId == deviceEnrolmentIds.get(resultSet.getInt("DEVICE_ID"))) {
+                        enrolmentPolicyIds.put(enrolmentId, resultSet.getInt("POLICY_ID"));
+                    }
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while getting the applied policies of " +
+                    devices.size() + " devices", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return enrolmentPolicyIds;
+    }
+
+    @Override
+    public Map<Integer, Policy> getAppliedPolicies(List<Device> devices) throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<Integer, Policy> enrolmentPolicies = new HashMap<>();
+        Map<Integer, Integer> deviceEnrolmentIds = new HashMap<>();
+        for (Device device : devices) {
+            deviceEnrolmentIds.put(device.getId(), device.getEnrolmentInfo().getId());
+        }
+        List<Integer> deviceIds = new ArrayList<>(deviceEnrolmentIds.keySet());
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            int chunkSize = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE;
+            for (int start = 0; start < deviceIds.size(); start += chunkSize) {
+                List<Integer> ids = deviceIds.subList(start,
+                        Math.min(start + chunkSize, deviceIds.size()));
+                String query = "SELECT DEVICE_ID, ENROLMENT_ID, POLICY_CONTENT FROM DM_DEVICE_POLICY_APPLIED WHERE " +
+                        "TENANT_ID = ? AND DEVICE_ID IN (" + DeviceManagementDAOUtil.getInClause(ids.size()) + ")";
+                stmt = conn.prepareStatement(query);
+                int paramIdx = 1;
+                stmt.setInt(paramIdx++, tenantId);
+                for (Integer id : ids) {
+                    stmt.setInt(paramIdx++, id);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    int enrolmentId = resultSet.getInt("ENROLMENT_ID");
+                    // Rows of the previous enrolments of the device are skipped.
+                    if (enrolmentId == deviceEnrolmentIds.get(resultSet.getInt("DEVICE_ID"))) {
+                        enrolmentPolicies.put(enrolmentId, this.readPolicyContent(
+                                resultSet.getBytes("POLICY_CONTENT")));
+                    }
+                }
+                PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while getting the applied policies of " +
+                    devices.size() + " devices", e);
+        } catch (IOException e) {
+            throw new PolicyManagerDAOException("Unable to read the byte stream for content", e);
+        } catch (ClassNotFoundException e) {
+            throw new PolicyManagerDAOException("Class not found while converting the object", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return enrolmentPolicies;
+    }
+
+    /**
+     * Reads the policy which is stored serialized as the content of an applied policy.
+     */
+    private Policy readPolicyContent(byte[] contentBytes) throws IOException, ClassNotFoundException {
+        ByteArrayInputStream bais = null;
+        ObjectInputStream ois = null;
+        try {
+            bais = new ByteArrayInputStream(contentBytes);
+            ois = new ObjectInputStream(bais);
+            return (Policy) ois.readObject();
+        } finally {
+            if (bais != null) {
+                try {
+                    bais.close();
+                } catch (IOException e) {
+                    log.warn("Error occurred while closing ByteArrayOutputStream", e);
+                }
+            }
+            if (ois != null) {
+                try {
+                    ois.close();
+                } catch (IOException e) {
+                    log.warn("Error occurred while closing ObjectOutputStream", e);
+                }
+            }
+        }
+    }
+
     @Override
     public HashMap<Integer, Integer> getAppliedPolicyIdsDeviceIds() throws PolicyManagerDAOException {
 
@@ -90,7 +90,7 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
 //            throw new PolicyManagementException("Error occurred while delegating policy operation to the devices", e);
 //        }
         if (policyConfiguration.getCacheEnable()) {
-            PolicyCacheManagerImpl.getInstance().rePopulateCache();
+            PolicyCacheManagerImpl.getInstance().updatePolicy(resultantPolicy.getId());
         }
         return resultantPolicy;
     }
@@ -108,7 +108,7 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
     public void activatePolicy(int policyId) throws PolicyManagementException {
         policyManager.activatePolicy(policyId);
         if (policyConfiguration.getCacheEnable()) {
-            PolicyCacheManagerImpl.getInstance().rePopulateCache();
+            PolicyCacheManagerImpl.getInstance().updatePolicy(policyId);
         }
     }
 
@@ -116,7 +116,7 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
     public void inactivatePolicy(int policyId) throws PolicyManagementException {
         policyManager.inactivatePolicy(policyId);
         if (policyConfiguration.getCacheEnable()) {
-            PolicyCacheManagerImpl.getInstance().rePopulateCache();
+            PolicyCacheManagerImpl.getInstance().updatePolicy(policyId);
         }
     }
 
@@ -125,7 +125,7 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
         boolean bool = policyManager.deletePolicy(policy);
         if (policyConfiguration.getCacheEnable()) {
             PolicyCacheManager policyCacheManager = PolicyCacheManagerImpl.getInstance();
-            policyCacheManager.rePopulateCache();
+            policyCacheManager.removePolicy(policy.getId());
         }
         return bool;
     }
@@ -135,7 +135,7 @@ public class PolicyAdministratorPointImpl implements PolicyAdministratorPoint {
         boolean bool = policyManager.deletePolicy(policyId);
         if (policyConfiguration.getCacheEnable()) {
             PolicyCacheManager policyCacheManager = PolicyCacheManagerImpl.getInstance();
-            policyCacheManager.rePopulateCache();
+            policyCacheManager.removePolicy(policyId);
         }
         return bool;
     }
@@ -26,12 +26,25 @@ import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
 
 import java.util.List;
+import java.util.Map;
 
 public interface MonitoringManager {
 
     List<ComplianceFeature> checkPolicyCompliance(DeviceIdentifier deviceIdentifier, Object deviceResponse)
             throws PolicyComplianceException;
 
+    /**
+     * Applies the compliance reports of many devices at once. All the compliance writes are done in a single
+     * transaction.
+     *
+     * @param deviceResponses compliance reports keyed by the identifier of the reporting device.
+     * @return compliance features of each device keyed by the given identifiers. Devices without an applied policy
+     * are not included.
+     * @throws PolicyComplianceException if the reports could not be applied.
+     */
+    Map<DeviceIdentifier, List<ComplianceFeature>> checkPolicyCompliance(Map<DeviceIdentifier, Object> deviceResponses)
+            throws PolicyComplianceException;
+
 
     boolean isCompliant(DeviceIdentifier deviceIdentifier) throws PolicyComplianceException;
 
@@ -82,5 +82,11 @@ public interface PolicyManager {
 
     Policy getAppliedPolicyToDevice(DeviceIdentifier deviceIdentifier) throws PolicyManagementException;
 
+    /**
+     * Returns the version of the policy applied to the given device, which changes whenever the policy returned by
+     * {@link #getAppliedPolicyToDevice(DeviceIdentifier)} changes, without looking the device up.
+     */
+    String getAppliedPolicyVersion(DeviceIdentifier deviceIdentifier) throws PolicyManagementException;
+
     HashMap<Integer, Integer> getAppliedPolicyIdsDeviceIds() throws PolicyManagementException;
 }
@@ -36,20 +36,20 @@ import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
 import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
-import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
 import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
 import org.wso2.carbon.policy.mgt.common.monitor.*;
 import org.wso2.carbon.policy.mgt.core.dao.*;
 import org.wso2.carbon.policy.mgt.core.impl.ComplianceDecisionPointImpl;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
-import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class MonitoringManagerImpl implements MonitoringManager {
 
@@ -74,105 +74,181 @@ public class MonitoringManagerImpl implements MonitoringManager {
     public List<ComplianceFeature> checkPolicyCompliance(
             DeviceIdentifier deviceIdentifier,
             Object deviceResponse) throws PolicyComplianceException {
+        Map<DeviceIdentifier, Object> deviceResponses = new HashMap<>();
+        deviceResponses.put(deviceIdentifier, deviceResponse);
+        List<ComplianceFeature> complianceFeatures = this.checkPolicyCompliance(deviceResponses).get(deviceIdentifier);
+        return complianceFeatures != null ? complianceFeatures : new ArrayList<ComplianceFeature>();
+    }
 
-        List<ComplianceFeature> complianceFeatures = new ArrayList<>();
-        try {
-            DeviceManagementProviderService service =
-                    PolicyManagementDataHolder.getInstance().getDeviceManagementService();
-            PolicyManager manager = PolicyManagementDataHolder.getInstance().getPolicyManager();
-            Device device = service.getDevice(deviceIdentifier, false);
-            Policy policy = manager.getAppliedPolicyToDevice(deviceIdentifier);
-            if (policy != null) {
-                PolicyMonitoringManager monitoringService = PolicyManagementDataHolder.getInstance().
-                        getDeviceManagementService().getPolicyMonitoringManager(deviceIdentifier.getType());
-
-                NonComplianceData complianceData;
-                // This was retrieved from database because compliance id must be present for other dao operations to
-                // run.
-                try {
-                    PolicyManagementDAOFactory.openConnection();
-                    NonComplianceData cmd = monitoringDAO.getCompliance(device.getId(), device.getEnrolmentInfo().getId());
-                    complianceData = monitoringService.checkPolicyCompliance(deviceIdentifier,
-                            policy, deviceResponse);
-                    if (cmd != null) {
-                        complianceData.setId(cmd.getId());
-                        complianceData.setPolicy(policy);
-                        complianceFeatures = complianceData.getComplianceFeatures();
-                        complianceData.setDeviceId(device.getId());
-                        complianceData.setPolicyId(policy.getId());
-                    }
+    @Override
+    public Map<DeviceIdentifier, List<ComplianceFeature>> checkPolicyCompliance(
+            Map<DeviceIdentifier, Object> deviceResponses) throws PolicyComplianceException {
 
-                } catch (SQLException e) {
-                    throw new PolicyComplianceException("Error occurred while opening a data source connection", e);
-                } catch (MonitoringDAOException e) {
-                    throw new PolicyComplianceException(
-                            "Unable to add the none compliance features to database for device " +
-                                    deviceIdentifier.getId() + " - " + deviceIdentifier.getType(), e);
-                } finally {
-                    PolicyManagementDAOFactory.closeConnection();
+        Map<DeviceIdentifier, Device> devices = new HashMap<>();
+        DeviceManagementProviderService service = PolicyManagementDataHolder.getInstance().getDeviceManagementService();
+        for (DeviceIdentifier deviceIdentifier : deviceResponses.keySet()) {
+            try {
+                Device device = service.getDevice(deviceIdentifier, false);
+                if (device != null) {
+                    devices.put(deviceIdentifier, device);
                 }
+            } catch (DeviceManagementException e) {
+                throw new PolicyComplianceException("Unable tor retrieve device data from DB for " +
+                        deviceIdentifier.getId() + " - " + deviceIdentifier.getType(), e);
+            }
+        }
 
-                //This was added because update query below that did not return the update table primary key.
-
-                if (complianceFeatures != null && !complianceFeatures.isEmpty()) {
-                    try {
-                        PolicyManagementDAOFactory.beginTransaction();
-                        monitoringDAO.setDeviceAsNoneCompliance(device.getId(), device.getEnrolmentInfo().getId(),
-                                policy.getId());
-                        if (log.isDebugEnabled()) {
-                            log.debug("Compliance status primary key " + complianceData.getId());
-                        }
-                        monitoringDAO.deleteNoneComplianceData(complianceData.getId());
-                        monitoringDAO.addNonComplianceFeatures(complianceData.getId(), device.getId(),
-                                                               complianceFeatures);
-
-                        PolicyManagementDAOFactory.commitTransaction();
-                    } catch (MonitoringDAOException e) {
-                        PolicyManagementDAOFactory.rollbackTransaction();
-                        throw new PolicyComplianceException(
-                                "Unable to add the none compliance features to database for device " +
-                                deviceIdentifier.getId() + " - " + deviceIdentifier.getType(), e);
-                    } finally {
-                        PolicyManagementDAOFactory.closeConnection();
-                    }
-                    complianceDecisionPoint.validateDevicePolicyCompliance(deviceIdentifier, complianceData);
-                    List<ProfileFeature> profileFeatures = policy.getProfile().getProfileFeaturesList();
-                    for (ComplianceFeature compFeature : complianceFeatures) {
-                        for (ProfileFeature profFeature : profileFeatures) {
-                            if (profFeature.getFeatureCode().equalsIgnoreCase(compFeature.getFeatureCode())) {
-                                compFeature.setFeature(profFeature);
-                            }
-                        }
-                    }
-                } else {
-                    try {
-                        PolicyManagementDAOFactory.beginTransaction();
-                        monitoringDAO.setDeviceAsCompliance(device.getId(), device.getEnrolmentInfo().getId(), policy
-                                .getId());
-                        monitoringDAO.deleteNoneComplianceData(complianceData.getId());
-                        PolicyManagementDAOFactory.commitTransaction();
-                    } catch (MonitoringDAOException e) {
-                        PolicyManagementDAOFactory.rollbackTransaction();
-                        throw new PolicyComplianceException(
-                                "Unable to remove the none compliance features from database for device " +
-                                deviceIdentifier.getId() + " - " + deviceIdentifier.getType(), e);
-                    } finally {
-                        PolicyManagementDAOFactory.closeConnection();
+        // The policies applied to all the devices of the batch are read at once, keyed by their enrolment.
+        Map<DeviceIdentifier, Policy> appliedPolicies = new HashMap<>();
+        if (!devices.isEmpty()) {
+            try {
+                PolicyManagementDAOFactory.openConnection();
+                Map<Integer, Policy> enrolmentPolicies =
+                        policyDAO.getAppliedPolicies(new ArrayList<>(devices.values()));
+                for (Map.Entry<DeviceIdentifier, Device> entry : devices.entrySet()) {
+                    Policy policy = enrolmentPolicies.get(entry.getValue().getEnrolmentInfo().getId());
+                    if (policy != null) {
+                        appliedPolicies.put(entry.getKey(), policy);
                     }
                 }
-            } else {
+            } catch (PolicyManagerDAOException e) {
+                throw new PolicyComplianceException("Unable tor retrieve policy data from DB for " +
+                        devices.size() + " devices", e);
+            } catch (SQLException e) {
+                throw new PolicyComplianceException("Error occurred while opening a data source connection", e);
+            } finally {
+                PolicyManagementDAOFactory.closeConnection();
+            }
+        }
+
+        List<ComplianceReport> reports = new ArrayList<>();
+        Map<String, PolicyMonitoringManager> monitoringServices = new HashMap<>();
+        for (Map.Entry<DeviceIdentifier, Object> entry : deviceResponses.entrySet()) {
+            DeviceIdentifier deviceIdentifier = entry.getKey();
+            Policy policy = appliedPolicies.get(deviceIdentifier);
+            if (policy == null) {
                 if (log.isDebugEnabled()) {
-                    log.debug("There is no policy applied to this device, hence compliance monitoring was not called.");
+                    log.debug("There is no policy applied to device " + deviceIdentifier.getId() + " - " +
+                            deviceIdentifier.getType() + ", hence compliance monitoring was not called.");
                 }
+                continue;
+            }
+            Device device = devices.get(deviceIdentifier);
+            PolicyMonitoringManager monitoringService = monitoringServices.get(deviceIdentifier.getType());
+            if (monitoringService == null) {
+                monitoringService = service.getPolicyMonitoringManager(deviceIdentifier.getType());
+                monitoringServices.put(deviceIdentifier.getType(), monitoringService);
+            }
+            NonComplianceData complianceData = monitoringService.checkPolicyCompliance(deviceIdentifier,
+                    policy, entry.getValue());
+            complianceData.setPolicy(policy);
+            complianceData.setDeviceId(device.getId());
+            complianceData.setEnrolmentId(device.getEnrolmentInfo().getId());
+            complianceData.setPolicyId(policy.getId());
+            reports.add(new ComplianceReport(deviceIdentifier, complianceData));
+        }
+
+        Map<DeviceIdentifier, List<ComplianceFeature>> complianceFeaturesOfDevices = new HashMap<>();
+        if (reports.isEmpty()) {
+            return complianceFeaturesOfDevices;
+        }
+
+        // All the compliance writes of the reports are done in a single transaction.
+        ComplianceReport currentReport = null;
+        try {
+            PolicyManagementDAOFactory.beginTransaction();
+            for (ComplianceReport report : reports) {
+                currentReport = report;
+                this.saveCompliance(report.getComplianceData());
+            }
+            PolicyManagementDAOFactory.commitTransaction();
+        } catch (MonitoringDAOException e) {
+            PolicyManagementDAOFactory.rollbackTransaction();
+            DeviceIdentifier deviceIdentifier = currentReport.getDeviceIdentifier();
+            throw new PolicyComplianceException("Unable to add the none compliance features to database for device " +
+                    deviceIdentifier.getId() + " - " + deviceIdentifier.getType(), e);
+        } catch (PolicyManagerDAOException e) {
+            PolicyManagementDAOFactory.rollbackTransaction();
+            throw new PolicyComplianceException("Error occurred while opening a data source connection", e);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+
+        for (ComplianceReport report : reports) {
+            NonComplianceData complianceData = report.getComplianceData();
+            List<ComplianceFeature> complianceFeatures = complianceData.getComplianceFeatures();
+            if (complianceFeatures != null && !complianceFeatures.isEmpty()) {
+                complianceDecisionPoint.validateDevicePolicyCompliance(report.getDeviceIdentifier(), complianceData);
+                Map<String, ProfileFeature> profileFeatures = new HashMap<>();
+                for (ProfileFeature profFeature : complianceData.getPolicy().getProfile().getProfileFeaturesList()) {
+                    profileFeatures.put(profFeature.getFeatureCode().toLowerCase(), profFeature);
+                }
+                for (ComplianceFeature compFeature : complianceFeatures) {
+                    ProfileFeature profFeature = profileFeatures.get(compFeature.getFeatureCode().toLowerCase());
+                    if (profFeature != null) {
+                        compFeature.setFeature(profFeature);
+                    }
+                }
+            }
+            complianceFeaturesOfDevices.put(report.getDeviceIdentifier(), complianceFeatures);
+        }
+        return complianceFeaturesOfDevices;
+    }
+
+    /**
+     * Saves the compliance status of a device within the current transaction. The existing status row is updated
+     * first, which holds its lock until the transaction ends, and the row is only added when nothing was updated.
+     * The non compliant features are only replaced when they differ from the stored ones.
+     */
+    private void saveCompliance(NonComplianceData complianceData) throws MonitoringDAOException {
+        int deviceId = complianceData.getDeviceId();
+        int enrolmentId = complianceData.getEnrolmentId();
+        int policyId = complianceData.getPolicyId();
+        List<ComplianceFeature> complianceFeatures = complianceData.getComplianceFeatures();
+        boolean compliant = complianceFeatures == null || complianceFeatures.isEmpty();
+
+        boolean updated = compliant ? monitoringDAO.setDeviceAsCompliance(deviceId, enrolmentId, policyId) :
+                monitoringDAO.setDeviceAsNoneCompliance(deviceId, enrolmentId, policyId);
+        if (!updated) {
+            int complianceStatusId = monitoringDAO.addComplianceDetails(deviceId, enrolmentId, policyId, compliant);
+            complianceData.setId(complianceStatusId);
+            if (!compliant) {
+                monitoringDAO.addNonComplianceFeatures(complianceStatusId, deviceId, complianceFeatures);
+            }
+            return;
+        }
+        complianceData.setId(monitoringDAO.getCompliance(deviceId, enrolmentId).getId());
+        if (log.isDebugEnabled()) {
+            log.debug("Compliance status primary key " + complianceData.getId());
+        }
+        if (compliant) {
+            monitoringDAO.deleteNoneComplianceData(complianceData.getId());
+        } else {
+            List<ComplianceFeature> storedFeatures = monitoringDAO.getNoneComplianceFeatures(complianceData.getId());
+            if (!this.getFeatureStatuses(complianceFeatures, false).equals(
+                    this.getFeatureStatuses(storedFeatures, true))) {
+                monitoringDAO.deleteNoneComplianceData(complianceData.getId());
+                monitoringDAO.addNonComplianceFeatures(complianceData.getId(), deviceId, complianceFeatures);
+            }
+        }
+    }
+
+    /**
+     * Returns the feature codes along with their compliance status, in the same form as they are stored.
+     *
+     * @param complianceFeatures compliance features.
+     * @param stored             whether the features are read from the database, where the status is kept in the
+     *                           message of the feature.
+     */
+    private Set<String> getFeatureStatuses(List<ComplianceFeature> complianceFeatures, boolean stored) {
+        Set<String> featureStatuses = new HashSet<>();
+        if (complianceFeatures != null) {
+            for (ComplianceFeature feature : complianceFeatures) {
+                String status = stored ? feature.getMessage() : (feature.isCompliant() ? "1" : "0");
+                featureStatuses.add(feature.getFeatureCode() + ":" + status);
             }
-        } catch (DeviceManagementException e) {
-            throw new PolicyComplianceException("Unable tor retrieve device data from DB for " +
-                                                deviceIdentifier.getId() + " - " + deviceIdentifier.getType(), e);
-        } catch (PolicyManagerDAOException | PolicyManagementException e) {
-            throw new PolicyComplianceException("Unable tor retrieve policy data from DB for device " +
-                                                deviceIdentifier.getId() + " - " + deviceIdentifier.getType(), e);
         }
-        return complianceFeatures;
+        return featureStatuses;
     }
 
     @Override
@@ -237,35 +313,13 @@ public class MonitoringManagerImpl implements MonitoringManager {
     @Override
     public void addMonitoringOperation(List<Device> devices) throws PolicyComplianceException {
 
-        //int tenantId = PolicyManagerUtil.getTenantId();
-        Map<Integer, Device> deviceIds = new HashMap<>();
-        List<NonComplianceData> complianceDatas = new ArrayList<>();
-        HashMap<Integer, Integer> devicePolicyIdMap = new HashMap<>();
-
+        Map<Integer, NonComplianceData> complianceDataMap;
+        Map<Integer, Integer> appliedPolicyIds;
         try {
             PolicyManagementDAOFactory.openConnection();
-            //TODO: Return a map from getCompliance to reduce O(n^2) -> O(n)
-            List<NonComplianceData> cd = monitoringDAO.getCompliance();
-
-            for (Device device : devices) {
-                deviceIds.put(device.getId(), device);
-
-                for (NonComplianceData data : cd) {
-                    if (device.getId() == data.getDeviceId() && device.getEnrolmentInfo().getId() == data
-                            .getEnrolmentId()) {
-                        complianceDatas.add(data);
-                    }
-                }
-            }
-            List<Integer> deviceIDs = new ArrayList<>(deviceIds.keySet());
-
-            HashMap<Integer, Integer> temp = policyDAO.getAppliedPolicyIds();
-            for (Integer id : deviceIDs) {
-                if (temp != null && !temp.isEmpty() && temp.containsKey(id)) {
-                    devicePolicyIdMap.put(id, temp.get(id));
-                }
-            }
-
+            // Only the rows of the given devices are read, keyed by the enrolment id of each device.
+            complianceDataMap = monitoringDAO.getComplianceOfDevices(devices);
+            appliedPolicyIds = policyDAO.getAppliedPolicyIds(devices);
         } catch (SQLException e) {
             throw new PolicyComplianceException("SQL error occurred while getting monitoring details.", e);
         } catch (MonitoringDAOException e) {
@@ -278,71 +332,57 @@ public class MonitoringManagerImpl implements MonitoringManager {
 
         Map<Integer, Device> deviceIdsToAddOperation = new HashMap<>();
         Map<Integer, Device> deviceIdsWithExistingOperation = new HashMap<>();
-
         List<PolicyDeviceWrapper> firstTimeDevices = new ArrayList<>();
 
-        Map<Integer, NonComplianceData> tempMap = new HashMap<>();
-
-        try {
-            if (complianceDatas != null || !complianceDatas.isEmpty()) {
-                for (NonComplianceData complianceData : complianceDatas) {
-
-                    tempMap.put(complianceData.getDeviceId(), complianceData);
-
-                    if (complianceData.getAttempts() == 0) {
-                        deviceIdsToAddOperation.put(complianceData.getDeviceId(),
-                                deviceIds.get(complianceData.getDeviceId()));
-                    } else {
-                        deviceIdsWithExistingOperation.put(complianceData.getDeviceId(),
-                                deviceIds.get(complianceData.getDeviceId()));
-                    }
-                }
-            }
-
-            for (Device device : devices) {
-                if ((!tempMap.containsKey(device.getId())) && (devicePolicyIdMap.containsKey(device.getId()))) {
+        for (Device device : devices) {
+            int enrolmentId = device.getEnrolmentInfo().getId();
+            NonComplianceData complianceData = complianceDataMap.get(enrolmentId);
+            if (complianceData != null) {
+                if (complianceData.getAttempts() == 0) {
                     deviceIdsToAddOperation.put(device.getId(), device);
-
-                    PolicyDeviceWrapper policyDeviceWrapper = new PolicyDeviceWrapper();
-                    policyDeviceWrapper.setDeviceId(device.getId());
-                    policyDeviceWrapper.setEnrolmentId(device.getEnrolmentInfo().getId());
-                    policyDeviceWrapper.setPolicyId(devicePolicyIdMap.get(device.getId()));
-
-                    firstTimeDevices.add(policyDeviceWrapper);
-
-                    // firstTimeDeviceIdsWithPolicyIds.put(device.getId(), devicePolicyIdMap.get(device.getId()));
-                }
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("These devices are in the system for the first time");
-                for (PolicyDeviceWrapper wrapper : firstTimeDevices) {
-                    log.debug("First time device primary key : " + wrapper.getDeviceId() + " & policy id " +
-                            wrapper.getPolicyId());
+                } else {
+                    deviceIdsWithExistingOperation.put(device.getId(), device);
                 }
+            } else if (appliedPolicyIds.containsKey(enrolmentId)) {
+                deviceIdsToAddOperation.put(device.getId(), device);
+
+                PolicyDeviceWrapper policyDeviceWrapper = new PolicyDeviceWrapper();
+                policyDeviceWrapper.setDeviceId(device.getId());
+                policyDeviceWrapper.setEnrolmentId(enrolmentId);
+                policyDeviceWrapper.setPolicyId(appliedPolicyIds.get(enrolmentId));
+                firstTimeDevices.add(policyDeviceWrapper);
             }
+        }
 
-            PolicyManagementDAOFactory.beginTransaction();
-
-            if (!deviceIdsToAddOperation.isEmpty()) {
-                //                monitoringDAO.addComplianceDetails(firstTimeDeviceIdsWithPolicyIds);
-                monitoringDAO.addComplianceDetails(firstTimeDevices);
-                monitoringDAO.updateAttempts(new ArrayList<>(deviceIdsToAddOperation.keySet()), false);
+        if (log.isDebugEnabled()) {
+            log.debug("These devices are in the system for the first time");
+            for (PolicyDeviceWrapper wrapper : firstTimeDevices) {
+                log.debug("First time device primary key : " + wrapper.getDeviceId() + " & policy id " +
+                        wrapper.getPolicyId());
             }
+        }
 
-            if (!deviceIdsWithExistingOperation.isEmpty()) {
-                monitoringDAO.updateAttempts(new ArrayList<>(deviceIdsWithExistingOperation.keySet()), false);
+        List<Integer> deviceIdsToUpdateAttempts = new ArrayList<>(deviceIdsToAddOperation.keySet());
+        deviceIdsToUpdateAttempts.addAll(deviceIdsWithExistingOperation.keySet());
+        if (!firstTimeDevices.isEmpty() || !deviceIdsToUpdateAttempts.isEmpty()) {
+            try {
+                PolicyManagementDAOFactory.beginTransaction();
+                if (!firstTimeDevices.isEmpty()) {
+                    monitoringDAO.addComplianceDetails(firstTimeDevices);
+                }
+                if (!deviceIdsToUpdateAttempts.isEmpty()) {
+                    monitoringDAO.updateAttempts(deviceIdsToUpdateAttempts, false);
+                }
+                PolicyManagementDAOFactory.commitTransaction();
+            } catch (MonitoringDAOException e) {
+                PolicyManagementDAOFactory.rollbackTransaction();
+                throw new PolicyComplianceException("Error occurred from monitoring dao.", e);
+            } catch (PolicyManagerDAOException e) {
+                PolicyManagementDAOFactory.rollbackTransaction();
+                throw new PolicyComplianceException("Error occurred while starting a transaction.", e);
+            } finally {
+                PolicyManagementDAOFactory.closeConnection();
             }
-            PolicyManagementDAOFactory.commitTransaction();
-
-        } catch (MonitoringDAOException e) {
-            PolicyManagementDAOFactory.rollbackTransaction();
-            throw new PolicyComplianceException("Error occurred from monitoring dao.", e);
-        } catch (PolicyManagerDAOException e) {
-            PolicyManagementDAOFactory.rollbackTransaction();
-            throw new PolicyComplianceException("Error occurred reading the applied policies to devices.", e);
-        } finally {
-            PolicyManagementDAOFactory.closeConnection();
         }
 
         if (!deviceIdsToAddOperation.isEmpty()) {
@@ -412,4 +452,26 @@ public class MonitoringManagerImpl implements MonitoringManager {
         return deviceIdentifiers;
     }
 
+    /**
+     * Holds a compliance report of a device while it is being applied.
+     */
+    private static class ComplianceReport {
+
+        private final DeviceIdentifier deviceIdentifier;
+        private final NonComplianceData complianceData;
+
+        ComplianceReport(DeviceIdentifier deviceIdentifier, NonComplianceData complianceData) {
+            this.deviceIdentifier = deviceIdentifier;
+            this.complianceData = complianceData;
+        }
+
+        DeviceIdentifier getDeviceIdentifier() {
+            return deviceIdentifier;
+        }
+
+        NonComplianceData getComplianceData() {
+            return complianceData;
+        }
+    }
+
 }
@@ -577,10 +577,20 @@ public class PolicyManagerImpl implements PolicyManager {
 
             policy.setRoles(roleNames);
             policy.setUsers(userNames);
+            policy.setPolicyCriterias(policyDAO.getPolicyCriteria(policyId));
+
+            List<DeviceGroupWrapper> deviceGroupWrappers = policyDAO.getDeviceGroupsOfPolicy(policyId);
+            if (!deviceGroupWrappers.isEmpty()) {
+                deviceGroupWrappers = this.getDeviceGroupNames(deviceGroupWrappers);
+            }
+            policy.setDeviceGroups(deviceGroupWrappers);
 
         } catch (PolicyManagerDAOException e) {
             throw new PolicyManagementException("Error occurred while getting the policy related to policy ID (" +
                     policyId + ")", e);
+        } catch (GroupManagementException e) {
+            throw new PolicyManagementException("Error occurred while getting device groups of the policy (" +
+                    policyId + ")", e);
 //        } catch (ProfileManagerDAOException e) {
 //            throw new PolicyManagementException("Error occurred while getting the profile related to policy ID (" +
 //                    policyId + ")", e);
@@ -714,16 +724,14 @@ public class PolicyManagerImpl implements PolicyManager {
 //        try {
         // List<Profile> profileList = profileManager.getProfilesOfDeviceType(deviceTypeName);
 //            List<Policy> allPolicies = this.getPolicies();
-        List<Policy> allPolicies;
         if (policyConfiguration.getCacheEnable()) {
-            allPolicies = PolicyCacheManagerImpl.getInstance().getAllPolicies();
+            policies.addAll(PolicyCacheManagerImpl.getInstance().getPoliciesOfDeviceType(deviceTypeName));
         } else {
-            allPolicies = this.getPolicies();
-        }
-
-        for (Policy policy : allPolicies) {
-            if (policy.getProfile().getDeviceType().equalsIgnoreCase(deviceTypeName)) {
-                policies.add(policy);
+            List<Policy> allPolicies = this.getPolicies();
+            for (Policy policy : allPolicies) {
+                if (policy.getProfile().getDeviceType().equalsIgnoreCase(deviceTypeName)) {
+                    policies.add(policy);
+                }
             }
         }
 
@@ -1080,6 +1088,20 @@ public class PolicyManagerImpl implements PolicyManager {
         return policy;
     }
 
+    @Override
+    public String getAppliedPolicyVersion(DeviceIdentifier deviceIdentifier) throws PolicyManagementException {
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            return policyDAO.getAppliedPolicyVersion(deviceIdentifier);
+        } catch (PolicyManagerDAOException e) {
+            throw new PolicyManagementException("Error occurred while getting the version of the applied policy.", e);
+        } catch (SQLException e) {
+            throw new PolicyManagementException("Error occurred while opening a connection to the data source", e);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public HashMap<Integer, Integer> getAppliedPolicyIdsDeviceIds() throws PolicyManagementException {
         try {
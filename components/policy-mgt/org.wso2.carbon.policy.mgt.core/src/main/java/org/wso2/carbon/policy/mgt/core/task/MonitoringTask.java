@@ -27,6 +27,8 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyMonitoringManager;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.ntask.core.Task;
@@ -37,15 +39,36 @@ import org.wso2.carbon.user.api.UserStoreException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Task which adds monitoring operations to the devices. Tenants are processed in parallel on a bounded pool and the
+ * devices of each type are read page by page, ordered by the enrolment id, so that neither the run time nor the
+ * memory usage of a run depends on the number of tenants or devices. A run is cut off once the monitoring frequency
+ * has elapsed, so runs do not pile up on each other, and the next run resumes from where it was cut off.
+ */
 public class MonitoringTask implements Task {
 
     private static Log log = LogFactory.getLog(MonitoringTask.class);
 
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_THREAD_POOL_SIZE = 5;
+    private static final MonitoringTaskCursor SHARED_CURSOR = new MonitoringTaskCursor();
+
     Map<String, String> properties;
     private boolean executeForTenants = false;
     private final String IS_CLOUD = "is.cloud";
+    private final MonitoringTaskCursor cursor;
+
+    public MonitoringTask() {
+        this(SHARED_CURSOR);
+    }
 
+    MonitoringTask(MonitoringTaskCursor cursor) {
+        this.cursor = cursor;
+    }
 
     @Override
     public void setProperties(Map<String, String> map) {
@@ -65,10 +88,11 @@ public class MonitoringTask implements Task {
         if(System.getProperty(IS_CLOUD) != null && Boolean.parseBoolean(System.getProperty(IS_CLOUD))){
             executeForTenants = true;
         }
+        long deadline = System.currentTimeMillis() + this.getMaxRunTime();
         if(executeForTenants) {
-            this.executeforAllTenants();
+            this.executeforAllTenants(deadline);
         } else {
-            this.executeTask();
+            this.executeTask(deadline);
         }
     }
 
@@ -89,35 +113,61 @@ public class MonitoringTask implements Task {
         return false;
     }
 
-    private void executeforAllTenants() {
+    private void executeforAllTenants(final long deadline) {
 
         if (log.isDebugEnabled()) {
             log.debug("Monitoring task started to run for all tenants.");
         }
+        ExecutorService executorService = null;
         try {
             DeviceManagementProviderService deviceManagementService = new DeviceManagementProviderServiceImpl();
             List<Integer> tenants = deviceManagementService.getDeviceEnrolledTenants();
-            for (Integer tenant : tenants) {
-                String tenantDomain = PolicyManagementDataHolder.getInstance().
+            if (tenants.isEmpty()) {
+                return;
+            }
+            executorService = Executors.newFixedThreadPool(Math.min(tenants.size(), this.getThreadPoolSize()));
+            for (final Integer tenant : cursor.orderTenants(tenants)) {
+                // Tenants which are not reached before the run is cut off are taken up first in the next run.
+                cursor.markPending(tenant);
+                final String tenantDomain = PolicyManagementDataHolder.getInstance().
                         getRealmService().getTenantManager().getDomain(tenant);
-                try {
-                    PrivilegedCarbonContext.startTenantFlow();
-                    PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain);
-                    PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenant);
-                    this.executeTask();
-                } finally {
-                    PrivilegedCarbonContext.endTenantFlow();
-                }
+                executorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            PrivilegedCarbonContext.startTenantFlow();
+                            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain);
+                            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenant);
+                            executeTask(deadline);
+                        } finally {
+                            PrivilegedCarbonContext.endTenantFlow();
+                        }
+                    }
+                });
+            }
+            executorService.shutdown();
+            long remaining = deadline - System.currentTimeMillis();
+            if (!executorService.awaitTermination(Math.max(remaining, 0), TimeUnit.MILLISECONDS)) {
+                log.warn("Monitoring task could not complete for all the tenants within " + this.getMaxRunTime() +
+                        " ms. Remaining tenants will be processed in the next run.");
             }
         } catch (UserStoreException e) {
             log.error("Error occurred while trying to get the available tenants", e);
         } catch (DeviceManagementException e) {
             log.error("Error occurred while trying to get the available tenants from device manager service ", e);
+        } catch (InterruptedException e) {
+            log.warn("Monitoring task was interrupted while waiting for the tenants to complete.");
+            Thread.currentThread().interrupt();
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
         }
     }
 
-    private void executeTask(){
+    void executeTask(long deadline) {
 
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
         MonitoringManager monitoringManager = PolicyManagementDataHolder.getInstance().getMonitoringManager();
         List<String> deviceTypes = new ArrayList<>();
         List<String> configDeviceTypes = new ArrayList<>();
@@ -135,33 +185,41 @@ public class MonitoringTask implements Task {
             try {
                 DeviceManagementProviderService deviceManagementProviderService =
                         PolicyManagementDataHolder.getInstance().getDeviceManagementService();
-                for (String deviceType : configDeviceTypes) {
+                int batchSize = this.getBatchSize();
+                int startIndex = 0;
+                int resumeEnrolmentId = 0;
+                MonitoringTaskCursor.Position position = cursor.getPosition(tenantId);
+                if (position != null && configDeviceTypes.contains(position.getDeviceType())) {
+                    startIndex = configDeviceTypes.indexOf(position.getDeviceType());
+                    resumeEnrolmentId = position.getLastEnrolmentId();
+                }
+                for (int i = startIndex; i < configDeviceTypes.size(); i++) {
+                    String deviceType = configDeviceTypes.get(i);
                     if (log.isDebugEnabled()) {
                         log.debug("Running task for device type : " + deviceType);
                     }
                     PolicyMonitoringManager monitoringService =
                             PolicyManagementDataHolder.getInstance().getDeviceManagementService()
                                     .getPolicyMonitoringManager(deviceType);
-                    List<Device> devices = deviceManagementProviderService.getAllDevices(deviceType, false);
-                    if (monitoringService != null && !devices.isEmpty()) {
-                        List<Device> notifiableDevices = new ArrayList<>();
-                        if (log.isDebugEnabled()) {
-                            log.debug("Removing inactive and blocked devices from the list for the device type : " +
-                                    deviceType);
+                    if (monitoringService == null) {
+                        continue;
+                    }
+                    int lastEnrolmentId = i == startIndex ? resumeEnrolmentId : 0;
+                    List<Device> devices;
+                    do {
+                        if (this.isTimedOut(deadline)) {
+                            log.warn("Monitoring task exceeded the allowed time while processing the device type : "
+                                    + deviceType + ". Remaining devices will be processed in the next run.");
+                            cursor.save(tenantId, deviceType, lastEnrolmentId);
+                            return;
                         }
-                        for (Device device : devices) {
-
-                            EnrolmentInfo.Status status = device.getEnrolmentInfo().getStatus();
-                            if (status.equals(EnrolmentInfo.Status.BLOCKED) ||
-                                    status.equals(EnrolmentInfo.Status.REMOVED) ||
-                                    status.equals(EnrolmentInfo.Status.UNCLAIMED) ||
-                                    status.equals(EnrolmentInfo.Status.DISENROLLMENT_REQUESTED) ||
-                                    status.equals(EnrolmentInfo.Status.SUSPENDED)) {
-                                continue;
-                            } else {
-                                notifiableDevices.add(device);
-                            }
+                        devices = deviceManagementProviderService.getAllDevices(deviceType, lastEnrolmentId,
+                                batchSize);
+                        if (devices.isEmpty()) {
+                            break;
                         }
+                        lastEnrolmentId = devices.get(devices.size() - 1).getEnrolmentInfo().getId();
+                        List<Device> notifiableDevices = this.getNotifiableDevices(devices);
                         if (log.isDebugEnabled()) {
                             log.debug("Following devices selected to send the notification for " + deviceType);
                             for (Device device : notifiableDevices) {
@@ -169,10 +227,13 @@ public class MonitoringTask implements Task {
                             }
                         }
                         if (!notifiableDevices.isEmpty()) {
+                            // Devices which still have a pending monitoring operation are skipped by the
+                            // monitoring manager, which only counts another attempt for them.
                             monitoringManager.addMonitoringOperation(notifiableDevices);
                         }
-                    }
+                    } while (devices.size() == batchSize);
                 }
+                cursor.markCompleted(tenantId);
                 if (log.isDebugEnabled()) {
                     log.debug("Monitoring task running completed.");
                 }
@@ -181,6 +242,49 @@ public class MonitoringTask implements Task {
             }
         } else {
             log.info("No device types registered currently. So did not run the monitoring task.");
+            cursor.markCompleted(tenantId);
         }
     }
+
+    private List<Device> getNotifiableDevices(List<Device> devices) {
+        List<Device> notifiableDevices = new ArrayList<>();
+        for (Device device : devices) {
+            EnrolmentInfo.Status status = device.getEnrolmentInfo().getStatus();
+            if (status.equals(EnrolmentInfo.Status.BLOCKED) ||
+                    status.equals(EnrolmentInfo.Status.REMOVED) ||
+                    status.equals(EnrolmentInfo.Status.UNCLAIMED) ||
+                    status.equals(EnrolmentInfo.Status.DISENROLLMENT_REQUESTED) ||
+                    status.equals(EnrolmentInfo.Status.SUSPENDED)) {
+                continue;
+            }
+            notifiableDevices.add(device);
+        }
+        return notifiableDevices;
+    }
+
+    private boolean isTimedOut(long deadline) {
+        return Thread.currentThread().isInterrupted() || System.currentTimeMillis() > deadline;
+    }
+
+    private PolicyConfiguration getPolicyConfiguration() {
+        return DeviceConfigurationManager.getInstance().getDeviceManagementConfig().getPolicyConfiguration();
+    }
+
+    private int getBatchSize() {
+        int batchSize = this.getPolicyConfiguration().getMonitoringBatchSize();
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    private int getThreadPoolSize() {
+        int poolSize = this.getPolicyConfiguration().getMonitoringThreadPoolSize();
+        return poolSize > 0 ? poolSize : DEFAULT_THREAD_POOL_SIZE;
+    }
+
+    /**
+     * A run is allowed to take at most one monitoring interval, so the next scheduled run starts on a clean slate.
+     */
+    private long getMaxRunTime() {
+        int frequency = this.getPolicyConfiguration().getMonitoringFrequency();
+        return frequency > 0 ? frequency : TimeUnit.MINUTES.toMillis(1);
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers where a monitoring run stopped, so that the next run resumes from the device type and enrolment at which
+ * the previous one was cut off and picks up the tenants that did not complete before the others.
+ */
+class MonitoringTaskCursor {
+
+    private final Map<Integer, Position> positions = new ConcurrentHashMap<>();
+    private final Set<Integer> pendingTenants = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    /**
+     * Orders the given tenants so that the ones which did not complete in the previous run come first, keeping the
+     * given order otherwise.
+     */
+    List<Integer> orderTenants(List<Integer> tenants) {
+        List<Integer> orderedTenants = new ArrayList<>(tenants.size());
+        List<Integer> completedTenants = new ArrayList<>();
+        for (Integer tenant : tenants) {
+            if (pendingTenants.contains(tenant)) {
+                orderedTenants.add(tenant);
+            } else {
+                completedTenants.add(tenant);
+            }
+        }
+        orderedTenants.addAll(completedTenants);
+        return orderedTenants;
+    }
+
+    void markPending(int tenantId) {
+        pendingTenants.add(tenantId);
+    }
+
+    void markCompleted(int tenantId) {
+        positions.remove(tenantId);
+        pendingTenants.remove(tenantId);
+    }
+
+    void save(int tenantId, String deviceType, int lastEnrolmentId) {
+        positions.put(tenantId, new Position(deviceType, lastEnrolmentId));
+        pendingTenants.add(tenantId);
+    }
+
+    Position getPosition(int tenantId) {
+        return positions.get(tenantId);
+    }
+
+    static class Position {
+
+        private final String deviceType;
+        private final int lastEnrolmentId;
+
+        Position(String deviceType, int lastEnrolmentId) {
+            this.deviceType = deviceType;
+            this.lastEnrolmentId = lastEnrolmentId;
+        }
+
+        String getDeviceType() {
+            return deviceType;
+        }
+
+        int getLastEnrolmentId() {
+            return lastEnrolmentId;
+        }
+    }
+}
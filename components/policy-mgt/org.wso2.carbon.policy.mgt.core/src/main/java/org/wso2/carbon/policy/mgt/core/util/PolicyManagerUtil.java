@@ -35,6 +35,7 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.ProfileOperation;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheIndex;
 import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
 import org.wso2.carbon.policy.mgt.core.config.datasource.DataSourceConfig;
 import org.wso2.carbon.policy.mgt.core.config.datasource.JNDILookupDefinition;
@@ -171,10 +172,10 @@ public class PolicyManagerUtil {
                 Caching.getCacheManager().<Integer, Policy>getCache(name);
     }
 
-    public static Cache<Integer, List<Policy>> getPolicyListCache(String name) {
+    public static Cache<Integer, PolicyCacheIndex> getPolicyIndexCache(String name) {
         CacheManager manager = getCacheManager();
-        return (manager != null) ? manager.<Integer, List<Policy>>getCache(name) :
-                Caching.getCacheManager().<Integer, List<Policy>>getCache(name);
+        return (manager != null) ? manager.<Integer, PolicyCacheIndex>getCache(name) :
+                Caching.getCacheManager().<Integer, PolicyCacheIndex>getCache(name);
     }
 
     private static CacheManager getCacheManager() {
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.policy.mgt.core.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class PolicyCacheIndexTest {
+
+    private static final String DEVICE_TYPE_A = "typeA";
+    private static final String DEVICE_TYPE_B = "typeB";
+
+    @Test
+    public void testAddPolicies() {
+        PolicyCacheIndex index = new PolicyCacheIndex()
+                .withPolicy(1, DEVICE_TYPE_A)
+                .withPolicy(2, DEVICE_TYPE_B)
+                .withPolicy(3, DEVICE_TYPE_A);
+        Assert.assertEquals(index.getVersion(), 3);
+        Assert.assertEquals(index.getPolicyIds(), Arrays.asList(1, 2, 3));
+        Assert.assertEquals(index.getPolicyIdsOfDeviceType(DEVICE_TYPE_A), Arrays.asList(1, 3));
+        Assert.assertEquals(index.getPolicyIdsOfDeviceType("TYPEB"), Arrays.asList(2));
+        Assert.assertTrue(index.getPolicyIdsOfDeviceType("unknown").isEmpty());
+    }
+
+    @Test
+    public void testUpdatePolicyDeviceType() {
+        PolicyCacheIndex index = new PolicyCacheIndex()
+                .withPolicy(1, DEVICE_TYPE_A)
+                .withPolicy(2, DEVICE_TYPE_A);
+        PolicyCacheIndex updated = index.withPolicy(1, DEVICE_TYPE_B);
+        Assert.assertEquals(updated.getPolicyIds(), Arrays.asList(1, 2));
+        Assert.assertEquals(updated.getPolicyIdsOfDeviceType(DEVICE_TYPE_A), Arrays.asList(2));
+        Assert.assertEquals(updated.getPolicyIdsOfDeviceType(DEVICE_TYPE_B), Arrays.asList(1));
+        Assert.assertEquals(index.getPolicyIdsOfDeviceType(DEVICE_TYPE_A), Arrays.asList(1, 2),
+                "Existing index should not be modified.");
+        Assert.assertTrue(updated.getVersion() > index.getVersion());
+    }
+
+    @Test
+    public void testNextIndexVersion() {
+        PolicyCacheIndex index = PolicyCacheIndex.nextOf(null)
+                .withPolicy(1, DEVICE_TYPE_A)
+                .withPolicy(2, DEVICE_TYPE_A);
+        PolicyCacheIndex next = PolicyCacheIndex.nextOf(index);
+        Assert.assertTrue(next.getPolicyIds().isEmpty());
+        Assert.assertTrue(next.getVersion() > index.getVersion(),
+                "Version of a repopulated index should not go backwards.");
+        PolicyCacheIndex ahead = new PolicyCacheIndex(Long.MAX_VALUE - 1);
+        Assert.assertEquals(PolicyCacheIndex.nextOf(ahead).getVersion(), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testRemovePolicy() {
+        PolicyCacheIndex index = new PolicyCacheIndex()
+                .withPolicy(1, DEVICE_TYPE_A)
+                .withPolicy(2, DEVICE_TYPE_A)
+                .withoutPolicy(1);
+        Assert.assertFalse(index.contains(1));
+        Assert.assertEquals(index.getPolicyIds(), Arrays.asList(2));
+        Assert.assertEquals(index.getPolicyIdsOfDeviceType(DEVICE_TYPE_A), Arrays.asList(2));
+    }
+}
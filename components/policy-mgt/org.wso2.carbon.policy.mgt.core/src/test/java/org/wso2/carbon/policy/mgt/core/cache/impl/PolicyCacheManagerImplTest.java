@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.cache.impl;
+
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.Assert;
+import org.testng.IObjectFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.ObjectFactory;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Profile;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheIndex;
+import org.wso2.carbon.policy.mgt.core.cache.PolicyCacheManager;
+import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.cache.Cache;
+
+/**
+ * This class tests that {@link PolicyCacheManagerImpl} serves the policies when the cached index is evicted, even if
+ * the rebuilt index is evicted again before it is read back.
+ */
+@PrepareForTest({PolicyManagerUtil.class, PolicyCacheManagerImpl.class})
+public class PolicyCacheManagerImplTest {
+
+    private static final String DEVICE_TYPE_A = "typeA";
+    private static final String DEVICE_TYPE_B = "typeB";
+
+    private PolicyManagerImpl policyManager;
+    private PolicyCacheManager policyCacheManager;
+
+    @ObjectFactory
+    public IObjectFactory getObjectFactory() {
+        return new org.powermock.modules.testng.PowerMockObjectFactory();
+    }
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void init() throws Exception {
+        // Caches which do not keep any entry, as if each entry is evicted as soon as it is put.
+        Cache<Integer, Policy> policyCache = Mockito.mock(Cache.class);
+        Cache<Integer, PolicyCacheIndex> indexCache = Mockito.mock(Cache.class);
+        PowerMockito.stub(PowerMockito.method(PolicyManagerUtil.class, "getPolicyCache")).toReturn(policyCache);
+        PowerMockito.stub(PowerMockito.method(PolicyManagerUtil.class, "getPolicyIndexCache")).toReturn(indexCache);
+
+        Policy policyA = createPolicy(1, DEVICE_TYPE_A);
+        Policy policyB = createPolicy(2, DEVICE_TYPE_B);
+        policyManager = Mockito.mock(PolicyManagerImpl.class);
+        Mockito.when(policyManager.getPolicies()).thenReturn(Arrays.asList(policyA, policyB));
+        Mockito.when(policyManager.getPolicy(1)).thenReturn(policyA);
+        Mockito.when(policyManager.getPolicy(2)).thenReturn(policyB);
+        PowerMockito.whenNew(PolicyManagerImpl.class).withNoArguments().thenReturn(policyManager);
+        policyCacheManager = PolicyCacheManagerImpl.getInstance();
+    }
+
+    @Test(description = "This test case tests whether the policies of a device type are read when the index is "
+            + "evicted")
+    public void testGetPoliciesOfDeviceTypeWithEvictedIndex() throws Exception {
+        List<Policy> policies = policyCacheManager.getPoliciesOfDeviceType(DEVICE_TYPE_A);
+        Assert.assertEquals(policies.size(), 1);
+        Assert.assertEquals(policies.get(0).getId(), 1);
+        Mockito.verify(policyManager, Mockito.times(1)).getPolicies();
+    }
+
+    @Test(description = "This test case tests whether all the policies are read when the index is evicted")
+    public void testGetAllPoliciesWithEvictedIndex() throws Exception {
+        List<Policy> policies = policyCacheManager.getAllPolicies();
+        Assert.assertEquals(policies.size(), 2);
+        Assert.assertEquals(policyCacheManager.getPolicy(2).getId(), 2);
+    }
+
+    private static Policy createPolicy(int id, String deviceType) {
+        Profile profile = new Profile();
+        profile.setDeviceType(deviceType);
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPriorityId(id);
+        policy.setProfile(profile);
+        return policy;
+    }
+
+}
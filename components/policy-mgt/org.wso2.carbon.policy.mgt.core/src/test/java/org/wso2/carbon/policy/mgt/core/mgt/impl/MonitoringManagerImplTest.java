@@ -13,6 +13,7 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.IllegalTransactionStateException;
 import org.wso2.carbon.device.mgt.common.group.mgt.DeviceGroup;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
@@ -21,8 +22,10 @@ import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Profile;
 import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.ComplianceFeature;
+import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.NonComplianceData;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
+import org.wso2.carbon.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationManagerImpl;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.policy.mgt.core.BasePolicyManagementDAOTest;
@@ -30,8 +33,10 @@ import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerServiceImpl;
 import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAO;
 import org.wso2.carbon.policy.mgt.core.dao.MonitoringDAOException;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyDAO;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
 import org.wso2.carbon.policy.mgt.core.dao.impl.MonitoringDAOImpl;
+import org.wso2.carbon.policy.mgt.core.dao.impl.PolicyDAOImpl;
 import org.wso2.carbon.policy.mgt.core.enforcement.DelegationTask;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.FeatureManager;
@@ -43,10 +48,14 @@ import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
 import javax.sql.DataSource;
 import java.lang.reflect.Field;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -225,8 +234,50 @@ public class MonitoringManagerImplTest extends BasePolicyManagementDAOTest{
                               MonitoringDAOException.class);
     }
 
-    @Test(description = "This test case tests is compliant",
+    @Test(description = "This test case tests checking the policy compliance of many devices at once",
           dependsOnMethods = "testAddProfileThrowingMonitoringDAOException2")
+    public void testCheckPolicyComplianceOfDevices() throws Exception {
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
+        deviceIdentifier.setType(DEVICE_TYPE_E);
+        deviceIdentifier.setId(String.valueOf(device5.getDeviceIdentifier()));
+        if (policyManager.getAppliedPolicyToDevice(deviceIdentifier) == null) {
+            policyManager.addAppliedPolicyToDevice(deviceIdentifier, policy5);
+        }
+        DeviceIdentifier unknownIdentifier = new DeviceIdentifier("unknownDevice", DEVICE_TYPE_E);
+
+        ComplianceFeature complianceFeature = new ComplianceFeature();
+        complianceFeature.setFeatureCode(POLICY5_FEATURE1_CODE);
+        complianceFeature.setCompliance(false);
+        List<ComplianceFeature> reportedFeatures = new ArrayList<>();
+        reportedFeatures.add(complianceFeature);
+        Map<DeviceIdentifier, Object> deviceResponses = new HashMap<>();
+        deviceResponses.put(deviceIdentifier, reportedFeatures);
+        deviceResponses.put(unknownIdentifier, new ArrayList<ComplianceFeature>());
+
+        Map<DeviceIdentifier, List<ComplianceFeature>> complianceFeatures =
+                monitoringManager.checkPolicyCompliance(deviceResponses);
+        Assert.assertEquals(complianceFeatures.size(), 1, "Compliance features are returned for unknown devices.");
+        List<ComplianceFeature> nonComplianceFeatures = complianceFeatures.get(deviceIdentifier);
+        Assert.assertNotNull(nonComplianceFeatures);
+        Assert.assertEquals(nonComplianceFeatures.size(), 1);
+        Assert.assertEquals(nonComplianceFeatures.get(0).getFeatureCode(), POLICY5_FEATURE1_CODE);
+        Assert.assertNotNull(nonComplianceFeatures.get(0).getFeature(),
+                "Non compliant feature is not matched with the profile feature of the applied policy.");
+        Assert.assertEquals(nonComplianceFeatures.get(0).getFeature().getFeatureCode(), POLICY5_FEATURE1_CODE);
+        Assert.assertFalse(monitoringManager.isCompliant(deviceIdentifier));
+
+        deviceResponses = new HashMap<>();
+        deviceResponses.put(deviceIdentifier, new ArrayList<ComplianceFeature>());
+        complianceFeatures = monitoringManager.checkPolicyCompliance(deviceResponses);
+        Assert.assertEquals(complianceFeatures.size(), 1);
+        Assert.assertTrue(complianceFeatures.get(deviceIdentifier).isEmpty());
+        Assert.assertTrue(monitoringManager.isCompliant(deviceIdentifier));
+        Assert.assertTrue(monitoringManager.checkPolicyCompliance(new HashMap<DeviceIdentifier, Object>()).isEmpty(),
+                "Compliance features are returned without any compliance report.");
+    }
+
+    @Test(description = "This test case tests is compliant",
+          dependsOnMethods = "testCheckPolicyComplianceOfDevices")
     public void testIsCompliant() throws Exception {
         DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
         deviceIdentifier.setType(DEVICE_TYPE_E);
@@ -324,4 +375,163 @@ public class MonitoringManagerImplTest extends BasePolicyManagementDAOTest{
         monitoringManager.getDeviceTypes();
     }
 
-}
\ No newline at end of file
+    @Test(description = "This test case tests reading and updating the compliance of more devices than fit in a "
+            + "single IN clause", dependsOnMethods = "testGetDevicePolicyCompliance")
+    public void testComplianceOfDevicesInChunks() throws Exception {
+        // Device ids which are not used by the enrolled devices, the compliance table has no reference to devices.
+        int baseId = 100000;
+        int deviceCount = DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE + 10;
+        MonitoringDAO monitoringDAO = new MonitoringDAOImpl();
+        List<Device> devices = new ArrayList<>();
+        List<Integer> deviceIds = new ArrayList<>();
+        for (int i = 0; i < deviceCount; i++) {
+            devices.add(createDevice(baseId + i, baseId + i));
+            deviceIds.add(baseId + i);
+        }
+        try {
+            PolicyManagementDAOFactory.beginTransaction();
+            for (int i = 0; i < deviceCount; i += 2) {
+                monitoringDAO.addComplianceDetails(baseId + i, baseId + i, policy5.getId(), i % 4 == 0);
+            }
+            // Compliance of a previous enrolment of the device is not returned.
+            monitoringDAO.addComplianceDetails(baseId + deviceCount - 1, baseId - 1, policy5.getId(), true);
+            monitoringDAO.updateAttempts(deviceIds, false);
+            PolicyManagementDAOFactory.commitTransaction();
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+
+        Map<Integer, NonComplianceData> complianceData;
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            complianceData = monitoringDAO.getComplianceOfDevices(devices);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(complianceData.size(), (deviceCount + 1) / 2);
+        for (int i = 0; i < deviceCount; i++) {
+            NonComplianceData data = complianceData.get(baseId + i);
+            if (i % 2 == 0) {
+                Assert.assertNotNull(data, "Compliance of device " + (baseId + i) + " is missing.");
+                Assert.assertEquals(data.getDeviceId(), baseId + i);
+                Assert.assertEquals(data.isStatus(), i % 4 == 0);
+                Assert.assertEquals(data.getAttempts(), 1, "Attempts of device " + (baseId + i) + " not updated.");
+            } else {
+                Assert.assertNull(data, "Compliance is returned for device " + (baseId + i));
+            }
+        }
+    }
+
+    @Test(description = "This test case tests reading the applied policies of more devices than fit in a single "
+            + "IN clause", dependsOnMethods = "testGetDevicePolicyCompliance")
+    public void testAppliedPolicyIdsInChunks() throws Exception {
+        PolicyDAO policyDAO = new PolicyDAOImpl();
+        int enrolmentId = device5.getEnrolmentInfo().getId();
+        try {
+            PolicyManagementDAOFactory.beginTransaction();
+            if (policyDAO.getAppliedPolicy(device5.getId(), enrolmentId) == null) {
+                policyDAO.addEffectivePolicyToDevice(device5.getId(), enrolmentId, policy5);
+            }
+            PolicyManagementDAOFactory.commitTransaction();
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+
+        // The enrolled device is placed after the first chunk of devices which have no applied policy.
+        List<Device> devices = new ArrayList<>();
+        for (int i = 0; i < DeviceManagementDAOUtil.MAX_IN_CLAUSE_SIZE + 10; i++) {
+            devices.add(createDevice(200000 + i, 200000 + i));
+        }
+        devices.add(device5);
+        Map<Integer, Integer> appliedPolicyIds;
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            appliedPolicyIds = policyDAO.getAppliedPolicyIds(devices);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(appliedPolicyIds.size(), 1);
+        Assert.assertEquals(appliedPolicyIds.get(enrolmentId), Integer.valueOf(policy5.getId()));
+
+        // The applied policy of a previous enrolment of the device is not returned.
+        devices.add(createDevice(device5.getId(), enrolmentId + 100000));
+        devices.remove(device5);
+        Map<Integer, Policy> appliedPolicies;
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            appliedPolicies = policyDAO.getAppliedPolicies(devices);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        Assert.assertTrue(appliedPolicies.isEmpty(), "Applied policy of a previous enrolment is returned.");
+
+        devices.remove(devices.size() - 1);
+        devices.add(device5);
+        try {
+            PolicyManagementDAOFactory.openConnection();
+            appliedPolicies = policyDAO.getAppliedPolicies(devices);
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(appliedPolicies.size(), 1);
+        Assert.assertEquals(appliedPolicies.get(enrolmentId).getId(), policy5.getId());
+    }
+
+    @Test(description = "This test case tests that repeated compliance reports keep a single compliance status of "
+            + "the enrolment", dependsOnMethods = "testCheckPolicyComplianceOfDevices")
+    public void testRepeatedComplianceReports() throws Exception {
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
+        deviceIdentifier.setType(DEVICE_TYPE_E);
+        deviceIdentifier.setId(String.valueOf(device5.getDeviceIdentifier()));
+        ComplianceFeature complianceFeature = new ComplianceFeature();
+        complianceFeature.setFeatureCode(POLICY5_FEATURE1_CODE);
+        complianceFeature.setCompliance(false);
+        List<ComplianceFeature> reportedFeatures = new ArrayList<>();
+        reportedFeatures.add(complianceFeature);
+
+        for (int i = 0; i < 3; i++) {
+            Map<DeviceIdentifier, Object> deviceResponses = new HashMap<>();
+            deviceResponses.put(deviceIdentifier, i % 2 == 0 ? reportedFeatures : new ArrayList<ComplianceFeature>());
+            monitoringManager.checkPolicyCompliance(deviceResponses);
+            Assert.assertEquals(getComplianceStatusCount(), 1, "Compliance status is duplicated by report " + i);
+            Assert.assertEquals(monitoringManager.isCompliant(deviceIdentifier), i % 2 != 0);
+        }
+
+        // The compliance status is added again when there is no status to update.
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "DELETE FROM DM_POLICY_COMPLIANCE_STATUS WHERE DEVICE_ID = ? AND ENROLMENT_ID = ?")) {
+            stmt.setInt(1, device5.getId());
+            stmt.setInt(2, device5.getEnrolmentInfo().getId());
+            stmt.executeUpdate();
+        }
+        Assert.assertEquals(getComplianceStatusCount(), 0);
+        Map<DeviceIdentifier, Object> deviceResponses = new HashMap<>();
+        deviceResponses.put(deviceIdentifier, new ArrayList<ComplianceFeature>());
+        monitoringManager.checkPolicyCompliance(deviceResponses);
+        Assert.assertEquals(getComplianceStatusCount(), 1);
+        Assert.assertTrue(monitoringManager.isCompliant(deviceIdentifier));
+    }
+
+    private int getComplianceStatusCount() throws SQLException {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) AS STATUS_COUNT FROM " +
+                     "DM_POLICY_COMPLIANCE_STATUS WHERE DEVICE_ID = ? AND ENROLMENT_ID = ?")) {
+            stmt.setInt(1, device5.getId());
+            stmt.setInt(2, device5.getEnrolmentInfo().getId());
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt("STATUS_COUNT");
+            }
+        }
+    }
+
+    private Device createDevice(int deviceId, int enrolmentId) {
+        EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+        enrolmentInfo.setId(enrolmentId);
+        Device device = new Device();
+        device.setId(deviceId);
+        device.setEnrolmentInfo(enrolmentInfo);
+        return device;
+    }
+}
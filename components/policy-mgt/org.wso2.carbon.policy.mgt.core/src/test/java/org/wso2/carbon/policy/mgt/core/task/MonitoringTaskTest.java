@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.policy.mgt.core.task;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyMonitoringManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
+import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MonitoringTaskTest {
+
+    private static final String DEVICE_TYPE_A = "monitoringTypeA";
+    private static final String DEVICE_TYPE_B = "monitoringTypeB";
+    private static final int BATCH_SIZE = 2;
+
+    private PolicyConfiguration originalPolicyConfiguration;
+    private MonitoringManager originalMonitoringManager;
+    private DeviceManagementProviderService originalDeviceManagementService;
+    private MonitoringManager monitoringManager;
+    private DeviceManagementProviderService deviceManagementService;
+    private int tenantId;
+
+    @BeforeClass
+    public void init() throws Exception {
+        DeviceConfigurationManager.getInstance().initConfig();
+        originalPolicyConfiguration = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getPolicyConfiguration();
+        PolicyConfiguration policyConfiguration = new PolicyConfiguration();
+        policyConfiguration.setMonitoringBatchSize(BATCH_SIZE);
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .setPolicyConfiguration(policyConfiguration);
+
+        originalMonitoringManager = PolicyManagementDataHolder.getInstance().getMonitoringManager();
+        originalDeviceManagementService = PolicyManagementDataHolder.getInstance().getDeviceManagementService();
+        tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+    }
+
+    @AfterClass
+    public void cleanup() {
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .setPolicyConfiguration(originalPolicyConfiguration);
+        PolicyManagementDataHolder.getInstance().setMonitoringManager(originalMonitoringManager);
+        PolicyManagementDataHolder.getInstance().setDeviceManagementService(originalDeviceManagementService);
+    }
+
+    private void initServices() throws Exception {
+        monitoringManager = Mockito.mock(MonitoringManager.class);
+        Mockito.when(monitoringManager.getDeviceTypes()).thenReturn(Arrays.asList(DEVICE_TYPE_A, DEVICE_TYPE_B));
+        deviceManagementService = Mockito.mock(DeviceManagementProviderService.class);
+        Mockito.when(deviceManagementService.getPolicyMonitoringManager(Mockito.anyString()))
+                .thenReturn(Mockito.mock(PolicyMonitoringManager.class));
+        Mockito.when(deviceManagementService.getAllDevices(DEVICE_TYPE_A, 0, BATCH_SIZE))
+                .thenReturn(createDevices(1, 2));
+        Mockito.when(deviceManagementService.getAllDevices(DEVICE_TYPE_A, 2, BATCH_SIZE))
+                .thenReturn(createDevices(3, 4));
+        Mockito.when(deviceManagementService.getAllDevices(DEVICE_TYPE_A, 4, BATCH_SIZE))
+                .thenReturn(new ArrayList<Device>());
+        Mockito.when(deviceManagementService.getAllDevices(DEVICE_TYPE_B, 0, BATCH_SIZE))
+                .thenReturn(createDevices(5));
+        PolicyManagementDataHolder.getInstance().setMonitoringManager(monitoringManager);
+        PolicyManagementDataHolder.getInstance().setDeviceManagementService(deviceManagementService);
+    }
+
+    private List<Device> createDevices(int... enrolmentIds) {
+        List<Device> devices = new ArrayList<>();
+        for (int enrolmentId : enrolmentIds) {
+            EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+            enrolmentInfo.setId(enrolmentId);
+            enrolmentInfo.setStatus(EnrolmentInfo.Status.ACTIVE);
+            Device device = new Device();
+            device.setDeviceIdentifier("monitoring-device-" + enrolmentId);
+            device.setEnrolmentInfo(enrolmentInfo);
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    @Test
+    public void testCompletedRun() throws Exception {
+        initServices();
+        MonitoringTaskCursor cursor = new MonitoringTaskCursor();
+        new MonitoringTask(cursor).executeTask(Long.MAX_VALUE);
+
+        Mockito.verify(monitoringManager, Mockito.times(3)).addMonitoringOperation(Mockito.anyListOf(Device.class));
+        Mockito.verify(deviceManagementService).getAllDevices(DEVICE_TYPE_B, 0, BATCH_SIZE);
+        Assert.assertNull(cursor.getPosition(tenantId), "Completed run should not leave a resume position.");
+    }
+
+    @Test
+    public void testTimedOutRunResumesFromCursor() throws Exception {
+        initServices();
+        // The run is cut off right after the first page has been handed over to the monitoring manager.
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }).when(monitoringManager).addMonitoringOperation(Mockito.anyListOf(Device.class));
+
+        MonitoringTaskCursor cursor = new MonitoringTaskCursor();
+        try {
+            new MonitoringTask(cursor).executeTask(Long.MAX_VALUE);
+        } finally {
+            Thread.interrupted();
+        }
+        MonitoringTaskCursor.Position position = cursor.getPosition(tenantId);
+        Assert.assertNotNull(position, "Timed out run should leave a resume position.");
+        Assert.assertEquals(position.getDeviceType(), DEVICE_TYPE_A);
+        Assert.assertEquals(position.getLastEnrolmentId(), 2);
+        Mockito.verify(deviceManagementService, Mockito.never()).getAllDevices(DEVICE_TYPE_B, 0, BATCH_SIZE);
+
+        Mockito.doNothing().when(monitoringManager).addMonitoringOperation(Mockito.anyListOf(Device.class));
+        new MonitoringTask(cursor).executeTask(Long.MAX_VALUE);
+
+        Mockito.verify(deviceManagementService, Mockito.times(1)).getAllDevices(DEVICE_TYPE_A, 0, BATCH_SIZE);
+        Mockito.verify(deviceManagementService).getAllDevices(DEVICE_TYPE_A, 2, BATCH_SIZE);
+        Mockito.verify(deviceManagementService).getAllDevices(DEVICE_TYPE_B, 0, BATCH_SIZE);
+        Assert.assertNull(cursor.getPosition(tenantId), "Resumed run should clear the resume position.");
+    }
+
+    @Test
+    public void testExpiredDeadline() throws Exception {
+        initServices();
+        MonitoringTaskCursor cursor = new MonitoringTaskCursor();
+        new MonitoringTask(cursor).executeTask(System.currentTimeMillis() - 1);
+
+        Mockito.verify(deviceManagementService, Mockito.never())
+                .getAllDevices(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt());
+        MonitoringTaskCursor.Position position = cursor.getPosition(tenantId);
+        Assert.assertNotNull(position);
+        Assert.assertEquals(position.getDeviceType(), DEVICE_TYPE_A);
+        Assert.assertEquals(position.getLastEnrolmentId(), 0);
+    }
+
+    @Test
+    public void testTenantOrder() {
+        MonitoringTaskCursor cursor = new MonitoringTaskCursor();
+        List<Integer> tenants = Arrays.asList(1, 2, 3, 4);
+        Assert.assertEquals(cursor.orderTenants(tenants), tenants);
+
+        for (Integer tenant : tenants) {
+            cursor.markPending(tenant);
+        }
+        cursor.markCompleted(1);
+        cursor.save(2, DEVICE_TYPE_A, 10);
+        Assert.assertEquals(cursor.orderTenants(tenants), Arrays.asList(2, 3, 4, 1),
+                "Tenants which did not complete should be processed first.");
+
+        cursor.markCompleted(2);
+        cursor.markCompleted(3);
+        cursor.markCompleted(4);
+        Assert.assertEquals(cursor.orderTenants(tenants), tenants);
+        Assert.assertEquals(cursor.orderTenants(Collections.<Integer>emptyList()), Collections.emptyList());
+    }
+}
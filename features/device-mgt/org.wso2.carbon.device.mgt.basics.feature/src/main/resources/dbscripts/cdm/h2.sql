@@ -121,6 +121,8 @@ CREATE TABLE IF NOT EXISTS DM_ENROLMENT (
     CONSTRAINT uk_dm_device_enrolment UNIQUE (DEVICE_ID, OWNER, OWNERSHIP, TENANT_ID)
 );
 
+CREATE INDEX IF NOT EXISTS IDX_ENROLMENT_TENANT_ID_ID ON DM_ENROLMENT(TENANT_ID, ID);
+
 CREATE TABLE IF NOT EXISTS DM_ENROLMENT_OP_MAPPING (
     ID INTEGER AUTO_INCREMENT NOT NULL,
     ENROLMENT_ID INTEGER NOT NULL,
@@ -136,6 +138,8 @@ CREATE TABLE IF NOT EXISTS DM_ENROLMENT_OP_MAPPING (
     DM_OPERATION (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
 );
 
+CREATE INDEX IF NOT EXISTS IDX_EN_OP_MAPPING_UPD_TS_ID ON DM_ENROLMENT_OP_MAPPING(UPDATED_TIMESTAMP, ID);
+
 CREATE TABLE IF NOT EXISTS DM_DEVICE_OPERATION_RESPONSE (
     ID INTEGER AUTO_INCREMENT NOT NULL,
     ENROLMENT_ID INTEGER NOT NULL,
@@ -405,6 +409,7 @@ CREATE TABLE IF NOT EXISTS DM_NOTIFICATION (
     CONSTRAINT fk_dm_device_notification FOREIGN KEY (DEVICE_ID) REFERENCES
     DM_DEVICE (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
 );
+CREATE INDEX IF NOT EXISTS IDX_DM_NOTIF_TENANT_STATUS ON DM_NOTIFICATION(TENANT_ID, STATUS, NOTIFICATION_ID);
 -- NOTIFICATION TABLE END --
 
 CREATE TABLE IF NOT EXISTS DM_DEVICE_INFO (
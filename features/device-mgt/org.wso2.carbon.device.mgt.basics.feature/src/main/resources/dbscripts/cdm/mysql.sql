@@ -138,6 +138,7 @@ CREATE TABLE IF NOT EXISTS DM_ENROLMENT (
 CREATE INDEX IDX_ENROLMENT_FK_DEVICE_ID ON DM_ENROLMENT(DEVICE_ID);
 CREATE INDEX IDX_ENROLMENT_DEVICE_ID_TENANT_ID ON DM_ENROLMENT(DEVICE_ID, TENANT_ID);
 CREATE INDEX IDX_ENROLMENT_DEVICE_ID_TENANT_ID_STATUS ON DM_ENROLMENT(DEVICE_ID, TENANT_ID, STATUS);
+CREATE INDEX IDX_ENROLMENT_TENANT_ID_ID ON DM_ENROLMENT(TENANT_ID, ID);
 
 CREATE TABLE IF NOT EXISTS DM_ENROLMENT_OP_MAPPING (
     ID INTEGER AUTO_INCREMENT NOT NULL,
@@ -158,6 +159,7 @@ CREATE TABLE IF NOT EXISTS DM_ENROLMENT_OP_MAPPING (
 )ENGINE = InnoDB;
 
 CREATE INDEX IDX_ENROLMENT_OP_MAPPING ON DM_ENROLMENT_OP_MAPPING (UPDATED_TIMESTAMP);
+CREATE INDEX IDX_EN_OP_MAPPING_UPD_TS_ID ON DM_ENROLMENT_OP_MAPPING(UPDATED_TIMESTAMP, ID);
 CREATE INDEX IDX_EN_OP_MAPPING_EN_ID ON DM_ENROLMENT_OP_MAPPING(ENROLMENT_ID);
 CREATE INDEX IDX_EN_OP_MAPPING_OP_ID ON DM_ENROLMENT_OP_MAPPING(OPERATION_ID);
 CREATE INDEX IDX_EN_OP_MAPPING_EN_ID_STATUS ON DM_ENROLMENT_OP_MAPPING(ENROLMENT_ID, STATUS);
@@ -464,6 +466,8 @@ CREATE TABLE IF NOT EXISTS DM_NOTIFICATION (
     DM_DEVICE (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
 )ENGINE = InnoDB;
 
+CREATE INDEX IDX_DM_NOTIF_TENANT_STATUS ON DM_NOTIFICATION(TENANT_ID, STATUS, NOTIFICATION_ID);
+
 -- END NOTIFICATION TABLES --
 
 CREATE TABLE IF NOT EXISTS DM_DEVICE_INFO (
@@ -224,6 +224,8 @@ WHEN (NEW.ID IS NULL)
     SELECT DM_ENROLMENT_seq.NEXTVAL INTO :NEW.ID FROM DUAL;
   END;
 /
+CREATE INDEX IDX_ENROLMENT_TENANT_ID_ID ON DM_ENROLMENT(TENANT_ID, ID)
+/
 
 CREATE TABLE DM_ENROLMENT_OP_MAPPING (
   ID NUMBER(10) NOT NULL,
@@ -253,6 +255,8 @@ WHEN (NEW.ID IS NULL)
     SELECT DM_ENROLMENT_OP_MAP_seq.NEXTVAL INTO :NEW.ID FROM DUAL;
   END;
 /
+CREATE INDEX IDX_EN_OP_MAPPING_UPD_TS_ID ON DM_ENROLMENT_OP_MAPPING(UPDATED_TIMESTAMP, ID)
+/
 
 CREATE TABLE DM_DEVICE_OPERATION_RESPONSE (
   ID NUMBER(10) NOT NULL,
@@ -773,6 +777,9 @@ WHEN (NEW.NOTIFICATION_ID IS NULL)
     SELECT DM_NOTIFICATION_seq.NEXTVAL INTO :NEW.NOTIFICATION_ID FROM DUAL;
   END;
 /
+
+CREATE INDEX IDX_DM_NOTIF_TENANT_STATUS ON DM_NOTIFICATION(TENANT_ID, STATUS, NOTIFICATION_ID)
+/
 -- NOTIFICATION TABLE END --
 
 